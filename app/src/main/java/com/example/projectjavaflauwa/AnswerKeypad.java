@@ -0,0 +1,142 @@
+package com.example.projectjavaflauwa;
+
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+
+import com.example.projectjavaflauwa.engine.AnswerInput;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+/**
+ * Экранная цифровая клавиатура для числовых ответов.
+ *
+ * Клавиши встроены в разметку, поэтому нет показа/скрытия системной
+ * клавиатуры и её задержки. Каждое нажатие сразу меняет число в
+ * {@link AnswerInput}; поле ответа перерисовывается из переиспользуемого
+ * буфера без создания строк.
+ */
+final class AnswerKeypad {
+
+    /**
+     * Обработчик отправки ответа (вызывается в главном потоке).
+     */
+    interface Listener {
+        // Ответ отправлен кнопкой «Ответить» или автоответом
+        void onAnswer(int value);
+
+        // Нажата «Ответить», но цифр нет
+        void onEmptySubmit();
+    }
+
+    // Клавиши цифр по порядку: индекс в массиве — цифра
+    private static final int[] DIGIT_KEYS = {
+            R.id.key0, R.id.key1, R.id.key2, R.id.key3, R.id.key4,
+            R.id.key5, R.id.key6, R.id.key7, R.id.key8, R.id.key9
+    };
+
+    private final AnswerInput input = new AnswerInput();
+    private final TextBuffer text = new TextBuffer(AnswerInput.MAX_DIGITS + 1);
+    private final View keypad;
+    private final TextView display;
+    private final Button[] keys = new Button[DIGIT_KEYS.length + 3];
+    private final Listener listener;
+    private boolean autoSubmit;
+
+    /**
+     * @param keypad разметка с полем ответа, клавишами и кнопкой «Ответить»
+     */
+    AnswerKeypad(View keypad, Listener listener) {
+        this.keypad = keypad;
+        this.display = keypad.findViewById(R.id.textAnswer);
+        this.listener = listener;
+        for (int digit = 0; digit < DIGIT_KEYS.length; digit++) {
+            final int pressed = digit;
+            keys[digit] = keypad.findViewById(DIGIT_KEYS[digit]);
+            keys[digit].setOnClickListener(v -> onDigit(pressed));
+        }
+        keys[DIGIT_KEYS.length] = keypad.findViewById(R.id.keySign);
+        keys[DIGIT_KEYS.length].setOnClickListener(v -> {
+            boolean complete = input.toggleSign();
+            showInput();
+            if (complete) {
+                submit();
+            }
+        });
+        keys[DIGIT_KEYS.length + 1] = keypad.findViewById(R.id.keyBackspace);
+        keys[DIGIT_KEYS.length + 1].setOnClickListener(v -> {
+            input.backspace();
+            showInput();
+        });
+        keys[DIGIT_KEYS.length + 2] = keypad.findViewById(R.id.buttonSubmit);
+        keys[DIGIT_KEYS.length + 2].setOnClickListener(v -> submit());
+    }
+
+    /**
+     * Включает автоответ: ответ отправляется сам, как только набрано
+     * столько цифр, сколько в правильном ответе, и с тем же знаком.
+     */
+    void setAutoSubmit(boolean autoSubmit) {
+        this.autoSubmit = autoSubmit;
+    }
+
+    /**
+     * Стирает набранное перед новым вопросом.
+     */
+    void reset(int expectedAnswer) {
+        input.reset(expectedAnswer, autoSubmit);
+        showInput();
+    }
+
+    /**
+     * Ожидаемый ответ текущего вопроса без стирания набранного (после пересоздания экрана).
+     */
+    void expect(int expectedAnswer) {
+        input.expect(expectedAnswer, autoSubmit);
+    }
+
+    AnswerInput input() {
+        return input;
+    }
+
+    /**
+     * Показывает набранное (после {@link AnswerInput#restore}).
+     */
+    void showInput() {
+        if (input.isEmpty() && !input.isNegative()) {
+            // Пустое поле показывает подсказку "Ответ"
+            if (display.length() > 0) {
+                display.setText("");
+            }
+            return;
+        }
+        text.clear();
+        input.appendTo(text);
+        display.setText(text.array(), 0, text.length());
+    }
+
+    void setVisible(boolean visible) {
+        keypad.setVisibility(visible ? View.VISIBLE : View.GONE);
+    }
+
+    void setEnabled(boolean enabled) {
+        for (Button key : keys) {
+            key.setEnabled(enabled);
+        }
+    }
+
+    private void onDigit(int digit) {
+        boolean complete = input.digit(digit);
+        showInput();
+        if (complete) {
+            submit();
+        }
+    }
+
+    private void submit() {
+        if (input.isEmpty()) {
+            listener.onEmptySubmit();
+        } else {
+            listener.onAnswer(input.value());
+        }
+    }
+}
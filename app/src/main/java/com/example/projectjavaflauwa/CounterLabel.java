@@ -0,0 +1,57 @@
+package com.example.projectjavaflauwa;
+
+import android.widget.TextView;
+
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+/**
+ * Подпись вида "Ошибок: 2/3" с меняющимся числом.
+ *
+ * Текст собирается в собственный переиспользуемый буфер и передаётся в
+ * TextView.setText(char[], int, int), который держит ссылку на массив без копии,
+ * поэтому обновление подписи не создаёт строк. Если число не изменилось,
+ * TextView не трогается вовсе (нет лишней перекладки текста).
+ *
+ * У каждого TextView свой CounterLabel: буфер нельзя делить между полями.
+ */
+final class CounterLabel {
+
+    private final TextView view;
+    private final String prefix;
+    private final String suffix;
+    private final TextBuffer text;
+    // Показанное число; MIN_VALUE — в поле сейчас что-то другое
+    private int shown = Integer.MIN_VALUE;
+
+    CounterLabel(TextView view, String prefix, String suffix) {
+        this.view = view;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        // Запас под самое длинное int с минусом
+        this.text = new TextBuffer(prefix.length() + suffix.length() + 11);
+    }
+
+    /**
+     * Показывает prefix + value + suffix.
+     *
+     * @return true, если подпись действительно изменилась
+     */
+    boolean show(int value) {
+        if (value == shown) {
+            return false;
+        }
+        shown = value;
+        text.clear().append(prefix).append(value).append(suffix);
+        view.setText(text.array(), 0, text.length());
+        return true;
+    }
+
+    /**
+     * Показывает произвольный текст (например, прочерк вместо времени);
+     * следующий {@link #show(int)} обновит поле при любом числе.
+     */
+    void showText(CharSequence other) {
+        shown = Integer.MIN_VALUE;
+        view.setText(other);
+    }
+}
@@ -1,8 +1,7 @@
 package com.example.projectjavaflauwa;
 
+import android.content.res.AssetFileDescriptor;
 import android.os.Bundle;
-import android.os.CountDownTimer;
-import android.text.TextUtils;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -10,30 +9,78 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
-
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.projectjavaflauwa.engine.AnswerInput;
+import com.example.projectjavaflauwa.engine.GameHistory;
+import com.example.projectjavaflauwa.engine.GameMetrics;
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.GameSnapshot;
+import com.example.projectjavaflauwa.engine.HistoryWriter;
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.MistakeLog;
+import com.example.projectjavaflauwa.engine.ProblemBank;
+import com.example.projectjavaflauwa.engine.ProfileStore;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionPrefetcher;
+import com.example.projectjavaflauwa.engine.SessionJournal;
+import com.example.projectjavaflauwa.engine.StudentProfile;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Простая игра-тренажёр устного счёта для учеников начальных классов.
  *
  * Возможности:
- *  - Случайная генерация примеров по уровням сложности.
- *  - Примеры с вводом числового ответа и задания на "да/нет".
+ *  - Случайная генерация примеров по уровням сложности или примеры из банка методистов (assets/problems.bank).
+ *  - Примеры с вводом числового ответа (встроенная цифровая клавиатура) и задания на "да/нет".
  *  - Вопросы на проверку истинности выражений вида "5 + 6 < 10 ?".
- *  - Три уровня сложности: от простых сложения/вычитания до выражений с несколькими действиями.
+ *  - Пять уровней сложности: от простых сложения/вычитания до выражений с несколькими действиями.
  *  - Ограничение по времени на каждый пример (чем выше уровень, тем меньше времени).
  *  - При неверном ответе показывается правильный.
  *  - После трёх ошибок игра завершается.
  */
 public class MainActivity extends AppCompatActivity {
 
-    // Текущий уровень сложности (1..3)
+    // Ключ снимка игры в Bundle
+    private static final String KEY_GAME_SNAPSHOT = "game_snapshot";
+    // Банк примеров в assets (необязателен)
+    private static final String PROBLEM_BANK_ASSET = "problems.bank";
+    // Ключи набранного, но ещё не отправленного ответа
+    private static final String KEY_ANSWER_DIGITS = "answer_digits";
+    private static final String KEY_ANSWER_NEGATIVE = "answer_negative";
+    private static final String KEY_ANSWER_VALUE = "answer_value";
+    // Ключ id текущего ученика в режиме общего планшета
+    private static final String KEY_PROFILE_ID = "profile_id";
+    // Ключ id ученика, профиль которого читался, когда Activity пересоздавалась
+    private static final String KEY_LOADING_PROFILE_ID = "loading_profile_id";
+    // Постоянные части подписей статистики
+    static final String LEVEL_PREFIX = "Уровень: ";
+    static final String SCORE_PREFIX = "Правильных: ";
+    static final String MISTAKES_PREFIX = "Ошибок: ";
+    static final String MISTAKES_SUFFIX = "/" + GameSession.MAX_MISTAKES;
+
+    // Текущий уровень сложности (1..5)
     private TextView textLevel;
     // Счётчик правильных ответов
     private TextView textScore;
@@ -45,38 +92,92 @@ public class MainActivity extends AppCompatActivity {
     private TextView textQuestion;
     // Дополнительная информация: верно/неверно, подсказки и итоги
     private TextView textInfo;
-    // Поле ввода числового ответа
-    private EditText editAnswer;
-    // Кнопка отправки числового ответа
-    private Button buttonSubmit;
+    // Список неправильных ответов в итоговом отчёте
+    private RecyclerView listMistakes;
+    // Поле числового ответа, цифровая клавиатура и кнопка «Ответить»
+    private AnswerKeypad answerKeypad;
     // Кнопка «Да» для булевых вопросов
     private Button buttonYes;
     // Кнопка «Нет» для булевых вопросов
     private Button buttonNo;
     // Кнопка перезапуска игры
     private Button buttonRestart;
-
-    // Один объект Random на всё Activity для генерации чисел и выбора шаблонов
-    private final Random random = new Random();
-    // Таймер обратного отсчёта для текущего вопроса
-    private CountDownTimer countDownTimer;
-
-    // Текущий уровень сложности
-    private int level = 1;
-    // Общее количество правильных ответов за игру
-    private int correctAnswers = 0;
-    // Общее количество ошибок (при достижении 3 — игра заканчивается)
-    private int mistakes = 0;
-    // Сколько вопросов уже задано на текущем уровне (для перехода на следующий)
-    private int questionsOnCurrentLevel = 0;
-    // Список строк с информацией о неверных ответах (для вывода по завершении игры)
-    private List<String> wrongAnswersList = new ArrayList<>();
-
-    // Текст последнего ответа пользователя (для сохранения в подробную статистику ошибок)
-    private String lastUserAnswerText = "";
-
-    // Текущий сгенерированный вопрос (числовой или булевый)
-    private Question currentQuestion;
+    // Выбор ученика (только в режиме общего планшета)
+    private Button buttonStudent;
+    // Подписи статистики: собираются без строк и обновляются только при изменении
+    private CounterLabel levelLabel;
+    private CounterLabel scoreLabel;
+    private CounterLabel mistakesLabel;
+
+    // Фоновый поток, в котором заранее генерируются следующие вопросы
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor();
+    // Поток записи отчёта о времени ответа (поток создаётся при первой записи)
+    private final ExecutorService statsExecutor = Executors.newSingleThreadExecutor();
+    // Очередь готовых вопросов: при ответе вопрос только забирается из неё
+    private final QuestionPrefetcher questionPrefetcher = new QuestionPrefetcher(
+            new QuestionEngine(), new QuestionEngine(),
+            prefetchExecutor, QuestionPrefetcher.DEFAULT_CAPACITY);
+    // Замеры этапов игрового цикла (секции Trace или ничего, см. R.bool.game_tracing)
+    private GameMetrics metrics = GameMetrics.NOOP;
+    // Таймер обратного отсчёта (один на всю игру, перезапускается для каждого вопроса)
+    private QuestionTimer questionTimer;
+    // Журнал событий игры: каждый показ вопроса, ответ и таймаут (запись на диск — в фоне).
+    // Один на процесс: при повороте экрана Activity пересоздаётся, а файл остаётся открытым
+    private static SessionJournal sessionJournal;
+    // Журнал ушедшей Activity, который ещё может дописывать файл: новый журнал
+    // открывает файл после него
+    private static SessionJournal closingJournal;
+    // История сыгранных игр с ответами (запись и запросы — в потоке истории).
+    // Как и журнал, одна на процесс: ответы текущей игры переживают поворот экрана
+    private static HistoryWriter historyWriter;
+    // История ушедшей Activity, которая ещё может дописывать файл (как closingJournal)
+    private static HistoryWriter closingHistory;
+    // Сводка по истории для экрана конца игры (null, пока запрос не выполнен)
+    private String historySummary;
+    // Профили учеников общего планшета (R.bool.kiosk_mode), иначе null. Один на процесс:
+    // недавние профили остаются в его LRU-кэше и при повороте экрана
+    private static ProfileStore profileStore;
+    // Профили ушедшей Activity, которые ещё могут дописываться (как closingJournal)
+    private static ProfileStore closingProfiles;
+    // Текущий ученик (null — не выбран)
+    private StudentProfile currentProfile;
+    // Ученик, профиль которого читается с диска (ответы на прежние запросы игнорируются)
+    private String loadingProfileId;
+    // Состояние Activity с игрой этого ученика, если профиль читается после перезапуска процесса
+    private Bundle loadingState;
+
+    // Банк примеров методистов из assets (см. tools/BankImporter) или null, если его нет;
+    // уровни, которых нет в банке, берутся из очереди генератора
+    private ProblemBank problemBank;
+    // Seed текущей игры: от него зависят вопросы игры, поэтому её можно повторить
+    // по журналу (см. GameReplay)
+    private final SplittableRandom gameSeeds = new SplittableRandom();
+    private long gameSeed;
+
+    // Правила игры: уровень, счёт, ошибки, журнал ошибок и уже показанные примеры
+    private final GameSession session = new GameSession((level, out, seen) ->
+            (problemBank != null ? problemBank : questionPrefetcher).next(level, out, seen));
+    // Отображение журнала ошибок в списке
+    private final MistakeAdapter mistakeAdapter = new MistakeAdapter(session.mistakeLog());
+
+    // Последний ответ пользователя (для сохранения в подробную статистику ошибок):
+    // вид ответа (MistakeLog.ANSWER_*) и значение (для «да/нет» — 1 или 0)
+    private int lastAnswerKind = MistakeLog.ANSWER_NONE;
+    private int lastAnswerValue;
+    // Время ответа на последний вопрос в наносекундах (от показа до ответа или таймаута)
+    private long lastAnswerLatencyNanos;
+    // Гистограммы времени ответа по уровням и действиям (копятся, пока жив процесс;
+    // пишутся только из главного потока)
+    private static final LatencyStats latencyStats = new LatencyStats();
+
+    // Текущий вопрос сеанса (числовой или булевый); один объект на всю игру
+    private final Question currentQuestion = session.current();
+    // Буфер текста вопроса: TextView показывает его символы без создания строки
+    private final TextBuffer questionText = new TextBuffer(64);
+    // Буфер сообщения с правильным ответом
+    private final TextBuffer infoText = new TextBuffer(64);
+    // Снимок состояния для пересоздания Activity (журнал ошибок и примеры пишет напрямую)
+    private final GameSnapshot snapshot = new GameSnapshot(session.mistakeLog(), session.seenProblems());
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -93,10 +194,202 @@ public class MainActivity extends AppCompatActivity {
 
         // Находим все View по id
         initViews();
+        // Журнал и история живут дольше Activity: если их нет, процесс запущен заново
+        boolean newProcess = historyWriter == null;
+        // Файл журнала открывается в потоке журнала, здесь только создаётся объект
+        if (sessionJournal == null) {
+            sessionJournal = new SessionJournal(new File(getFilesDir(), "session.journal"), closingJournal);
+            closingJournal = null;
+        }
+        if (historyWriter == null) {
+            historyWriter = new HistoryWriter(new File(getFilesDir(), "history.bin"), TimeZone.getDefault(),
+                    closingHistory);
+            closingHistory = null;
+        }
+        if (getResources().getBoolean(R.bool.game_tracing)) {
+            metrics = new TraceMetrics();
+        }
+        // Читается только список учеников, профили — при выборе ученика
+        if (profileStore == null && getResources().getBoolean(R.bool.kiosk_mode)) {
+            profileStore = openProfileStore();
+        }
+        // Отображение банка читает только заголовок, поэтому это быстро даже для больших банков
+        problemBank = openProblemBank();
+        // Один таймер на все вопросы игры
+        questionTimer = new QuestionTimer(textTimer, this::onQuestionTimeout);
         // Подписываемся на клики по кнопкам
         initListeners();
-        // Запускаем новую игру при старте Activity
-        startNewGame();
+        // Ученик известен до начала игры: новая игра в истории помечается им
+        String studentId = null;
+        if (profileStore != null) {
+            buttonStudent.setVisibility(View.VISIBLE);
+            studentId = savedInstanceState != null ? savedInstanceState.getString(KEY_PROFILE_ID) : null;
+            // После поворота экрана профиль текущего ученика ещё в кэше
+            currentProfile = studentId != null ? profileStore.cached(studentId) : null;
+            updateStudentButton();
+        }
+        String loadingId = savedInstanceState != null && profileStore != null
+                ? savedInstanceState.getString(KEY_LOADING_PROFILE_ID) : null;
+        if (loadingId != null) {
+            // Поворот экрана во время чтения профиля: игры на экране не было, читаем профиль заново
+            // (с игрой из состояния Activity, если профиль читался после перезапуска процесса)
+            loadStudent(loadingId, savedInstanceState.containsKey(KEY_GAME_SNAPSHOT) ? savedInstanceState : null);
+        } else if (studentId != null && currentProfile == null) {
+            // Процесс перезапущен или профиль ушёл из кэша: без профиля игра продолжилась бы
+            // без ученика, поэтому она продолжается после чтения профиля
+            loadStudent(studentId, savedInstanceState);
+        } else if (savedInstanceState == null || !restoreGame(savedInstanceState)) {
+            // После поворота экрана продолжаем прежнюю игру, иначе начинаем новую
+            startNewGame();
+        } else if (newProcess) {
+            // Новые журнал и история о прежней игре не знают
+            recordResumedGame();
+        }
+    }
+
+    private ProfileStore openProfileStore() {
+        try {
+            if (closingProfiles != null) {
+                // Список и профили читаются с диска сразу, поэтому сначала дописываем прежние
+                closingProfiles.close();
+                closingProfiles = null;
+            }
+            return ProfileStore.open(new File(getFilesDir(), "profiles"), ProfileStore.DEFAULT_CACHE_SIZE);
+        } catch (IOException e) {
+            Toast.makeText(this, "Список учеников не прочитан", Toast.LENGTH_SHORT).show();
+            return null;
+        }
+    }
+
+    /**
+     * Отображает в память банк примеров из assets (файл хранится несжатым,
+     * см. noCompress в build.gradle.kts).
+     *
+     * @return null, если банка нет или он повреждён — тогда играем на генераторе
+     */
+    private ProblemBank openProblemBank() {
+        try (AssetFileDescriptor fd = getAssets().openFd(PROBLEM_BANK_ASSET);
+             FileInputStream in = fd.createInputStream()) {
+            ByteBuffer mapped = in.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                    fd.getStartOffset(), fd.getLength());
+            return new ProblemBank(mapped, new SplittableRandom(), questionPrefetcher);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException | IllegalArgumentException e) {
+            Toast.makeText(this, "Банк примеров не прочитан, примеры будут сгенерированы",
+                    Toast.LENGTH_SHORT).show();
+            return null;
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (loadingProfileId != null) {
+            // Игра прежнего ученика уже в его профиле, в сеансе сохранять нечего;
+            // игра, ждущая профиль после перезапуска процесса, передаётся дальше
+            if (loadingState != null) {
+                outState.putAll(loadingState);
+            }
+            outState.putString(KEY_LOADING_PROFILE_ID, loadingProfileId);
+            return;
+        }
+        outState.putByteArray(KEY_GAME_SNAPSHOT, encodeSnapshot());
+        AnswerInput input = answerKeypad.input();
+        outState.putInt(KEY_ANSWER_DIGITS, input.digits());
+        outState.putBoolean(KEY_ANSWER_NEGATIVE, input.isNegative());
+        outState.putInt(KEY_ANSWER_VALUE, input.value());
+        if (currentProfile != null) {
+            outState.putString(KEY_PROFILE_ID, currentProfile.id());
+        }
+    }
+
+    /**
+     * Снимок текущей игры: состояние сеанса, таймер и место в последовательности seed.
+     */
+    private byte[] encodeSnapshot() {
+        session.saveTo(snapshot);
+        if (questionTimer.isRunning() || session.isOver()) {
+            snapshot.remainingMillis = questionTimer.remainingMillis();
+            snapshot.elapsedNanos = questionTimer.elapsedNanos();
+        } else {
+            // Остановленный отсчёт показал бы 0 мс, и вопрос сразу ушёл бы в таймаут:
+            // такой вопрос продолжается с полным временем
+            snapshot.remainingMillis = session.timeForCurrentLevel();
+            snapshot.elapsedNanos = 0;
+        }
+        snapshot.seed = gameSeed;
+        snapshot.questionsDrawn = questionPrefetcher.drawn(session.level());
+        snapshot.bankDraws = problemBank != null ? problemBank.draws() : 0;
+        return snapshot.encode();
+    }
+
+    /**
+     * Продолжает игру после пересоздания Activity.
+     *
+     * @return false, если снимка нет или он не читается
+     */
+    private boolean restoreGame(Bundle savedInstanceState) {
+        byte[] data = savedInstanceState.getByteArray(KEY_GAME_SNAPSHOT);
+        return data != null && resumeGame(data, savedInstanceState);
+    }
+
+    /**
+     * Продолжает игру из снимка: вопрос не генерируется заново,
+     * таймер продолжает отсчёт с того места, где остановился.
+     *
+     * @param answerState набранный ответ (состояние Activity) или null — поле ответа пустое
+     * @return false, если снимок не читается
+     */
+    private boolean resumeGame(byte[] data, Bundle answerState) {
+        try {
+            snapshot.decode(data);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        session.restoreFrom(snapshot);
+        lastAnswerKind = MistakeLog.ANSWER_NONE;
+        // Вопросы продолжаются с того же места последовательности seed;
+        // очередь готовых вопросов заполняется в фоне, пока пользователь отвечает
+        gameSeed = snapshot.seed;
+        questionPrefetcher.restore(gameSeed, session.level(), snapshot.questionsDrawn);
+        if (problemBank != null) {
+            problemBank.restore(gameSeed, snapshot.bankDraws);
+        }
+        updateStatViews();
+
+        if (snapshot.gameOver) {
+            showGameOver();
+            return true;
+        }
+        setGameControlsEnabled(true);
+        textInfo.setText("");
+        if (answerState != null) {
+            restoreAnswerInput(answerState);
+        } else if (currentQuestion.numeric) {
+            answerKeypad.reset(currentQuestion.numericAnswer);
+        }
+        showQuestion();
+        questionTimer.resume(snapshot.remainingMillis, snapshot.elapsedNanos);
+        return true;
+    }
+
+    /**
+     * Возвращает набранный до пересоздания ответ в поле ответа.
+     */
+    private void restoreAnswerInput(Bundle savedInstanceState) {
+        if (!currentQuestion.numeric) {
+            return;
+        }
+        try {
+            answerKeypad.input().restore(savedInstanceState.getInt(KEY_ANSWER_DIGITS),
+                    savedInstanceState.getBoolean(KEY_ANSWER_NEGATIVE),
+                    savedInstanceState.getInt(KEY_ANSWER_VALUE));
+        } catch (IllegalArgumentException e) {
+            answerKeypad.input().clear();
+        }
+        answerKeypad.expect(currentQuestion.numericAnswer);
+        answerKeypad.showInput();
     }
 
     /**
@@ -109,41 +402,249 @@ public class MainActivity extends AppCompatActivity {
         textTimer = findViewById(R.id.textTimer);
         textQuestion = findViewById(R.id.textQuestion);
         textInfo = findViewById(R.id.textInfo);
-        editAnswer = findViewById(R.id.editAnswer);
-        buttonSubmit = findViewById(R.id.buttonSubmit);
+        listMistakes = findViewById(R.id.listMistakes);
+        listMistakes.setLayoutManager(new LinearLayoutManager(this));
+        listMistakes.setAdapter(mistakeAdapter);
         buttonYes = findViewById(R.id.buttonYes);
         buttonNo = findViewById(R.id.buttonNo);
         buttonRestart = findViewById(R.id.buttonRestart);
+        buttonStudent = findViewById(R.id.buttonStudent);
+        levelLabel = new CounterLabel(textLevel, LEVEL_PREFIX, "");
+        scoreLabel = new CounterLabel(textScore, SCORE_PREFIX, "");
+        mistakesLabel = new CounterLabel(textMistakes, MISTAKES_PREFIX, MISTAKES_SUFFIX);
     }
 
     /**
      * Установка обработчиков нажатий на кнопки.
      */
     private void initListeners() {
-        // Обработка отправки числового ответа
-        buttonSubmit.setOnClickListener(v -> onNumericAnswer());
+        // Числовой ответ набирается на встроенной клавиатуре
+        answerKeypad = new AnswerKeypad(findViewById(R.id.layoutNumeric), new AnswerKeypad.Listener() {
+            @Override
+            public void onAnswer(int value) {
+                onNumericAnswer(value);
+            }
+
+            @Override
+            public void onEmptySubmit() {
+                // Не даём отправить пустой ответ
+                Toast.makeText(MainActivity.this, "Введите ответ", Toast.LENGTH_SHORT).show();
+            }
+        });
+        answerKeypad.setAutoSubmit(getResources().getBoolean(R.bool.keypad_auto_submit));
         // Обработка ответа "Да"
         buttonYes.setOnClickListener(v -> onBooleanAnswer(true));
         // Обработка ответа "Нет"
         buttonNo.setOnClickListener(v -> onBooleanAnswer(false));
         // Перезапуск игры
         buttonRestart.setOnClickListener(v -> startNewGame());
+        // Выбор ученика (кнопка видна только в режиме общего планшета)
+        buttonStudent.setOnClickListener(v -> showStudentPicker());
+    }
+
+    /**
+     * Список учеников класса и пункт «Новый ученик…».
+     */
+    private void showStudentPicker() {
+        List<String> ids = profileStore.ids();
+        String[] names = new String[ids.size() + 1];
+        for (int i = 0; i < ids.size(); i++) {
+            names[i] = profileStore.name(ids.get(i));
+        }
+        names[ids.size()] = "Новый ученик…";
+        new AlertDialog.Builder(this)
+                .setTitle("Кто играет?")
+                .setItems(names, (dialog, which) -> {
+                    if (which < ids.size()) {
+                        switchToStudent(ids.get(which));
+                    } else {
+                        showNewStudentDialog();
+                    }
+                })
+                .show();
+    }
+
+    private void showNewStudentDialog() {
+        EditText input = new EditText(this);
+        input.setSingleLine(true);
+        new AlertDialog.Builder(this)
+                .setTitle("Новый ученик")
+                .setView(input)
+                .setPositiveButton("Добавить", (dialog, which) -> {
+                    StudentProfile profile;
+                    try {
+                        profile = profileStore.add(input.getText().toString());
+                    } catch (IllegalArgumentException e) {
+                        Toast.makeText(this, "Введите имя", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    parkCurrentProfile();
+                    currentProfile = profile;
+                    updateStudentButton();
+                    startNewGame();
+                })
+                .setNegativeButton("Отмена", null)
+                .show();
+    }
+
+    /**
+     * Переключает планшет на ученика id: игра прежнего ученика сохраняется в его
+     * профиль, игра нового продолжается с того места, где он остановился.
+     * Профиль из кэша берётся сразу; остальные читаются в потоке профилей.
+     */
+    private void switchToStudent(String id) {
+        if (currentProfile != null && currentProfile.id().equals(id)) {
+            return;
+        }
+        parkCurrentProfile();
+        loadStudent(id, null);
+    }
+
+    /**
+     * Делает ученика id текущим: из кэша сразу, иначе после чтения профиля в потоке профилей.
+     *
+     * @param savedState состояние Activity с игрой этого ученика (после перезапуска процесса)
+     *                   или null — продолжается игра, сохранённая в профиле
+     */
+    private void loadStudent(String id, Bundle savedState) {
+        loadingProfileId = null;
+        loadingState = null;
+        StudentProfile cached = profileStore.cached(id);
+        if (cached != null) {
+            enterProfile(cached, savedState);
+            return;
+        }
+        updateStudentButton();
+        showLoading();
+        loadingProfileId = id;
+        loadingState = savedState;
+        profileStore.loadAsync(id, profile -> runOnUiThread(() -> {
+            if (isDestroyed() || !id.equals(loadingProfileId)) {
+                return;
+            }
+            loadingProfileId = null;
+            loadingState = null;
+            if (profile == null) {
+                Toast.makeText(this, "Профиль ученика не прочитан", Toast.LENGTH_SHORT).show();
+                updateStudentButton();
+                startNewGame();
+                return;
+            }
+            enterProfile(profile, savedState);
+        }));
+    }
+
+    /**
+     * Пока профиль читается, прежней игры на экране нет: она уже сохранена
+     * в профиль прежнего ученика (или брошена, если ученик не был выбран).
+     */
+    private void showLoading() {
+        questionTimer.showIdle();
+        setGameControlsEnabled(false);
+        answerKeypad.setVisible(false);
+        buttonYes.setVisibility(View.GONE);
+        buttonNo.setVisibility(View.GONE);
+        listMistakes.setVisibility(View.GONE);
+        textInfo.setText("");
+        textQuestion.setText("Загрузка…");
+    }
+
+    /**
+     * Делает профиль текущим и продолжает его незаконченную игру (или начинает новую).
+     *
+     * @param savedState состояние Activity с игрой ученика (новее игры в профиле) или null
+     */
+    private void enterProfile(StudentProfile profile, Bundle savedState) {
+        currentProfile = profile;
+        updateStudentButton();
+        byte[] saved = savedState != null ? savedState.getByteArray(KEY_GAME_SNAPSHOT) : profile.savedGame();
+        if (saved == null || !resumeGame(saved, savedState)) {
+            startNewGame();
+            return;
+        }
+        recordResumedGame();
+        historySummary = null;
+        mistakeAdapter.notifyDataSetChanged();
+        listMistakes.setVisibility(snapshot.gameOver ? View.VISIBLE : View.GONE);
+    }
+
+    /**
+     * Отмечает продолжение игры: в журнале — чтобы GameReplay продолжил отложенную игру,
+     * в истории — как начало игры текущего ученика (ответы прежнего в неё не попадают).
+     */
+    private void recordResumedGame() {
+        if (session.isOver()) {
+            // Отчёт законченной игры: её ответы уже в истории
+            return;
+        }
+        long now = System.currentTimeMillis();
+        sessionJournal.gameResumed(now, gameSeed, questionPrefetcher.drawn(session.level()), currentQuestion);
+        historyWriter.gameStarted(now, historyStudent());
+    }
+
+    /**
+     * Сохраняет игру текущего ученика в его профиль; на диск профиль пишется в фоне.
+     */
+    private void saveCurrentProfile() {
+        if (currentProfile == null) {
+            return;
+        }
+        // Законченную игру продолжать незачем: в следующий раз ученик начнёт новую
+        currentProfile.setSavedGame(session.isOver() ? null : encodeSnapshot());
+        profileStore.save(currentProfile);
+    }
+
+    private void parkCurrentProfile() {
+        saveCurrentProfile();
+        currentProfile = null;
+    }
+
+    /**
+     * Номер текущего ученика для истории игр (0 — ученик не выбран
+     * или его id не из нумерации ProfileStore).
+     */
+    private int historyStudent() {
+        if (currentProfile == null) {
+            return 0;
+        }
+        try {
+            int number = Integer.parseInt(currentProfile.id());
+            return number > 0 && number <= GameHistory.MAX_STUDENT ? number : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void updateStudentButton() {
+        buttonStudent.setText(currentProfile != null
+                ? "Ученик: " + currentProfile.name()
+                : "Выбрать ученика");
     }
 
     /**
      * Сброс игры в начальное состояние.
      */
     private void startNewGame() {
-        // Начинаем с первого уровня
-        level = 1;
-        // Обнуляем статистику
-        correctAnswers = 0;
-        mistakes = 0;
-        questionsOnCurrentLevel = 0;
-        // Очищаем список неправильных ответов
-        wrongAnswersList.clear();
+        // Новая игра отменяет чтение профиля, если оно ещё идёт
+        loadingProfileId = null;
+        questionTimer.stop();
+        gameSeed = gameSeeds.nextLong();
+        questionPrefetcher.reseed(gameSeed);
+        if (problemBank != null) {
+            problemBank.reseed(gameSeed);
+        }
+        long now = System.currentTimeMillis();
+        sessionJournal.gameStarted(now, gameSeed);
+        historyWriter.gameStarted(now, historyStudent());
+        historySummary = null;
+        // Первый уровень, счёт и ошибки с нуля, журнал ошибок и примеры очищены;
+        // сеанс сразу берёт первый вопрос из очереди первого уровня
+        session.start();
+        // Прячем отчёт прошлой игры
+        mistakeAdapter.notifyDataSetChanged();
+        listMistakes.setVisibility(View.GONE);
         // Сбрасываем последний ответ пользователя
-        lastUserAnswerText = "";
+        lastAnswerKind = MistakeLog.ANSWER_NONE;
 
         // Разрешаем взаимодействие с основными элементами управления
         setGameControlsEnabled(true);
@@ -151,95 +652,91 @@ public class MainActivity extends AppCompatActivity {
         textInfo.setText("");
         // Обновляем статистику в UI
         updateStatViews();
-        // Генерируем первый вопрос
-        generateNewQuestion();
+        // Показываем первый вопрос
+        presentQuestion();
     }
 
     /**
      * Включение/отключение основных контролов игры (при Game Over блокируем их).
      */
     private void setGameControlsEnabled(boolean enabled) {
-        buttonSubmit.setEnabled(enabled);
+        answerKeypad.setEnabled(enabled);
         buttonYes.setEnabled(enabled);
         buttonNo.setEnabled(enabled);
-        editAnswer.setEnabled(enabled);
     }
 
     /**
      * Обновление текстовых полей статистики (уровень, счёт, ошибки).
+     * Поля, значение которых не изменилось, не трогаются.
      */
     private void updateStatViews() {
-        textLevel.setText("Уровень: " + level);
-        textScore.setText("Правильных: " + correctAnswers);
-        textMistakes.setText("Ошибок: " + mistakes + "/3");
-    }
-
-    /**
-     * Время на пример для каждого уровня (в миллисекундах).
-     * Чем выше уровень, тем меньше времени даётся.
-     */
-    private long getTimeForCurrentLevel() {
-        switch (level) {
-            case 1:
-            default:
-                return 20_000; // 20 секунд
-            case 2:
-                return 15_000; // 15 секунд
-            case 3:
-                return 10_000; // 10 секунд
-        }
+        levelLabel.show(session.level());
+        scoreLabel.show(session.correctAnswers());
+        mistakesLabel.show(session.mistakes());
     }
 
     /**
      * Генерация нового вопроса и запуск таймера.
      */
     private void generateNewQuestion() {
-        // Останавливаем таймер для предыдущего вопроса, если он ещё тикает
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        long token = metrics.begin(GameMetrics.STAGE_GENERATE);
+        try {
+            // Останавливаем таймер для предыдущего вопроса, если он ещё тикает
+            questionTimer.stop();
 
-        // Если уже набрано 3 ошибки — не генерируем новые вопросы
-        if (mistakes >= 3) {
-            // Игра уже завершена.
-            return;
-        }
+            // Если уже набрано 3 ошибки — не генерируем новые вопросы
+            if (session.isOver()) {
+                // Игра уже завершена.
+                return;
+            }
 
-        // Очищаем подсказки и поле ввода
-        textInfo.setText("");
-        editAnswer.setText("");
+            // Очищаем подсказки
+            textInfo.setText("");
 
-        // Выбираем тип вопроса: с числовым ответом или "да/нет"
-        boolean numericQuestion;
-        if (level == 1) {
-            // На первом уровне чаще обычные числовые задания.
-            numericQuestion = random.nextInt(4) != 0; // 3 из 4 будут с числовым ответом.
-        } else {
-            // На других уровнях примерное равенство по типам
-            numericQuestion = random.nextBoolean();
+            // Берём заранее сгенерированный вопрос текущего уровня, пропуская уже показанные
+            session.nextQuestion();
+            presentQuestion();
+        } finally {
+            metrics.end(GameMetrics.STAGE_GENERATE, token);
+        }
+    }
+
+    /**
+     * Показывает текущий вопрос, записывает его в журнал и запускает таймер.
+     */
+    private void presentQuestion() {
+        // Стираем прошлый ответ; ожидаемый нужен клавиатуре для автоответа
+        if (currentQuestion.numeric) {
+            answerKeypad.reset(currentQuestion.numericAnswer);
         }
+        showQuestion();
+        sessionJournal.questionShown(System.currentTimeMillis(), currentQuestion,
+                session.timeForCurrentLevel());
+        // Запускаем таймер для этого вопроса
+        startTimerForQuestion();
+    }
 
-        // Генерируем конкретный вопрос в соответствии с уровнем и типом
-        if (numericQuestion) {
-            currentQuestion = generateNumericQuestion(level);
-            showNumericInput(); // Показываем поле ввода и кнопку "Ответить"
+    /**
+     * Показывает текущий вопрос и подходящие для него элементы ввода.
+     */
+    private void showQuestion() {
+        if (currentQuestion.numeric) {
+            showNumericInput(); // Показываем поле ответа, клавиатуру и кнопку "Ответить"
         } else {
-            currentQuestion = generateBooleanQuestion(level);
             showBooleanInput(); // Показываем кнопки "Да/Нет"
         }
 
-        // Отображаем текст вопроса
-        textQuestion.setText(currentQuestion.text);
-        // Запускаем таймер для этого вопроса
-        startTimerForQuestion();
+        // Отображаем текст вопроса (собирается только сейчас, в переиспользуемый буфер)
+        questionText.clear();
+        currentQuestion.appendText(questionText);
+        textQuestion.setText(questionText.array(), 0, questionText.length());
     }
 
     /**
      * Переключает интерфейс в режим числового ответа.
      */
     private void showNumericInput() {
-        editAnswer.setVisibility(View.VISIBLE);
-        buttonSubmit.setVisibility(View.VISIBLE);
+        answerKeypad.setVisible(true);
 
         buttonYes.setVisibility(View.GONE);
         buttonNo.setVisibility(View.GONE);
@@ -249,83 +746,58 @@ public class MainActivity extends AppCompatActivity {
      * Переключает интерфейс в режим ответа "да/нет".
      */
     private void showBooleanInput() {
-        editAnswer.setVisibility(View.GONE);
-        buttonSubmit.setVisibility(View.GONE);
+        answerKeypad.setVisible(false);
 
         buttonYes.setVisibility(View.VISIBLE);
         buttonNo.setVisibility(View.VISIBLE);
     }
 
     /**
-     * Настройка и запуск CountDownTimer для текущего вопроса.
+     * Перезапуск общего таймера для текущего вопроса.
      */
     private void startTimerForQuestion() {
-        long time = getTimeForCurrentLevel();
-        // Инициализируем отображение таймера в секундах
-        textTimer.setText("Время: " + (time / 1000));
-
-        countDownTimer = new CountDownTimer(time, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                // Обновляем оставшееся время каждую секунду
-                textTimer.setText("Время: " + (millisUntilFinished / 1000));
-            }
-
-            @Override
-            public void onFinish() {
-                // Таймер закончился — считаем это ошибкой
-                textTimer.setText("Время: 0");
-
-                // Пользователь не успел ответить
-                lastUserAnswerText = "нет ответа";
+        long token = metrics.begin(GameMetrics.STAGE_START_TIMER);
+        try {
+            questionTimer.start(session.timeForCurrentLevel());
+        } finally {
+            metrics.end(GameMetrics.STAGE_START_TIMER, token);
+        }
+    }
 
-                // Показываем, что время вышло, и обрабатываем как неправильный ответ
-                handleWrongAnswer("Время вышло!");
-            }
-        }.start();
+    /**
+     * Время на вопрос вышло.
+     */
+    private void onQuestionTimeout() {
+        // Пользователь не успел ответить
+        lastAnswerKind = MistakeLog.ANSWER_NONE;
+        lastAnswerLatencyNanos = questionTimer.elapsedNanos();
+        long now = System.currentTimeMillis();
+        sessionJournal.timeout(now, currentQuestion, lastAnswerLatencyNanos);
+        historyWriter.answered(currentQuestion, MistakeLog.ANSWER_NONE, 0, false, true,
+                lastAnswerLatencyNanos, now);
+
+        // Показываем, что время вышло, и обрабатываем как неправильный ответ
+        handleWrongAnswer("Время вышло!", session.timeout(lastAnswerLatencyNanos));
     }
 
     /**
-     * Обработка ответа с числом.
+     * Обработка ответа с числом: значение уже набрано клавиатурой, разбирать текст не нужно.
      */
-    private void onNumericAnswer() {
+    private void onNumericAnswer(int value) {
         // Проверяем, что текущий вопрос числовой
-        if (currentQuestion == null || !currentQuestion.numeric) {
-            return;
-        }
-
-        String text = editAnswer.getText().toString().trim();
-        // Не даём отправить пустой ответ
-        if (TextUtils.isEmpty(text)) {
-            Toast.makeText(this, "Введите ответ", Toast.LENGTH_SHORT).show();
-            return;
-        }
-
-        int value;
-        try {
-            // Пытаемся преобразовать введённый текст к числу
-            value = Integer.parseInt(text);
-        } catch (NumberFormatException e) {
-            // Если формат неверный — информируем пользователя
-            Toast.makeText(this, "Нужно ввести целое число", Toast.LENGTH_SHORT).show();
+        if (!currentQuestion.numeric) {
             return;
         }
 
         // Сохраняем ответ пользователя для последующей статистики
-        lastUserAnswerText = String.valueOf(value);
+        lastAnswerKind = MistakeLog.ANSWER_NUMBER;
+        lastAnswerValue = value;
 
-        // Останавливаем таймер, так как ответ уже дан
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        // Останавливаем таймер, так как ответ уже дан, и запоминаем время ответа
+        lastAnswerLatencyNanos = questionTimer.stop();
 
         // Сравниваем ответ с правильным
-        if (value == currentQuestion.numericAnswer) {
-            handleCorrectAnswer();
-        } else {
-            // Сообщение без "Правильный ответ", чтобы не дублировать текст
-            handleWrongAnswer("Неверно.");
-        }
+        handleAnswer(session.answerNumber(value, lastAnswerLatencyNanos));
     }
 
     /**
@@ -335,422 +807,237 @@ public class MainActivity extends AppCompatActivity {
      */
     private void onBooleanAnswer(boolean userAnswer) {
         // Проверяем, что текущий вопрос именно булевый
-        if (currentQuestion == null || currentQuestion.numeric) {
+        if (currentQuestion.numeric) {
             return;
         }
 
-        // Сохраняем ответ пользователя как текст
-        lastUserAnswerText = userAnswer ? "да" : "нет";
+        // Сохраняем ответ пользователя
+        lastAnswerKind = MistakeLog.ANSWER_BOOLEAN;
+        lastAnswerValue = userAnswer ? 1 : 0;
 
-        // Останавливаем таймер перед проверкой
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        // Останавливаем таймер перед проверкой и запоминаем время ответа
+        lastAnswerLatencyNanos = questionTimer.stop();
 
-        // Если ответ совпадает с правильным булевым значением
-        if (userAnswer == currentQuestion.booleanAnswer) {
-            handleCorrectAnswer();
+        // Сравниваем ответ с правильным булевым значением
+        handleAnswer(session.answerBoolean(userAnswer, lastAnswerLatencyNanos));
+    }
+
+    /**
+     * Записывает ответ в журнал событий и статистику времени ответа
+     * и показывает результат.
+     *
+     * @param result флаги {@link GameSession}: CORRECT, LEVEL_UP, GAME_OVER
+     */
+    private void handleAnswer(int result) {
+        boolean correct = (result & GameSession.CORRECT) != 0;
+        long now = System.currentTimeMillis();
+        sessionJournal.answered(now, currentQuestion,
+                lastAnswerKind, lastAnswerValue, correct, lastAnswerLatencyNanos);
+        historyWriter.answered(currentQuestion, lastAnswerKind, lastAnswerValue, correct, false,
+                lastAnswerLatencyNanos, now);
+        latencyStats.record(currentQuestion, lastAnswerLatencyNanos);
+        if (correct) {
+            handleCorrectAnswer(result);
         } else {
             // Сообщение без "Правильный ответ", чтобы не дублировать текст
-            handleWrongAnswer("Неверно.");
+            handleWrongAnswer("Неверно.", result);
         }
     }
 
     /**
-     * Унифицированная обработка правильного ответа.
+     * Унифицированная обработка правильного ответа (счёт уже увеличен сеансом).
      */
-    private void handleCorrectAnswer() {
-        // Увеличиваем счётчик правильных ответов
-        correctAnswers++;
-        // Увеличиваем количество вопросов на текущем уровне
-        questionsOnCurrentLevel++;
-        // Показываем сообщение пользователю
-        textInfo.setText("Верно!");
-        // Обновляем статистику в UI
-        updateStatViews();
-        // Проверяем, можно ли перейти на следующий уровень
-        checkLevelUp();
-        // Генерируем следующий вопрос
-        generateNewQuestion();
+    private void handleCorrectAnswer(int result) {
+        long token = metrics.begin(GameMetrics.STAGE_CORRECT_ANSWER);
+        try {
+            // Показываем сообщение пользователю
+            textInfo.setText("Верно!");
+            // Обновляем статистику в UI
+            updateStatViews();
+            // Сеанс перешёл на следующий уровень
+            if ((result & GameSession.LEVEL_UP) != 0) {
+                onLevelUp();
+            }
+            // Генерируем следующий вопрос
+            generateNewQuestion();
+        } finally {
+            metrics.end(GameMetrics.STAGE_CORRECT_ANSWER, token);
+        }
     }
 
     /**
      * Унифицированная обработка неправильного ответа.
      *
-     * @param info текстовое сообщение, которое будет показано пользователю
-     *             (например: "Неверно." или "Время вышло!").
-     */
-    private void handleWrongAnswer(String info) {
-        // Увеличиваем количество ошибок
-        mistakes++;
-
-        // Подставляем сохранённый ответ, если он пустой — показываем прочерк
-        String userAnswerText = (lastUserAnswerText == null || lastUserAnswerText.isEmpty())
-                ? "—"
-                : lastUserAnswerText;
-
-        // Формируем строку с подробной информацией о вопросе и ответе пользователя
-        String wrongAnswer = "Вопрос: " + currentQuestion.text + "\n" +
-                "Ваш ответ: " + userAnswerText + "\n" +
-                currentQuestion.getCorrectAnswerText();
-        // Добавляем этот строковый отчёт в общий список неверных ответов
-        wrongAnswersList.add(wrongAnswer);
-
-        // Выводим информационное сообщение + правильный ответ
-        textInfo.setText(info + " " + currentQuestion.getCorrectAnswerText());
-        // Обновляем статистику
-        updateStatViews();
-
-        // При достижении трёх ошибок — завершаем игру
-        if (mistakes >= 3) {
-            gameOver();
-        } else {
-            // Иначе — продолжаем и генерируем следующий вопрос
-            generateNewQuestion();
+     * @param info   текстовое сообщение, которое будет показано пользователю
+     *               (например: "Неверно." или "Время вышло!").
+     * @param result флаги {@link GameSession}; ошибка уже учтена сеансом
+     */
+    private void handleWrongAnswer(String info, int result) {
+        long token = metrics.begin(GameMetrics.STAGE_WRONG_ANSWER);
+        try {
+            // Выводим информационное сообщение + правильный ответ
+            infoText.clear().append(info).append(' ');
+            currentQuestion.appendCorrectAnswer(infoText);
+            textInfo.setText(infoText.array(), 0, infoText.length());
+            // Обновляем статистику
+            updateStatViews();
+
+            // При достижении трёх ошибок — завершаем игру
+            if ((result & GameSession.GAME_OVER) != 0) {
+                gameOver();
+            } else {
+                // Иначе — продолжаем и генерируем следующий вопрос
+                generateNewQuestion();
+            }
+        } finally {
+            metrics.end(GameMetrics.STAGE_WRONG_ANSWER, token);
         }
     }
 
     /**
-     * Переход на новый уровень после нескольких правильных ответов.
-     * Здесь условие: 5 вопросов на уровне => переход на следующий.
+     * Переход на новый уровень (условие проверяет сеанс: 5 правильных ответов на уровне).
      */
-    private void checkLevelUp() {
-        if (level < 3 && questionsOnCurrentLevel >= 5) {
-            level++;
-            // Сбрасываем счётчик вопросов для нового уровня
-            questionsOnCurrentLevel = 0;
-            // Краткое уведомление о повышении уровня
-            Toast.makeText(this, "Новый уровень: " + level, Toast.LENGTH_SHORT).show();
-        }
+    private void onLevelUp() {
+        // Очередь старого уровня больше не нужна — готовим вопросы нового
+        questionPrefetcher.setLevel(session.level());
+        // Краткое уведомление о повышении уровня
+        Toast.makeText(this, "Новый уровень: " + session.level(), Toast.LENGTH_SHORT).show();
     }
 
     /**
      * Завершение игры после трёх ошибок.
      */
     private void gameOver() {
-        // На всякий случай останавливаем таймер
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
+        long token = metrics.begin(GameMetrics.STAGE_GAME_OVER);
+        try {
+            // На всякий случай останавливаем таймер
+            questionTimer.stop();
+            // Конец игры фиксируем на диске сразу, не дожидаясь периода
+            long now = System.currentTimeMillis();
+            sessionJournal.gameOver(now, session.correctAnswers());
+            // Игра с ответами уходит в историю одной транзакцией в потоке истории
+            historyWriter.gameOver(now, gameSeed, session.correctAnswers(), session.level(),
+                    session.mistakes());
+            if (currentProfile != null) {
+                currentProfile.recordGame(session.correctAnswers());
+                saveCurrentProfile();
+            }
+            showGameOver();
+            // Сохраняем статистику времени ответа
+            exportLatencyStats();
+        } finally {
+            metrics.end(GameMetrics.STAGE_GAME_OVER, token);
         }
+    }
+
+    /**
+     * Показывает итог игры и список неверных ответов.
+     */
+    private void showGameOver() {
         // Блокируем основные элементы управления, чтобы нельзя было продолжать
         setGameControlsEnabled(false);
 
         // Показываем финальное сообщение
         textQuestion.setText("Игра окончена");
-        textInfo.setText("Вы сделали 3 ошибки. Правильных ответов: " + correctAnswers);
-
-        // Формируем текст со всеми неправильными ответами
-        StringBuilder wrongAnswersText = new StringBuilder("Неправильные ответы:\n");
-        for (String wrongAnswer : wrongAnswersList) {
-            wrongAnswersText.append(wrongAnswer).append("\n\n");
-        }
+        showGameOverText();
+        requestHistorySummary();
 
         // Обнуляем таймер в UI
-        textTimer.setText("Время: -");
-        // Добавляем список неверных ответов к итоговому сообщению
-        textInfo.setText(textInfo.getText().toString() + "\n\n" + wrongAnswersText.toString());
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        // При уничтожении Activity обязательно останавливаем таймер,
-        // чтобы избежать утечек и продолжения работы в фоне
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+        questionTimer.showIdle();
+        // Показываем список неверных ответов: записи соберутся по мере прокрутки
+        mistakeAdapter.notifyDataSetChanged();
+        listMistakes.setVisibility(View.VISIBLE);
     }
 
     /**
-     * Генерация примера с числовым ответом.
-     * В зависимости от уровня создаются разные шаблоны задач.
+     * Итог игры и (если уже готова) сводка по истории.
      */
-    private Question generateNumericQuestion(int level) {
-        Question q = new Question();
-        q.numeric = true;
-
-        int a;
-        int b;
-        int c;
-
-        switch (level) {
-            case 1:
-                // Первый уровень: простые выражения на + и -, иногда в виде задачки про фрукты.
-                if (random.nextBoolean()) {
-                    // Задачка с фруктами.
-                    a = random.nextInt(5) + 1; // 1..5
-                    b = random.nextInt(5) + 1; // 1..5
-                    q.numericAnswer = a + b;
-                    q.text = a + " груши + " + b + " яблока. Сколько всего фруктов?";
-                } else {
-                    // Обычные примеры на сложение/вычитание
-                    a = random.nextInt(20) + 1; // 1..20
-                    b = random.nextInt(20) + 1; // 1..20
-
-                    if (random.nextBoolean()) {
-                        // Сложение.
-                        q.numericAnswer = a + b;
-                        q.text = a + " + " + b + " = ?";
-                    } else {
-                        // Вычитание (делаем так, чтобы результат был неотрицательным).
-                        if (b > a) {
-                            int tmp = a;
-                            a = b;
-                            b = tmp;
-                        }
-                        q.numericAnswer = a - b;
-                        q.text = a + " - " + b + " = ?";
-                    }
-                }
-                break;
-
-            case 2:
-                // Второй уровень: одно действие, но уже +, -, * или /.
-                int opIndex = random.nextInt(4); // 0:+ 1:- 2:* 3:/
-
-                if (opIndex == 0) {
-                    // Сложение.
-                    a = random.nextInt(50) + 1;
-                    b = random.nextInt(50) + 1;
-                    q.numericAnswer = a + b;
-                    q.text = a + " + " + b + " = ?";
-                } else if (opIndex == 1) {
-                    // Вычитание.
-                    a = random.nextInt(50) + 1;
-                    b = random.nextInt(50) + 1;
-                    if (b > a) {
-                        int tmp = a;
-                        a = b;
-                        b = tmp;
-                    }
-                    q.numericAnswer = a - b;
-                    q.text = a + " - " + b + " = ?";
-                } else if (opIndex == 2) {
-                    // Умножение.
-                    a = random.nextInt(10) + 1; // 1..10
-                    b = random.nextInt(10) + 1;
-                    q.numericAnswer = a * b;
-                    q.text = a + " × " + b + " = ?";
-                } else {
-                    // Деление нацело.
-                    b = random.nextInt(9) + 2; // 2..10
-                    int result = random.nextInt(10) + 1; // 1..10
-                    a = b * result;
-                    q.numericAnswer = result;
-                    q.text = a + " ÷ " + b + " = ?";
-                }
-                break;
-
-            case 3:
-            default:
-                // Третий уровень: выражения с несколькими действиями.
-                int template = random.nextInt(3);
-                if (template == 0) {
-                    // a + b + c
-                    a = random.nextInt(50) + 1;
-                    b = random.nextInt(50) + 1;
-                    c = random.nextInt(50) + 1;
-                    q.numericAnswer = a + b + c;
-                    q.text = a + " + " + b + " + " + c + " = ?";
-                } else if (template == 1) {
-                    // a + b - c (стараемся избежать отрицательных результатов).
-                    a = random.nextInt(60) + 20; // 20..79
-                    b = random.nextInt(40) + 1;  // 1..40
-                    c = random.nextInt(40) + 1;  // 1..40
-                    q.numericAnswer = a + b - c;
-                    q.text = a + " + " + b + " - " + c + " = ?";
-                } else {
-                    // (a + b) × c
-                    a = random.nextInt(10) + 1;
-                    b = random.nextInt(10) + 1;
-                    c = random.nextInt(5) + 2; // 2..6
-                    q.numericAnswer = (a + b) * c;
-                    q.text = "(" + a + " + " + b + ") × " + c + " = ?";
-                }
-                break;
+    private void showGameOverText() {
+        infoText.clear().append("Вы сделали 3 ошибки. Правильных ответов: ")
+                .append(session.correctAnswers()).append('\n');
+        if (historySummary != null) {
+            infoText.append(historySummary).append('\n');
         }
-
-        return q;
+        infoText.append("\nНеправильные ответы:");
+        textInfo.setText(infoText.array(), 0, infoText.length());
     }
 
     /**
-     * Генерация задания на проверку истинности выражения (вопросы "да/нет").
+     * Запрашивает у истории лучший счёт уровня и самое слабое действие за месяц —
+     * текущего ученика, если планшет общий; запрос выполняется в потоке истории
+     * после записи только что законченной игры.
      */
-    private Question generateBooleanQuestion(int level) {
-        Question q = new Question();
-        q.numeric = false;
-
-        int a;
-        int b;
-        int c;
-        int leftValue;
-        String leftText;
-
-        // Генерируем левую часть выражения (арифметическую).
-        if (level == 1) {
-            // Уровень 1: только + и - с небольшими числами
-            a = random.nextInt(20) + 1;
-            b = random.nextInt(20) + 1;
-
-            if (random.nextBoolean()) {
-                leftValue = a + b;
-                leftText = a + " + " + b;
-            } else {
-                if (b > a) {
-                    int tmp = a;
-                    a = b;
-                    b = tmp;
-                }
-                leftValue = a - b;
-                leftText = a + " - " + b;
+    private void requestHistorySummary() {
+        int level = session.level();
+        int student = historyStudent();
+        historyWriter.query(history -> {
+            StringBuilder summary = new StringBuilder();
+            summary.append("Лучший результат на уровне ").append(level).append(": ")
+                    .append(Math.max(history.bestScore(level, student), 0));
+            int weakest = history.weakestOperation(System.currentTimeMillis(), 30, 20, student);
+            if (weakest >= 0) {
+                summary.append("\nСлабее всего за месяц: ").append(LatencyStats.operationSymbol(weakest));
             }
-        } else if (level == 2) {
-            // Уровень 2: +, -, *, / (деление нацело)
-            int opIndex = random.nextInt(4);
-            if (opIndex == 0) {
-                // +
-                a = random.nextInt(50) + 1;
-                b = random.nextInt(50) + 1;
-                leftValue = a + b;
-                leftText = a + " + " + b;
-            } else if (opIndex == 1) {
-                // -
-                a = random.nextInt(50) + 1;
-                b = random.nextInt(50) + 1;
-                if (b > a) {
-                    int tmp = a;
-                    a = b;
-                    b = tmp;
+            String text = summary.toString();
+            runOnUiThread(() -> {
+                if (isDestroyed() || !session.isOver()) {
+                    return;
                 }
-                leftValue = a - b;
-                leftText = a + " - " + b;
-            } else if (opIndex == 2) {
-                // *
-                a = random.nextInt(10) + 1;
-                b = random.nextInt(10) + 1;
-                leftValue = a * b;
-                leftText = a + " × " + b;
-            } else {
-                // деление нацело
-                b = random.nextInt(9) + 2;
-                int result = random.nextInt(10) + 1;
-                a = b * result;
-                leftValue = result;
-                leftText = a + " ÷ " + b;
-            }
-        } else {
-            // Уровень 3: простые выражения с двумя действиями (+ и -),
-            // чтобы запись оставалась понятной для ребёнка
-            a = random.nextInt(50) + 1;
-            b = random.nextInt(50) + 1;
-            c = random.nextInt(30) + 1;
-
-            if (random.nextBoolean()) {
-                leftValue = a + b + c;
-                leftText = a + " + " + b + " + " + c;
-            } else {
-                leftValue = a + b - c;
-                leftText = a + " + " + b + " - " + c;
-            }
-        }
-
-        // Выбираем знак сравнения и решаем, будет ли выражение истинным или ложным.
-        int compIndex = random.nextInt(3); // 0:"<" 1:">" 2:"="
-        boolean shouldBeTrue = random.nextBoolean();
-
-        String comparator;
-        int rightValue;
-        boolean expressionIsTrue;
-
-        if (compIndex == 0) {
-            comparator = "<";
-            if (shouldBeTrue) {
-                // Делаем выражение однозначно истинным: rightValue > leftValue
-                rightValue = leftValue + (random.nextInt(10) + 1);
-                expressionIsTrue = true; // left < right
-            } else {
-                // делаем выражение ложным: right <= left
-                if (random.nextBoolean()) {
-                    // Случай right == left
-                    rightValue = leftValue;
-                } else {
-                    // Случай right < left (но не уходим сильно в минус)
-                    rightValue = leftValue - (random.nextInt(10) + 1);
-                    if (rightValue < 0) {
-                        rightValue = leftValue;
-                    }
-                }
-                expressionIsTrue = false;
-            }
-        } else if (compIndex == 1) {
-            comparator = ">";
-            if (shouldBeTrue) {
-                // Делаем выражение истинным: rightValue < leftValue
-                rightValue = leftValue - (random.nextInt(10) + 1);
-                if (rightValue < 0) {
-                    rightValue = 0;
-                }
-                expressionIsTrue = true; // left > right
-            } else {
-                // делаем выражение ложным: right >= left
-                if (random.nextBoolean()) {
-                    rightValue = leftValue;
-                } else {
-                    rightValue = leftValue + (random.nextInt(10) + 1);
-                }
-                expressionIsTrue = false;
-            }
-        } else {
-            comparator = "=";
-            if (shouldBeTrue) {
-                // Истинное равенство: rightValue == leftValue
-                rightValue = leftValue;
-                expressionIsTrue = true;
-            } else {
-                // Ложное "равенство": специально смещаем значение
-                int delta = random.nextInt(5) + 1;
-                if (random.nextBoolean()) {
-                    rightValue = leftValue + delta;
-                } else {
-                    rightValue = leftValue - delta;
-                    if (rightValue < 0) {
-                        rightValue = leftValue + delta;
-                    }
-                }
-                expressionIsTrue = false;
-            }
-        }
-
-        // Сохраняем правильный булевый ответ (истинно или ложно выражение)
-        q.booleanAnswer = expressionIsTrue;
-        // Формируем текст вопроса, который увидит пользователь
-        q.text = leftText + " " + comparator + " " + rightValue + " ?";
-        return q;
+                historySummary = text;
+                showGameOverText();
+            });
+        });
     }
 
     /**
-     * Внутренний класс, описывающий задание (вопрос).
-     * Может быть двух типов: числовой (numeric == true) или булевый (numeric == false).
+     * Сохраняет статистику времени ответа в файл latency.csv.
+     * Отчёт собирается здесь (гистограммы пишутся только из потока UI),
+     * а на диск записывается в фоновом потоке.
      */
-    private static class Question {
-        // Текст вопроса, который показывается пользователю
-        String text;
-        // Тип вопроса: true — числовой ответ, false — «да/нет»
-        boolean numeric;
-        // Числовой правильный ответ (используется, если numeric == true)
-        int numericAnswer;
-        // Правильный булевый ответ (используется, если numeric == false)
-        boolean booleanAnswer;
+    private void exportLatencyStats() {
+        TextBuffer csv = new TextBuffer(512);
+        latencyStats.appendCsv(csv);
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        File file = new File(getFilesDir(), "latency.csv");
+        statsExecutor.execute(() -> {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(bytes);
+            } catch (IOException ignored) {
+                // Статистика необязательна — игра продолжается и без неё
+            }
+        });
+    }
 
-        /**
-         * Возвращает готовую строку с правильным ответом
-         * (используется для подсказки/обратной связи пользователю).
-         */
-        String getCorrectAnswerText() {
-            if (numeric) {
-                return "Правильный ответ: " + numericAnswer;
-            } else {
-                return "Правильный ответ: " + (booleanAnswer ? "да" : "нет");
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Планшет могут выключить в любой момент: игра ученика уже в его профиле
+        saveCurrentProfile();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // При уничтожении Activity обязательно останавливаем таймер,
+        // чтобы избежать утечек и продолжения работы в фоне
+        questionTimer.stop();
+        // Останавливаем фоновую генерацию вопросов
+        prefetchExecutor.shutdownNow();
+        // Отчёт о времени ответа, переданный на запись, дописывается
+        statsExecutor.shutdown();
+        // Журнал закрываем, только если Activity уходит совсем, а не пересоздаётся;
+        // файл дописывается и закрывается в потоке журнала
+        if (!isChangingConfigurations()) {
+            sessionJournal.shutdown();
+            closingJournal = sessionJournal;
+            sessionJournal = null;
+            historyWriter.shutdown();
+            closingHistory = historyWriter;
+            historyWriter = null;
+            if (profileStore != null) {
+                profileStore.shutdown();
+                closingProfiles = profileStore;
+                profileStore = null;
             }
         }
     }
@@ -0,0 +1,60 @@
+package com.example.projectjavaflauwa;
+
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.projectjavaflauwa.engine.MistakeLog;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+/**
+ * Список неправильных ответов в итоговом отчёте.
+ *
+ * Текст записи собирается из {@link MistakeLog} только для видимых строк
+ * списка и только когда RecyclerView их показывает.
+ */
+final class MistakeAdapter extends RecyclerView.Adapter<MistakeAdapter.Holder> {
+
+    private final MistakeLog mistakeLog;
+    // Рабочий объект для распаковки вопроса (bind всегда в главном потоке)
+    private final Question scratch = new Question();
+
+    MistakeAdapter(MistakeLog mistakeLog) {
+        this.mistakeLog = mistakeLog;
+    }
+
+    @NonNull
+    @Override
+    public Holder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        TextView view = (TextView) LayoutInflater.from(parent.getContext())
+                .inflate(R.layout.item_mistake, parent, false);
+        return new Holder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull Holder holder, int position) {
+        holder.text.clear();
+        mistakeLog.appendRecord(position, scratch, holder.text);
+        holder.textView.setText(holder.text.array(), 0, holder.text.length());
+    }
+
+    @Override
+    public int getItemCount() {
+        return mistakeLog.size();
+    }
+
+    static final class Holder extends RecyclerView.ViewHolder {
+        final TextView textView;
+        // Свой буфер у каждой строки: TextView ссылается на его символы
+        final TextBuffer text = new TextBuffer(96);
+
+        Holder(TextView textView) {
+            super(textView);
+            this.textView = textView;
+        }
+    }
+}
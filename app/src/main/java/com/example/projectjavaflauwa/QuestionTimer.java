@@ -0,0 +1,126 @@
+package com.example.projectjavaflauwa;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.widget.TextView;
+
+/**
+ * Один таймер на всю игру вместо нового CountDownTimer на каждый вопрос.
+ *
+ * Оставшееся время всегда считается от абсолютного дедлайна по монотонным
+ * часам SystemClock, поэтому таймер не «уплывает», даже если очередной тик
+ * пришёл с опозданием. Подпись "Время: N" собирается в переиспользуемый
+ * буфер {@link CounterLabel} и обновляется только при смене секунды.
+ */
+final class QuestionTimer {
+
+    /**
+     * Получатель события «время вышло».
+     */
+    interface Listener {
+        void onTimeout();
+    }
+
+    static final String PREFIX = "Время: ";
+    static final String IDLE_LABEL = PREFIX + "-";
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final CounterLabel label;
+    private final Listener listener;
+    // Один и тот же Runnable переиспользуется для всех тиков
+    private final Runnable tick = this::onTick;
+
+    // Дедлайн текущего вопроса по SystemClock.uptimeMillis()
+    private long deadlineUptimeMillis;
+    // Момент показа вопроса по SystemClock.elapsedRealtimeNanos()
+    private long startedNanos;
+    private boolean running;
+
+    /**
+     * @param textTimer поле, в котором показывается оставшееся время
+     * @param listener  вызывается в главном потоке, когда время вышло
+     */
+    QuestionTimer(TextView textTimer, Listener listener) {
+        this.label = new CounterLabel(textTimer, PREFIX, "");
+        this.listener = listener;
+    }
+
+    /**
+     * Запускает отсчёт для нового вопроса (предыдущий отсчёт отменяется).
+     */
+    void start(long durationMillis) {
+        resume(durationMillis, 0);
+    }
+
+    /**
+     * Продолжает отсчёт, прерванный пересозданием Activity.
+     *
+     * @param remainingMillis сколько времени оставалось на вопрос
+     * @param elapsedNanos    сколько уже прошло с показа вопроса
+     */
+    void resume(long remainingMillis, long elapsedNanos) {
+        handler.removeCallbacks(tick);
+        startedNanos = SystemClock.elapsedRealtimeNanos() - elapsedNanos;
+        deadlineUptimeMillis = SystemClock.uptimeMillis() + remainingMillis;
+        running = true;
+        onTick();
+    }
+
+    /**
+     * Останавливает отсчёт (например, когда ответ уже дан).
+     *
+     * @return сколько наносекунд прошло с показа вопроса
+     */
+    long stop() {
+        handler.removeCallbacks(tick);
+        running = false;
+        return elapsedNanos();
+    }
+
+    /**
+     * Сколько наносекунд прошло с начала текущего отсчёта.
+     */
+    long elapsedNanos() {
+        return SystemClock.elapsedRealtimeNanos() - startedNanos;
+    }
+
+    /**
+     * Сколько миллисекунд осталось до дедлайна (0, если отсчёт не идёт).
+     */
+    long remainingMillis() {
+        return running ? Math.max(0, deadlineUptimeMillis - SystemClock.uptimeMillis()) : 0;
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Показывает прочерк вместо времени (игра окончена).
+     */
+    void showIdle() {
+        stop();
+        label.showText(IDLE_LABEL);
+    }
+
+    private void onTick() {
+        if (!running) {
+            return;
+        }
+        long remaining = deadlineUptimeMillis - SystemClock.uptimeMillis();
+        if (remaining <= 0) {
+            // Таймер закончился — считаем это ошибкой
+            running = false;
+            label.show(0);
+            listener.onTimeout();
+            return;
+        }
+
+        // Округляем вверх: в начале отсчёта видно полное время, "0" — только по его истечении
+        int seconds = (int) ((remaining + 999) / 1000);
+        label.show(seconds);
+        // Следующий тик — ровно на границе секунды относительно дедлайна
+        handler.postAtTime(tick, deadlineUptimeMillis - (seconds - 1) * 1000L);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.projectjavaflauwa;
+
+import android.os.Trace;
+
+import com.example.projectjavaflauwa.engine.GameMetrics;
+
+/**
+ * Замеры этапов игрового цикла секциями android.os.Trace: в трассе Perfetto
+ * или systrace они видны на потоке UI рядом с кадрами, поэтому пропуск
+ * кадра можно отнести к конкретному этапу.
+ *
+ * Имена секций собраны заранее; пока трасса не пишется, секция стоит
+ * одной проверки флага внутри Trace.
+ */
+final class TraceMetrics implements GameMetrics {
+
+    private static final String[] SECTIONS = new String[STAGE_COUNT];
+
+    static {
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            SECTIONS[stage] = "MathQuiz." + GameMetrics.stageName(stage);
+        }
+    }
+
+    @Override
+    public long begin(int stage) {
+        Trace.beginSection(SECTIONS[stage]);
+        return 0;
+    }
+
+    @Override
+    public void end(int stage, long token) {
+        Trace.endSection();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.projectjavaflauwa;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+/**
+ * Встроенная цифровая клавиатура: набор числа по нажатиям, отправка и автоответ.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class AnswerKeypadTest {
+
+    private View root;
+    private AnswerKeypad keypad;
+    private int answers;
+    private int lastAnswer;
+    private int emptySubmits;
+
+    @Before
+    public void setUp() {
+        RuntimeEnvironment.getApplication().setTheme(R.style.Theme_PROJECTJAVAFLAUWA);
+        root = LayoutInflater.from(RuntimeEnvironment.getApplication()).inflate(R.layout.activity_main, null);
+        keypad = new AnswerKeypad(root.findViewById(R.id.layoutNumeric), new AnswerKeypad.Listener() {
+            @Override
+            public void onAnswer(int value) {
+                answers++;
+                lastAnswer = value;
+            }
+
+            @Override
+            public void onEmptySubmit() {
+                emptySubmits++;
+            }
+        });
+    }
+
+    @Test
+    public void keys_buildNumberAndSubmitIt() {
+        keypad.reset(125);
+        press(R.id.key1, R.id.key2, R.id.key7, R.id.keyBackspace, R.id.key5);
+        assertEquals("125", display());
+        assertEquals(0, answers);
+
+        press(R.id.buttonSubmit);
+        assertEquals(1, answers);
+        assertEquals(125, lastAnswer);
+    }
+
+    @Test
+    public void signKey_entersNegativeAnswer() {
+        keypad.reset(-19);
+        press(R.id.keySign);
+        assertEquals("-", display());
+        press(R.id.key1, R.id.key9, R.id.buttonSubmit);
+        assertEquals(-19, lastAnswer);
+    }
+
+    @Test
+    public void emptySubmit_isReportedAndResetClearsDisplay() {
+        keypad.reset(4);
+        press(R.id.buttonSubmit);
+        assertEquals(1, emptySubmits);
+        assertEquals(0, answers);
+
+        press(R.id.key4);
+        keypad.reset(8);
+        assertEquals("", display());
+    }
+
+    @Test
+    public void autoSubmit_answersOnLastExpectedDigit() {
+        keypad.setAutoSubmit(true);
+        keypad.reset(42);
+        press(R.id.key4);
+        assertEquals(0, answers);
+        press(R.id.key2);
+        assertEquals(1, answers);
+        assertEquals(42, lastAnswer);
+
+        // Неверный ответ той же длины тоже отправляется сам
+        keypad.reset(42);
+        press(R.id.key1, R.id.key3);
+        assertEquals(2, answers);
+        assertEquals(13, lastAnswer);
+
+        // Модуль отрицательного ответа ждёт минуса
+        keypad.reset(-7);
+        press(R.id.key7);
+        assertEquals(2, answers);
+        press(R.id.keySign);
+        assertEquals(3, answers);
+        assertEquals(-7, lastAnswer);
+    }
+
+    private void press(int... ids) {
+        for (int id : ids) {
+            root.findViewById(id).performClick();
+        }
+    }
+
+    private String display() {
+        return ((TextView) root.findViewById(R.id.textAnswer)).getText().toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.projectjavaflauwa;
+
+import android.widget.TextView;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Подписи статистики и таймера: правильный текст, обновление только при
+ * изменении и отсутствие выделений памяти при обновлении подписей.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class CounterLabelTest {
+
+    @Test
+    public void activityLabels_showInitialCounters() {
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+        assertEquals("Уровень: 1", textOf(controller, R.id.textLevel));
+        assertEquals("Правильных: 0", textOf(controller, R.id.textScore));
+        assertEquals("Ошибок: 0/" + GameSession.MAX_MISTAKES, textOf(controller, R.id.textMistakes));
+        assertTrue(textOf(controller, R.id.textTimer).startsWith(QuestionTimer.PREFIX));
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void show_updatesViewOnlyOnChange() {
+        TextView view = new TextView(RuntimeEnvironment.getApplication());
+        CounterLabel label = new CounterLabel(view, MainActivity.MISTAKES_PREFIX, MainActivity.MISTAKES_SUFFIX);
+
+        assertTrue(label.show(2));
+        assertEquals("Ошибок: 2/3", view.getText().toString());
+        assertFalse(label.show(2));
+
+        label.showText("-");
+        assertEquals("-", view.getText().toString());
+        // После постороннего текста то же число снова выводится
+        assertTrue(label.show(2));
+        assertEquals("Ошибок: 2/3", view.getText().toString());
+        assertTrue(label.show(-15));
+        assertEquals("Ошибок: -15/3", view.getText().toString());
+    }
+
+    @Test
+    public void counterLabelUpdates_allocateNothing() {
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).create();
+        MainActivity activity = controller.get();
+        // Замеряются только подписи CounterLabel на View разметки, с теми же обновлениями,
+        // что после ответа; остальной путь ответа в MainActivity (сеанс, журнал, история)
+        // здесь не выполняется. Разметка создана, но ещё не измерена: в замер не входит
+        // перестройка Layout, которую TextView делает на экране при любом тексте
+        CounterLabel level = new CounterLabel(activity.findViewById(R.id.textLevel), MainActivity.LEVEL_PREFIX, "");
+        CounterLabel score = new CounterLabel(activity.findViewById(R.id.textScore), MainActivity.SCORE_PREFIX, "");
+        CounterLabel mistakes = new CounterLabel(activity.findViewById(R.id.textMistakes),
+                MainActivity.MISTAKES_PREFIX, MainActivity.MISTAKES_SUFFIX);
+        CounterLabel timer = new CounterLabel(activity.findViewById(R.id.textTimer), QuestionTimer.PREFIX, "");
+
+        // Прогрев: первые вызовы создают внутреннюю обёртку TextView и загружают классы
+        answer(0, 20_000, level, score, mistakes, timer);
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        // Собственные выделения пары замеров вычитаются
+        long overhead = -threads.getThreadAllocatedBytes(thread) + threads.getThreadAllocatedBytes(thread);
+        long before = threads.getThreadAllocatedBytes(thread);
+        answer(20_000, 20_000, level, score, mistakes, timer);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before - overhead;
+
+        assertEquals("байт на 20 000 обновлений подписей", 0, allocated);
+        controller.destroy();
+    }
+
+    /**
+     * Обновления подписей, как после ответа: счёт растёт, уровень и ошибки
+     * обычно те же, таймер отсчитывает секунды нового вопроса.
+     */
+    private static void answer(int from, int count, CounterLabel level, CounterLabel score,
+                               CounterLabel mistakes, CounterLabel timer) {
+        for (int i = from; i < from + count; i++) {
+            level.show(5);
+            score.show(i);
+            mistakes.show(1);
+            for (int seconds = 15; seconds >= 0; seconds--) {
+                timer.show(seconds);
+            }
+        }
+    }
+
+    private static String textOf(ActivityController<MainActivity> controller, int id) {
+        return ((TextView) controller.get().findViewById(id)).getText().toString();
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.projectjavaflauwa;
+
+import android.os.Bundle;
+import android.os.Looper;
+import android.widget.TextView;
+
+import com.example.projectjavaflauwa.engine.GameSnapshot;
+import com.example.projectjavaflauwa.engine.MistakeLog;
+import com.example.projectjavaflauwa.engine.ProfileStore;
+import com.example.projectjavaflauwa.engine.SeenProblems;
+import com.example.projectjavaflauwa.engine.StudentProfile;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.*;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Пересоздание Activity (поворот экрана, перезапуск процесса) продолжает игру из снимка,
+ * а не начинает новую.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 35)
+public class GameRestoreTest {
+
+    @Test
+    public void recreate_resumesSameQuestionAndCounters() {
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+        String question = textOf(controller, R.id.textQuestion);
+        String level = textOf(controller, R.id.textLevel);
+
+        MainActivity before = controller.get();
+
+        // Сохранение состояния, уничтожение и создание новой Activity, как при повороте экрана
+        controller.recreate();
+
+        assertNotSame(before, controller.get());
+        assertEquals(question, textOf(controller, R.id.textQuestion));
+        assertEquals(level, textOf(controller, R.id.textLevel));
+        assertNotEquals(QuestionTimer.IDLE_LABEL, textOf(controller, R.id.textTimer));
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void savedSnapshot_decodesToShownGame() {
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup();
+        Bundle state = new Bundle();
+        controller.saveInstanceState(state);
+        byte[] data = state.getByteArray("game_snapshot");
+        assertNotNull(data);
+
+        // Скорость разбора снимка меряет SnapshotBenchmark в модуле jmh
+        GameSnapshot snapshot = new GameSnapshot(new MistakeLog(), new SeenProblems());
+        snapshot.decode(data);
+        assertFalse(snapshot.gameOver);
+        assertEquals(1, snapshot.level);
+        assertArrayEquals(data, snapshot.encode());
+        controller.pause().stop().destroy();
+    }
+
+    @Test
+    public void processRestart_continuesStudentGameAfterProfileLoads() throws Exception {
+        File directory = new File(RuntimeEnvironment.getApplication().getFilesDir(), "profiles");
+        ProfileStore store = ProfileStore.open(directory, ProfileStore.DEFAULT_CACHE_SIZE);
+        StudentProfile student = store.add("Аня");
+        // Общий планшет (R.bool.kiosk_mode): Activity берёт уже открытые профили, ученик выбран
+        setProfileStore(store);
+        Bundle chosen = new Bundle();
+        chosen.putString("profile_id", student.id());
+        ActivityController<MainActivity> controller = Robolectric.buildActivity(MainActivity.class).setup(chosen);
+        Bundle state = new Bundle();
+        controller.saveInstanceState(state);
+        String question = questionOf(state.getByteArray("game_snapshot"));
+
+        // Процесс убит: Activity уходит совсем, профили закрываются, новый процесс
+        // открывает их заново с пустым кэшем
+        controller.pause().stop().destroy();
+        store.close();
+        ProfileStore fresh = ProfileStore.open(directory, ProfileStore.DEFAULT_CACHE_SIZE);
+        assertNull(fresh.cached(student.id()));
+        setProfileStore(fresh);
+        ActivityController<MainActivity> restored = Robolectric.buildActivity(MainActivity.class).setup(state);
+
+        // Профиль читается в потоке профилей, игра продолжается после чтения
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!"Ученик: Аня".equals(textOf(restored, R.id.buttonStudent))) {
+            assertTrue("Профиль ученика не прочитан", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertNotEquals(QuestionTimer.IDLE_LABEL, textOf(restored, R.id.textTimer));
+
+        // Игра по-прежнему сохраняется в профиль ученика, а не идёт без ученика
+        restored.pause().stop();
+        assertEquals(question, questionOf(fresh.cached(student.id()).savedGame()));
+        restored.destroy();
+        fresh.close();
+    }
+
+    private static String questionOf(byte[] data) {
+        GameSnapshot snapshot = new GameSnapshot(new MistakeLog(), new SeenProblems());
+        snapshot.decode(data);
+        return snapshot.question.getText();
+    }
+
+    private static void setProfileStore(ProfileStore store) throws ReflectiveOperationException {
+        Field field = MainActivity.class.getDeclaredField("profileStore");
+        field.setAccessible(true);
+        field.set(null, store);
+    }
+
+    private static String textOf(ActivityController<MainActivity> controller, int id) {
+        return ((TextView) controller.get().findViewById(id)).getText().toString();
+    }
+}
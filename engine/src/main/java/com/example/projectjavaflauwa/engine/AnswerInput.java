@@ -0,0 +1,155 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Числовой ответ, набираемый по одной цифре с экранной клавиатуры.
+ *
+ * Значение копится сразу в int (value * 10 + digit), поэтому при отправке
+ * не нужно ни собирать строку, ни разбирать её. Ведущий ноль заменяется
+ * следующей цифрой, так что число цифр всегда совпадает с записью значения.
+ *
+ * Если задан ожидаемый ответ и включён автоответ, {@link #digit(int)} и
+ * {@link #toggleSign()} сообщают, что набрано столько же цифр, сколько в
+ * правильном ответе, и с тем же знаком, — ответ можно отправлять без нажатия
+ * «Ответить». Знак учитывается, чтобы модуль отрицательного ответа, набранный
+ * раньше минуса, не уходил неверным ответом до нажатия «±».
+ */
+public final class AnswerInput {
+
+    // Больше девяти цифр не помещается в int без переполнения
+    public static final int MAX_DIGITS = 9;
+
+    // Модуль набранного числа и количество набранных цифр
+    private int magnitude;
+    private int digits;
+    private boolean negative;
+    // Сколько цифр в правильном ответе; 0 — автоответ выключен
+    private int expectedDigits;
+    // Отрицателен ли правильный ответ
+    private boolean expectedNegative;
+
+    /**
+     * Стирает набранное и задаёт ожидаемый ответ нового вопроса.
+     *
+     * @param autoSubmit отправлять ли ответ сам, когда набрано нужное число цифр
+     */
+    public void reset(int expectedAnswer, boolean autoSubmit) {
+        clear();
+        expect(expectedAnswer, autoSubmit);
+    }
+
+    /**
+     * Задаёт ожидаемый ответ, не трогая уже набранное (после пересоздания экрана).
+     */
+    public void expect(int expectedAnswer, boolean autoSubmit) {
+        expectedDigits = autoSubmit
+                ? TextBuffer.digitCount(expectedAnswer < 0 ? -expectedAnswer : expectedAnswer)
+                : 0;
+        expectedNegative = expectedAnswer < 0;
+    }
+
+    /**
+     * Стирает набранное.
+     */
+    public void clear() {
+        magnitude = 0;
+        digits = 0;
+        negative = false;
+    }
+
+    /**
+     * Дописывает цифру справа.
+     *
+     * @return true, если включён автоответ и набрано столько цифр, сколько в правильном
+     *         ответе, с тем же знаком
+     */
+    public boolean digit(int digit) {
+        if (digit < 0 || digit > 9) {
+            throw new IllegalArgumentException("Не цифра: " + digit);
+        }
+        if (digits == 1 && magnitude == 0) {
+            // "0" + цифра — это просто цифра
+            magnitude = digit;
+        } else if (digits < MAX_DIGITS) {
+            magnitude = magnitude * 10 + digit;
+            digits++;
+        } else {
+            return false;
+        }
+        return isComplete();
+    }
+
+    /**
+     * Стирает последнюю цифру; если цифр нет — снимает минус.
+     */
+    public void backspace() {
+        if (digits > 0) {
+            magnitude /= 10;
+            digits--;
+        } else {
+            negative = false;
+        }
+    }
+
+    /**
+     * Меняет знак набираемого числа (минус можно поставить и до первой цифры).
+     *
+     * @return true, если включён автоответ и ответ набран полностью (см. {@link #digit(int)})
+     */
+    public boolean toggleSign() {
+        negative = !negative;
+        return isComplete();
+    }
+
+    private boolean isComplete() {
+        return expectedDigits > 0 && digits == expectedDigits && negative == expectedNegative;
+    }
+
+    /**
+     * Набраны ли цифры (один минус ответом не считается).
+     */
+    public boolean isEmpty() {
+        return digits == 0;
+    }
+
+    public int digits() {
+        return digits;
+    }
+
+    public boolean isNegative() {
+        return negative;
+    }
+
+    /**
+     * Набранное число.
+     */
+    public int value() {
+        return negative ? -magnitude : magnitude;
+    }
+
+    /**
+     * Восстанавливает набранное из {@link #digits()}, {@link #isNegative()} и {@link #value()}.
+     */
+    public void restore(int digits, boolean negative, int value) {
+        int restoredMagnitude = value < 0 ? -value : value;
+        if (digits < 0 || digits > MAX_DIGITS
+                || (digits == 0 ? restoredMagnitude != 0
+                        : TextBuffer.digitCount(restoredMagnitude) != digits)) {
+            throw new IllegalArgumentException("Неверное состояние ввода: " + digits + " цифр, " + value);
+        }
+        this.magnitude = restoredMagnitude;
+        this.digits = digits;
+        this.negative = negative;
+    }
+
+    /**
+     * Дописывает набранное так, как оно видно на экране: "-", "-12", "7" или ничего.
+     */
+    public void appendTo(TextBuffer out) {
+        if (negative) {
+            out.append('-');
+        }
+        if (digits > 0) {
+            out.append(magnitude);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Правая часть вопроса «да/нет» по уже выбранной левой части.
+ *
+ * Сначала с вероятностью 1/2 выбирается, истинно ли сравнение, затем знак —
+ * равновероятно среди знаков, при которых сравнение с такой истинностью
+ * возможно, затем правая часть — равномерно из допустимого диапазона.
+ * Диапазон известен заранее (правая часть неотрицательна и отходит от левой
+ * не дальше {@link #ORDER_SPREAD}, у ложного равенства — {@link #EQUAL_SPREAD}),
+ * поэтому выбор за O(1) и без повторных попыток. Единственное пустое
+ * сочетание — истинное «0 > x»: при левой части 0 истинный вопрос
+ * получает знак «<» или «=».
+ */
+public final class ComparisonSampler {
+
+    // Насколько правая часть отходит от левой в сравнениях «<» и «>»
+    public static final int ORDER_SPREAD = 10;
+    // Насколько правая часть отходит от левой в ложном равенстве
+    public static final int EQUAL_SPREAD = 5;
+
+    private final SplittableRandom random;
+
+    /**
+     * @param random источник случайных чисел (может быть общим с владельцем)
+     */
+    public ComparisonSampler(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Записывает в q знак сравнения, правую часть и правильный ответ.
+     *
+     * @param leftValue значение левой части, не меньше 0
+     */
+    public void sample(int leftValue, Question q) {
+        if (leftValue < 0) {
+            throw new IllegalArgumentException("Левая часть сравнения отрицательна: " + leftValue);
+        }
+        boolean truth = random.nextBoolean();
+        int comparator;
+        if (truth && leftValue == 0) {
+            // Истинного «0 > x» при x ≥ 0 не бывает
+            comparator = random.nextBoolean() ? QuestionTemplate.LESS : QuestionTemplate.EQUAL;
+        } else {
+            comparator = random.nextInt(3);
+        }
+
+        int rightValue;
+        switch (comparator) {
+            case QuestionTemplate.LESS:
+                rightValue = truth
+                        ? uniform(leftValue + 1, leftValue + ORDER_SPREAD)
+                        : uniform(Math.max(0, leftValue - ORDER_SPREAD), leftValue);
+                break;
+            case QuestionTemplate.GREATER:
+                rightValue = truth
+                        ? uniform(Math.max(0, leftValue - ORDER_SPREAD), leftValue - 1)
+                        : uniform(leftValue, leftValue + ORDER_SPREAD);
+                break;
+            default:
+                if (truth) {
+                    rightValue = leftValue;
+                } else {
+                    // Равномерно по [max(0, left - 5), left + 5] без самого left:
+                    // выбираем из диапазона на одно число короче и сдвигаем значения от left
+                    rightValue = uniform(Math.max(0, leftValue - EQUAL_SPREAD), leftValue + EQUAL_SPREAD - 1);
+                    if (rightValue >= leftValue) {
+                        rightValue++;
+                    }
+                }
+                break;
+        }
+
+        q.comparator = comparator;
+        q.rightValue = rightValue;
+        q.booleanAnswer = truth;
+    }
+
+    /**
+     * Равномерно из [low, high] (оба конца включены).
+     */
+    private int uniform(int low, int high) {
+        return low + random.nextInt(high - low + 1);
+    }
+}
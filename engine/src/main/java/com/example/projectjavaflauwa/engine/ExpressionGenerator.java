@@ -0,0 +1,204 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Генератор случайных выражений для уровней 4 и выше.
+ *
+ * Дерево выражения строится сверху вниз рекурсией и сразу записывается
+ * в постфиксную {@link ExpressionProgram}: узел дописывается после своих
+ * поддеревьев. Ограничения выполняются при построении, а не перебором:
+ * вычитаемое строится с верхней границей «меньше уменьшаемого»,
+ * у делимого и делителя сначала выбираются частное и делитель, множитель
+ * берётся так, чтобы произведение не вышло за {@link Spec#maxValue}.
+ *
+ * Экземпляр не потокобезопасен (как и {@link QuestionEngine}, которому он принадлежит).
+ */
+public final class ExpressionGenerator {
+
+    // Первый уровень, на котором вопросы строятся этим генератором
+    public static final int FIRST_LEVEL = 4;
+
+    // Все действия: биты 1 << ExpressionProgram.ADD, SUB, MUL, DIV
+    public static final int ALL_OPERATORS = 1 << ExpressionProgram.ADD | 1 << ExpressionProgram.SUB
+            | 1 << ExpressionProgram.MUL | 1 << ExpressionProgram.DIV;
+
+    /**
+     * Настройки генерации: набор действий, размер дерева и диапазоны чисел.
+     * Деление всегда нацело.
+     */
+    public static final class Spec {
+        // Разрешённые действия: биты 1 << ExpressionProgram.ADD и т. д.
+        public final int operators;
+        // Количество действий в выражении (равномерно в диапазоне)
+        public final int minOperators;
+        public final int maxOperators;
+        // Слагаемые, уменьшаемое и вычитаемое
+        public final int minOperand;
+        public final int maxOperand;
+        // Второй множитель и делитель
+        public final int minFactor;
+        public final int maxFactor;
+        // Верхняя граница всех промежуточных значений и ответа (и делимого)
+        public final int maxValue;
+        // Промежуточные значения не бывают отрицательными
+        public final boolean nonNegative;
+
+        public Spec(int operators, int minOperators, int maxOperators, int minOperand, int maxOperand,
+                    int minFactor, int maxFactor, int maxValue, boolean nonNegative) {
+            if (minOperators < 1 || maxOperators < minOperators) {
+                throw new IllegalArgumentException("Неверное количество действий: "
+                        + minOperators + ".." + maxOperators);
+            }
+            if (minOperand < 0 || maxOperand < minOperand || minFactor < 1 || maxFactor < minFactor
+                    || maxValue < Math.max(maxOperand, maxFactor)) {
+                throw new IllegalArgumentException("Неверные диапазоны чисел");
+            }
+            // Деление стоит только над двумя числами, поэтому для дерева одного деления мало
+            int withoutDivision = operators & ~(1 << ExpressionProgram.DIV);
+            if (operators == 0 || (operators & ~ALL_OPERATORS) != 0
+                    || maxOperators > 1 && withoutDivision == 0) {
+                throw new IllegalArgumentException("Неверный набор действий: " + operators);
+            }
+            this.operators = operators;
+            this.minOperators = minOperators;
+            this.maxOperators = maxOperators;
+            this.minOperand = minOperand;
+            this.maxOperand = maxOperand;
+            this.minFactor = minFactor;
+            this.maxFactor = maxFactor;
+            this.maxValue = maxValue;
+            this.nonNegative = nonNegative;
+        }
+
+        /**
+         * Помещаются ли все выражения этих настроек в поля вопроса
+         * (см. {@link ExpressionProgram#writeTo(Question)}).
+         */
+        public boolean fitsQuestion() {
+            return nonNegative && maxOperators <= ExpressionProgram.MAX_PACKED_OPERATORS
+                    && maxValue <= ExpressionProgram.MAX_PACKED_OPERAND;
+        }
+    }
+
+    // Уровень 4: два действия любого вида, числа до 200
+    static final Spec LEVEL_4 = new Spec(ALL_OPERATORS, 2, 2, 2, 50, 2, 9, 200, true);
+    // Уровень 5: два-три действия, числа до 255
+    static final Spec LEVEL_5 = new Spec(ALL_OPERATORS, 2, 3, 5, 99, 2, 12, 255, true);
+
+    /**
+     * Настройки уровня (4 и выше; уровни больше 5 используют настройки уровня 5).
+     */
+    public static Spec forLevel(int level) {
+        return level <= FIRST_LEVEL ? LEVEL_4 : LEVEL_5;
+    }
+
+    private final SplittableRandom random;
+    private Spec spec;
+    private ExpressionProgram out;
+
+    /**
+     * @param random источник случайных чисел (может быть общим с владельцем генератора)
+     */
+    public ExpressionGenerator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Строит новое случайное выражение в out.
+     *
+     * @return значение выражения
+     */
+    public int generate(Spec spec, ExpressionProgram out) {
+        this.spec = spec;
+        this.out = out;
+        out.clear();
+        int operators = spec.minOperators + below(spec.maxOperators - spec.minOperators + 1);
+        return node(operators, spec.maxValue);
+    }
+
+    /**
+     * Поддерево из operators действий со значением не больше cap.
+     * Если места не осталось (cap == 0), поддерево вырождается в число 0.
+     */
+    private int node(int operators, int cap) {
+        if (operators == 0 || cap == 0) {
+            return leaf(spec.minOperand, spec.maxOperand, cap);
+        }
+        int rest = operators - 1;
+        int allowed = rest == 0 ? spec.operators : spec.operators & ~(1 << ExpressionProgram.DIV);
+        int op = nthOperator(allowed, below(Integer.bitCount(allowed)));
+        // Сколько из остальных действий уйдёт в левое поддерево
+        int leftOperators = rest == 0 ? 0 : below(rest + 1);
+        switch (op) {
+            case ExpressionProgram.ADD: {
+                // Оставляем правой части место хотя бы под наименьшее слагаемое
+                int left = node(leftOperators, Math.max(cap >> 1, cap - spec.minOperand));
+                int right = node(rest - leftOperators, cap - left);
+                out.operator(op);
+                return left + right;
+            }
+            case ExpressionProgram.SUB: {
+                int left = node(leftOperators, cap);
+                // Вычитаемое меньше уменьшаемого: разность не ноль и не отрицательна
+                int right = node(rest - leftOperators, spec.nonNegative ? Math.max(0, left - 1) : cap);
+                out.operator(op);
+                return left - right;
+            }
+            case ExpressionProgram.MUL: {
+                // Второй множитель — всегда число из диапазона множителей
+                int left = node(rest, cap / spec.minFactor);
+                int right = leaf(spec.minFactor, spec.maxFactor,
+                        left == 0 ? spec.maxFactor : cap / Math.abs(left));
+                out.operator(op);
+                return left * right;
+            }
+            default: {
+                // Деление нацело: сначала делитель и частное, делимое — их произведение
+                int divisor = leaf(spec.minFactor, spec.maxFactor, cap, false);
+                int maxQuotient = Math.max(1, cap / divisor);
+                int quotient = Math.min(2, maxQuotient) + below(Math.max(1, maxQuotient - 1));
+                out.push(quotient * divisor);
+                out.push(divisor);
+                out.operator(op);
+                return quotient;
+            }
+        }
+    }
+
+    /**
+     * Действие с номером pick среди разрешённых (деление — только над двумя числами).
+     */
+    private static int nthOperator(int allowed, int pick) {
+        for (int op = ExpressionProgram.ADD; ; op++) {
+            if ((allowed & 1 << op) != 0 && pick-- == 0) {
+                return op;
+            }
+        }
+    }
+
+    private int leaf(int min, int max, int cap) {
+        return leaf(min, max, cap, true);
+    }
+
+    /**
+     * Случайное число из [min, max], не больше cap (при малом cap диапазон сужается).
+     */
+    private int leaf(int min, int max, int cap, boolean emit) {
+        int hi = Math.min(max, Math.max(0, cap));
+        int lo = Math.min(min, hi);
+        int value = lo + below(hi - lo + 1);
+        if (emit) {
+            out.push(value);
+        }
+        return value;
+    }
+
+    /**
+     * Случайное число в [0, bound) умножением вместо деления
+     * (смещение порядка bound / 2^32, для примеров несущественно).
+     */
+    private int below(int bound) {
+        return (int) (((random.nextInt() & 0xFFFFFFFFL) * bound) >>> 32);
+    }
+}
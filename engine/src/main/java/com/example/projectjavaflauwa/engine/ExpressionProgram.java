@@ -0,0 +1,340 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.Arrays;
+
+/**
+ * Арифметическое выражение, скомпилированное в плоскую постфиксную программу.
+ *
+ * Каждая инструкция — один int: в младших {@link #OP_BITS} битах код операции,
+ * у {@link #PUSH} в старших битах лежит само число. Например, (3 + 4) × 2 — это
+ * PUSH 3, PUSH 4, ADD, PUSH 2, MUL. Вычисление — один проход по массиву
+ * со стеком на int[], без объектов на узлы дерева.
+ *
+ * Выражение до {@link #MAX_PACKED_OPERATORS} действий с числами
+ * до {@link #MAX_PACKED_OPERAND} помещается в поля a, b, c вопроса
+ * (шаблон {@link QuestionTemplate#EXPRESSION}), по 16 бит в каждом:
+ *  - a: число 0 | число 1 (по 8 бит), b: число 2 | число 3;
+ *  - c: количество действий (2 бита) | коды действий (по 2 бита) |
+ *    маска «инструкция i — действие» (7 бит).
+ * Поэтому такие вопросы без изменений проходят через {@link QuestionPool},
+ * журнал и снимок игры.
+ */
+public final class ExpressionProgram {
+
+    // Коды инструкций
+    public static final int PUSH = 0;
+    public static final int ADD = 1;
+    public static final int SUB = 2;
+    public static final int MUL = 3;
+    public static final int DIV = 4;
+
+    // Под код инструкции отведены младшие биты
+    public static final int OP_BITS = 3;
+    private static final int OP_MASK = (1 << OP_BITS) - 1;
+
+    // Ограничения упаковки в поля вопроса
+    public static final int MAX_PACKED_OPERATORS = 3;
+    public static final int MAX_PACKED_OPERAND = 0xFF;
+
+    private int[] code;
+    private int length;
+    private int[] stack;
+
+    /**
+     * @param maxOperators сколько действий ожидается (при необходимости массив растёт)
+     */
+    public ExpressionProgram(int maxOperators) {
+        int capacity = 2 * Math.max(1, maxOperators) + 1;
+        this.code = new int[capacity];
+        this.stack = new int[capacity];
+    }
+
+    public void clear() {
+        length = 0;
+    }
+
+    /**
+     * Добавляет инструкцию «положить число на стек».
+     */
+    public void push(int value) {
+        append(value << OP_BITS | PUSH);
+    }
+
+    /**
+     * Добавляет действие над двумя верхними числами стека (ADD, SUB, MUL или DIV).
+     */
+    public void operator(int op) {
+        append(op);
+    }
+
+    private void append(int instruction) {
+        if (length == code.length) {
+            code = Arrays.copyOf(code, length * 2);
+            stack = new int[code.length];
+        }
+        code[length++] = instruction;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int instruction(int index) {
+        return code[index];
+    }
+
+    /**
+     * Количество действий в выражении.
+     */
+    public int operatorCount() {
+        return length / 2;
+    }
+
+    /**
+     * Значение выражения. Деление целочисленное.
+     */
+    public int evaluate() {
+        int[] code = this.code;
+        int[] stack = this.stack;
+        int top = -1;
+        for (int i = 0, n = length; i < n; i++) {
+            int instruction = code[i];
+            switch (instruction & OP_MASK) {
+                case PUSH:
+                    stack[++top] = instruction >> OP_BITS;
+                    break;
+                case ADD:
+                    top--;
+                    stack[top] += stack[top + 1];
+                    break;
+                case SUB:
+                    top--;
+                    stack[top] -= stack[top + 1];
+                    break;
+                case MUL:
+                    top--;
+                    stack[top] *= stack[top + 1];
+                    break;
+                default:
+                    top--;
+                    stack[top] /= stack[top + 1];
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * Дописывает обычную запись выражения, например "(3 + 4) × 2",
+     * с минимально нужными скобками.
+     */
+    public void appendText(TextBuffer out) {
+        appendNode(out, code, 0, length - 1);
+    }
+
+    /**
+     * Помещается ли выражение в поля вопроса (см. описание класса).
+     */
+    public boolean fitsQuestion() {
+        if (operatorCount() < 1 || operatorCount() > MAX_PACKED_OPERATORS) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            int instruction = code[i];
+            if ((instruction & OP_MASK) == PUSH
+                    && (instruction >> OP_BITS < 0 || instruction >> OP_BITS > MAX_PACKED_OPERAND)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Записывает выражение в шаблон и поля a, b, c вопроса.
+     *
+     * @throws IllegalStateException если выражение не помещается (см. {@link #fitsQuestion()})
+     */
+    public void writeTo(Question q) {
+        if (!fitsQuestion()) {
+            throw new IllegalStateException("Выражение не помещается в вопрос: " + length + " инструкций");
+        }
+        int operands = 0;
+        int operators = 0;
+        int kinds = 0;
+        int ops = 0;
+        long values = 0;
+        for (int i = 0; i < length; i++) {
+            int instruction = code[i];
+            if ((instruction & OP_MASK) == PUSH) {
+                values |= (long) (instruction >> OP_BITS) << (8 * operands++);
+            } else {
+                kinds |= 1 << i;
+                ops |= ((instruction & OP_MASK) - 1) << (2 * operators++);
+            }
+        }
+        q.template = QuestionTemplate.EXPRESSION;
+        // Храним как short: так же поля выглядят после распаковки из QuestionPool
+        q.a = (short) values;
+        q.b = (short) (values >>> 16);
+        q.c = operators | ops << 2 | kinds << 8;
+    }
+
+    /**
+     * Восстанавливает выражение из полей a, b, c вопроса с шаблоном
+     * {@link QuestionTemplate#EXPRESSION}.
+     */
+    public void readFrom(Question q) {
+        clear();
+        long tokens = unpack(q.a, q.b, q.c);
+        for (int i = 0, n = packedLength(q.c); i < n; i++) {
+            append(token(tokens, i));
+        }
+    }
+
+    /**
+     * Значение упакованного выражения (см. {@link #writeTo(Question)}).
+     */
+    static int evaluatePacked(int a, int b, int c) {
+        return evaluateNode(unpack(a, b, c), packedLength(c) - 1);
+    }
+
+    /**
+     * Запись упакованного выражения без распаковки в массив.
+     */
+    static void appendPacked(TextBuffer out, int a, int b, int c) {
+        appendNode(out, null, unpack(a, b, c), packedLength(c) - 1);
+    }
+
+    /**
+     * Последнее действие упакованного выражения (корень дерева).
+     */
+    static int packedLastOperator(int c) {
+        return ((c >>> (2 + 2 * ((c & 0x3) - 1))) & 0x3) + 1;
+    }
+
+    private static int packedLength(int c) {
+        return 2 * (c & 0x3) + 1;
+    }
+
+    /**
+     * Инструкции упакованного выражения в одном long, по 9 бит на инструкцию:
+     * число (8 бит) или признак действия (бит 8) с кодом действия.
+     */
+    private static long unpack(int a, int b, int c) {
+        int values = (a & 0xFFFF) | b << 16;
+        int kinds = c >>> 8;
+        int ops = c >>> 2;
+        long tokens = 0;
+        for (int i = 0, n = packedLength(c); i < n; i++) {
+            long token;
+            if ((kinds >>> i & 1) != 0) {
+                token = 0x100 | (ops & 0x3) + 1;
+                ops >>>= 2;
+            } else {
+                token = values & 0xFF;
+                values >>>= 8;
+            }
+            tokens |= token << (9 * i);
+        }
+        return tokens;
+    }
+
+    private static int token(long tokens, int index) {
+        int token = (int) (tokens >>> (9 * index)) & 0x1FF;
+        return token >= 0x100 ? token & OP_MASK : token << OP_BITS;
+    }
+
+    private static int instruction(int[] code, long tokens, int index) {
+        return code != null ? code[index] : token(tokens, index);
+    }
+
+    /**
+     * Начало поддерева, которое заканчивается инструкцией end.
+     */
+    private static int subtreeStart(int[] code, long tokens, int end) {
+        int need = 1;
+        for (int i = end; ; i--) {
+            need += (instruction(code, tokens, i) & OP_MASK) == PUSH ? -1 : 1;
+            if (need == 0) {
+                return i;
+            }
+        }
+    }
+
+    private static int evaluateNode(long tokens, int end) {
+        int instruction = token(tokens, end);
+        int op = instruction & OP_MASK;
+        if (op == PUSH) {
+            return instruction >> OP_BITS;
+        }
+        int right = evaluateNode(tokens, end - 1);
+        int left = evaluateNode(tokens, subtreeStart(null, tokens, end - 1) - 1);
+        switch (op) {
+            case ADD:
+                return left + right;
+            case SUB:
+                return left - right;
+            case MUL:
+                return left * right;
+            default:
+                return left / right;
+        }
+    }
+
+    private static void appendNode(TextBuffer out, int[] code, long tokens, int end) {
+        int instruction = instruction(code, tokens, end);
+        int op = instruction & OP_MASK;
+        if (op == PUSH) {
+            out.append(instruction >> OP_BITS);
+            return;
+        }
+        int leftEnd = subtreeStart(code, tokens, end - 1) - 1;
+        int precedence = precedence(op);
+
+        int leftPrecedence = precedence(instruction(code, tokens, leftEnd) & OP_MASK);
+        appendChild(out, code, tokens, leftEnd, leftPrecedence < precedence);
+
+        out.append(' ').append(symbol(op)).append(' ');
+
+        // Справа скобки нужны и при равном приоритете у «-» и «÷»: 10 - (4 - 1)
+        int rightPrecedence = precedence(instruction(code, tokens, end - 1) & OP_MASK);
+        appendChild(out, code, tokens, end - 1, rightPrecedence < precedence
+                || rightPrecedence == precedence && (op == SUB || op == DIV));
+    }
+
+    private static void appendChild(TextBuffer out, int[] code, long tokens, int end, boolean parenthesize) {
+        if (parenthesize) {
+            out.append('(');
+            appendNode(out, code, tokens, end);
+            out.append(')');
+        } else {
+            appendNode(out, code, tokens, end);
+        }
+    }
+
+    private static int precedence(int op) {
+        switch (op) {
+            case ADD:
+            case SUB:
+                return 1;
+            case MUL:
+            case DIV:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    private static char symbol(int op) {
+        switch (op) {
+            case ADD:
+                return '+';
+            case SUB:
+                return '-';
+            case MUL:
+                return '×';
+            default:
+                return '÷';
+        }
+    }
+}
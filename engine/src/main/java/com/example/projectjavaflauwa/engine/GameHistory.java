@@ -0,0 +1,615 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * История сыгранных игр: строка на каждую игру и на каждый ответ в ней.
+ *
+ * Файл только дописывается записями по {@link #RECORD_SIZE} байт. Записи пачки
+ * ({@link Batch}) пишутся одной транзакцией: сначала сами записи и force(),
+ * затем число зафиксированных записей в заголовке и ещё один force(). Всё,
+ * что после этого числа, при открытии считается недописанным и затирается
+ * следующей пачкой — пачка попадает в историю целиком или не попадает вовсе.
+ *
+ * Запросы не читают файл: при открытии записи один раз просматриваются и
+ * строятся индексы в памяти — лучший счёт по уровням, сводки ответов по
+ * (день, действие) и список игр по времени. Поэтому «лучший счёт уровня» —
+ * O(1), а «самое слабое действие за 30 дней» — сумма 30 дневных сводок
+ * независимо от того, сколько лет копилась история. С диска читаются только
+ * ответы конкретной игры ({@link #readAnswers}).
+ *
+ * На общем планшете играет весь класс, поэтому каждая запись помечена номером
+ * ученика (0 — без ученика), и лучший счёт и сводки по дням есть и для
+ * каждого ученика отдельно.
+ *
+ * Не потокобезопасен: все вызовы — из одного потока (см. {@link HistoryWriter}).
+ *
+ * Формат записи ответа (little-endian):
+ *  - 0  byte  {@link #RECORD_ANSWER};
+ *  - 1  byte  уровень; 2 byte действие (LatencyStats.OP_*);
+ *  - 3  byte  флаги: 1 — верно, 2 — время вышло;
+ *  - 4  int   время ответа в мс;
+ *  - 8  long  время события (System.currentTimeMillis());
+ *  - 16 long  ключ примера ({@link Question#key()});
+ *  - 24 int   ответ пользователя; 28 short вид ответа (MistakeLog.ANSWER_*);
+ *  - 30 short ученик.
+ * Запись игры ({@link #RECORD_GAME}) идёт сразу после ответов этой игры:
+ *  - 0  byte  {@link #RECORD_GAME}; 1 byte последний уровень; 2 byte ошибок;
+ *  - 4  int   правильных ответов; 8 int длительность в мс; 12 short ученик;
+ *  - 16 long  конец; 24 long seed игры.
+ */
+public final class GameHistory implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 32;
+    public static final int RECORD_ANSWER = 1;
+    public static final int RECORD_GAME = 2;
+
+    static final int HEADER_SIZE = 32;
+    // "MQH1"
+    static final int MAGIC = 0x4D514831;
+    static final int VERSION = 1;
+    // Номер ученика занимает два байта
+    public static final int MAX_STUDENT = 0xFFFF;
+    // Смещение количества зафиксированных записей в заголовке
+    private static final int COUNT_OFFSET = 8;
+    private static final int FLAG_CORRECT = 1;
+    private static final int FLAG_TIMEOUT = 2;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final int OPS = LatencyStats.OP_COUNT;
+    private static final int LEVELS = GameSession.MAX_LEVEL;
+
+    /**
+     * Получатель ответов игры при чтении.
+     */
+    public interface AnswerVisitor {
+        void onAnswer(int level, int operation, boolean correct, boolean timeout, long latencyMillis,
+                      long timeMillis, long problemKey, int answerKind, int answerValue);
+    }
+
+    /**
+     * Записи одной или нескольких игр, которые ещё не в файле. Копится в потоке
+     * игры, фиксируется {@link #append(Batch)}; после этого её можно очистить
+     * и использовать снова.
+     */
+    public static final class Batch {
+        private ByteBuffer data = ByteBuffer.allocate(64 * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        // Где кончается последняя игра пачки (ответы после неё — незаконченная игра)
+        private int sealed;
+        // Ученик, которым помечаются следующие записи
+        private int student;
+
+        /**
+         * Ученик (1..{@link #MAX_STUDENT}, 0 — без ученика), которым помечаются
+         * следующие ответы и игры пачки.
+         */
+        public void student(int student) {
+            if (student < 0 || student > MAX_STUDENT) {
+                throw new IllegalArgumentException("Номер ученика вне 0.." + MAX_STUDENT + ": " + student);
+            }
+            this.student = student;
+        }
+
+        /**
+         * Ответ (или таймаут) на вопрос q.
+         */
+        public void answer(Question q, int answerKind, int answerValue, boolean correct, boolean timeout,
+                           long latencyNanos, long timeMillis) {
+            ensure();
+            int base = data.position();
+            data.put(base, (byte) RECORD_ANSWER);
+            data.put(base + 1, (byte) q.level);
+            data.put(base + 2, (byte) LatencyStats.operation(q));
+            data.put(base + 3, (byte) ((correct ? FLAG_CORRECT : 0) | (timeout ? FLAG_TIMEOUT : 0)));
+            data.putInt(base + 4, (int) Math.min(latencyNanos / 1_000_000, Integer.MAX_VALUE));
+            data.putLong(base + 8, timeMillis);
+            data.putLong(base + 16, q.key());
+            data.putInt(base + 24, answerValue);
+            data.putShort(base + 28, (short) answerKind);
+            data.putShort(base + 30, (short) student);
+            data.position(base + RECORD_SIZE);
+        }
+
+        /**
+         * Конец игры: закрывает её ответы, добавленные с прошлой игры.
+         */
+        public void gameOver(long startMillis, long endMillis, long seed, int correctAnswers, int level,
+                             int mistakes) {
+            ensure();
+            int base = data.position();
+            data.put(base, (byte) RECORD_GAME);
+            data.put(base + 1, (byte) level);
+            data.put(base + 2, (byte) mistakes);
+            data.put(base + 3, (byte) 0);
+            data.putInt(base + 4, correctAnswers);
+            data.putInt(base + 8, durationMillis(startMillis, endMillis));
+            data.putShort(base + 12, (short) student);
+            data.putShort(base + 14, (short) 0);
+            data.putLong(base + 16, endMillis);
+            data.putLong(base + 24, seed);
+            data.position(base + RECORD_SIZE);
+            sealed = data.position();
+        }
+
+        /**
+         * Записей законченных игр (только они попадут в файл).
+         */
+        public int records() {
+            return sealed / RECORD_SIZE;
+        }
+
+        /**
+         * Убирает все записи пачки и пометку ученика.
+         */
+        public void clear() {
+            data.position(0);
+            sealed = 0;
+            student = 0;
+        }
+
+        private ByteBuffer sealedRecords() {
+            ByteBuffer out = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            out.position(0).limit(sealed);
+            return out;
+        }
+
+        private void ensure() {
+            if (data.remaining() < RECORD_SIZE) {
+                ByteBuffer grown = ByteBuffer.allocate(data.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                data.flip();
+                grown.put(data);
+                data = grown;
+            }
+        }
+    }
+
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final TimeZone timeZone;
+    private final ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private long committed;
+
+    // Игры по порядку: номер записи игры, число её ответов, конец, счёт, уровень, ученик
+    private int games;
+    private long[] gameRecord = new long[64];
+    private int[] gameAnswers = new int[64];
+    private long[] gameEnd = new long[64];
+    private int[] gameScore = new int[64];
+    private int[] gameLevel = new int[64];
+    private int[] gameStudent = new int[64];
+    // Ответы, ещё не закрытые записью игры
+    private int answersSinceGame;
+
+    // Лучший счёт и номер игры по последнему уровню игры (индекс = уровень)
+    private final int[] bestScore = newLevelIndex();
+    private final int[] bestGame = newLevelIndex();
+    // Лучший счёт каждого ученика по уровням
+    private final Map<Integer, int[]> studentBest = new HashMap<>();
+
+    // Сводки по дням по всем ученикам и по каждому
+    private final DaySummary allDays = new DaySummary();
+    private final Map<Integer, DaySummary> studentDays = new HashMap<>();
+
+    /**
+     * Сводки ответов по дням (номер дня по местному времени, по возрастанию):
+     * [день * OPS + действие] — ответов, верных, суммарное время в мс.
+     */
+    private static final class DaySummary {
+        int days;
+        long[] dayNumber = new long[32];
+        int[] dayAnswers = new int[32 * OPS];
+        int[] dayCorrect = new int[32 * OPS];
+        long[] dayLatency = new long[32 * OPS];
+
+        void add(long day, int operation, boolean correct, int latencyMillis) {
+            int cell = dayIndex(day) * OPS + operation;
+            dayAnswers[cell]++;
+            if (correct) {
+                dayCorrect[cell]++;
+            }
+            dayLatency[cell] += latencyMillis;
+        }
+
+        /**
+         * Номер строки сводки для дня (строка добавляется, если дня ещё нет).
+         */
+        private int dayIndex(long day) {
+            // Обычно ответ приходится на последний день истории
+            if (days > 0 && dayNumber[days - 1] == day) {
+                return days - 1;
+            }
+            int found = Arrays.binarySearch(dayNumber, 0, days, day);
+            if (found >= 0) {
+                return found;
+            }
+            int at = -found - 1;
+            if (days == dayNumber.length) {
+                int capacity = days * 2;
+                dayNumber = Arrays.copyOf(dayNumber, capacity);
+                dayAnswers = Arrays.copyOf(dayAnswers, capacity * OPS);
+                dayCorrect = Arrays.copyOf(dayCorrect, capacity * OPS);
+                dayLatency = Arrays.copyOf(dayLatency, capacity * OPS);
+            }
+            // Часы перевели назад — вставляем день в середину
+            System.arraycopy(dayNumber, at, dayNumber, at + 1, days - at);
+            System.arraycopy(dayAnswers, at * OPS, dayAnswers, (at + 1) * OPS, (days - at) * OPS);
+            System.arraycopy(dayCorrect, at * OPS, dayCorrect, (at + 1) * OPS, (days - at) * OPS);
+            System.arraycopy(dayLatency, at * OPS, dayLatency, (at + 1) * OPS, (days - at) * OPS);
+            dayNumber[at] = day;
+            Arrays.fill(dayAnswers, at * OPS, (at + 1) * OPS, 0);
+            Arrays.fill(dayCorrect, at * OPS, (at + 1) * OPS, 0);
+            Arrays.fill(dayLatency, at * OPS, (at + 1) * OPS, 0);
+            days++;
+            return at;
+        }
+
+        /**
+         * Первая строка сводок с днём не раньше fromDay.
+         */
+        int firstDay(long fromDay) {
+            int found = Arrays.binarySearch(dayNumber, 0, days, fromDay);
+            return found >= 0 ? found : -found - 1;
+        }
+    }
+
+    private GameHistory(RandomAccessFile raf, TimeZone timeZone) {
+        this.raf = raf;
+        this.channel = raf.getChannel();
+        this.timeZone = timeZone;
+    }
+
+    private static int[] newLevelIndex() {
+        int[] index = new int[LEVELS + 1];
+        Arrays.fill(index, -1);
+        return index;
+    }
+
+    private static int durationMillis(long startMillis, long endMillis) {
+        return (int) Math.max(0, Math.min(endMillis - startMillis, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Открывает (или создаёт) историю и строит индексы.
+     *
+     * @param timeZone пояс, в котором считаются дни для сводок
+     * @throws IOException если файл не читается или это не файл истории
+     */
+    public static GameHistory open(File file, TimeZone timeZone) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        GameHistory history = new GameHistory(raf, timeZone);
+        try {
+            history.load();
+        } catch (IOException | RuntimeException e) {
+            raf.close();
+            throw e;
+        }
+        return history;
+    }
+
+    private void load() throws IOException {
+        if (channel.size() < HEADER_SIZE) {
+            ByteBuffer fresh = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            fresh.putInt(0, MAGIC);
+            fresh.putInt(4, VERSION);
+            writeFully(channel, fresh, 0);
+            channel.force(false);
+            return;
+        }
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, head, 0);
+        if (head.getInt(0) != MAGIC || head.getInt(4) != VERSION) {
+            throw new IOException("Не файл истории игр");
+        }
+        long count = head.getLong(COUNT_OFFSET);
+        if (count < 0 || HEADER_SIZE + count * RECORD_SIZE > channel.size()) {
+            throw new IOException("Повреждён заголовок истории: " + count + " записей");
+        }
+        if (count > 0) {
+            ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, count * RECORD_SIZE)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            index(records, 0);
+        }
+        committed = count;
+    }
+
+    /**
+     * Дописывает законченные игры пачки одной транзакцией и учитывает их в индексах.
+     * Пачка не меняется; ответы незаконченной игры в ней не пишутся.
+     */
+    public void append(Batch batch) throws IOException {
+        ByteBuffer records = batch.sealedRecords();
+        int count = records.remaining() / RECORD_SIZE;
+        if (count == 0) {
+            return;
+        }
+        writeFully(channel, records.duplicate(), HEADER_SIZE + committed * RECORD_SIZE);
+        channel.force(false);
+        header.clear();
+        header.putLong(0, committed + count);
+        writeFully(channel, header, COUNT_OFFSET);
+        channel.force(false);
+        index(records, committed);
+        committed += count;
+    }
+
+    private void index(ByteBuffer records, long firstRecord) {
+        int from = records.position();
+        int end = records.limit();
+        for (int base = from; base < end; base += RECORD_SIZE) {
+            long record = firstRecord + (base - from) / RECORD_SIZE;
+            if (records.get(base) == RECORD_GAME) {
+                indexGame(records, base, record);
+            } else {
+                indexAnswer(records, base);
+            }
+        }
+    }
+
+    private void indexGame(ByteBuffer records, int base, long record) {
+        if (games == gameRecord.length) {
+            int capacity = games * 2;
+            gameRecord = Arrays.copyOf(gameRecord, capacity);
+            gameAnswers = Arrays.copyOf(gameAnswers, capacity);
+            gameEnd = Arrays.copyOf(gameEnd, capacity);
+            gameScore = Arrays.copyOf(gameScore, capacity);
+            gameLevel = Arrays.copyOf(gameLevel, capacity);
+            gameStudent = Arrays.copyOf(gameStudent, capacity);
+        }
+        int level = Math.max(1, Math.min(records.get(base + 1), LEVELS));
+        int score = records.getInt(base + 4);
+        int student = records.getShort(base + 12) & MAX_STUDENT;
+        gameRecord[games] = record;
+        gameAnswers[games] = answersSinceGame;
+        gameEnd[games] = records.getLong(base + 16);
+        gameScore[games] = score;
+        gameLevel[games] = level;
+        gameStudent[games] = student;
+        if (score > bestScore[level]) {
+            bestScore[level] = score;
+            bestGame[level] = games;
+        }
+        int[] best = studentBest.computeIfAbsent(student, s -> newLevelIndex());
+        best[level] = Math.max(best[level], score);
+        games++;
+        answersSinceGame = 0;
+    }
+
+    private void indexAnswer(ByteBuffer records, int base) {
+        answersSinceGame++;
+        int operation = records.get(base + 2);
+        if (operation < 0 || operation >= OPS) {
+            return;
+        }
+        long day = day(records.getLong(base + 8));
+        boolean correct = (records.get(base + 3) & FLAG_CORRECT) != 0;
+        int latency = records.getInt(base + 4);
+        int student = records.getShort(base + 30) & MAX_STUDENT;
+        allDays.add(day, operation, correct, latency);
+        studentDays.computeIfAbsent(student, s -> new DaySummary()).add(day, operation, correct, latency);
+    }
+
+    private long day(long timeMillis) {
+        return Math.floorDiv(timeMillis + timeZone.getOffset(timeMillis), DAY_MILLIS);
+    }
+
+    // ---- Запросы ----
+
+    /**
+     * Всего игр в истории.
+     */
+    public int gameCount() {
+        return games;
+    }
+
+    /**
+     * Лучший счёт среди игр, закончившихся на уровне level, или -1.
+     */
+    public int bestScore(int level) {
+        return level < 1 || level > LEVELS ? -1 : bestScore[level];
+    }
+
+    /**
+     * Лучший счёт ученика student среди игр, закончившихся на уровне level, или -1.
+     */
+    public int bestScore(int level, int student) {
+        int[] best = studentBest.get(student);
+        return best == null || level < 1 || level > LEVELS ? -1 : best[level];
+    }
+
+    /**
+     * Номер игры с лучшим счётом на уровне level (см. {@link #bestScore}) или -1.
+     */
+    public int bestGame(int level) {
+        return level < 1 || level > LEVELS ? -1 : bestGame[level];
+    }
+
+    /**
+     * Номер первой игры, закончившейся не раньше fromMillis (или {@link #gameCount()}).
+     */
+    public int firstGameSince(long fromMillis) {
+        int lo = 0;
+        int hi = games;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (gameEnd[mid] < fromMillis) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public int score(int game) {
+        return gameScore[checkGame(game)];
+    }
+
+    public int level(int game) {
+        return gameLevel[checkGame(game)];
+    }
+
+    public long endMillis(int game) {
+        return gameEnd[checkGame(game)];
+    }
+
+    /**
+     * Ученик, сыгравший игру (0 — без ученика).
+     */
+    public int student(int game) {
+        return gameStudent[checkGame(game)];
+    }
+
+    /**
+     * Ответов в игре.
+     */
+    public int answerCount(int game) {
+        return gameAnswers[checkGame(game)];
+    }
+
+    /**
+     * Читает с диска ответы игры по порядку.
+     */
+    public void readAnswers(int game, AnswerVisitor visitor) throws IOException {
+        int count = gameAnswers[checkGame(game)];
+        if (count == 0) {
+            return;
+        }
+        ByteBuffer records = ByteBuffer.allocate(count * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, records, HEADER_SIZE + (gameRecord[game] - count) * RECORD_SIZE);
+        for (int base = 0; base < records.capacity(); base += RECORD_SIZE) {
+            int flags = records.get(base + 3);
+            visitor.onAnswer(records.get(base + 1), records.get(base + 2), (flags & FLAG_CORRECT) != 0,
+                    (flags & FLAG_TIMEOUT) != 0, records.getInt(base + 4), records.getLong(base + 8),
+                    records.getLong(base + 16), records.getShort(base + 28), records.getInt(base + 24));
+        }
+    }
+
+    /**
+     * Ответов с действием operation за последние days дней (включая сегодняшний).
+     */
+    public int answers(int operation, long nowMillis, int days) {
+        return sum(allDays.dayAnswers, operation, nowMillis, days);
+    }
+
+    /**
+     * Верных ответов с действием operation за последние days дней.
+     */
+    public int correct(int operation, long nowMillis, int days) {
+        return sum(allDays.dayCorrect, operation, nowMillis, days);
+    }
+
+    /**
+     * Среднее время ответа с действием operation за последние days дней в мс (0, если ответов нет).
+     */
+    public long meanLatencyMillis(int operation, long nowMillis, int days) {
+        long total = 0;
+        long n = 0;
+        for (int d = allDays.firstDay(fromDay(nowMillis, days)); d < allDays.days; d++) {
+            total += allDays.dayLatency[d * OPS + operation];
+            n += allDays.dayAnswers[d * OPS + operation];
+        }
+        return n == 0 ? 0 : total / n;
+    }
+
+    /**
+     * Самое слабое действие за последние days дней: меньше всего доля верных
+     * ответов, при равенстве — дольше среднее время. Действия, на которые
+     * ответов меньше minAnswers, не рассматриваются.
+     *
+     * @return LatencyStats.OP_* или -1, если данных мало
+     */
+    public int weakestOperation(long nowMillis, int days, int minAnswers) {
+        return weakestOperation(allDays, fromDay(nowMillis, days), minAnswers);
+    }
+
+    /**
+     * Самое слабое действие ученика student за последние days дней
+     * (см. {@link #weakestOperation(long, int, int)}).
+     */
+    public int weakestOperation(long nowMillis, int days, int minAnswers, int student) {
+        DaySummary summary = studentDays.get(student);
+        return summary == null ? -1 : weakestOperation(summary, fromDay(nowMillis, days), minAnswers);
+    }
+
+    private static int weakestOperation(DaySummary summary, long fromDay, int minAnswers) {
+        int from = summary.firstDay(fromDay);
+        int weakest = -1;
+        long weakestAnswers = 0;
+        long weakestCorrect = 0;
+        long weakestLatency = 0;
+        for (int op = 0; op < OPS; op++) {
+            long n = 0;
+            long right = 0;
+            long latency = 0;
+            for (int d = from; d < summary.days; d++) {
+                int cell = d * OPS + op;
+                n += summary.dayAnswers[cell];
+                right += summary.dayCorrect[cell];
+                latency += summary.dayLatency[cell];
+            }
+            if (n == 0 || n < minAnswers) {
+                continue;
+            }
+            // right / n < weakestCorrect / weakestAnswers без деления
+            long cmp = weakest < 0 ? -1 : right * weakestAnswers - weakestCorrect * n;
+            if (cmp < 0 || cmp == 0 && latency * weakestAnswers > weakestLatency * n) {
+                weakest = op;
+                weakestAnswers = n;
+                weakestCorrect = right;
+                weakestLatency = latency;
+            }
+        }
+        return weakest;
+    }
+
+    private int sum(int[] column, int operation, long nowMillis, int days) {
+        int total = 0;
+        for (int d = allDays.firstDay(fromDay(nowMillis, days)); d < allDays.days; d++) {
+            total += column[d * OPS + operation];
+        }
+        return total;
+    }
+
+    /**
+     * Первый день, попадающий в последние days дней до nowMillis.
+     */
+    private long fromDay(long nowMillis, int days) {
+        return day(nowMillis) - days + 1;
+    }
+
+    private int checkGame(int game) {
+        if (game < 0 || game >= games) {
+            throw new IndexOutOfBoundsException("Игра " + game + " из " + games);
+        }
+        return game;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("История короче, чем указано в заголовке");
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        raf.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Замеры этапов игрового цикла: выдача вопроса, запуск таймера,
+ * обработка верного и неверного ответа, конец игры.
+ *
+ * Этап обрамляется парой вызовов:
+ * <pre>
+ * long token = metrics.begin(GameMetrics.STAGE_GENERATE);
+ * try {
+ *     ...
+ * } finally {
+ *     metrics.end(GameMetrics.STAGE_GENERATE, token);
+ * }
+ * </pre>
+ * Этапы могут быть вложены (ответ → выдача следующего вопроса → таймер),
+ * но должны закрываться в обратном порядке, как секции android.os.Trace.
+ * Время этапа включает вложенные этапы.
+ *
+ * По умолчанию используется {@link #NOOP}: вызовы ничего не делают
+ * и даже не читают часы.
+ */
+public interface GameMetrics {
+
+    // Этапы игрового цикла
+    int STAGE_GENERATE = 0;
+    int STAGE_START_TIMER = 1;
+    int STAGE_CORRECT_ANSWER = 2;
+    int STAGE_WRONG_ANSWER = 3;
+    int STAGE_GAME_OVER = 4;
+    int STAGE_COUNT = 5;
+
+    /**
+     * Замеры выключены.
+     */
+    GameMetrics NOOP = new GameMetrics() {
+        @Override
+        public long begin(int stage) {
+            return 0;
+        }
+
+        @Override
+        public void end(int stage, long token) {
+            // ничего не записываем
+        }
+    };
+
+    /**
+     * Начало этапа.
+     *
+     * @return значение, которое нужно передать в {@link #end} этого этапа
+     *         (например, время начала)
+     */
+    long begin(int stage);
+
+    /**
+     * Конец этапа, начатого {@link #begin}.
+     */
+    void end(int stage, long token);
+
+    /**
+     * Имя этапа для трасс и отчётов (совпадает с методом игрового цикла).
+     */
+    static String stageName(int stage) {
+        switch (stage) {
+            case STAGE_GENERATE:
+                return "generateNewQuestion";
+            case STAGE_START_TIMER:
+                return "startTimerForQuestion";
+            case STAGE_CORRECT_ANSWER:
+                return "handleCorrectAnswer";
+            case STAGE_WRONG_ANSWER:
+                return "handleWrongAnswer";
+            case STAGE_GAME_OVER:
+                return "gameOver";
+            default:
+                throw new IllegalArgumentException("Неизвестный этап: " + stage);
+        }
+    }
+}
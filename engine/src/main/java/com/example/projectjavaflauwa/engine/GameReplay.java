@@ -0,0 +1,308 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Повтор записанных игр без устройства: события журнала ({@link GameTrace})
+ * подаются в настоящий {@link GameSession} с тем же источником вопросов,
+ * что в приложении, и каждое сверяется с тем, что делает сеанс.
+ *
+ * Игра начинается событием GAME_STARTED, значение которого — seed игры
+ * ({@link QuestionPrefetcher#reseed(long)}, {@link ProblemBank#reseed(long)}).
+ * Дальше повтор проверяет, что:
+ *  - показан тот же вопрос (все поля) с тем же лимитом времени;
+ *  - записанный ответ оценивается так же (верно/неверно), а время ответа
+ *    укладывается в лимит (таймаут — не раньше лимита);
+ *  - игра заканчивается там же и с тем же счётом.
+ * Первое расхождение останавливает игру: {@link #divergedAt()} и {@link #reason()}.
+ *
+ * На общем планшете игра ученика откладывается в его профиль и позже
+ * продолжается событием GAME_RESUMED с тем же seed. Поэтому состояние игры,
+ * прерванной без расхождения не концом игры, запоминается по seed, и часть
+ * после GAME_RESUMED повторяется с этого состояния. Если отложенной части
+ * в журнале нет (она ушла при сжатии журнала), игра не проверяется: {@link #verified()}.
+ *
+ * Время не ждём: часы повтора виртуальные и сдвигаются на время ответа
+ * (или на лимит при таймауте), поэтому игра повторяется за микросекунды.
+ * Один объект повторяет игры по очереди и не потокобезопасен; для
+ * параллельного повтора нужен свой объект на поток.
+ */
+public final class GameReplay {
+
+    // Допуск на таймер: ответ, пришедший одновременно с окончанием отсчёта,
+    // может быть записан чуть позже лимита, а таймаут — чуть раньше
+    public static final long TIMER_SLACK_NANOS = 250_000_000L;
+
+    private final QuestionPrefetcher generator;
+    private final ProblemBank bank;
+    private final GameSession session;
+    private final int[] packed = new int[QuestionPool.STRIDE];
+    private final GameSnapshot snapshot;
+    // Отложенные игры по seed: снимок сеанса и места в последовательности вопросов
+    private final Map<Long, Suspended> suspended = new HashMap<>();
+
+    private static final class Suspended {
+        final byte[] snapshot;
+        // Вопрос показан, ответа на него ещё нет
+        final boolean shown;
+
+        Suspended(byte[] snapshot, boolean shown) {
+            this.snapshot = snapshot;
+            this.shown = shown;
+        }
+    }
+
+    // Итоги последней игры
+    private int divergedAt = -1;
+    private String reason;
+    private boolean finished;
+    private boolean verified;
+    private int questions;
+    private long virtualNanos;
+
+    /**
+     * Повтор на генераторе вопросов с правилами приложения.
+     */
+    public GameReplay() {
+        this(GameRules.DEFAULT, null);
+    }
+
+    /**
+     * @param rules    правила, с которыми игры записаны
+     * @param bankData банк примеров, с которым играли (см. {@link ProblemBank}), или null
+     */
+    public GameReplay(GameRules rules, ByteBuffer bankData) {
+        // Фон не нужен: в воспроизводимом режиме вопрос генерируется при выдаче
+        this.generator = new QuestionPrefetcher(new QuestionEngine(0), new QuestionEngine(0),
+                task -> { }, 1);
+        this.bank = bankData != null ? new ProblemBank(bankData, new SplittableRandom(0), generator) : null;
+        QuestionSource source = bank != null ? bank : generator;
+        this.session = new GameSession(source, rules);
+        this.snapshot = new GameSnapshot(session.mistakeLog(), session.seenProblems());
+    }
+
+    /**
+     * Повторяет игру, начатую (GAME_STARTED) или продолженную (GAME_RESUMED)
+     * событием start, до её конца, начала следующей игры или конца записи.
+     *
+     * @return номер события после игры (начало следующей игры или trace.size())
+     */
+    public int replayGame(GameTrace trace, int start) {
+        int startType = trace.type(start);
+        if (startType != SessionJournal.EVENT_GAME_STARTED && startType != SessionJournal.EVENT_GAME_RESUMED) {
+            throw new IllegalArgumentException("Событие " + start + " — не начало игры");
+        }
+        divergedAt = -1;
+        reason = null;
+        finished = false;
+        verified = true;
+        questions = 0;
+        virtualNanos = 0;
+
+        long seed = trace.value(start);
+        int end = trace.nextGame(start + 1);
+        // Вопрос выдан, но ещё не показан / ждём ответа
+        boolean shown = false;
+        boolean over = false;
+        if (startType == SessionJournal.EVENT_GAME_STARTED) {
+            suspended.remove(seed);
+            generator.reseed(seed);
+            if (bank != null) {
+                bank.reseed(seed);
+            }
+            session.start();
+        } else {
+            Suspended parked = suspended.remove(seed);
+            if (parked == null) {
+                verified = false;
+                reason = "нет начала отложенной игры";
+                return end;
+            }
+            snapshot.decode(parked.snapshot);
+            session.restoreFrom(snapshot);
+            generator.restore(seed, snapshot.level, snapshot.questionsDrawn);
+            if (bank != null) {
+                bank.restore(seed, snapshot.bankDraws);
+            }
+            if (trace.answerValue(start) != snapshot.questionsDrawn
+                    || !trace.sameQuestion(start, session.current(), packed)) {
+                return diverge(start, end, "игра продолжена не с того места, где отложена");
+            }
+            shown = parked.shown;
+        }
+        for (int i = start + 1; i < end; i++) {
+            int type = trace.type(i);
+            if (over && type != SessionJournal.EVENT_GAME_OVER || finished) {
+                return diverge(i, end, "событие после конца игры");
+            }
+            switch (type) {
+                case SessionJournal.EVENT_QUESTION_SHOWN:
+                    if (shown) {
+                        return diverge(i, end, "вопрос показан повторно без ответа");
+                    }
+                    if (!trace.sameQuestion(i, session.current(), packed)) {
+                        return diverge(i, end, "показан другой вопрос");
+                    }
+                    if (trace.value(i) != session.timeForCurrentLevel()) {
+                        return diverge(i, end, "лимит " + trace.value(i) + " мс вместо "
+                                + session.timeForCurrentLevel());
+                    }
+                    shown = true;
+                    questions++;
+                    break;
+                case SessionJournal.EVENT_ANSWERED:
+                case SessionJournal.EVENT_TIMEOUT: {
+                    if (!shown) {
+                        return diverge(i, end, "ответ без показанного вопроса");
+                    }
+                    if (!trace.sameQuestion(i, session.current(), packed)) {
+                        return diverge(i, end, "ответ на другой вопрос");
+                    }
+                    String problem = type == SessionJournal.EVENT_ANSWERED ? checkAnswered(trace, i)
+                            : checkTimeout(trace, i);
+                    if (problem != null) {
+                        return diverge(i, end, problem);
+                    }
+                    int result = type == SessionJournal.EVENT_TIMEOUT ? session.timeout(trace.value(i))
+                            : trace.answerKind(i) == MistakeLog.ANSWER_NUMBER
+                            ? session.answerNumber(trace.answerValue(i), trace.value(i))
+                            : session.answerBoolean(trace.answerValue(i) != 0, trace.value(i));
+                    if (type == SessionJournal.EVENT_ANSWERED
+                            && ((result & GameSession.CORRECT) != 0) != trace.correct(i)) {
+                        return diverge(i, end, trace.correct(i) ? "верный ответ оценён как неверный"
+                                : "неверный ответ оценён как верный");
+                    }
+                    shown = false;
+                    if ((result & GameSession.GAME_OVER) != 0) {
+                        over = true;
+                    } else {
+                        session.nextQuestion();
+                    }
+                    break;
+                }
+                case SessionJournal.EVENT_GAME_OVER:
+                    if (!over) {
+                        return diverge(i, end, "игра окончена раньше, чем по правилам");
+                    }
+                    if (trace.value(i) != session.correctAnswers()) {
+                        return diverge(i, end, "счёт " + trace.value(i) + " вместо " + session.correctAnswers());
+                    }
+                    finished = true;
+                    break;
+                default:
+                    return diverge(i, end, "неизвестное событие " + type);
+            }
+        }
+        if (!over) {
+            // Игра могла быть отложена: её продолжение начнётся с этого места
+            session.saveTo(snapshot);
+            snapshot.seed = seed;
+            snapshot.questionsDrawn = generator.drawn(session.level());
+            snapshot.bankDraws = bank != null ? bank.draws() : 0;
+            suspended.put(seed, new Suspended(snapshot.encode(), shown));
+        }
+        return end;
+    }
+
+    /**
+     * Забывает отложенные игры — перед повтором журнала с начала.
+     */
+    public void forgetSuspended() {
+        suspended.clear();
+    }
+
+    private String checkAnswered(GameTrace trace, int index) {
+        int kind = trace.answerKind(index);
+        boolean numeric = session.current().numeric;
+        if (kind != (numeric ? MistakeLog.ANSWER_NUMBER : MistakeLog.ANSWER_BOOLEAN)) {
+            return "вид ответа " + kind + " не подходит к вопросу";
+        }
+        long latency = trace.value(index);
+        if (latency < 0 || latency > limitNanos() + TIMER_SLACK_NANOS) {
+            return "ответ через " + latency / 1_000_000 + " мс при лимите " + session.timeForCurrentLevel();
+        }
+        virtualNanos += latency;
+        return null;
+    }
+
+    private String checkTimeout(GameTrace trace, int index) {
+        if (trace.value(index) < limitNanos() - TIMER_SLACK_NANOS) {
+            return "таймаут через " + trace.value(index) / 1_000_000 + " мс при лимите "
+                    + session.timeForCurrentLevel();
+        }
+        virtualNanos += limitNanos();
+        return null;
+    }
+
+    private long limitNanos() {
+        return session.timeForCurrentLevel() * 1_000_000L;
+    }
+
+    private int diverge(int index, int end, String why) {
+        divergedAt = index;
+        reason = why;
+        finished = false;
+        return end;
+    }
+
+    /**
+     * Последняя игра повторилась без расхождений.
+     */
+    public boolean ok() {
+        return divergedAt < 0;
+    }
+
+    /**
+     * Последняя игра действительно повторена; false — это продолжение отложенной игры,
+     * начала которой в журнале нет (тогда {@link #reason()} объясняет почему).
+     */
+    public boolean verified() {
+        return verified;
+    }
+
+    /**
+     * Номер события, на котором последняя игра разошлась с записью, или -1.
+     */
+    public int divergedAt() {
+        return divergedAt;
+    }
+
+    /**
+     * Причина расхождения или null.
+     */
+    public String reason() {
+        return reason;
+    }
+
+    /**
+     * Последняя игра записана до события GAME_OVER (а не прервана новой игрой
+     * или концом журнала).
+     */
+    public boolean finished() {
+        return finished;
+    }
+
+    /**
+     * Сколько вопросов последней игры показано.
+     */
+    public int questions() {
+        return questions;
+    }
+
+    /**
+     * Сколько длилась последняя игра по виртуальным часам (сумма времени ответов).
+     */
+    public long virtualNanos() {
+        return virtualNanos;
+    }
+
+    /**
+     * Сеанс, в котором повторяется игра (счёт, уровень, журнал ошибок).
+     */
+    public GameSession session() {
+        return session;
+    }
+}
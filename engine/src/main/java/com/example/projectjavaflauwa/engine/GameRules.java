@@ -0,0 +1,72 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.Arrays;
+
+/**
+ * Пороги игры: сколько правильных ответов нужно для перехода на следующий
+ * уровень, после скольких ошибок игра заканчивается и сколько времени даётся
+ * на вопрос каждого уровня.
+ *
+ * Приложение и сервер играют по {@link #DEFAULT}; другие наборы нужны
+ * симулятору, который подбирает пороги (см. tools/GameSimulator).
+ * Объект неизменяем и может быть общим для потоков.
+ */
+public final class GameRules {
+
+    // Правила приложения
+    public static final GameRules DEFAULT = new GameRules(GameSession.QUESTIONS_PER_LEVEL,
+            GameSession.MAX_MISTAKES, new long[]{20_000, 15_000, 10_000, 15_000, 15_000});
+
+    private final int questionsPerLevel;
+    private final int maxMistakes;
+    // Время на вопрос по уровням в миллисекундах (индекс — уровень - 1)
+    private final long[] timeForLevel;
+
+    /**
+     * @param questionsPerLevel правильных ответов на уровне для перехода на следующий
+     * @param maxMistakes       после стольких ошибок игра заканчивается
+     * @param timeForLevel      время на вопрос в миллисекундах для уровней 1..{@link GameSession#MAX_LEVEL}
+     */
+    public GameRules(int questionsPerLevel, int maxMistakes, long[] timeForLevel) {
+        if (questionsPerLevel < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один ответ на уровень: " + questionsPerLevel);
+        }
+        if (maxMistakes < 1) {
+            throw new IllegalArgumentException("Нужна хотя бы одна ошибка до конца игры: " + maxMistakes);
+        }
+        if (timeForLevel.length != GameSession.MAX_LEVEL) {
+            throw new IllegalArgumentException("Нужно время для " + GameSession.MAX_LEVEL
+                    + " уровней, а задано " + timeForLevel.length);
+        }
+        for (long millis : timeForLevel) {
+            if (millis <= 0) {
+                throw new IllegalArgumentException("Время на вопрос должно быть положительным: " + millis);
+            }
+        }
+        this.questionsPerLevel = questionsPerLevel;
+        this.maxMistakes = maxMistakes;
+        this.timeForLevel = timeForLevel.clone();
+    }
+
+    public int questionsPerLevel() {
+        return questionsPerLevel;
+    }
+
+    public int maxMistakes() {
+        return maxMistakes;
+    }
+
+    /**
+     * Время на вопрос для уровня (в миллисекундах); для уровня вне 1..MAX_LEVEL —
+     * как для первого.
+     */
+    public long timeForLevel(int level) {
+        return level >= 1 && level <= timeForLevel.length ? timeForLevel[level - 1] : timeForLevel[0];
+    }
+
+    @Override
+    public String toString() {
+        return "GameRules{questionsPerLevel=" + questionsPerLevel + ", maxMistakes=" + maxMistakes
+                + ", timeForLevel=" + Arrays.toString(timeForLevel) + "}";
+    }
+}
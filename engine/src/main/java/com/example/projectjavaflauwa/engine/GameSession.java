@@ -0,0 +1,219 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Правила одной игры без привязки к Android: уровни, счёт, ошибки и переход
+ * на следующий уровень. Используется и в MainActivity, и на сервере.
+ *
+ * Ответ только оценивается и учитывается; следующий вопрос выдаётся отдельным
+ * вызовом {@link #nextQuestion()}, чтобы интерфейс успел показать правильный
+ * ответ на предыдущий. Таймер вопроса живёт снаружи: по его истечении
+ * вызывается {@link #timeout(long)}.
+ *
+ * Пороги (ответов на уровень, ошибок до конца игры, время на вопрос) задаются
+ * {@link GameRules}; по умолчанию — правила приложения {@link GameRules#DEFAULT}.
+ *
+ * Не потокобезопасен: вызовы одного сеанса должны быть упорядочены
+ * (поток UI или блокировка сеанса на сервере).
+ */
+public final class GameSession {
+
+    // После стольких ошибок игра заканчивается (правила приложения)
+    public static final int MAX_MISTAKES = 3;
+    public static final int MAX_LEVEL = 5;
+    // Столько правильных ответов нужно на уровне для перехода на следующий (правила приложения)
+    public static final int QUESTIONS_PER_LEVEL = 5;
+
+    // Результат ответа (битовые флаги)
+    public static final int CORRECT = 1;
+    public static final int LEVEL_UP = 2;
+    public static final int GAME_OVER = 4;
+
+    private final QuestionSource source;
+    private final GameRules rules;
+    // Неверные ответы в компактном виде
+    private final MistakeLog mistakeLog = new MistakeLog();
+    // Уже показанные за игру примеры, чтобы не повторять их
+    private final SeenProblems seenProblems = new SeenProblems();
+    // Текущий вопрос; один объект на всю игру
+    private final Question current = new Question();
+
+    private int level = 1;
+    private int correctAnswers;
+    private int mistakes;
+    // Сколько правильных ответов уже дано на текущем уровне
+    private int questionsOnCurrentLevel;
+
+    public GameSession(QuestionSource source) {
+        this(source, GameRules.DEFAULT);
+    }
+
+    public GameSession(QuestionSource source, GameRules rules) {
+        this.source = source;
+        this.rules = rules;
+    }
+
+    /**
+     * Время на вопрос для уровня по правилам приложения (в миллисекундах).
+     * На уровнях 1–3 чем выше уровень, тем меньше времени даётся (20, 15, 10 секунд);
+     * на выражения в несколько действий (уровни 4–5) времени снова больше (15 секунд).
+     */
+    public static long timeForLevel(int level) {
+        return GameRules.DEFAULT.timeForLevel(level);
+    }
+
+    /**
+     * Начинает игру заново с первого уровня и выдаёт первый вопрос.
+     */
+    public Question start() {
+        level = 1;
+        correctAnswers = 0;
+        mistakes = 0;
+        questionsOnCurrentLevel = 0;
+        mistakeLog.clear();
+        seenProblems.clear();
+        return nextQuestion();
+    }
+
+    /**
+     * Выдаёт следующий вопрос текущего уровня (объект переиспользуется).
+     */
+    public Question nextQuestion() {
+        if (isOver()) {
+            throw new IllegalStateException("Игра окончена");
+        }
+        source.next(level, current, seenProblems);
+        return current;
+    }
+
+    /**
+     * Числовой ответ на текущий вопрос.
+     *
+     * @return флаги CORRECT, LEVEL_UP, GAME_OVER
+     */
+    public int answerNumber(int value, long latencyNanos) {
+        checkAnswerable(true);
+        return judge(value == current.numericAnswer, MistakeLog.ANSWER_NUMBER, value, latencyNanos);
+    }
+
+    /**
+     * Ответ «да/нет» на текущий вопрос.
+     *
+     * @return флаги CORRECT, LEVEL_UP, GAME_OVER
+     */
+    public int answerBoolean(boolean value, long latencyNanos) {
+        checkAnswerable(false);
+        return judge(value == current.booleanAnswer, MistakeLog.ANSWER_BOOLEAN, value ? 1 : 0, latencyNanos);
+    }
+
+    /**
+     * Время на текущий вопрос вышло — это ошибка.
+     *
+     * @return флаги LEVEL_UP, GAME_OVER
+     */
+    public int timeout(long latencyNanos) {
+        if (isOver()) {
+            throw new IllegalStateException("Игра окончена");
+        }
+        return judge(false, MistakeLog.ANSWER_NONE, 0, latencyNanos);
+    }
+
+    public boolean isOver() {
+        return mistakes >= rules.maxMistakes();
+    }
+
+    public Question current() {
+        return current;
+    }
+
+    public int level() {
+        return level;
+    }
+
+    public int correctAnswers() {
+        return correctAnswers;
+    }
+
+    public int mistakes() {
+        return mistakes;
+    }
+
+    public int questionsOnCurrentLevel() {
+        return questionsOnCurrentLevel;
+    }
+
+    public long timeForCurrentLevel() {
+        return rules.timeForLevel(level);
+    }
+
+    public GameRules rules() {
+        return rules;
+    }
+
+    public MistakeLog mistakeLog() {
+        return mistakeLog;
+    }
+
+    public SeenProblems seenProblems() {
+        return seenProblems;
+    }
+
+    /**
+     * Переносит счётчики и текущий вопрос в снимок. Снимок должен быть создан
+     * для {@link #mistakeLog()} и {@link #seenProblems()} этого сеанса.
+     */
+    public void saveTo(GameSnapshot snapshot) {
+        snapshot.level = level;
+        snapshot.correctAnswers = correctAnswers;
+        snapshot.mistakes = mistakes;
+        snapshot.questionsOnCurrentLevel = questionsOnCurrentLevel;
+        snapshot.gameOver = isOver();
+        snapshot.question.set(current);
+    }
+
+    /**
+     * Восстанавливает счётчики и текущий вопрос из снимка
+     * (журнал ошибок и примеры снимок восстанавливает сам).
+     */
+    public void restoreFrom(GameSnapshot snapshot) {
+        level = snapshot.level;
+        correctAnswers = snapshot.correctAnswers;
+        mistakes = snapshot.mistakes;
+        questionsOnCurrentLevel = snapshot.questionsOnCurrentLevel;
+        current.set(snapshot.question);
+    }
+
+    private int judge(boolean correct, int answerKind, int answer, long latencyNanos) {
+        if (correct) {
+            correctAnswers++;
+            questionsOnCurrentLevel++;
+            return CORRECT | checkLevelUp();
+        }
+        mistakes++;
+        // Запоминаем вопрос, ответ пользователя и время ответа (без сборки строк)
+        mistakeLog.add(current, answerKind, answer, latencyNanos);
+        return isOver() ? GAME_OVER : 0;
+    }
+
+    /**
+     * Переход на новый уровень после {@link GameRules#questionsPerLevel()} правильных ответов.
+     */
+    private int checkLevelUp() {
+        if (level < MAX_LEVEL && questionsOnCurrentLevel >= rules.questionsPerLevel()) {
+            level++;
+            // Сбрасываем счётчик вопросов для нового уровня
+            questionsOnCurrentLevel = 0;
+            return LEVEL_UP;
+        }
+        return 0;
+    }
+
+    private void checkAnswerable(boolean numeric) {
+        if (isOver()) {
+            throw new IllegalStateException("Игра окончена");
+        }
+        if (current.numeric != numeric) {
+            throw new IllegalStateException(numeric ? "Вопрос требует ответа «да/нет»"
+                    : "Вопрос требует числового ответа");
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Снимок состояния игры в компактном двоичном виде — для сохранения
+ * в Bundle при повороте экрана и других пересозданиях Activity.
+ *
+ * Журнал ошибок и множество показанных примеров не копируются: снимок
+ * пишет их прямо из переданных объектов и восстанавливает прямо в них.
+ * Обычно весь снимок занимает меньше килобайта.
+ *
+ * Формат: "MQS1", версия (1 байт), признак конца игры (1 байт), уровень,
+ * счётчики, оставшееся и прошедшее время вопроса, seed игры и места в его
+ * последовательностях, слот текущего вопроса ({@link QuestionPool}),
+ * затем журнал ошибок и показанные примеры.
+ */
+public final class GameSnapshot {
+
+    // "MQS1"
+    static final int MAGIC = 0x4D515331;
+    static final int VERSION = 2;
+    private static final int FIXED_SIZE = 4 + 1 + 1 + 4 * 4 + 8 + 8 + 8 + 4 + 8 + QuestionPool.STRIDE * 4;
+
+    public int level;
+    public int correctAnswers;
+    public int mistakes;
+    public int questionsOnCurrentLevel;
+    // Игра уже окончена (показывается отчёт)
+    public boolean gameOver;
+    // Сколько миллисекунд оставалось на текущий вопрос
+    public long remainingMillis;
+    // Сколько наносекунд прошло с показа текущего вопроса
+    public long elapsedNanos;
+    // Seed игры (см. QuestionPrefetcher.reseed) и сколько вопросов уже взято:
+    // из генератора текущего уровня и из банка примеров
+    public long seed;
+    public int questionsDrawn;
+    public long bankDraws;
+    // Текущий вопрос
+    public final Question question = new Question();
+
+    private final MistakeLog mistakeLog;
+    private final SeenProblems seenProblems;
+
+    /**
+     * @param mistakeLog   журнал ошибок игры (пишется в снимок и восстанавливается в него)
+     * @param seenProblems показанные примеры (так же)
+     */
+    public GameSnapshot(MistakeLog mistakeLog, SeenProblems seenProblems) {
+        this.mistakeLog = mistakeLog;
+        this.seenProblems = seenProblems;
+    }
+
+    /**
+     * Кодирует снимок вместе с журналом ошибок и показанными примерами.
+     */
+    public byte[] encode() {
+        byte[] data = new byte[FIXED_SIZE + mistakeLog.encodedSize() + seenProblems.encodedSize()];
+        ByteBuffer out = ByteBuffer.wrap(data);
+        out.putInt(MAGIC)
+                .put((byte) VERSION)
+                .put((byte) (gameOver ? 1 : 0))
+                .putInt(level)
+                .putInt(correctAnswers)
+                .putInt(mistakes)
+                .putInt(questionsOnCurrentLevel)
+                .putLong(remainingMillis)
+                .putLong(elapsedNanos)
+                .putLong(seed)
+                .putInt(questionsDrawn)
+                .putLong(bankDraws);
+        QuestionPool.pack(question, out);
+        mistakeLog.writeTo(out);
+        seenProblems.writeTo(out);
+        return data;
+    }
+
+    /**
+     * Восстанавливает снимок, записанный {@link #encode()}.
+     *
+     * @throws IllegalArgumentException если данные не являются снимком этой версии
+     */
+    public void decode(byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.getInt() != MAGIC || in.get() != VERSION) {
+                throw new IllegalArgumentException("Неизвестный формат снимка игры");
+            }
+            gameOver = in.get() != 0;
+            level = in.getInt();
+            correctAnswers = in.getInt();
+            mistakes = in.getInt();
+            questionsOnCurrentLevel = in.getInt();
+            remainingMillis = in.getLong();
+            elapsedNanos = in.getLong();
+            seed = in.getLong();
+            questionsDrawn = in.getInt();
+            bankDraws = in.getLong();
+            QuestionPool.unpack(in, question);
+            mistakeLog.readFrom(in);
+            seenProblems.readFrom(in);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Снимок игры обрезан", e);
+        }
+    }
+}
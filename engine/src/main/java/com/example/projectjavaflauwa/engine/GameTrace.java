@@ -0,0 +1,153 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Записанные события игр в памяти: то же, что в {@link SessionJournal},
+ * но в массивах по полям, чтобы повтор ({@link GameReplay}) шёл по ним
+ * без объекта на событие.
+ *
+ * Собирается из файла журнала ({@link #read(File)}) или событиями
+ * {@link #onRecord} по одному (в тестах и на сервере).
+ */
+public final class GameTrace implements SessionJournal.Visitor {
+
+    private static final int CORRECT_FLAG = 1 << 8;
+
+    private int size;
+    private int[] types;
+    private long[] times;
+    private long[] values;
+    // Вид ответа | признак верного ответа (бит 8), как в журнале
+    private int[] kinds;
+    private int[] answers;
+    // Вопросы событий в формате слота QuestionPool
+    private int[] questions;
+
+    public GameTrace() {
+        this(256);
+    }
+
+    public GameTrace(int capacity) {
+        int initial = Math.max(capacity, 1);
+        types = new int[initial];
+        times = new long[initial];
+        values = new long[initial];
+        kinds = new int[initial];
+        answers = new int[initial];
+        questions = new int[initial * QuestionPool.STRIDE];
+    }
+
+    /**
+     * Читает все целые записи файла журнала.
+     */
+    public static GameTrace read(File journal) throws IOException {
+        GameTrace trace = new GameTrace();
+        SessionJournal.read(journal, trace);
+        return trace;
+    }
+
+    /**
+     * Добавляет событие (вопрос копируется; q может быть null).
+     */
+    @Override
+    public void onRecord(int type, long timeMillis, long value, int answerKind, int answerValue,
+                         boolean correct, Question q) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            times = Arrays.copyOf(times, capacity);
+            values = Arrays.copyOf(values, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            answers = Arrays.copyOf(answers, capacity);
+            questions = Arrays.copyOf(questions, capacity * QuestionPool.STRIDE);
+        }
+        types[size] = type;
+        times[size] = timeMillis;
+        values[size] = value;
+        kinds[size] = answerKind | (correct ? CORRECT_FLAG : 0);
+        answers[size] = answerValue;
+        if (q != null) {
+            QuestionPool.pack(q, questions, size * QuestionPool.STRIDE);
+        } else {
+            Arrays.fill(questions, size * QuestionPool.STRIDE, (size + 1) * QuestionPool.STRIDE, 0);
+        }
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Тип события (SessionJournal.EVENT_*).
+     */
+    public int type(int index) {
+        return types[check(index)];
+    }
+
+    public long timeMillis(int index) {
+        return times[check(index)];
+    }
+
+    /**
+     * Значение события: seed, лимит времени, время ответа в нс или счёт.
+     */
+    public long value(int index) {
+        return values[check(index)];
+    }
+
+    public int answerKind(int index) {
+        return kinds[check(index)] & 0xFF;
+    }
+
+    public int answerValue(int index) {
+        return answers[check(index)];
+    }
+
+    public boolean correct(int index) {
+        return (kinds[check(index)] & CORRECT_FLAG) != 0;
+    }
+
+    /**
+     * Распаковывает вопрос события.
+     */
+    public void question(int index, Question out) {
+        QuestionPool.unpack(questions, check(index) * QuestionPool.STRIDE, out);
+    }
+
+    /**
+     * Совпадает ли вопрос события с q во всех полях.
+     */
+    public boolean sameQuestion(int index, Question q, int[] scratch) {
+        QuestionPool.pack(q, scratch, 0);
+        int base = check(index) * QuestionPool.STRIDE;
+        for (int i = 0; i < QuestionPool.STRIDE; i++) {
+            if (questions[base + i] != scratch[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Номер первого события начала или продолжения игры, начиная с from, или {@link #size()}.
+     */
+    public int nextGame(int from) {
+        for (int i = Math.max(from, 0); i < size; i++) {
+            if (types[i] == SessionJournal.EVENT_GAME_STARTED || types[i] == SessionJournal.EVENT_GAME_RESUMED) {
+                return i;
+            }
+        }
+        return size;
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Событие " + index + " из " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Отложенная запись истории игр ({@link GameHistory}) для потока UI.
+ *
+ * Ответы игры копятся в памяти ({@link GameHistory.Batch}); поток UI не
+ * обращается к диску ни на ответе, ни в конце игры. Законченная игра целиком
+ * уходит в поток истории и фиксируется там одной транзакцией. Запросы
+ * ({@link #query}) выполняются в том же потоке после всех уже переданных
+ * игр, поэтому видят и только что законченную игру; результат поток UI
+ * получает сам (например, через runOnUiThread).
+ *
+ * Методы записи вызываются из одного потока (UI).
+ */
+public final class HistoryWriter implements AutoCloseable {
+
+    /**
+     * Запрос к истории; выполняется в потоке истории.
+     */
+    public interface Query {
+        void run(GameHistory history);
+    }
+
+    private final ExecutorService executor;
+    // Ответы текущей игры (только поток UI)
+    private GameHistory.Batch current = new GameHistory.Batch();
+    // Начало текущей игры (только поток UI)
+    private long startMillis;
+    // Сколько законченных игр не записано (файл не открылся или ошибка диска)
+    private final AtomicLong lostGames = new AtomicLong();
+    // Только поток истории; null, если файл не открылся
+    private GameHistory history;
+    private volatile boolean closed;
+
+    /**
+     * Создаёт объект; файл открывается и индексы строятся в потоке истории.
+     */
+    public HistoryWriter(File file, TimeZone timeZone) {
+        this(file, timeZone, null);
+    }
+
+    /**
+     * То же, но вместо прежнего объекта того же файла, который ещё может дописывать
+     * и закрывать файл ({@link #shutdown()} этого не ждёт): поток истории открывает
+     * файл только после того, как прежний объект закрыт.
+     *
+     * @param previous прежний объект этого файла (после {@link #shutdown()}) или null
+     */
+    public HistoryWriter(File file, TimeZone timeZone, HistoryWriter previous) {
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "game-history");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> {
+            if (previous != null) {
+                try {
+                    previous.close();
+                } catch (IOException e) {
+                    // Ожидание прервано: история всё равно нужна, открываем файл как есть
+                }
+            }
+            try {
+                history = GameHistory.open(file, timeZone);
+            } catch (IOException e) {
+                // Без истории игра продолжается; игры просто не сохраняются
+                history = null;
+            }
+        });
+    }
+
+    /**
+     * Начало новой игры ученика student (0 — без ученика, см. {@link GameHistory.Batch#student});
+     * ответы незаконченной прежней игры забываются.
+     */
+    public void gameStarted(long timeMillis, int student) {
+        current.clear();
+        current.student(student);
+        startMillis = timeMillis;
+    }
+
+    /**
+     * Ответ или таймаут на вопрос q текущей игры.
+     */
+    public void answered(Question q, int answerKind, int answerValue, boolean correct, boolean timeout,
+                         long latencyNanos, long timeMillis) {
+        current.answer(q, answerKind, answerValue, correct, timeout, latencyNanos, timeMillis);
+    }
+
+    /**
+     * Конец текущей игры: игра передаётся на запись, следующие ответы
+     * относятся к новой игре.
+     */
+    public void gameOver(long endMillis, long seed, int correctAnswers, int level, int mistakes) {
+        current.gameOver(startMillis, endMillis, seed, correctAnswers, level, mistakes);
+        GameHistory.Batch game = current;
+        current = new GameHistory.Batch();
+        if (closed) {
+            lostGames.incrementAndGet();
+            return;
+        }
+        executor.execute(() -> commit(game));
+    }
+
+    /**
+     * Выполняет запрос в потоке истории после записи всех переданных игр.
+     * Если история не открылась, запрос не выполняется.
+     */
+    public void query(Query query) {
+        if (closed) {
+            return;
+        }
+        executor.execute(() -> {
+            if (history != null) {
+                query.run(history);
+            }
+        });
+    }
+
+    /**
+     * Сколько законченных игр не удалось записать.
+     */
+    public long lostGames() {
+        return lostGames.get();
+    }
+
+    private void commit(GameHistory.Batch game) {
+        if (history == null) {
+            lostGames.incrementAndGet();
+            return;
+        }
+        try {
+            history.append(game);
+        } catch (IOException e) {
+            lostGames.incrementAndGet();
+        }
+    }
+
+    /**
+     * Дописывает переданные игры и закрывает файл в потоке истории,
+     * не дожидаясь окончания (можно вызывать из потока UI).
+     */
+    public void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.execute(() -> {
+            if (history != null) {
+                try {
+                    history.close();
+                } catch (IOException ignored) {
+                    // Всё зафиксированное уже на диске
+                }
+                history = null;
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * То же, что {@link #shutdown()}, но ждёт, пока файл будет закрыт.
+     */
+    @Override
+    public void close() throws IOException {
+        shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Закрытие истории прервано", e);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Гистограмма задержек с логарифмическими корзинами (в духе HdrHistogram).
+ *
+ * Диапазон [0, highestTrackableValue] делится на степени двойки, каждая из
+ * которых разбита на 2^subBucketBits равных корзин, поэтому относительная
+ * погрешность не больше 1 / 2^subBucketBits. Память фиксирована — один long[],
+ * запись значения не создаёт объектов: это несколько сдвигов и инкремент.
+ *
+ * Не потокобезопасна: каждый поток пишет в свою гистограмму,
+ * а общая картина собирается через {@link #add(LatencyHistogram)}.
+ */
+public final class LatencyHistogram {
+
+    private final long highestTrackableValue;
+    private final int subBucketBits;
+    // Количество корзин в одной степени двойки
+    private final int subBucketCount;
+    private final long[] counts;
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue;
+
+    /**
+     * @param highestTrackableValue наибольшее значение; большие значения
+     *                              попадают в последнюю корзину
+     * @param subBucketBits         точность: 4 бита — около 6%, 5 бит — около 3%
+     */
+    public LatencyHistogram(long highestTrackableValue, int subBucketBits) {
+        if (subBucketBits < 1 || subBucketBits > 16) {
+            throw new IllegalArgumentException("subBucketBits: " + subBucketBits);
+        }
+        if (highestTrackableValue < 2L << subBucketBits) {
+            throw new IllegalArgumentException("highestTrackableValue: " + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.counts = new long[indexOf(highestTrackableValue) + 1];
+    }
+
+    /**
+     * Учитывает одно значение (отрицательные считаются нулём).
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > highestTrackableValue) {
+            value = highestTrackableValue;
+        }
+        counts[indexOf(value)]++;
+        totalCount++;
+        if (value < minValue) {
+            minValue = value;
+        }
+        if (value > maxValue) {
+            maxValue = value;
+        }
+    }
+
+    public long totalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Наименьшее записанное значение (0, если записей нет).
+     */
+    public long min() {
+        return totalCount == 0 ? 0 : minValue;
+    }
+
+    public long max() {
+        return maxValue;
+    }
+
+    /**
+     * Значение, не меньше которого percentile процентов записей,
+     * с точностью до ширины корзины (возвращается верхняя граница корзины).
+     *
+     * @param percentile от 0 до 100
+     */
+    public long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestValueInBucket(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Среднее по серединам корзин.
+     */
+    public double mean() {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                sum += counts[i] * (lowestValueInBucket(i) + highestValueInBucket(i)) / 2.0;
+            }
+        }
+        return sum / totalCount;
+    }
+
+    /**
+     * Добавляет записи другой гистограммы с той же конфигурацией.
+     */
+    public void add(LatencyHistogram other) {
+        checkCompatible(other);
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        minValue = Long.MAX_VALUE;
+        maxValue = 0;
+    }
+
+    /**
+     * Наибольший размер {@link #encode(ByteBuffer)} в байтах.
+     */
+    public int maxEncodedSize() {
+        return 4 + 8 + 8 + counts.length * 12;
+    }
+
+    /**
+     * Записывает гистограмму в разреженном виде: количество непустых корзин,
+     * min, max и пары (номер корзины, счётчик).
+     */
+    public void encode(ByteBuffer out) {
+        int nonEmpty = 0;
+        for (long count : counts) {
+            if (count != 0) {
+                nonEmpty++;
+            }
+        }
+        out.putInt(nonEmpty).putLong(min()).putLong(maxValue);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                out.putInt(i).putLong(counts[i]);
+            }
+        }
+    }
+
+    /**
+     * Добавляет записи, прочитанные из буфера, записанного {@link #encode(ByteBuffer)}
+     * гистограммой с той же конфигурацией.
+     */
+    public void decodeAndAdd(ByteBuffer in) {
+        int nonEmpty = in.getInt();
+        long min = in.getLong();
+        long max = in.getLong();
+        for (int n = 0; n < nonEmpty; n++) {
+            int index = in.getInt();
+            long count = in.getLong();
+            if (index < 0 || index >= counts.length || count < 0) {
+                throw new IllegalArgumentException("Повреждённая гистограмма: корзина " + index);
+            }
+            counts[index] += count;
+            totalCount += count;
+        }
+        if (nonEmpty > 0) {
+            minValue = Math.min(minValue, min);
+            maxValue = Math.max(maxValue, max);
+        }
+    }
+
+    /**
+     * Номер корзины значения: первые 2^(subBucketBits+1) значений — каждое в своей
+     * корзине, дальше в каждой степени двойки по 2^subBucketBits корзин.
+     */
+    int indexOf(long value) {
+        int bucket = 63 - Long.numberOfLeadingZeros(value | subBucketCount) - subBucketBits;
+        return (bucket << subBucketBits) + (int) (value >>> bucket);
+    }
+
+    long lowestValueInBucket(int index) {
+        int bucket = Math.max(0, (index >> subBucketBits) - 1);
+        return (long) (index - (bucket << subBucketBits)) << bucket;
+    }
+
+    long highestValueInBucket(int index) {
+        return lowestValueInBucket(index + 1) - 1;
+    }
+
+    private void checkCompatible(LatencyHistogram other) {
+        if (other.subBucketBits != subBucketBits || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Гистограммы с разной конфигурацией");
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Время ответа по уровням, действиям и типу вопроса.
+ *
+ * Для каждой комбинации (уровень 1..5, действие, числовой/«да-нет») заведена
+ * своя {@link LatencyHistogram} в микросекундах: до 64 секунд с точностью
+ * около 3%. Все гистограммы создаются заранее, поэтому учёт ответа — это
+ * выбор ячейки массива и запись в гистограмму, без выделения памяти.
+ *
+ * Не потокобезопасен: пишется из потока UI.
+ */
+public final class LatencyStats {
+
+    // Действие вопроса
+    public static final int OP_ADD = 0;
+    public static final int OP_SUB = 1;
+    public static final int OP_MUL = 2;
+    public static final int OP_DIV = 3;
+    public static final int OP_COMPARE = 4;
+    public static final int OP_COUNT = 5;
+
+    public static final int LEVELS = GameSession.MAX_LEVEL;
+    // Наибольшее учитываемое время ответа, мкс
+    static final long HIGHEST_MICROS = 64_000_000L;
+    static final int SUB_BUCKET_BITS = 5;
+
+    private static final char[] OP_SYMBOLS = {'+', '-', '×', '÷', '?'};
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[LEVELS * OP_COUNT * 2];
+
+    public LatencyStats() {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram(HIGHEST_MICROS, SUB_BUCKET_BITS);
+        }
+    }
+
+    /**
+     * Учитывает время ответа на вопрос.
+     */
+    public void record(Question q, long latencyNanos) {
+        histograms[index(q.level, operation(q), q.numeric)].record(latencyNanos / 1000);
+    }
+
+    /**
+     * Гистограмма времени ответа (в микросекундах) для комбинации.
+     * Уровни выше {@link #LEVELS} учитываются как последний.
+     */
+    public LatencyHistogram histogram(int level, int operation, boolean numeric) {
+        return histograms[index(level, operation, numeric)];
+    }
+
+    /**
+     * Знак действия для отчётов: + - × ÷ и ? для сравнения.
+     */
+    public static char operationSymbol(int operation) {
+        return OP_SYMBOLS[operation];
+    }
+
+    /**
+     * Действие вопроса: для «да/нет» — сравнение, для числовых — главное
+     * действие шаблона (в a + b - c — вычитание, в (a + b) × c — умножение);
+     * у выражений уровней 4+ — последнее выполняемое действие.
+     */
+    public static int operation(Question q) {
+        if (!q.numeric) {
+            return OP_COMPARE;
+        }
+        int template = q.template;
+        if (template == QuestionTemplate.EXPRESSION) {
+            return ExpressionProgram.packedLastOperator(q.c) - ExpressionProgram.ADD + OP_ADD;
+        }
+        switch (template) {
+            case QuestionTemplate.SUB:
+            case QuestionTemplate.ADD_SUB:
+                return OP_SUB;
+            case QuestionTemplate.MUL:
+            case QuestionTemplate.SUM_MUL:
+                return OP_MUL;
+            case QuestionTemplate.DIV:
+                return OP_DIV;
+            default:
+                return OP_ADD;
+        }
+    }
+
+    /**
+     * Добавляет данные другой статистики (например, с другого устройства).
+     */
+    public void add(LatencyStats other) {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].add(other.histograms[i]);
+        }
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Дописывает отчёт в формате CSV, по строке на непустую комбинацию:
+     * "level,op,type,count,p50_ms,p90_ms,p99_ms,max_ms".
+     */
+    public void appendCsv(TextBuffer out) {
+        out.append("level,op,type,count,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (int level = 1; level <= LEVELS; level++) {
+            for (int op = 0; op < OP_COUNT; op++) {
+                for (int type = 0; type < 2; type++) {
+                    boolean numeric = type == 0;
+                    LatencyHistogram histogram = histogram(level, op, numeric);
+                    if (histogram.totalCount() == 0) {
+                        continue;
+                    }
+                    out.append(level).append(',').append(OP_SYMBOLS[op]).append(',')
+                            .append(numeric ? "numeric" : "boolean").append(',')
+                            .append((int) histogram.totalCount()).append(',')
+                            .append(millis(histogram.valueAtPercentile(50))).append(',')
+                            .append(millis(histogram.valueAtPercentile(90))).append(',')
+                            .append(millis(histogram.valueAtPercentile(99))).append(',')
+                            .append(millis(histogram.max())).append('\n');
+                }
+            }
+        }
+    }
+
+    private static int millis(long micros) {
+        return (int) ((micros + 500) / 1000);
+    }
+
+    private static int index(int level, int operation, boolean numeric) {
+        int l = Math.min(Math.max(level, 1), LEVELS) - 1;
+        return (l * OP_COUNT + operation) * 2 + (numeric ? 0 : 1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Общая таблица результатов для многих одновременных игр (соревнование школы).
+ *
+ * Счёт игрока — LongAdder: параллельные ответы разных сеансов попадают
+ * в разные ячейки и не спорят за одну переменную. Таблица лучших K игроков
+ * не поддерживается на каждом ответе: это неизменяемый снимок, который
+ * пересчитывается не чаще раза в maxAgeMillis и публикуется через CAS.
+ * Читатели всегда получают готовый снимок и никого не блокируют; если снимок
+ * устарел, его пересчитывает ровно один читатель, остальные берут прежний.
+ */
+public final class Leaderboard {
+
+    /**
+     * Игрок; ссылку удобно получить один раз на сеанс и дальше писать без поиска в таблице.
+     */
+    public static final class Player {
+        private final String id;
+        private final LongAdder score = new LongAdder();
+        private final LongAdder answers = new LongAdder();
+
+        private Player(String id) {
+            this.id = id;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        /**
+         * Учитывает ответ; за верный ответ начисляется points очков.
+         */
+        public void recordAnswer(boolean correct, int points) {
+            answers.increment();
+            if (correct) {
+                score.add(points);
+            }
+        }
+
+        public long score() {
+            return score.sum();
+        }
+
+        public long answers() {
+            return answers.sum();
+        }
+    }
+
+    /**
+     * Строка таблицы лучших.
+     */
+    public static final class Entry {
+        public final String playerId;
+        public final long score;
+        public final long answers;
+
+        Entry(String playerId, long score, long answers) {
+            this.playerId = playerId;
+            this.score = score;
+            this.answers = answers;
+        }
+    }
+
+    /**
+     * Неизменяемый снимок таблицы лучших (по убыванию очков).
+     */
+    public static final class Snapshot {
+        public final List<Entry> entries;
+        // Когда снимок построен (System.nanoTime())
+        public final long takenNanos;
+
+        Snapshot(Entry[] entries, long takenNanos) {
+            this.entries = Collections.unmodifiableList(Arrays.asList(entries));
+            this.takenNanos = takenNanos;
+        }
+    }
+
+    private final int k;
+    private final long maxAgeNanos;
+    private final ConcurrentHashMap<String, Player> players = new ConcurrentHashMap<>();
+    private final AtomicReference<Snapshot> snapshot;
+    // Пересчитывает ли кто-то снимок прямо сейчас
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    /**
+     * @param k           размер таблицы лучших
+     * @param maxAgeMillis насколько может устареть таблица лучших при чтении
+     */
+    public Leaderboard(int k, long maxAgeMillis) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k должно быть положительным: " + k);
+        }
+        this.k = k;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.snapshot = new AtomicReference<>(new Snapshot(new Entry[0], System.nanoTime() - maxAgeNanos - 1));
+    }
+
+    /**
+     * Игрок с данным id (создаётся при первом обращении).
+     */
+    public Player player(String id) {
+        Player player = players.get(id);
+        return player != null ? player : players.computeIfAbsent(id, Player::new);
+    }
+
+    public int playerCount() {
+        return players.size();
+    }
+
+    /**
+     * Таблица лучших не старше maxAgeMillis (кроме случая, когда её как раз
+     * пересчитывает другой поток — тогда возвращается предыдущий снимок).
+     */
+    public Snapshot top() {
+        Snapshot current = snapshot.get();
+        if (System.nanoTime() - current.takenNanos <= maxAgeNanos) {
+            return current;
+        }
+        if (!refreshing.compareAndSet(false, true)) {
+            return current;
+        }
+        try {
+            return refresh();
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Пересчитывает таблицу лучших сейчас и публикует её.
+     * Запись счёта при этом не останавливается: суммы читаются без блокировок.
+     */
+    public Snapshot refresh() {
+        long now = System.nanoTime();
+        // Минимальная куча из k лучших: в корне — худший из отобранных
+        long[] scores = new long[k];
+        Player[] chosen = new Player[k];
+        int size = 0;
+        for (Player player : players.values()) {
+            long score = player.score();
+            if (size < k) {
+                scores[size] = score;
+                chosen[size] = player;
+                siftUp(scores, chosen, size++);
+            } else if (score > scores[0]) {
+                scores[0] = score;
+                chosen[0] = player;
+                siftDown(scores, chosen, size);
+            }
+        }
+        Entry[] entries = new Entry[size];
+        // Извлекаем из кучи по возрастанию и кладём с конца — получаем убывание
+        for (int i = size - 1; i >= 0; i--) {
+            entries[i] = new Entry(chosen[0].id, scores[0], chosen[0].answers());
+            scores[0] = scores[i];
+            chosen[0] = chosen[i];
+            siftDown(scores, chosen, i);
+        }
+        Snapshot fresh = new Snapshot(entries, now);
+        // Публикуем, только если никто не успел опубликовать более свежий снимок
+        for (;;) {
+            Snapshot current = snapshot.get();
+            if (current.takenNanos - now > 0) {
+                return current;
+            }
+            if (snapshot.compareAndSet(current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static void siftUp(long[] scores, Player[] players, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= scores[i]) {
+                return;
+            }
+            swap(scores, players, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(long[] scores, Player[] players, int size) {
+        int i = 0;
+        for (;;) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && scores[left] < scores[smallest]) {
+                smallest = left;
+            }
+            if (right < size && scores[right] < scores[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(scores, players, i, smallest);
+            i = smallest;
+        }
+    }
+
+    private static void swap(long[] scores, Player[] players, int i, int j) {
+        long score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        Player player = players[i];
+        players[i] = players[j];
+        players[j] = player;
+    }
+}
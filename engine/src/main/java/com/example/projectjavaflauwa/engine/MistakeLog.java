@@ -0,0 +1,178 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Журнал ошибок игры в компактном виде.
+ *
+ * Каждая ошибка — это упакованный вопрос (слот {@link QuestionPool}), ответ
+ * пользователя и время ответа. Строки отчёта не хранятся: запись выводится
+ * в TextBuffer только тогда, когда её действительно показывают.
+ */
+public final class MistakeLog {
+
+    // Вид ответа пользователя
+    public static final int ANSWER_NUMBER = 0;
+    public static final int ANSWER_BOOLEAN = 1;
+    // Ответа нет: время вышло
+    public static final int ANSWER_NONE = 2;
+
+    private int[] questions;
+    private int[] answerKinds;
+    private int[] answers;
+    private long[] latencies;
+    private int size;
+
+    public MistakeLog() {
+        this(8);
+    }
+
+    public MistakeLog(int capacity) {
+        capacity = Math.max(1, capacity);
+        questions = new int[capacity * QuestionPool.STRIDE];
+        answerKinds = new int[capacity];
+        answers = new int[capacity];
+        latencies = new long[capacity];
+    }
+
+    /**
+     * Добавляет ошибку.
+     *
+     * @param q            вопрос, на который ответили неверно
+     * @param answerKind   ANSWER_NUMBER, ANSWER_BOOLEAN или ANSWER_NONE
+     * @param answer       число; для булевого ответа 1 — «да», 0 — «нет»
+     * @param latencyNanos время от показа вопроса до ответа
+     */
+    public void add(Question q, int answerKind, int answer, long latencyNanos) {
+        if (size == answers.length) {
+            grow();
+        }
+        QuestionPool.pack(q, questions, size * QuestionPool.STRIDE);
+        answerKinds[size] = answerKind;
+        answers[size] = answer;
+        latencies[size] = latencyNanos;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Распаковывает вопрос ошибки с номером index.
+     */
+    public void readQuestion(int index, Question out) {
+        checkIndex(index);
+        QuestionPool.unpack(questions, index * QuestionPool.STRIDE, out);
+    }
+
+    public int answerKind(int index) {
+        checkIndex(index);
+        return answerKinds[index];
+    }
+
+    public int answer(int index) {
+        checkIndex(index);
+        return answers[index];
+    }
+
+    public long latencyNanos(int index) {
+        checkIndex(index);
+        return latencies[index];
+    }
+
+    /**
+     * Дописывает ответ пользователя: число, «да»/«нет» или «нет ответа».
+     */
+    public void appendUserAnswer(int index, TextBuffer out) {
+        switch (answerKind(index)) {
+            case ANSWER_NUMBER:
+                out.append(answers[index]);
+                break;
+            case ANSWER_BOOLEAN:
+                out.append(answers[index] != 0 ? "да" : "нет");
+                break;
+            default:
+                out.append("нет ответа");
+                break;
+        }
+    }
+
+    /**
+     * Дописывает запись отчёта об ошибке:
+     * "Вопрос: …\nВаш ответ: …\nПравильный ответ: …".
+     *
+     * @param scratch рабочий объект для распаковки вопроса
+     */
+    public void appendRecord(int index, Question scratch, TextBuffer out) {
+        readQuestion(index, scratch);
+        out.append("Вопрос: ");
+        scratch.appendText(out);
+        out.append("\nВаш ответ: ");
+        appendUserAnswer(index, out);
+        out.append('\n');
+        scratch.appendCorrectAnswer(out);
+    }
+
+    /**
+     * Размер журнала в байтах для {@link #writeTo(ByteBuffer)}.
+     */
+    int encodedSize() {
+        return 4 + size * (QuestionPool.STRIDE * 4 + 16);
+    }
+
+    /**
+     * Записывает все ошибки в буфер (для {@link GameSnapshot}).
+     */
+    void writeTo(ByteBuffer out) {
+        out.putInt(size);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < QuestionPool.STRIDE; j++) {
+                out.putInt(questions[i * QuestionPool.STRIDE + j]);
+            }
+            out.putInt(answerKinds[i]).putInt(answers[i]).putLong(latencies[i]);
+        }
+    }
+
+    /**
+     * Заменяет содержимое журнала записанным {@link #writeTo(ByteBuffer)}.
+     */
+    void readFrom(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / (QuestionPool.STRIDE * 4 + 16)) {
+            throw new IllegalArgumentException("Повреждённый журнал ошибок: " + count);
+        }
+        clear();
+        while (answers.length < count) {
+            grow();
+        }
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < QuestionPool.STRIDE; j++) {
+                questions[i * QuestionPool.STRIDE + j] = in.getInt();
+            }
+            answerKinds[i] = in.getInt();
+            answers[i] = in.getInt();
+            latencies[i] = in.getLong();
+        }
+        size = count;
+    }
+
+    private void grow() {
+        int capacity = answers.length * 2;
+        questions = Arrays.copyOf(questions, capacity * QuestionPool.STRIDE);
+        answerKinds = Arrays.copyOf(answerKinds, capacity);
+        answers = Arrays.copyOf(answers, capacity);
+        latencies = Arrays.copyOf(latencies, capacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+}
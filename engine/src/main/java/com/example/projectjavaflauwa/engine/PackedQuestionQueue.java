@@ -0,0 +1,66 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченная очередь «один производитель — один потребитель»
+ * поверх упакованных слотов {@link QuestionPool}. Не создаёт объектов
+ * ни при добавлении, ни при извлечении вопроса.
+ */
+final class PackedQuestionQueue {
+
+    private final QuestionPool pool;
+    private final int capacity;
+    // Номер следующего слота для чтения (меняет только потребитель)
+    private final AtomicLong head = new AtomicLong();
+    // Номер следующего слота для записи (меняет только производитель)
+    private final AtomicLong tail = new AtomicLong();
+
+    PackedQuestionQueue(int capacity) {
+        this.capacity = capacity;
+        this.pool = new QuestionPool(capacity);
+    }
+
+    /**
+     * Вызывается только производителем.
+     */
+    boolean offer(Question q) {
+        long t = tail.get();
+        if (t - head.get() >= capacity) {
+            return false;
+        }
+        pool.write((int) (t % capacity), q);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Вызывается только потребителем.
+     *
+     * @return false, если очередь пуста
+     */
+    boolean poll(Question out) {
+        long h = head.get();
+        if (h >= tail.get()) {
+            return false;
+        }
+        pool.read((int) (h % capacity), out);
+        head.lazySet(h + 1);
+        return true;
+    }
+
+    /**
+     * Отбрасывает все готовые вопросы. Вызывается только потребителем.
+     */
+    void clear() {
+        head.lazySet(tail.get());
+    }
+
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    int remainingCapacity() {
+        return capacity - size();
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.SplittableRandom;
+
+/**
+ * Банк готовых примеров, собранный из внешнего файла методистов
+ * (см. tools/BankImporter), в двоичном виде, пригодном для отображения в память.
+ *
+ * Формат (little-endian):
+ *  - заголовок: MAGIC, VERSION, размер записи, количество записей (по int);
+ *  - индекс: для каждого уровня 1..{@link GameSession#MAX_LEVEL} и каждого действия
+ *    {@link LatencyStats#OP_ADD}..{@link LatencyStats#OP_COMPARE} — номер первой
+ *    записи и их количество (по int);
+ *  - записи по {@link #RECORD_SIZE} байт в формате слота {@link QuestionPool},
+ *    отсортированные по уровню, а внутри уровня — по действию.
+ *
+ * При открытии читаются только заголовок и индекс (несколько сотен байт),
+ * поэтому банк любого размера открывается за O(1); вопрос при выдаче
+ * распаковывается прямо из буфера, без разбора текста и без объектов.
+ *
+ * Номер примера при каждой выдаче вычисляется из (seed, номер выдачи), поэтому
+ * после {@link #reseed(long)} выбор примеров воспроизводим, а продолжить с нужного
+ * места можно одним присваиванием ({@link #restore(long, long)}).
+ *
+ * Если для уровня в банке нет примеров, вопрос берётся у запасного источника
+ * (обычно генератора). Методы выдачи вызываются из одного потока.
+ */
+public final class ProblemBank implements QuestionSource {
+
+    // "MQK1" — признак файла банка примеров
+    public static final int MAGIC = 0x4D514B31;
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = QuestionPool.STRIDE * 4;
+    public static final int LEVELS = GameSession.MAX_LEVEL;
+    public static final int OPERATIONS = LatencyStats.OP_COUNT;
+    // Заголовок и индекс: 4 int + (первая запись, количество) на каждую пару (уровень, действие)
+    public static final int INDEX_OFFSET = 4 * 4;
+    public static final int HEADER_SIZE = INDEX_OFFSET + LEVELS * OPERATIONS * 2 * 4;
+    public static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    // Отделяет выбор примеров от генераторов уровней QuestionPrefetcher с тем же seed
+    private static final long SELECTION_SALT = 0x6A09E667F3BCC909L;
+
+    private final ByteBuffer data;
+    private final int count;
+    // Номер первой записи и количество записей по (уровень, действие); индекс 0 — уровень 1
+    private final int[] start = new int[LEVELS * OPERATIONS];
+    private final int[] size = new int[LEVELS * OPERATIONS];
+    private final QuestionSource fallback;
+    // Выбор примера: перемешанное (seed, номер выдачи)
+    private long seed;
+    private long draws;
+
+    /**
+     * @param data     содержимое файла банка с позиции 0 (например, отображённое в память);
+     *                 буфер не копируется
+     * @param random   откуда взять начальный seed выбора примеров
+     * @param fallback откуда брать вопросы уровней, которых нет в банке
+     * @throws IllegalArgumentException если данные не похожи на банк этой версии
+     */
+    public ProblemBank(ByteBuffer data, SplittableRandom random, QuestionSource fallback) {
+        this.data = data.duplicate().order(ORDER);
+        this.seed = random.nextLong();
+        this.fallback = fallback;
+        if (this.data.limit() < HEADER_SIZE) {
+            throw new IllegalArgumentException("Файл банка короче заголовка: " + this.data.limit() + " байт");
+        }
+        if (this.data.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Это не файл банка примеров");
+        }
+        if (this.data.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия банка: " + this.data.getInt(4));
+        }
+        if (this.data.getInt(8) != RECORD_SIZE) {
+            throw new IllegalArgumentException("Неверный размер записи: " + this.data.getInt(8));
+        }
+        count = this.data.getInt(12);
+        if (count < 0 || (long) count * RECORD_SIZE > this.data.limit() - HEADER_SIZE) {
+            throw new IllegalArgumentException("Банк обрезан: заявлено " + count + " записей");
+        }
+        // Диапазоны идут подряд и вместе покрывают все записи
+        int expectedStart = 0;
+        for (int i = 0; i < start.length; i++) {
+            start[i] = this.data.getInt(INDEX_OFFSET + i * 8);
+            size[i] = this.data.getInt(INDEX_OFFSET + i * 8 + 4);
+            if (start[i] != expectedStart || size[i] < 0) {
+                throw new IllegalArgumentException("Повреждён индекс банка");
+            }
+            expectedStart += size[i];
+        }
+        if (expectedStart != count) {
+            throw new IllegalArgumentException("Индекс банка не совпадает с количеством записей");
+        }
+    }
+
+    /**
+     * Отображает файл банка в память (только чтение) и открывает его.
+     * Отображение остаётся действительным и после закрытия файла.
+     */
+    public static ProblemBank map(File file, SplittableRandom random, QuestionSource fallback) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            ByteBuffer mapped = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+            return new ProblemBank(mapped, random, fallback);
+        }
+    }
+
+    /**
+     * Записывает заголовок и индекс; записи пишутся после {@link #HEADER_SIZE} байт.
+     *
+     * @param counts количество записей по (уровень - 1) * OPERATIONS + действие
+     */
+    public static void writeHeader(ByteBuffer out, int[] counts) {
+        if (counts.length != LEVELS * OPERATIONS) {
+            throw new IllegalArgumentException("Нужно " + LEVELS * OPERATIONS + " счётчиков");
+        }
+        ByteBuffer header = out.duplicate().order(ORDER);
+        int total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            header.putInt(INDEX_OFFSET + i * 8, total);
+            header.putInt(INDEX_OFFSET + i * 8 + 4, counts[i]);
+            total += counts[i];
+        }
+        header.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, RECORD_SIZE).putInt(12, total);
+    }
+
+    /**
+     * Номер ячейки индекса для уровня и действия.
+     */
+    public static int cell(int level, int operation) {
+        return (level - 1) * OPERATIONS + operation;
+    }
+
+    /**
+     * Начинает воспроизводимую последовательность выбора примеров.
+     */
+    public void reseed(long seed) {
+        restore(seed, 0);
+    }
+
+    /**
+     * Продолжает последовательность seed после draws выдач (см. {@link #draws()}).
+     */
+    public void restore(long seed, long draws) {
+        this.seed = seed;
+        this.draws = draws;
+    }
+
+    /**
+     * Сколько раз выбирался пример с последнего {@link #reseed(long)}.
+     */
+    public long draws() {
+        return draws;
+    }
+
+    /**
+     * Всего примеров в банке.
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Примеров уровня level.
+     */
+    public int count(int level) {
+        if (level < 1 || level > LEVELS) {
+            return 0;
+        }
+        int last = cell(level, OPERATIONS - 1);
+        return start[last] + size[last] - start[cell(level, 0)];
+    }
+
+    /**
+     * Примеров уровня level с действием operation.
+     */
+    public int count(int level, int operation) {
+        return level < 1 || level > LEVELS ? 0 : size[cell(level, operation)];
+    }
+
+    /**
+     * Распаковывает запись с номером index.
+     */
+    public void read(int index, Question out) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Запись " + index + " из " + count);
+        }
+        QuestionPool.unpack(data, HEADER_SIZE + index * RECORD_SIZE, out);
+    }
+
+    /**
+     * Случайный пример уровня level с действием operation.
+     *
+     * @return false, если таких примеров в банке нет (out не изменён)
+     */
+    public boolean sample(int level, int operation, Question out) {
+        int n = count(level, operation);
+        if (n == 0) {
+            return false;
+        }
+        read(start[cell(level, operation)] + pick(n), out);
+        return true;
+    }
+
+    /**
+     * Случайный пример уровня (все действия уровня вместе, равновероятно по примерам),
+     * по возможности не из seen. Уровни без примеров — у запасного источника.
+     */
+    @Override
+    public void next(int level, Question out, SeenProblems seen) {
+        int n = count(level);
+        if (n == 0) {
+            fallback.next(level, out, seen);
+            return;
+        }
+        int first = start[cell(level, 0)];
+        for (int attempt = 1; ; attempt++) {
+            read(first + pick(n), out);
+            if (seen.add(out) || attempt >= SeenProblems.MAX_ATTEMPTS) {
+                return;
+            }
+        }
+    }
+
+    private int pick(int n) {
+        return (int) Long.remainderUnsigned(QuestionEngine.chunkSeed(seed ^ SELECTION_SALT, draws++), n);
+    }
+}
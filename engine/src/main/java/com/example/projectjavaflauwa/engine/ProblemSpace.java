@@ -0,0 +1,200 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Заранее перечисленные пространства примеров для каждого уровня.
+ *
+ * Пространство каждого уровня конечно и невелико (самое большое — уровень 3,
+ * около 370 тысяч примеров), поэтому все допустимые сочетания операндов
+ * перечисляются один раз при первом обращении к уровню. После этого генерация —
+ * это выбор шаблона и одного случайного индекса, без перестановок и поправок,
+ * а вопрос «сколько всего разных примеров» отвечается за O(1).
+ */
+public final class ProblemSpace {
+
+    // Таблицы числовых примеров уровня; повтор таблицы задаёт её вес при выборе
+    private final ProblemTable[] numeric;
+    // Таблицы левой части сравнений ("да/нет") уровня, так же с весами
+    private final ProblemTable[] comparisonLeft;
+
+    private ProblemSpace(ProblemTable[] numeric, ProblemTable[] comparisonLeft) {
+        this.numeric = numeric;
+        this.comparisonLeft = comparisonLeft;
+    }
+
+    /**
+     * Пространство примеров уровня. Уровни больше 3 (и меньше 1) используют
+     * примеры третьего уровня, как и прежняя генерация.
+     */
+    public static ProblemSpace forLevel(int level) {
+        switch (level) {
+            case 1:
+                return Level1.SPACE;
+            case 2:
+                return Level2.SPACE;
+            default:
+                return Level3.SPACE;
+        }
+    }
+
+    /**
+     * Количество шаблонов-вариантов выбора числового примера (с учётом весов).
+     */
+    public int numericChoices() {
+        return numeric.length;
+    }
+
+    public ProblemTable numericTable(int choice) {
+        return numeric[choice];
+    }
+
+    public int comparisonChoices() {
+        return comparisonLeft.length;
+    }
+
+    public ProblemTable comparisonTable(int choice) {
+        return comparisonLeft[choice];
+    }
+
+    /**
+     * Сколько различных числовых примеров существует на уровне.
+     */
+    public int numericCount() {
+        return distinctSize(numeric);
+    }
+
+    /**
+     * Сколько различных левых частей сравнения существует на уровне.
+     */
+    public int comparisonLeftCount() {
+        return distinctSize(comparisonLeft);
+    }
+
+    private static int distinctSize(ProblemTable[] tables) {
+        int total = 0;
+        for (int i = 0; i < tables.length; i++) {
+            boolean repeated = false;
+            for (int j = 0; j < i; j++) {
+                repeated |= tables[j] == tables[i];
+            }
+            if (!repeated) {
+                total += tables[i].size();
+            }
+        }
+        return total;
+    }
+
+    // Ленивая инициализация по уровням: таблицы строятся при первом обращении
+
+    private static final class Level1 {
+        static final ProblemSpace SPACE;
+
+        static {
+            // 1..5 + 1..5 — задачка про фрукты
+            ProblemTable fruits = pairs(QuestionTemplate.FRUITS, 1, 5, 1, 5);
+            ProblemTable add = pairs(QuestionTemplate.ADD, 1, 20, 1, 20);
+            ProblemTable sub = differences(1, 20);
+            // Фрукты в половине числовых вопросов, как и раньше
+            SPACE = new ProblemSpace(
+                    new ProblemTable[]{fruits, fruits, add, sub},
+                    new ProblemTable[]{add, sub});
+        }
+    }
+
+    private static final class Level2 {
+        static final ProblemSpace SPACE;
+
+        static {
+            ProblemTable add = pairs(QuestionTemplate.ADD, 1, 50, 1, 50);
+            ProblemTable sub = differences(1, 50);
+            ProblemTable mul = pairs(QuestionTemplate.MUL, 1, 10, 1, 10);
+            ProblemTable div = divisions(2, 10, 1, 10);
+            ProblemTable[] tables = {add, sub, mul, div};
+            SPACE = new ProblemSpace(tables, tables);
+        }
+    }
+
+    private static final class Level3 {
+        static final ProblemSpace SPACE;
+
+        static {
+            ProblemTable addAdd = triples(QuestionTemplate.ADD_ADD, 1, 50, 1, 50, 1, 50);
+            // a из 20..79, чтобы результат чаще был неотрицательным
+            ProblemTable addSub = triples(QuestionTemplate.ADD_SUB, 20, 79, 1, 40, 1, 40);
+            ProblemTable sumMul = triples(QuestionTemplate.SUM_MUL, 1, 10, 1, 10, 2, 6);
+            // В сравнениях третье число меньше (1..30), чтобы запись оставалась понятной
+            ProblemTable cmpAddAdd = triples(QuestionTemplate.ADD_ADD, 1, 50, 1, 50, 1, 30);
+            // Левая часть сравнения неотрицательна: a + b ≥ c
+            ProblemTable cmpAddSub = nonNegativeTriples(QuestionTemplate.ADD_SUB, 1, 50, 1, 50, 1, 30);
+            SPACE = new ProblemSpace(
+                    new ProblemTable[]{addAdd, addSub, sumMul},
+                    new ProblemTable[]{cmpAddAdd, cmpAddSub});
+        }
+    }
+
+    private static ProblemTable pairs(int template, int aMin, int aMax, int bMin, int bMax) {
+        ProblemTable table = new ProblemTable(template, (aMax - aMin + 1) * (bMax - bMin + 1));
+        for (int a = aMin; a <= aMax; a++) {
+            for (int b = bMin; b <= bMax; b++) {
+                table.add(a, b, 0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Вычитание с неотрицательным результатом: a ≥ b, оба из min..max.
+     */
+    private static ProblemTable differences(int min, int max) {
+        int n = max - min + 1;
+        ProblemTable table = new ProblemTable(QuestionTemplate.SUB, n * (n + 1) / 2);
+        for (int a = min; a <= max; a++) {
+            for (int b = min; b <= a; b++) {
+                table.add(a, b, 0);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Деление нацело: a = b × результат.
+     */
+    private static ProblemTable divisions(int bMin, int bMax, int resultMin, int resultMax) {
+        ProblemTable table = new ProblemTable(QuestionTemplate.DIV,
+                (bMax - bMin + 1) * (resultMax - resultMin + 1));
+        for (int b = bMin; b <= bMax; b++) {
+            for (int result = resultMin; result <= resultMax; result++) {
+                table.add(b * result, b, 0);
+            }
+        }
+        return table;
+    }
+
+    private static ProblemTable triples(int template, int aMin, int aMax, int bMin, int bMax,
+                                        int cMin, int cMax) {
+        return triples(template, aMin, aMax, bMin, bMax, cMin, cMax, false);
+    }
+
+    /**
+     * Тройки, значение которых не меньше 0 (остальные пропускаются).
+     */
+    private static ProblemTable nonNegativeTriples(int template, int aMin, int aMax, int bMin, int bMax,
+                                                   int cMin, int cMax) {
+        return triples(template, aMin, aMax, bMin, bMax, cMin, cMax, true);
+    }
+
+    private static ProblemTable triples(int template, int aMin, int aMax, int bMin, int bMax,
+                                        int cMin, int cMax, boolean nonNegative) {
+        ProblemTable table = new ProblemTable(template,
+                (aMax - aMin + 1) * (bMax - bMin + 1) * (cMax - cMin + 1));
+        for (int a = aMin; a <= aMax; a++) {
+            for (int b = bMin; b <= bMax; b++) {
+                for (int c = cMin; c <= cMax; c++) {
+                    if (!nonNegative || QuestionTemplate.evaluate(template, a, b, c) >= 0) {
+                        table.add(a, b, c);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+}
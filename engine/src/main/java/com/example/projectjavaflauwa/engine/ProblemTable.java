@@ -0,0 +1,61 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Таблица всех допустимых примеров одного шаблона с заданными диапазонами чисел.
+ *
+ * Каждая запись упакована в один int: a (7 бит) | b (7 бит) | c (7 бит) | ответ (11 бит со знаком).
+ * Выбор случайного примера — одно обращение по случайному индексу.
+ */
+public final class ProblemTable {
+
+    // Ограничения упаковки: операнды 0..127, ответ -1024..1023
+    static final int MAX_OPERAND = 0x7F;
+    static final int MIN_ANSWER = -1024;
+    static final int MAX_ANSWER = 1023;
+
+    private final int template;
+    private final int[] entries;
+    private int size;
+
+    ProblemTable(int template, int capacity) {
+        this.template = template;
+        this.entries = new int[capacity];
+    }
+
+    /**
+     * Шаблон всех примеров таблицы (см. QuestionTemplate).
+     */
+    public int template() {
+        return template;
+    }
+
+    /**
+     * Количество различных примеров в таблице.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Записывает пример с номером index в вопрос (шаблон и операнды)
+     * и возвращает значение выражения.
+     */
+    public int read(int index, Question q) {
+        int entry = entries[index];
+        q.template = template;
+        q.a = entry & MAX_OPERAND;
+        q.b = (entry >>> 7) & MAX_OPERAND;
+        q.c = (entry >>> 14) & MAX_OPERAND;
+        return entry >> 21;
+    }
+
+    void add(int a, int b, int c) {
+        int answer = QuestionTemplate.evaluate(template, a, b, c);
+        if (a > MAX_OPERAND || b > MAX_OPERAND || c > MAX_OPERAND
+                || answer < MIN_ANSWER || answer > MAX_ANSWER) {
+            throw new IllegalStateException("Пример не помещается в упаковку таблицы: "
+                    + a + ", " + b + ", " + c + " = " + answer);
+        }
+        entries[size++] = a | b << 7 | c << 14 | answer << 21;
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Профили учеников общего планшета ({@link StudentProfile}), по файлу на ученика.
+ *
+ * При открытии читается только список учеников (roster.txt: «id TAB имя»
+ * в строке), сами профили — при первом обращении. Недавно активные профили
+ * держатся в памяти в LRU-кэше (LinkedHashMap в порядке обращений), поэтому
+ * переключение на ученика из кэша — поиск в таблице, без диска. Класс из
+ * 40 учеников при запуске не читает ни одного профиля.
+ *
+ * Запись на диск отложенная и идёт в потоке профилей: и явное сохранение
+ * ({@link #save}), и вытеснение изменённого профиля из кэша. Пока файл не
+ * записан, профиль читается из очереди записи, а не из устаревшего файла.
+ * Файл профиля заменяется целиком (запись во временный и переименование).
+ * Сохранения одного профиля, пока его запись ждёт очереди, сливаются: на диск
+ * уходит только последняя версия, даже если учеников переключают очень часто.
+ *
+ * Профиль меняется только из потока UI и только пока он текущий; из кэша
+ * вытесняется давно не использованный, поэтому его кодирование при
+ * вытеснении не пересекается с изменениями.
+ */
+public final class ProfileStore implements AutoCloseable {
+
+    public static final int DEFAULT_CACHE_SIZE = 8;
+    static final String ROSTER = "roster.txt";
+    private static final String SUFFIX = ".profile";
+
+    /**
+     * Получатель профиля, загруженного в потоке профилей.
+     */
+    public interface Loaded {
+        /**
+         * @param profile профиль или null, если файл не читается
+         */
+        void onLoaded(StudentProfile profile);
+    }
+
+    private final File directory;
+    private final int cacheSize;
+    private final ExecutorService executor;
+
+    // Список учеников: id → имя в порядке добавления (под блокировкой this)
+    private final LinkedHashMap<String, String> roster = new LinkedHashMap<>();
+    private int lastId;
+    // LRU-кэш профилей (под блокировкой this)
+    private final LinkedHashMap<String, StudentProfile> cache;
+    // Закодированные профили, ещё не записанные на диск (под блокировкой this)
+    private final Map<String, byte[]> pending = new HashMap<>();
+    // Профили, запись которых уже стоит в очереди потока профилей (под блокировкой this)
+    private final Set<String> queued = new HashSet<>();
+    // Сколько профилей прочитано с диска (для проверки ленивой загрузки)
+    private int diskLoads;
+
+    private ProfileStore(File directory, int cacheSize) {
+        this.directory = directory;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<String, StudentProfile>(cacheSize * 2, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StudentProfile> eldest) {
+                if (size() <= ProfileStore.this.cacheSize) {
+                    return false;
+                }
+                if (eldest.getValue().isDirty()) {
+                    writeBehind(eldest.getValue());
+                }
+                return true;
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "profiles");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Открывает каталог профилей (создаёт при необходимости) и читает список учеников.
+     *
+     * @param cacheSize сколько профилей держать в памяти
+     */
+    public static ProfileStore open(File directory, int cacheSize) throws IOException {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + cacheSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Не создать каталог профилей " + directory);
+        }
+        ProfileStore store = new ProfileStore(directory, cacheSize);
+        File file = new File(directory, ROSTER);
+        if (file.exists()) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab <= 0) {
+                        continue;
+                    }
+                    String id = line.substring(0, tab);
+                    store.roster.put(id, line.substring(tab + 1));
+                    try {
+                        store.lastId = Math.max(store.lastId, Integer.parseInt(id));
+                    } catch (NumberFormatException ignored) {
+                        // id не из нашей нумерации — просто не участвует в выборе следующего
+                    }
+                }
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Ученики в порядке добавления.
+     */
+    public synchronized List<String> ids() {
+        return Collections.unmodifiableList(new ArrayList<>(roster.keySet()));
+    }
+
+    /**
+     * Имя ученика или null, если его нет в списке.
+     */
+    public synchronized String name(String id) {
+        return roster.get(id);
+    }
+
+    /**
+     * Добавляет ученика: профиль сразу попадает в кэш, список и профиль
+     * записываются в потоке профилей.
+     */
+    public StudentProfile add(String name) {
+        String clean = name.replace('\t', ' ').replace('\n', ' ').trim();
+        if (clean.isEmpty()) {
+            throw new IllegalArgumentException("Пустое имя ученика");
+        }
+        StudentProfile profile;
+        String rosterText;
+        synchronized (this) {
+            String id = Integer.toString(++lastId);
+            roster.put(id, clean);
+            profile = new StudentProfile(id, clean);
+            cache.put(id, profile);
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<String, String> entry : roster.entrySet()) {
+                text.append(entry.getKey()).append('\t').append(entry.getValue()).append('\n');
+            }
+            rosterText = text.toString();
+            writeBehind(profile);
+        }
+        executor.execute(() -> writeRoster(rosterText));
+        return profile;
+    }
+
+    /**
+     * Профиль из кэша или null, если его нужно загрузить ({@link #load}, {@link #loadAsync}).
+     * Без обращений к диску — можно вызывать из потока UI.
+     */
+    public synchronized StudentProfile cached(String id) {
+        return cache.get(id);
+    }
+
+    /**
+     * Профиль ученика: из кэша, из очереди записи или с диска.
+     *
+     * @throws IOException если ученика нет или файл не читается
+     */
+    public StudentProfile load(String id) throws IOException {
+        byte[] data;
+        synchronized (this) {
+            StudentProfile profile = cache.get(id);
+            if (profile != null) {
+                return profile;
+            }
+            if (!roster.containsKey(id)) {
+                throw new IOException("Нет ученика " + id);
+            }
+            data = pending.get(id);
+        }
+        if (data == null) {
+            data = readFile(new File(directory, id + SUFFIX));
+        }
+        StudentProfile loaded;
+        try {
+            loaded = StudentProfile.decode(id, data);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        synchronized (this) {
+            // Пока читали, профиль мог загрузить другой поток
+            StudentProfile raced = cache.get(id);
+            if (raced != null) {
+                return raced;
+            }
+            diskLoads++;
+            cache.put(id, loaded);
+            return loaded;
+        }
+    }
+
+    /**
+     * Загружает профиль в потоке профилей и отдаёт его callback (в том же потоке).
+     */
+    public void loadAsync(String id, Loaded callback) {
+        executor.execute(() -> {
+            StudentProfile profile;
+            try {
+                profile = load(id);
+            } catch (IOException e) {
+                profile = null;
+            }
+            callback.onLoaded(profile);
+        });
+    }
+
+    /**
+     * Сохраняет изменения профиля: кодирование — здесь, запись — в потоке профилей.
+     */
+    public synchronized void save(StudentProfile profile) {
+        // Сохраняемый профиль — текущий: держим его первым кандидатом на место в кэше
+        cache.put(profile.id(), profile);
+        if (profile.isDirty()) {
+            writeBehind(profile);
+        }
+    }
+
+    /**
+     * Сколько профилей загружено с диска с открытия.
+     */
+    public synchronized int diskLoads() {
+        return diskLoads;
+    }
+
+    /**
+     * Сколько профилей сейчас в кэше.
+     */
+    public synchronized int cachedCount() {
+        return cache.size();
+    }
+
+    // Вызывается под блокировкой this
+    private void writeBehind(StudentProfile profile) {
+        String id = profile.id();
+        byte[] data = profile.encode();
+        profile.markClean();
+        pending.put(id, data);
+        if (queued.add(id)) {
+            executor.execute(() -> writeProfile(id));
+        }
+    }
+
+    private void writeProfile(String id) {
+        byte[] data;
+        synchronized (this) {
+            // Сохранение после этой точки поставит в очередь новую запись
+            queued.remove(id);
+            data = pending.get(id);
+        }
+        if (data == null) {
+            return;
+        }
+        try {
+            replace(new File(directory, id + SUFFIX), data);
+        } catch (IOException e) {
+            // Останется в очереди: следующее сохранение профиля попробует снова
+            return;
+        }
+        synchronized (this) {
+            // Более новую версию, поставленную в очередь за это время, не трогаем
+            if (pending.get(id) == data) {
+                pending.remove(id);
+            }
+        }
+    }
+
+    private void writeRoster(String text) {
+        try {
+            replace(new File(directory, ROSTER), text.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ignored) {
+            // Список перепишется при следующем добавлении ученика
+        }
+    }
+
+    /**
+     * Записывает файл целиком через временный, чтобы при сбое остался прежний.
+     */
+    private static void replace(File file, byte[] data) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Не заменить " + file);
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            byte[] data = new byte[(int) in.length()];
+            in.readFully(data);
+            return data;
+        }
+    }
+
+    /**
+     * Дописывает очередь записи и останавливает поток профилей, не дожидаясь.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * То же, что {@link #shutdown()}, но ждёт окончания записи.
+     */
+    @Override
+    public void close() throws IOException {
+        shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Закрытие профилей прервано", e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Задание (вопрос) тренажёра устного счёта.
+ * Может быть двух типов: числовой (numeric == true) или булевый (numeric == false).
+ *
+ * Хранится в компактном виде — номер шаблона и операнды. Текст не хранится,
+ * а собирается в переиспользуемый {@link TextBuffer} только при показе,
+ * поэтому один объект Question можно переиспользовать для всех вопросов игры.
+ */
+public class Question {
+    // Уровень сложности, для которого сгенерирован вопрос
+    public int level;
+    // Тип вопроса: true — числовой ответ, false — «да/нет»
+    public boolean numeric;
+    // Шаблон выражения (для булевых вопросов — шаблон левой части), см. QuestionTemplate
+    public int template;
+    // Операнды выражения (c используется только в шаблонах с тремя числами)
+    public int a;
+    public int b;
+    public int c;
+    // Знак сравнения булевого вопроса (QuestionTemplate.LESS/GREATER/EQUAL)
+    public int comparator;
+    // Правая часть сравнения булевого вопроса
+    public int rightValue;
+    // Числовой правильный ответ (используется, если numeric == true)
+    public int numericAnswer;
+    // Правильный булевый ответ (используется, если numeric == false)
+    public boolean booleanAnswer;
+
+    /**
+     * Ключ примера для истории игр ({@link GameHistory}): перемешанные
+     * {@link #fields()} и {@link #shape()}. Одинаковые по тексту и ответу вопросы
+     * имеют одинаковый ключ; разные совпадают лишь случайно, с вероятностью
+     * около 2^-64 на пару. Повторы в игре ищутся не по ключу, а по полям целиком
+     * (см. {@link SeenProblems}).
+     */
+    public long key() {
+        return QuestionEngine.mix64(fields() ^ QuestionEngine.mix64(shape()));
+    }
+
+    /**
+     * Числа примера без потерь: a | b | c | правая часть, по 16 бит.
+     * Пул вопросов ({@link QuestionPool}) и упакованное выражение
+     * ({@link ExpressionProgram}) больше 16 бит в этих полях не хранят.
+     */
+    long fields() {
+        return a & 0xFFFFL
+                | (b & 0xFFFFL) << 16
+                | (c & 0xFFFFL) << 32
+                | (rightValue & 0xFFFFL) << 48;
+    }
+
+    /**
+     * Вид примера: уровень (8) | шаблон (8) | вид ответа (2: знак сравнения или 3 у числового).
+     * Никогда не равен 0: уровень не меньше 1.
+     */
+    int shape() {
+        return level & 0xFF
+                | (template & 0xFF) << 8
+                | (numeric ? 3 : comparator & 0x3) << 16;
+    }
+
+    /**
+     * Дописывает текст вопроса, который показывается пользователю,
+     * например "7 + 5 = ?" или "12 - 3 < 10 ?".
+     */
+    public void appendText(TextBuffer out) {
+        if (template == QuestionTemplate.FRUITS) {
+            QuestionTemplate.appendExpression(out, template, a, b, c);
+            out.append(". Сколько всего фруктов?");
+        } else if (numeric) {
+            QuestionTemplate.appendExpression(out, template, a, b, c);
+            out.append(" = ?");
+        } else {
+            QuestionTemplate.appendExpression(out, template, a, b, c);
+            out.append(' ').append(QuestionTemplate.comparatorSymbol(comparator))
+                    .append(' ').append(rightValue).append(" ?");
+        }
+    }
+
+    /**
+     * Дописывает строку с правильным ответом
+     * (используется для подсказки/обратной связи пользователю).
+     */
+    public void appendCorrectAnswer(TextBuffer out) {
+        out.append("Правильный ответ: ");
+        if (numeric) {
+            out.append(numericAnswer);
+        } else {
+            out.append(booleanAnswer ? "да" : "нет");
+        }
+    }
+
+    /**
+     * Текст вопроса в виде новой строки (для отчётов и тестов, не для горячего пути).
+     */
+    public String getText() {
+        TextBuffer out = new TextBuffer(64);
+        appendText(out);
+        return out.toString();
+    }
+
+    /**
+     * Строка с правильным ответом в виде новой строки (не для горячего пути).
+     */
+    public String getCorrectAnswerText() {
+        TextBuffer out = new TextBuffer(32);
+        appendCorrectAnswer(out);
+        return out.toString();
+    }
+
+    /**
+     * Копирует все поля другого вопроса.
+     */
+    public void set(Question other) {
+        level = other.level;
+        numeric = other.numeric;
+        template = other.template;
+        a = other.a;
+        b = other.b;
+        c = other.c;
+        comparator = other.comparator;
+        rightValue = other.rightValue;
+        numericAnswer = other.numericAnswer;
+        booleanAnswer = other.booleanAnswer;
+    }
+}
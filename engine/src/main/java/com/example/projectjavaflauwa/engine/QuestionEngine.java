@@ -0,0 +1,297 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Генератор заданий тренажёра, не зависящий от Android.
+ *
+ * Используется как из MainActivity, так и из обычной JVM (тесты, серверные
+ * и пакетные задачи по генерации рабочих листов).
+ * Экземпляр не потокобезопасен: каждому потоку — свой QuestionEngine
+ * (например, полученный через {@link #split()} или {@link #forChunk(long, long)}).
+ */
+public class QuestionEngine implements QuestionSource {
+
+    // Размер блока пакетной генерации: у каждого блока свой независимый поток
+    // случайных чисел, поэтому результат не зависит от числа рабочих потоков
+    public static final int CHUNK_SIZE = 4096;
+
+    // Источник случайных чисел для генерации чисел и выбора шаблонов
+    private final SplittableRandom random;
+    // Генератор выражений уровней 4+ (использует тот же источник случайности)
+    private final ExpressionGenerator expressions;
+    private final ExpressionProgram expression = new ExpressionProgram(ExpressionProgram.MAX_PACKED_OPERATORS);
+    // Правая часть вопросов «да/нет» (тот же источник случайности)
+    private final ComparisonSampler comparisons;
+
+    /**
+     * Генератор с несидированным источником случайности (обычная игра).
+     */
+    public QuestionEngine() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Генератор с воспроизводимой последовательностью вопросов.
+     *
+     * @param seed начальное значение генератора случайных чисел
+     */
+    public QuestionEngine(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    /**
+     * Генератор с заданным источником случайности.
+     *
+     * @param random источник случайных чисел; используется только этим генератором
+     */
+    public QuestionEngine(SplittableRandom random) {
+        this.random = random;
+        this.expressions = new ExpressionGenerator(random);
+        this.comparisons = new ComparisonSampler(random);
+    }
+
+    /**
+     * Новый генератор с независимым потоком случайных чисел для другого потока.
+     * Вызывается в потоке, которому принадлежит этот генератор.
+     */
+    public QuestionEngine split() {
+        return new QuestionEngine(random.split());
+    }
+
+    /**
+     * Генератор для блока с номером chunkIndex в пакете с заданным seed.
+     * Зависит только от (seed, chunkIndex), поэтому любой поток может
+     * сгенерировать любой блок, и результат будет одинаковым.
+     */
+    public static QuestionEngine forChunk(long seed, long chunkIndex) {
+        return new QuestionEngine(new SplittableRandom(chunkSeed(seed, chunkIndex)).split());
+    }
+
+    /**
+     * Начальное значение для блока chunkIndex пакета с заданным seed:
+     * у соседних блоков независимые последовательности.
+     */
+    public static long chunkSeed(long seed, long chunkIndex) {
+        return mix64(seed ^ mix64(chunkIndex + 1));
+    }
+
+    /**
+     * Перемешивание битов 64-битного числа (вариант 13 Стаффорда, как в SplittableRandom).
+     */
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Генерирует следующий вопрос для уровня: сначала выбирается тип
+     * (числовой или «да/нет»), затем конкретный шаблон.
+     *
+     * @param level уровень сложности (1..5)
+     */
+    public Question next(int level) {
+        Question q = new Question();
+        next(level, q);
+        return q;
+    }
+
+    /**
+     * То же, что {@link #next(int)}, но вопрос записывается в переданный объект
+     * (без создания новых объектов).
+     */
+    public void next(int level, Question out) {
+        // Выбираем тип вопроса: с числовым ответом или "да/нет"
+        boolean numericQuestion;
+        if (level == 1) {
+            // На первом уровне чаще обычные числовые задания.
+            numericQuestion = random.nextInt(4) != 0; // 3 из 4 будут с числовым ответом.
+        } else {
+            // На других уровнях примерное равенство по типам
+            numericQuestion = random.nextBoolean();
+        }
+
+        // Генерируем конкретный вопрос в соответствии с уровнем и типом
+        if (numericQuestion) {
+            generateNumericQuestion(level, out);
+        } else {
+            generateBooleanQuestion(level, out);
+        }
+    }
+
+    /**
+     * То же, что {@link #next(int, Question)}, но пропускает уже показанные примеры.
+     * Делается не больше {@link SeenProblems#MAX_ATTEMPTS} попыток, после чего
+     * повтор допускается (например, если пространство уровня почти исчерпано).
+     * Выданный пример отмечается в seen.
+     */
+    @Override
+    public void next(int level, Question out, SeenProblems seen) {
+        for (int attempt = 1; ; attempt++) {
+            next(level, out);
+            if (seen.add(out) || attempt >= SeenProblems.MAX_ATTEMPTS) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Пакетная генерация: заполняет весь массив вопросами одного уровня.
+     * При одинаковом seed результат всегда одинаков (и совпадает с
+     * {@link #fill(QuestionPool, int, int, long)} и {@link #fillParallel}).
+     *
+     * @param out   массив, который будет заполнен; уже созданные элементы переиспользуются
+     * @param level уровень сложности (1..5)
+     * @param seed  начальное значение генератора случайных чисел
+     */
+    public void fill(Question[] out, int level, long seed) {
+        // Отдельный генератор на каждый блок, чтобы не сбивать последовательность этого экземпляра
+        QuestionEngine seeded = null;
+        for (int i = 0; i < out.length; i++) {
+            if (i % CHUNK_SIZE == 0) {
+                seeded = forChunk(seed, i / CHUNK_SIZE);
+            }
+            if (out[i] == null) {
+                out[i] = new Question();
+            }
+            seeded.next(level, out[i]);
+        }
+    }
+
+    /**
+     * Пакетная генерация в упакованном виде: первые count слотов пула.
+     * Не создаёт объектов на каждый вопрос.
+     *
+     * @param out   пул, в который записываются вопросы
+     * @param count сколько вопросов сгенерировать (не больше out.capacity())
+     * @param level уровень сложности (1..5)
+     * @param seed  начальное значение генератора случайных чисел
+     */
+    public void fill(QuestionPool out, int count, int level, long seed) {
+        Question scratch = new Question();
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            fillChunk(out, count, level, seed, chunk, scratch);
+        }
+    }
+
+    /**
+     * Параллельная пакетная генерация. Блоки по {@link #CHUNK_SIZE} вопросов
+     * раздаются потокам по мере освобождения; результат побайтно совпадает
+     * с {@link #fill(QuestionPool, int, int, long)} при любом числе потоков.
+     *
+     * @param threads число рабочих потоков
+     */
+    public void fillParallel(QuestionPool out, int count, int level, long seed, int threads) {
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        AtomicInteger nextChunk = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                Question scratch = new Question();
+                int chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                    fillChunk(out, count, level, seed, chunk, scratch);
+                }
+                return null;
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Future<Void> future : pool.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Генерация прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка генерации", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Генерирует один блок пакета в слоты пула.
+     */
+    public static void fillChunk(QuestionPool out, int count, int level, long seed,
+                                 long chunk, Question scratch) {
+        QuestionEngine seeded = forChunk(seed, chunk);
+        int from = (int) (chunk * CHUNK_SIZE);
+        int to = Math.min(count, from + CHUNK_SIZE);
+        for (int i = from; i < to; i++) {
+            seeded.next(level, scratch);
+            out.write(i, scratch);
+        }
+    }
+
+    /**
+     * Генерация примера с числовым ответом.
+     * Шаблон выбирается с весами уровня, а конкретный пример — одним случайным
+     * индексом в заранее перечисленной таблице (см. {@link ProblemSpace}):
+     *  - уровень 1: фрукты (1..5), сложение и вычитание чисел 1..20;
+     *  - уровень 2: +, - (1..50), × (1..10), ÷ нацело (делитель 2..10);
+     *  - уровень 3: a + b + c, a + b - c, (a + b) × c;
+     *  - уровни 4+: случайное выражение из {@link ExpressionGenerator}.
+     * Результат записывается в переданный вопрос.
+     */
+    public void generateNumericQuestion(int level, Question q) {
+        q.numeric = true;
+        q.level = level;
+        q.numericAnswer = level >= ExpressionGenerator.FIRST_LEVEL
+                ? generateExpression(level, q)
+                : readTable(level, q, true);
+        q.comparator = 0;
+        q.rightValue = 0;
+        q.booleanAnswer = false;
+    }
+
+    /**
+     * Генерация задания на проверку истинности выражения (вопросы "да/нет").
+     * Левая часть выбирается так же, как числовой пример, остальное —
+     * {@link ComparisonSampler}: истинных и ложных вопросов поровну.
+     * Результат записывается в переданный вопрос.
+     */
+    public void generateBooleanQuestion(int level, Question q) {
+        q.numeric = false;
+        q.level = level;
+        q.numericAnswer = 0;
+        // Генерируем левую часть выражения (арифметическую).
+        int leftValue = level >= ExpressionGenerator.FIRST_LEVEL
+                ? generateExpression(level, q)
+                : readTable(level, q, false);
+
+        // Знак, правая часть и ответ — сразу из допустимых сочетаний
+        comparisons.sample(leftValue, q);
+    }
+
+    /**
+     * Случайный пример из таблицы уровня: числовой или левая часть сравнения.
+     * Записывает шаблон и операнды в q и возвращает значение примера.
+     */
+    private int readTable(int level, Question q, boolean numeric) {
+        ProblemSpace space = ProblemSpace.forLevel(level);
+        ProblemTable table = numeric
+                ? space.numericTable(random.nextInt(space.numericChoices()))
+                : space.comparisonTable(random.nextInt(space.comparisonChoices()));
+        return table.read(random.nextInt(table.size()), q);
+    }
+
+    /**
+     * Случайное выражение уровня 4+, упакованное в q; возвращает его значение.
+     */
+    private int generateExpression(int level, Question q) {
+        int value = expressions.generate(ExpressionGenerator.forLevel(level), expression);
+        expression.writeTo(q);
+        return value;
+    }
+}
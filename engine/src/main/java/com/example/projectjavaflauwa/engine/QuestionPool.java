@@ -0,0 +1,109 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Пул вопросов, упакованных в слоты общего массива int[].
+ *
+ * Каждый вопрос занимает {@link #STRIDE} значений int:
+ *  - [0] уровень (8 бит) | числовой (1 бит) | булевый ответ (1 бит) | знак сравнения (2 бита) | шаблон (8 бит);
+ *  - [1] a (младшие 16 бит, со знаком) | b (старшие 16 бит, со знаком);
+ *  - [2] c | правая часть сравнения (так же);
+ *  - [3] числовой ответ.
+ * Так миллионы вопросов хранятся без отдельного объекта на каждый.
+ */
+public final class QuestionPool {
+
+    // Размер одного слота в int
+    public static final int STRIDE = 4;
+
+    private final int[] slots;
+    private final int capacity;
+
+    public QuestionPool(int capacity) {
+        this.capacity = capacity;
+        this.slots = new int[capacity * STRIDE];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Упаковывает вопрос в слот с номером index.
+     */
+    public void write(int index, Question q) {
+        pack(q, slots, index * STRIDE);
+    }
+
+    /**
+     * Распаковывает слот с номером index в переданный вопрос.
+     */
+    public void read(int index, Question out) {
+        unpack(slots, index * STRIDE, out);
+    }
+
+    /**
+     * Массив слотов (например, для записи в файл целиком).
+     */
+    public int[] slots() {
+        return slots;
+    }
+
+    public static void pack(Question q, int[] dst, int offset) {
+        dst[offset] = header(q);
+        dst[offset + 1] = (q.a & 0xFFFF) | q.b << 16;
+        dst[offset + 2] = (q.c & 0xFFFF) | q.rightValue << 16;
+        dst[offset + 3] = q.numericAnswer;
+    }
+
+    public static void unpack(int[] src, int offset, Question out) {
+        unpack(src[offset], src[offset + 1], src[offset + 2], src[offset + 3], out);
+    }
+
+    /**
+     * Записывает слот вопроса в буфер (4 int в порядке байтов буфера).
+     */
+    public static void pack(Question q, ByteBuffer dst) {
+        dst.putInt(header(q))
+                .putInt((q.a & 0xFFFF) | q.b << 16)
+                .putInt((q.c & 0xFFFF) | q.rightValue << 16)
+                .putInt(q.numericAnswer);
+    }
+
+    /**
+     * Читает слот вопроса из буфера, записанный {@link #pack(Question, ByteBuffer)}.
+     */
+    public static void unpack(ByteBuffer src, Question out) {
+        unpack(src.getInt(), src.getInt(), src.getInt(), src.getInt(), out);
+    }
+
+    /**
+     * Читает слот вопроса по абсолютному смещению offset, не сдвигая позицию буфера
+     * (например, из отображённого в память файла).
+     */
+    public static void unpack(ByteBuffer src, int offset, Question out) {
+        unpack(src.getInt(offset), src.getInt(offset + 4), src.getInt(offset + 8), src.getInt(offset + 12), out);
+    }
+
+    private static int header(Question q) {
+        return (q.level & 0xFF)
+                | (q.numeric ? 1 << 8 : 0)
+                | (q.booleanAnswer ? 1 << 9 : 0)
+                | (q.comparator & 0x3) << 10
+                | (q.template & 0xFF) << 12;
+    }
+
+    private static void unpack(int header, int ab, int cr, int answer, Question out) {
+        out.level = header & 0xFF;
+        out.numeric = (header & 1 << 8) != 0;
+        out.booleanAnswer = (header & 1 << 9) != 0;
+        out.comparator = (header >>> 10) & 0x3;
+        out.template = (header >>> 12) & 0xFF;
+        out.a = (short) ab;
+        out.b = ab >> 16;
+        out.c = (short) cr;
+        out.rightValue = cr >> 16;
+        out.numericAnswer = answer;
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограниченная очередь заранее сгенерированных вопросов.
+ *
+ * Вопросы генерируются в фоновом Executor'е и хранятся в упакованном виде,
+ * а поток UI при ответе только распаковывает готовый вопрос из очереди текущего
+ * уровня в свой объект Question. Для каждого уровня своя
+ * очередь, поэтому вопрос, сгенерированный «на лету» во время смены уровня,
+ * никогда не попадёт в чужой уровень.
+ *
+ * Методы take() и setLevel() вызываются из одного потока-потребителя (UI).
+ *
+ * После {@link #reseed(long)} очередь работает в воспроизводимом режиме: у каждого
+ * уровня свой генератор, зависящий только от (seed, уровень), и его вопросы
+ * выдаются строго по порядку — и из очереди, и синхронно, если фон не успел
+ * (генерация и выдача идут под блокировкой очереди уровня). Поэтому
+ * последовательность вопросов игры определяется seed и ответами, а не тем,
+ * как быстро работал фоновый поток, и игру можно повторить (см. {@link GameReplay}).
+ */
+public class QuestionPrefetcher implements QuestionSource {
+
+    // Размер очереди по умолчанию: хватает на несколько быстрых ответов подряд
+    public static final int DEFAULT_CAPACITY = 8;
+    // Максимальный уровень, для которого держим очередь
+    private static final int MAX_LEVEL = GameSession.MAX_LEVEL;
+
+    // Генератор фонового потока
+    private final QuestionEngine backgroundEngine;
+    // Генератор потока-потребителя на случай, если очередь пуста
+    private final QuestionEngine foregroundEngine;
+    private final Executor executor;
+    // Очереди по уровням (индекс = уровень, элемент 0 не используется)
+    private final PackedQuestionQueue[] queues;
+    // Рабочий объект фонового потока для генерации перед упаковкой (один на все пополнения,
+    // поэтому executor должен быть однопоточным)
+    private final Question scratch = new Question();
+    // Запланировано ли уже пополнение очереди
+    private final AtomicBoolean refillScheduled = new AtomicBoolean();
+    // Пополнение очереди текущего уровня (создаётся один раз)
+    private final Runnable refillTask = this::refill;
+
+    // Текущий уровень; читается фоновым потоком
+    private volatile int level = 1;
+    // Генераторы уровней воспроизводимого режима (индекс = уровень) или null
+    private volatile QuestionEngine[] streams;
+    // Сколько вопросов уровня выдано потребителю с последнего reseed (только поток-потребитель)
+    private final int[] drawn = new int[MAX_LEVEL + 1];
+
+    /**
+     * @param backgroundEngine генератор, используемый только в executor
+     * @param foregroundEngine генератор, используемый только в потоке-потребителе
+     * @param executor         фоновый исполнитель; обязательно однопоточный: пополнения
+     *                         пишут в общий рабочий вопрос и фоновый генератор, и два
+     *                         одновременных пополнения испортили бы вопросы в очереди
+     * @param capacity         размер очереди каждого уровня
+     */
+    public QuestionPrefetcher(QuestionEngine backgroundEngine, QuestionEngine foregroundEngine,
+                              Executor executor, int capacity) {
+        this.backgroundEngine = backgroundEngine;
+        this.foregroundEngine = foregroundEngine;
+        this.executor = executor;
+        this.queues = new PackedQuestionQueue[MAX_LEVEL + 1];
+        for (int i = 1; i <= MAX_LEVEL; i++) {
+            queues[i] = new PackedQuestionQueue(capacity);
+        }
+        scheduleRefill();
+    }
+
+    /**
+     * Включает воспроизводимый режим для новой игры: готовые вопросы
+     * отбрасываются, генераторы уровней создаются заново из seed.
+     */
+    public void reseed(long seed) {
+        // Игра начинается с первого уровня
+        level = 1;
+        install(streamsFor(seed));
+    }
+
+    /**
+     * Продолжает воспроизводимую игру с того же места (после пересоздания
+     * Activity): генераторы из seed, уже выданные вопросы уровня пропускаются.
+     *
+     * @param drawn сколько вопросов уровня level было выдано (см. {@link #drawn(int)})
+     */
+    public void restore(long seed, int level, int drawn) {
+        int restored = Math.max(1, Math.min(level, MAX_LEVEL));
+        // Пропуск — до публикации генераторов, чтобы фон не успел взять из них вопрос раньше
+        QuestionEngine[] fresh = streamsFor(seed);
+        Question skipped = new Question();
+        for (int i = 0; i < drawn; i++) {
+            fresh[restored].next(restored, skipped);
+        }
+        this.level = restored;
+        install(fresh);
+        this.drawn[restored] = drawn;
+    }
+
+    private static QuestionEngine[] streamsFor(long seed) {
+        QuestionEngine[] fresh = new QuestionEngine[MAX_LEVEL + 1];
+        for (int i = 1; i <= MAX_LEVEL; i++) {
+            fresh[i] = QuestionEngine.forChunk(seed, i);
+        }
+        return fresh;
+    }
+
+    private void install(QuestionEngine[] fresh) {
+        // Сначала новые генераторы, потом очистка: фон, начавший работу со старыми,
+        // увидит замену под блокировкой и остановится
+        streams = fresh;
+        for (int i = 1; i <= MAX_LEVEL; i++) {
+            synchronized (queues[i]) {
+                queues[i].clear();
+            }
+            drawn[i] = 0;
+        }
+        scheduleRefill();
+    }
+
+    /**
+     * Сколько вопросов уровня выдано с последнего {@link #reseed(long)}.
+     */
+    public int drawn(int level) {
+        return drawn[Math.max(1, Math.min(level, MAX_LEVEL))];
+    }
+
+    /**
+     * Меняет текущий уровень: очередь старого уровня освобождается
+     * (кроме воспроизводимого режима), очередь нового уровня начинает пополняться.
+     */
+    public void setLevel(int newLevel) {
+        int oldLevel = level;
+        if (oldLevel == newLevel) {
+            return;
+        }
+        level = newLevel;
+        // В воспроизводимом режиме очередь старого уровня хранит следующие вопросы
+        // его генератора: выбросить их — значит сдвинуть последовательность уровня
+        if (streams == null) {
+            queueFor(oldLevel).clear();
+        }
+        scheduleRefill();
+    }
+
+    /**
+     * Записывает в out следующий вопрос текущего уровня. Если фоновая генерация
+     * не успела, вопрос генерируется синхронно в текущем потоке.
+     */
+    public void take(Question out) {
+        int current = level;
+        QuestionEngine[] seeded = streams;
+        if (seeded == null) {
+            if (!queueFor(current).poll(out)) {
+                foregroundEngine.next(current, out);
+            }
+        } else {
+            PackedQuestionQueue queue = queueFor(current);
+            synchronized (queue) {
+                if (!queue.poll(out)) {
+                    seeded[current].next(current, out);
+                }
+            }
+            drawn[current]++;
+        }
+        scheduleRefill();
+    }
+
+    /**
+     * То же, что {@link #take(Question)}, но пропускает уже показанные примеры
+     * (не больше {@link SeenProblems#MAX_ATTEMPTS} попыток). Выданный пример
+     * отмечается в seen.
+     */
+    public void take(Question out, SeenProblems seen) {
+        for (int attempt = 1; ; attempt++) {
+            take(out);
+            if (seen.add(out) || attempt >= SeenProblems.MAX_ATTEMPTS) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Переключается на уровень level (если нужно) и выдаёт вопрос,
+     * как {@link #take(Question, SeenProblems)}.
+     */
+    @Override
+    public void next(int level, Question out, SeenProblems seen) {
+        setLevel(level);
+        take(out, seen);
+    }
+
+    /**
+     * Сколько готовых вопросов ожидает в очереди текущего уровня.
+     */
+    public int readyCount() {
+        return queueFor(level).size();
+    }
+
+    private void scheduleRefill() {
+        if (refillScheduled.compareAndSet(false, true)) {
+            executor.execute(refillTask);
+        }
+    }
+
+    /**
+     * Заполняет очередь текущего уровня до конца. Если уровень сменился
+     * посреди заполнения — останавливаемся, новое пополнение уже запланировано.
+     */
+    private void refill() {
+        refillScheduled.set(false);
+        int current = level;
+        PackedQuestionQueue queue = queueFor(current);
+        QuestionEngine[] seeded = streams;
+        if (seeded != null) {
+            refillSeeded(current, queue, seeded);
+            return;
+        }
+        while (level == current && queue.remainingCapacity() > 0) {
+            backgroundEngine.next(current, scratch);
+            if (!queue.offer(scratch)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Пополнение в воспроизводимом режиме: каждый вопрос генерируется и кладётся
+     * в очередь под её блокировкой, чтобы порядок выдачи совпадал с порядком генерации.
+     */
+    private void refillSeeded(int current, PackedQuestionQueue queue, QuestionEngine[] seeded) {
+        while (true) {
+            synchronized (queue) {
+                if (level != current || streams != seeded || queue.remainingCapacity() == 0) {
+                    return;
+                }
+                seeded[current].next(current, scratch);
+                queue.offer(scratch);
+            }
+        }
+    }
+
+    private PackedQuestionQueue queueFor(int level) {
+        return queues[Math.max(1, Math.min(level, MAX_LEVEL))];
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Источник вопросов для {@link GameSession}: генератор напрямую
+ * ({@link QuestionEngine}) или очередь заранее готовых вопросов ({@link QuestionPrefetcher}).
+ */
+public interface QuestionSource {
+
+    /**
+     * Записывает в out новый вопрос уровня level, по возможности не из seen,
+     * и отмечает выданный пример в seen.
+     */
+    void next(int level, Question out, SeenProblems seen);
+}
@@ -0,0 +1,119 @@
+package com.example.projectjavaflauwa.engine;
+
+/**
+ * Идентификаторы шаблонов заданий и знаков сравнения.
+ *
+ * Вопрос хранит только номер шаблона и операнды, а текст собирается по шаблону
+ * в момент показа (см. {@link Question#appendText(TextBuffer)}).
+ */
+public final class QuestionTemplate {
+
+    // "a груши + b яблока. Сколько всего фруктов?" (только числовые вопросы)
+    public static final int FRUITS = 0;
+    // a + b
+    public static final int ADD = 1;
+    // a - b
+    public static final int SUB = 2;
+    // a × b
+    public static final int MUL = 3;
+    // a ÷ b (деление нацело)
+    public static final int DIV = 4;
+    // a + b + c
+    public static final int ADD_ADD = 5;
+    // a + b - c
+    public static final int ADD_SUB = 6;
+    // (a + b) × c
+    public static final int SUM_MUL = 7;
+    // Выражение уровня 4+ из ExpressionGenerator, упакованное в a, b, c (см. ExpressionProgram)
+    public static final int EXPRESSION = 8;
+    // Количество шаблонов
+    public static final int COUNT = 9;
+
+    // Знаки сравнения для вопросов "да/нет"
+    public static final int LESS = 0;
+    public static final int GREATER = 1;
+    public static final int EQUAL = 2;
+
+    private QuestionTemplate() {
+    }
+
+    /**
+     * Значение выражения шаблона.
+     */
+    public static int evaluate(int template, int a, int b, int c) {
+        switch (template) {
+            case FRUITS:
+            case ADD:
+                return a + b;
+            case SUB:
+                return a - b;
+            case MUL:
+                return a * b;
+            case DIV:
+                return a / b;
+            case ADD_ADD:
+                return a + b + c;
+            case ADD_SUB:
+                return a + b - c;
+            case SUM_MUL:
+                return (a + b) * c;
+            case EXPRESSION:
+                return ExpressionProgram.evaluatePacked(a, b, c);
+            default:
+                throw new IllegalArgumentException("Неизвестный шаблон: " + template);
+        }
+    }
+
+    /**
+     * Дописывает запись выражения шаблона, например "12 + 7" или "(3 + 4) × 2".
+     */
+    public static void appendExpression(TextBuffer out, int template, int a, int b, int c) {
+        switch (template) {
+            case FRUITS:
+                out.append(a).append(" груши + ").append(b).append(" яблока");
+                break;
+            case ADD:
+                out.append(a).append(" + ").append(b);
+                break;
+            case SUB:
+                out.append(a).append(" - ").append(b);
+                break;
+            case MUL:
+                out.append(a).append(" × ").append(b);
+                break;
+            case DIV:
+                out.append(a).append(" ÷ ").append(b);
+                break;
+            case ADD_ADD:
+                out.append(a).append(" + ").append(b).append(" + ").append(c);
+                break;
+            case ADD_SUB:
+                out.append(a).append(" + ").append(b).append(" - ").append(c);
+                break;
+            case SUM_MUL:
+                out.append('(').append(a).append(" + ").append(b).append(") × ").append(c);
+                break;
+            case EXPRESSION:
+                ExpressionProgram.appendPacked(out, a, b, c);
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестный шаблон: " + template);
+        }
+    }
+
+    /**
+     * Запись знака сравнения.
+     */
+    public static char comparatorSymbol(int comparator) {
+        switch (comparator) {
+            case LESS:
+                return '<';
+            case GREATER:
+                return '>';
+            case EQUAL:
+                return '=';
+            default:
+                throw new IllegalArgumentException("Неизвестный знак сравнения: " + comparator);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Замеры этапов для JVM (симулятор, тесты, прогоны без устройства).
+ *
+ * Каждый законченный этап пишется в кольцевой буфер последних
+ * {@link #capacity()} записей (этап, начало, длительность) и в счётчики
+ * этапа (вызовы, суммарное и наибольшее время). Блокировок нет: поток
+ * занимает номер записи через AtomicLong и пишет в свой слот, поэтому
+ * один объект можно отдать всем потокам симулятора.
+ *
+ * Номер в заголовке слота только растёт (слот занимается через compareAndSet):
+ * поток, который отстал на целый круг буфера, не занимает слот более новой записи.
+ * Но поток, занявший слот и остановленный планировщиком, может дописать свои
+ * данные поверх записи, которая заняла слот после него. Поэтому каждое слово
+ * данных помечено номером записи, и при выгрузке запись берётся, только если
+ * все её слова помечены её номером; записи, которые как раз перезаписываются
+ * или испорчены отставшим потоком, пропускаются, а не читаются наполовину.
+ */
+public final class RingBufferMetrics implements GameMetrics {
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    // Длительность и этап в одном long: этап в младших битах
+    private static final int STAGE_BITS = 3;
+    // Слот: номер записи + 1 (отрицательный, пока слот пишется), затем начало и
+    // длительность|этап по 32 бита в младших половинах четырёх слов; в старших
+    // половинах — младшие 32 бита номера записи
+    private static final int SLOT = 5;
+    private static final long LOW_HALF = 0xFFFFFFFFL;
+
+    private final int mask;
+    private final long origin = System.nanoTime();
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLongArray slots;
+    private final AtomicLongArray calls = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(STAGE_COUNT);
+    private final AtomicLongArray maxNanos = new AtomicLongArray(STAGE_COUNT);
+
+    public RingBufferMetrics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity сколько последних записей хранить (степень двойки)
+     */
+    public RingBufferMetrics(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ёмкость должна быть степенью двойки: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new AtomicLongArray(capacity * SLOT);
+    }
+
+    @Override
+    public long begin(int stage) {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void end(int stage, long token) {
+        record(stage, token, System.nanoTime() - token);
+    }
+
+    /**
+     * Записывает законченный этап (startNanos — по System.nanoTime()).
+     */
+    public void record(int stage, long startNanos, long durationNanos) {
+        calls.getAndIncrement(stage);
+        totalNanos.getAndAdd(stage, durationNanos);
+        long max;
+        while (durationNanos > (max = maxNanos.get(stage))) {
+            if (maxNanos.compareAndSet(stage, max, durationNanos)) {
+                break;
+            }
+        }
+
+        long sequence = next.getAndIncrement();
+        int slot = (int) (sequence & mask) * SLOT;
+        long writing = -(sequence + 1);
+        long header;
+        do {
+            header = slots.get(slot);
+            if (Math.abs(header) > sequence) {
+                // Слот уже занят более новой записью — наша вытеснена из буфера
+                return;
+            }
+        } while (!slots.compareAndSet(slot, header, writing));
+        long start = startNanos - origin;
+        long packed = durationNanos << STAGE_BITS | stage;
+        long tag = sequence << 32;
+        slots.lazySet(slot + 1, tag | start & LOW_HALF);
+        slots.lazySet(slot + 2, tag | start >>> 32);
+        slots.lazySet(slot + 3, tag | packed & LOW_HALF);
+        slots.lazySet(slot + 4, tag | packed >>> 32);
+        // Не получится, если слот за это время занял более новый поток
+        slots.compareAndSet(slot, writing, sequence + 1);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Всего записано этапов (в буфере — только последние {@link #capacity()}).
+     */
+    public long recorded() {
+        return next.get();
+    }
+
+    public long calls(int stage) {
+        return calls.get(stage);
+    }
+
+    public long totalNanos(int stage) {
+        return totalNanos.get(stage);
+    }
+
+    public long maxNanos(int stage) {
+        return maxNanos.get(stage);
+    }
+
+    /**
+     * Пишет записи буфера от старых к новым в формате CSV:
+     * "seq,stage,start_ns,duration_ns" (начало — от создания объекта).
+     *
+     * @return сколько записей выгружено
+     */
+    public int writeCsv(Writer out) throws IOException {
+        out.write("seq,stage,start_ns,duration_ns\n");
+        long end = next.get();
+        long from = Math.max(0, end - capacity());
+        int written = 0;
+        StringBuilder line = new StringBuilder(64);
+        for (long sequence = from; sequence < end; sequence++) {
+            int slot = (int) (sequence & mask) * SLOT;
+            if (slots.get(slot) != sequence + 1) {
+                continue;
+            }
+            long tag = sequence << 32;
+            long startLow = slots.get(slot + 1);
+            long startHigh = slots.get(slot + 2);
+            long packedLow = slots.get(slot + 3);
+            long packedHigh = slots.get(slot + 4);
+            if (((startLow ^ tag) | (startHigh ^ tag) | (packedLow ^ tag) | (packedHigh ^ tag)) >>> 32 != 0) {
+                // Слот перезаписали, пока мы его читали, или в него дописал отставший поток
+                continue;
+            }
+            long start = startLow & LOW_HALF | startHigh << 32;
+            long packed = packedLow & LOW_HALF | packedHigh << 32;
+            line.setLength(0);
+            line.append(sequence).append(',')
+                    .append(GameMetrics.stageName((int) (packed & ((1 << STAGE_BITS) - 1)))).append(',')
+                    .append(start).append(',')
+                    .append(packed >>> STAGE_BITS).append('\n');
+            out.append(line);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Пишет итоги по этапам в формате CSV:
+     * "stage,calls,total_ms,mean_ns,max_us".
+     */
+    public void writeSummaryCsv(Writer out) throws IOException {
+        out.write("stage,calls,total_ms,mean_ns,max_us\n");
+        StringBuilder line = new StringBuilder(64);
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            long n = calls(stage);
+            if (n == 0) {
+                continue;
+            }
+            long total = totalNanos(stage);
+            line.setLength(0);
+            line.append(GameMetrics.stageName(stage)).append(',')
+                    .append(n).append(',')
+                    .append(total / 1_000_000).append(',')
+                    .append(total / n).append(',')
+                    .append(maxNanos(stage) / 1000).append('\n');
+            out.append(line);
+        }
+    }
+
+    /**
+     * Выгружает записи буфера в файл (файл перезаписывается).
+     *
+     * @return сколько записей выгружено
+     */
+    public int dumpTo(File file) throws IOException {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            return writeCsv(out);
+        }
+    }
+}
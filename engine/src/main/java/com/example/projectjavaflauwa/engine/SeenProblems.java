@@ -0,0 +1,160 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Множество уже показанных примеров.
+ *
+ * Пример хранится целиком — числа ({@link Question#fields()}) и вид
+ * ({@link Question#shape()}) — и сравнивается по всем полям, поэтому разные
+ * примеры никогда не считаются повтором; перемешанные поля выбирают только ячейку.
+ * Открытая адресация по массивам long и int без упаковки в объекты: проверка и
+ * добавление за O(1), память — около 24 байт на пример при заполнении до половины.
+ * Подходит и для одной игры, и для истории ученика за целый год.
+ */
+public final class SeenProblems {
+
+    // Сколько раз пытаемся взять новый пример, прежде чем согласиться на повтор
+    public static final int MAX_ATTEMPTS = 8;
+
+    // Пустая ячейка; вид примера никогда не равен 0 (уровень ≥ 1)
+    private static final int EMPTY = 0;
+    // Байт на пример в снимке: числа (long) и вид (int)
+    private static final int ENTRY_SIZE = 12;
+
+    private long[] fields;
+    private int[] shapes;
+    private int size;
+    // Количество элементов, после которого таблица увеличивается вдвое
+    private int resizeThreshold;
+
+    public SeenProblems() {
+        this(64);
+    }
+
+    /**
+     * @param expected ожидаемое количество примеров
+     */
+    public SeenProblems(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        fields = new long[capacity];
+        shapes = new int[capacity];
+        resizeThreshold = capacity / 2;
+    }
+
+    /**
+     * Добавляет пример.
+     *
+     * @return true, если такого примера ещё не было
+     */
+    public boolean add(Question q) {
+        return add(q.fields(), q.shape());
+    }
+
+    public boolean contains(Question q) {
+        long numbers = q.fields();
+        int shape = q.shape();
+        int mask = shapes.length - 1;
+        int i = slot(numbers, shape, mask);
+        while (shapes[i] != EMPTY) {
+            if (shapes[i] == shape && fields[i] == numbers) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Забывает все примеры (память таблицы остаётся выделенной).
+     */
+    public void clear() {
+        Arrays.fill(shapes, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Размер множества в байтах для {@link #writeTo(ByteBuffer)}.
+     */
+    int encodedSize() {
+        return 4 + size * ENTRY_SIZE;
+    }
+
+    /**
+     * Записывает примеры в буфер (для {@link GameSnapshot}).
+     */
+    void writeTo(ByteBuffer out) {
+        out.putInt(size);
+        for (int i = 0; i < shapes.length; i++) {
+            if (shapes[i] != EMPTY) {
+                out.putLong(fields[i]);
+                out.putInt(shapes[i]);
+            }
+        }
+    }
+
+    /**
+     * Заменяет содержимое множества примерами, записанными {@link #writeTo(ByteBuffer)}.
+     */
+    void readFrom(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining() / ENTRY_SIZE) {
+            throw new IllegalArgumentException("Повреждённое множество примеров: " + count);
+        }
+        clear();
+        for (int i = 0; i < count; i++) {
+            long numbers = in.getLong();
+            int shape = in.getInt();
+            if (shape == EMPTY) {
+                throw new IllegalArgumentException("Повреждённое множество примеров: пустой пример " + i);
+            }
+            add(numbers, shape);
+        }
+    }
+
+    private boolean add(long numbers, int shape) {
+        int mask = shapes.length - 1;
+        int i = slot(numbers, shape, mask);
+        while (shapes[i] != EMPTY) {
+            if (shapes[i] == shape && fields[i] == numbers) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        fields[i] = numbers;
+        shapes[i] = shape;
+        if (++size > resizeThreshold) {
+            grow();
+        }
+        return true;
+    }
+
+    private void grow() {
+        long[] oldFields = fields;
+        int[] oldShapes = shapes;
+        fields = new long[oldFields.length * 2];
+        shapes = new int[oldShapes.length * 2];
+        resizeThreshold = shapes.length / 2;
+        int mask = shapes.length - 1;
+        for (int j = 0; j < oldShapes.length; j++) {
+            if (oldShapes[j] != EMPTY) {
+                int i = slot(oldFields[j], oldShapes[j], mask);
+                while (shapes[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                fields[i] = oldFields[j];
+                shapes[i] = oldShapes[j];
+            }
+        }
+    }
+
+    // Тот же хеш, что у Question.key()
+    private static int slot(long numbers, int shape, int mask) {
+        return (int) QuestionEngine.mix64(numbers ^ QuestionEngine.mix64(shape)) & mask;
+    }
+}
@@ -0,0 +1,469 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Журнал событий игры, дописываемый в файл, отображённый в память.
+ *
+ * Запись события из потока UI — это только копирование {@link #RECORD_SIZE} байт
+ * в кольцевой буфер в памяти, без блокировок и обращений к диску. Фоновый поток
+ * журнала раз в flushIntervalMillis (или по {@link #requestFlush()}) переносит
+ * накопленные записи в MappedByteBuffer одной пачкой, обновляет число записей
+ * в заголовке и вызывает force() — групповая фиксация вместо фиксации на каждое событие.
+ *
+ * Устойчивость к сбоям: записи в отображённый файл переживают гибель процесса
+ * сразу, а после force() — и потерю питания. У каждой записи есть контрольная
+ * сумма, поэтому недописанная запись при открытии просто отбрасывается.
+ *
+ * Когда новые записи не помещаются в файл, журнал уплотняется: остаются только
+ * записи последних retainGames игр; если после этого файл заполнен больше чем
+ * на 3/4, он увеличивается вдвое.
+ *
+ * Формат записи (little-endian):
+ *  - 0  int  тип события (EVENT_*);
+ *  - 4  int  вид ответа (MistakeLog.ANSWER_*) | признак верного ответа (бит 8);
+ *  - 8  int  ответ пользователя;
+ *  - 12 int  контрольная сумма записи;
+ *  - 16 long время события (System.currentTimeMillis());
+ *  - 24 long значение события: время ответа в нс, seed игры, лимит времени и т. п.;
+ *  - 32 16 байт — вопрос в формате слота {@link QuestionPool}.
+ */
+public final class SessionJournal implements AutoCloseable {
+
+    // Типы событий
+    public static final int EVENT_GAME_STARTED = 1;
+    public static final int EVENT_QUESTION_SHOWN = 2;
+    public static final int EVENT_ANSWERED = 3;
+    public static final int EVENT_TIMEOUT = 4;
+    public static final int EVENT_GAME_OVER = 5;
+    // Продолжение отложенной игры (профиль ученика, см. ProfileStore): значение — seed,
+    // ответ — сколько вопросов уровня выдано, вопрос — текущий вопрос игры
+    public static final int EVENT_GAME_RESUMED = 6;
+
+    public static final int RECORD_SIZE = 48;
+    static final int HEADER_SIZE = 64;
+    // "MQJ1"
+    static final int MAGIC = 0x4D514A31;
+    static final int VERSION = 1;
+    // Смещение количества зафиксированных записей в заголовке
+    private static final int COUNT_OFFSET = 16;
+    private static final int CORRECT_FLAG = 1 << 8;
+
+    /**
+     * Получатель записей при чтении журнала.
+     */
+    public interface Visitor {
+        /**
+         * @param q вопрос записи; объект переиспользуется между вызовами
+         */
+        void onRecord(int type, long timeMillis, long value, int answerKind, int answerValue,
+                      boolean correct, Question q);
+    }
+
+    private final File file;
+    private final int retainGames;
+    private final long flushIntervalMillis;
+
+    // Кольцевой буфер «поток UI → поток журнала»
+    private final ByteBuffer staging;
+    private final int stagingCapacity;
+    private final AtomicLong stagingHead = new AtomicLong();
+    private final AtomicLong stagingTail = new AtomicLong();
+    // Рабочий слот вопроса (используется только пишущим потоком)
+    private final int[] slot = new int[QuestionPool.STRIDE];
+    // Сколько событий потеряно из-за переполнения кольцевого буфера
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask = this::flushNow;
+    // Рабочий буфер записи (используется только потоком журнала)
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    // Состояние файла — только в потоке журнала
+    private RandomAccessFile raf;
+    private MappedByteBuffer mapped;
+    private long committed;
+    private long capacityRecords;
+    private volatile boolean closed;
+
+    /**
+     * Создаёт журнал; файл открывается в фоновом потоке журнала, так что
+     * конструктор и запись событий не обращаются к диску.
+     *
+     * @param file                файл журнала (создаётся при необходимости)
+     * @param initialRecords      начальная вместимость файла в записях
+     * @param retainGames         сколько последних игр оставлять при уплотнении
+     * @param flushIntervalMillis период групповой фиксации
+     */
+    public SessionJournal(File file, int initialRecords, int retainGames, long flushIntervalMillis) {
+        this(file, initialRecords, retainGames, flushIntervalMillis, null);
+    }
+
+    /**
+     * Журнал с настройками по умолчанию: 16 384 записи (768 КБ),
+     * 64 последние игры, фиксация раз в 250 мс.
+     */
+    public SessionJournal(File file) {
+        this(file, null);
+    }
+
+    /**
+     * Журнал того же файла вместо прежнего объекта, который ещё может
+     * дописывать, уплотнять и закрывать файл ({@link #shutdown()} этого не ждёт):
+     * поток журнала открывает файл только после того, как прежний объект закрыт.
+     *
+     * @param previous прежний журнал этого файла (после {@link #shutdown()}) или null
+     */
+    public SessionJournal(File file, SessionJournal previous) {
+        this(file, 16_384, 64, 250, previous);
+    }
+
+    private SessionJournal(File file, int initialRecords, int retainGames, long flushIntervalMillis,
+                           SessionJournal previous) {
+        this.file = file;
+        this.retainGames = retainGames;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.capacityRecords = initialRecords;
+        this.stagingCapacity = 1024;
+        this.staging = ByteBuffer.allocate(stagingCapacity * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "session-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(() -> {
+            if (previous != null) {
+                try {
+                    previous.close();
+                } catch (IOException e) {
+                    // Ожидание прервано: журнал всё равно нужен, открываем файл как есть
+                }
+            }
+            openFile();
+        });
+        executor.scheduleWithFixedDelay(flushTask, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void gameStarted(long timeMillis, long seed) {
+        append(EVENT_GAME_STARTED, timeMillis, seed, MistakeLog.ANSWER_NONE, 0, false, null);
+    }
+
+    /**
+     * Отложенная игра с этим seed продолжена с вопроса current; questionsDrawn —
+     * место в последовательности вопросов уровня ({@link QuestionPrefetcher#drawn(int)}).
+     */
+    public void gameResumed(long timeMillis, long seed, int questionsDrawn, Question current) {
+        append(EVENT_GAME_RESUMED, timeMillis, seed, MistakeLog.ANSWER_NONE, questionsDrawn, false, current);
+    }
+
+    public void questionShown(long timeMillis, Question q, long timeLimitMillis) {
+        append(EVENT_QUESTION_SHOWN, timeMillis, timeLimitMillis, MistakeLog.ANSWER_NONE, 0, false, q);
+    }
+
+    public void answered(long timeMillis, Question q, int answerKind, int answerValue,
+                         boolean correct, long latencyNanos) {
+        append(EVENT_ANSWERED, timeMillis, latencyNanos, answerKind, answerValue, correct, q);
+    }
+
+    public void timeout(long timeMillis, Question q, long latencyNanos) {
+        append(EVENT_TIMEOUT, timeMillis, latencyNanos, MistakeLog.ANSWER_NONE, 0, false, q);
+    }
+
+    /**
+     * Конец игры; журнал сразу фиксируется, не дожидаясь очередного периода.
+     */
+    public void gameOver(long timeMillis, int correctAnswers) {
+        append(EVENT_GAME_OVER, timeMillis, correctAnswers, MistakeLog.ANSWER_NONE, 0, false, null);
+        requestFlush();
+    }
+
+    /**
+     * Сколько событий потеряно из-за переполнения буфера (диск не успевал).
+     */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Просит фоновый поток зафиксировать накопленные записи как можно скорее.
+     */
+    public void requestFlush() {
+        if (!closed && flushScheduled.compareAndSet(false, true)) {
+            executor.execute(flushTask);
+        }
+    }
+
+    /**
+     * Фиксирует оставшиеся записи и закрывает файл в фоновом потоке,
+     * не дожидаясь окончания (можно вызывать из потока UI).
+     */
+    public void shutdown() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.execute(this::closeFile);
+        executor.shutdown();
+    }
+
+    /**
+     * То же, что {@link #shutdown()}, но ждёт, пока файл будет закрыт.
+     */
+    @Override
+    public void close() throws IOException {
+        shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Закрытие журнала прервано", e);
+        }
+    }
+
+    /**
+     * Читает все целые записи журнала (например, для восстановления игры или повтора).
+     *
+     * @return количество прочитанных записей
+     */
+    public static long read(File file, Visitor visitor) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            FileChannel channel = in.getChannel();
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            long count = validRecords(data);
+            Question q = new Question();
+            for (long i = 0; i < count; i++) {
+                int base = (int) (HEADER_SIZE + i * RECORD_SIZE);
+                int kind = data.getInt(base + 4);
+                data.position(base + 32);
+                QuestionPool.unpack(data, q);
+                visitor.onRecord(data.getInt(base), data.getLong(base + 16), data.getLong(base + 24),
+                        kind & 0xFF, data.getInt(base + 8), (kind & CORRECT_FLAG) != 0, q);
+            }
+            return count;
+        }
+    }
+
+    // ---- Поток UI: только кольцевой буфер ----
+
+    private void append(int type, long timeMillis, long value, int answerKind, int answerValue,
+                        boolean correct, Question q) {
+        long t = stagingTail.get();
+        if (t - stagingHead.get() >= stagingCapacity) {
+            dropped.incrementAndGet();
+            requestFlush();
+            return;
+        }
+        int base = (int) (t % stagingCapacity) * RECORD_SIZE;
+        staging.putInt(base, type);
+        staging.putInt(base + 4, answerKind | (correct ? CORRECT_FLAG : 0));
+        staging.putInt(base + 8, answerValue);
+        staging.putInt(base + 12, 0);
+        staging.putLong(base + 16, timeMillis);
+        staging.putLong(base + 24, value);
+        if (q != null) {
+            QuestionPool.pack(q, slot, 0);
+        } else {
+            Arrays.fill(slot, 0);
+        }
+        for (int i = 0; i < QuestionPool.STRIDE; i++) {
+            staging.putInt(base + 32 + i * 4, slot[i]);
+        }
+        stagingTail.lazySet(t + 1);
+        // Четверть буфера набралась — не ждём периода фиксации
+        if (t + 1 - stagingHead.get() >= stagingCapacity / 4) {
+            requestFlush();
+        }
+    }
+
+    // ---- Поток журнала ----
+
+    private void openFile() {
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            long existing = raf.length();
+            long size = Math.max(existing, HEADER_SIZE + capacityRecords * RECORD_SIZE);
+            map(size);
+            if (existing >= HEADER_SIZE && mapped.getInt(0) == MAGIC) {
+                committed = validRecords(mapped);
+            } else {
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putInt(8, RECORD_SIZE);
+                committed = 0;
+            }
+            mapped.putLong(COUNT_OFFSET, committed);
+        } catch (IOException e) {
+            // Без журнала игра продолжается; записи просто копятся и теряются
+            closeQuietly();
+        }
+    }
+
+    private void flushNow() {
+        flushScheduled.set(false);
+        if (mapped == null) {
+            return;
+        }
+        long head = stagingHead.get();
+        long tail = stagingTail.get();
+        if (head == tail) {
+            return;
+        }
+        try {
+            if (HEADER_SIZE + (committed + (tail - head)) * RECORD_SIZE > mapped.capacity()) {
+                compact(tail - head);
+            }
+            for (long i = head; i < tail; i++) {
+                int from = (int) (i % stagingCapacity) * RECORD_SIZE;
+                int to = (int) (HEADER_SIZE + committed * RECORD_SIZE);
+                for (int j = 0; j < RECORD_SIZE; j += 4) {
+                    mapped.putInt(to + j, staging.getInt(from + j));
+                }
+                mapped.putInt(to + 12, checksum(mapped, to));
+                committed++;
+            }
+            stagingHead.lazySet(tail);
+            // Сначала записи, затем счётчик в заголовке — одна фиксация на всю пачку
+            mapped.putLong(COUNT_OFFSET, committed);
+            mapped.force();
+        } catch (IOException e) {
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Уплотнение: оставляем только записи последних retainGames игр.
+     * Если места всё равно мало, файл увеличивается вдвое.
+     *
+     * Оставшиеся записи не переносятся внутри журнала (сбой посреди копирования
+     * оставил бы под старым счётчиком смесь перенесённых и старых записей),
+     * а пишутся в новый файл, который после force() заменяет журнал переименованием.
+     */
+    private void compact(long incoming) throws IOException {
+        long keepFrom = 0;
+        int games = 0;
+        for (long i = committed - 1; i >= 0; i--) {
+            if (mapped.getInt((int) (HEADER_SIZE + i * RECORD_SIZE)) == EVENT_GAME_STARTED
+                    && ++games == retainGames) {
+                keepFrom = i;
+                break;
+            }
+        }
+        long keep = committed - keepFrom;
+        while (HEADER_SIZE + (keep + incoming) * RECORD_SIZE > capacityRecords * RECORD_SIZE * 3 / 4
+                + HEADER_SIZE) {
+            capacityRecords *= 2;
+        }
+        long size = Math.max(HEADER_SIZE + capacityRecords * RECORD_SIZE, mapped.capacity());
+        if (keepFrom > 0) {
+            rewrite(keepFrom, keep, size);
+        } else if (size > mapped.capacity()) {
+            map(size);
+        }
+    }
+
+    /**
+     * Записывает keep записей начиная с keepFrom в новый файл размера size
+     * и атомарно подменяет им журнал.
+     */
+    private void rewrite(long keepFrom, long keep, long size) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(temp, "rw")) {
+            out.setLength(size);
+            FileChannel channel = out.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putInt(8, RECORD_SIZE);
+            header.putLong(COUNT_OFFSET, keep);
+            writeFully(channel, header, 0);
+            ByteBuffer records = mapped.duplicate();
+            records.limit((int) (HEADER_SIZE + committed * RECORD_SIZE));
+            records.position((int) (HEADER_SIZE + keepFrom * RECORD_SIZE));
+            writeFully(channel, records, HEADER_SIZE);
+            channel.force(true);
+        }
+        // Старое отображение остаётся на прежнем файле до закрытия
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Не заменить журнал " + file);
+        }
+        closeQuietly();
+        raf = new RandomAccessFile(file, "rw");
+        map(size);
+        committed = keep;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer data, long position) throws IOException {
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    private void map(long size) throws IOException {
+        mapped = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        capacityRecords = (size - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    private void closeFile() {
+        flushNow();
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        mapped = null;
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException ignored) {
+                // Файл уже недоступен — закрывать нечего
+            }
+            raf = null;
+        }
+    }
+
+    /**
+     * Количество целых записей: не больше числа в заголовке и до первой
+     * записи с неверной контрольной суммой.
+     */
+    private static long validRecords(ByteBuffer data) {
+        long declared = data.getLong(COUNT_OFFSET);
+        long fits = (data.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        long count = Math.min(Math.max(declared, 0), fits);
+        for (long i = 0; i < count; i++) {
+            int base = (int) (HEADER_SIZE + i * RECORD_SIZE);
+            if (data.getInt(base + 12) != checksum(data, base)) {
+                return i;
+            }
+        }
+        return count;
+    }
+
+    private static int checksum(ByteBuffer data, int base) {
+        long h = 0x9E3779B97F4A7C15L;
+        for (int j = 0; j < RECORD_SIZE; j += 4) {
+            if (j != 12) {
+                h = QuestionEngine.mix64(h ^ data.getInt(base + j));
+            }
+        }
+        return (int) (h ^ h >>> 32);
+    }
+}
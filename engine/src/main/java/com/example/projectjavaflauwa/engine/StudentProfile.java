@@ -0,0 +1,152 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Состояние одного ученика на общем планшете: итоги его игр и
+ * незаконченная игра (снимок {@link GameSnapshot} — уровень, счёт, показанные
+ * примеры, журнал ошибок, seed), с которой он продолжит после переключения.
+ *
+ * Хранится в {@link ProfileStore}. Меняется только из потока UI; в поток
+ * записи уходит закодированная копия ({@link #encode()}).
+ *
+ * Формат (little-endian): "MQP1", версия (1 байт), сыграно игр, лучший счёт,
+ * всего правильных ответов, длина имени и имя в UTF-8, длина снимка и снимок
+ * (-1 — незаконченной игры нет).
+ */
+public final class StudentProfile {
+
+    // "MQP1"
+    static final int MAGIC = 0x4D515031;
+    static final int VERSION = 1;
+
+    private final String id;
+    private final String name;
+    private int gamesPlayed;
+    private int bestScore;
+    private long totalCorrect;
+    // Снимок незаконченной игры или null
+    private byte[] savedGame;
+    // Есть изменения, которых нет на диске
+    private boolean dirty;
+
+    public StudentProfile(String id, String name) {
+        this.id = id;
+        this.name = name;
+        this.dirty = true;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int gamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public int bestScore() {
+        return bestScore;
+    }
+
+    public long totalCorrect() {
+        return totalCorrect;
+    }
+
+    /**
+     * Снимок незаконченной игры ({@link GameSnapshot#encode()}) или null.
+     */
+    public byte[] savedGame() {
+        return savedGame;
+    }
+
+    public void setSavedGame(byte[] snapshot) {
+        savedGame = snapshot;
+        dirty = true;
+    }
+
+    /**
+     * Учитывает законченную игру.
+     */
+    public void recordGame(int correctAnswers) {
+        gamesPlayed++;
+        totalCorrect += correctAnswers;
+        bestScore = Math.max(bestScore, correctAnswers);
+        dirty = true;
+    }
+
+    boolean isDirty() {
+        return dirty;
+    }
+
+    void markClean() {
+        dirty = false;
+    }
+
+    /**
+     * Кодирует профиль целиком.
+     */
+    public byte[] encode() {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int gameLength = savedGame != null ? savedGame.length : 0;
+        ByteBuffer out = ByteBuffer.allocate(4 + 1 + 4 + 4 + 8 + 4 + nameBytes.length + 4 + gameLength)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC);
+        out.put((byte) VERSION);
+        out.putInt(gamesPlayed);
+        out.putInt(bestScore);
+        out.putLong(totalCorrect);
+        out.putInt(nameBytes.length);
+        out.put(nameBytes);
+        out.putInt(savedGame != null ? savedGame.length : -1);
+        if (savedGame != null) {
+            out.put(savedGame);
+        }
+        return out.array();
+    }
+
+    /**
+     * Читает профиль ученика id.
+     *
+     * @throws IllegalArgumentException если данные повреждены или в другом формате
+     */
+    public static StudentProfile decode(String id, byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC || in.get() != VERSION) {
+                throw new IllegalArgumentException("Неизвестный формат профиля " + id);
+            }
+            int games = in.getInt();
+            int best = in.getInt();
+            long correct = in.getLong();
+            byte[] nameBytes = new byte[checkLength(in.getInt(), in, id)];
+            in.get(nameBytes);
+            StudentProfile profile = new StudentProfile(id, new String(nameBytes, StandardCharsets.UTF_8));
+            profile.gamesPlayed = games;
+            profile.bestScore = best;
+            profile.totalCorrect = correct;
+            int gameLength = in.getInt();
+            if (gameLength >= 0) {
+                profile.savedGame = new byte[checkLength(gameLength, in, id)];
+                in.get(profile.savedGame);
+            }
+            profile.dirty = false;
+            return profile;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Профиль " + id + " обрезан", e);
+        }
+    }
+
+    private static int checkLength(int length, ByteBuffer in, String id) {
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Профиль " + id + " повреждён");
+        }
+        return length;
+    }
+}
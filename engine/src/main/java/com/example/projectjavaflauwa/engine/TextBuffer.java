@@ -0,0 +1,136 @@
+package com.example.projectjavaflauwa.engine;
+
+import java.util.Arrays;
+
+/**
+ * Переиспользуемый буфер символов для вывода текста без создания строк.
+ *
+ * Содержимое доступно как char[] (например, для TextView.setText(char[], int, int))
+ * или как CharSequence. Строка создаётся только при явном вызове toString().
+ */
+public final class TextBuffer implements CharSequence {
+
+    private char[] chars;
+    private int length;
+
+    public TextBuffer(int capacity) {
+        chars = new char[capacity];
+    }
+
+    /**
+     * Очищает буфер (массив символов остаётся прежним).
+     */
+    public TextBuffer clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextBuffer append(char ch) {
+        ensureCapacity(length + 1);
+        chars[length++] = ch;
+        return this;
+    }
+
+    public TextBuffer append(String s) {
+        int n = s.length();
+        ensureCapacity(length + n);
+        s.getChars(0, n, chars, length);
+        length += n;
+        return this;
+    }
+
+    public TextBuffer append(CharSequence s) {
+        int n = s.length();
+        ensureCapacity(length + n);
+        for (int i = 0; i < n; i++) {
+            chars[length++] = s.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Дописывает десятичную запись числа, не создавая промежуточной строки.
+     */
+    public TextBuffer append(int value) {
+        if (value == Integer.MIN_VALUE) {
+            return append("-2147483648");
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        int digits = digitCount(value);
+        ensureCapacity(length + digits);
+        int pos = length + digits;
+        do {
+            chars[--pos] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        length += digits;
+        return this;
+    }
+
+    /**
+     * Количество десятичных цифр неотрицательного числа.
+     */
+    public static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    /**
+     * Внутренний массив символов; значимы первые length() элементов.
+     * Ссылка может измениться после append, если массиву не хватило места.
+     */
+    public char[] array() {
+        return chars;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    /**
+     * Совпадает ли содержимое буфера со строкой (без создания строки).
+     */
+    public boolean contentEquals(CharSequence s) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(required, chars.length * 2));
+        }
+    }
+}
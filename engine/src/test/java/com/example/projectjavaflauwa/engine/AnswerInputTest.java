@@ -0,0 +1,123 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AnswerInputTest {
+
+    @Test
+    public void digits_accumulateIntoValue() {
+        AnswerInput input = new AnswerInput();
+        input.reset(125, false);
+        assertTrue(input.isEmpty());
+        assertFalse(input.digit(1));
+        assertFalse(input.digit(2));
+        assertFalse(input.digit(5));
+        assertEquals(125, input.value());
+        assertEquals(3, input.digits());
+        assertEquals("125", text(input));
+    }
+
+    @Test
+    public void leadingZero_isReplaced() {
+        AnswerInput input = new AnswerInput();
+        input.digit(0);
+        assertFalse(input.isEmpty());
+        assertEquals(0, input.value());
+        input.digit(7);
+        assertEquals(7, input.value());
+        assertEquals(1, input.digits());
+        assertEquals("7", text(input));
+    }
+
+    @Test
+    public void backspaceAndSign() {
+        AnswerInput input = new AnswerInput();
+        input.toggleSign();
+        assertTrue(input.isEmpty());
+        assertEquals("-", text(input));
+        input.digit(1);
+        input.digit(9);
+        assertEquals(-19, input.value());
+        assertEquals("-19", text(input));
+        input.backspace();
+        assertEquals(-1, input.value());
+        input.backspace();
+        assertTrue(input.isEmpty());
+        assertTrue(input.isNegative());
+        input.backspace();
+        assertFalse(input.isNegative());
+        assertEquals("", text(input));
+    }
+
+    @Test
+    public void autoSubmit_firesWhenDigitCountMatchesAnswer() {
+        AnswerInput input = new AnswerInput();
+        input.reset(42, true);
+        assertFalse(input.digit(4));
+        assertTrue(input.digit(2));
+
+        input.reset(-19, true);
+        input.toggleSign();
+        assertFalse(input.digit(1));
+        assertTrue(input.digit(9));
+        assertEquals(-19, input.value());
+
+        // Модуль отрицательного ответа без минуса не отправляется: ответ готов после «±»
+        input.reset(-19, true);
+        assertFalse(input.digit(1));
+        assertFalse(input.digit(9));
+        assertTrue(input.toggleSign());
+        assertEquals(-19, input.value());
+
+        // Ноль — одна цифра
+        input.reset(0, true);
+        assertTrue(input.digit(0));
+
+        // Ведущий ноль не засчитывается как лишняя цифра
+        input.reset(5, true);
+        assertTrue(input.digit(0));
+        input.reset(15, true);
+        assertFalse(input.digit(0));
+        assertFalse(input.digit(1));
+        assertTrue(input.digit(5));
+    }
+
+    @Test
+    public void digitsBeyondIntRange_areIgnored() {
+        AnswerInput input = new AnswerInput();
+        for (int i = 0; i < AnswerInput.MAX_DIGITS + 3; i++) {
+            input.digit(9);
+        }
+        assertEquals(999_999_999, input.value());
+        assertEquals(AnswerInput.MAX_DIGITS, input.digits());
+    }
+
+    @Test
+    public void restore_roundTripsState() {
+        AnswerInput input = new AnswerInput();
+        input.toggleSign();
+        input.digit(3);
+        input.digit(0);
+
+        AnswerInput restored = new AnswerInput();
+        restored.restore(input.digits(), input.isNegative(), input.value());
+        assertEquals("-30", text(restored));
+        restored.digit(1);
+        assertEquals(-301, restored.value());
+
+        try {
+            restored.restore(1, false, 42);
+            fail("Две цифры не помещаются в одну");
+        } catch (IllegalArgumentException expected) {
+            // ожидаемо
+        }
+    }
+
+    private static String text(AnswerInput input) {
+        TextBuffer out = new TextBuffer(16);
+        input.appendTo(out);
+        return out.toString();
+    }
+}
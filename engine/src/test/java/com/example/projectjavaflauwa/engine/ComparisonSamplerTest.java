@@ -0,0 +1,140 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Статистические проверки выбора правой части вопросов «да/нет».
+ * Источник случайности сидирован, поэтому проверки не «мигают».
+ */
+public class ComparisonSamplerTest {
+
+    private static final int DRAWS = 300_000;
+
+    @Test
+    public void truthAndComparators_areEvenlyMixed() {
+        ComparisonSampler sampler = new ComparisonSampler(new SplittableRandom(1));
+        Question q = new Question();
+        for (int left : new int[]{1, 3, 9, 25, 200}) {
+            int trueCount = 0;
+            int[] comparators = new int[3];
+            for (int i = 0; i < DRAWS; i++) {
+                sampler.sample(left, q);
+                assertCorrect(left, q);
+                trueCount += q.booleanAnswer ? 1 : 0;
+                comparators[q.comparator]++;
+            }
+            assertNear("истинных при left = " + left, 0.5, trueCount, DRAWS);
+            for (int comparator = 0; comparator < 3; comparator++) {
+                assertNear("знак " + comparator + " при left = " + left, 1.0 / 3, comparators[comparator], DRAWS);
+            }
+        }
+    }
+
+    @Test
+    public void zeroLeft_neverClaimsZeroGreaterThanRight() {
+        ComparisonSampler sampler = new ComparisonSampler(new SplittableRandom(2));
+        Question q = new Question();
+        int trueCount = 0;
+        for (int i = 0; i < DRAWS; i++) {
+            sampler.sample(0, q);
+            assertCorrect(0, q);
+            if (q.booleanAnswer) {
+                trueCount++;
+                assertNotEquals(QuestionTemplate.GREATER, q.comparator);
+            }
+        }
+        assertNear("истинных при left = 0", 0.5, trueCount, DRAWS);
+    }
+
+    @Test
+    public void rightValue_isUniformWithinEachRange() {
+        ComparisonSampler sampler = new ComparisonSampler(new SplittableRandom(3));
+        Question q = new Question();
+        for (int left : new int[]{3, 40}) {
+            // Частоты правой части отдельно для каждого (истинность, знак)
+            int[][] counts = new int[6][left + ComparisonSampler.ORDER_SPREAD + 1];
+            for (int i = 0; i < DRAWS; i++) {
+                sampler.sample(left, q);
+                counts[q.comparator * 2 + (q.booleanAnswer ? 1 : 0)][q.rightValue]++;
+            }
+            for (int cell = 0; cell < counts.length; cell++) {
+                assertUniform("left = " + left + ", ячейка " + cell, counts[cell]);
+            }
+        }
+    }
+
+    @Test
+    public void engine_booleanQuestionsAreHalfTrueOnEveryLevel() {
+        QuestionEngine engine = new QuestionEngine(4);
+        Question q = new Question();
+        for (int level = 1; level <= GameSession.MAX_LEVEL; level++) {
+            int trueCount = 0;
+            for (int i = 0; i < 100_000; i++) {
+                engine.generateBooleanQuestion(level, q);
+                int left = QuestionTemplate.evaluate(q.template, q.a, q.b, q.c);
+                assertCorrect(left, q);
+                trueCount += q.booleanAnswer ? 1 : 0;
+            }
+            assertNear("истинных на уровне " + level, 0.5, trueCount, 100_000);
+        }
+    }
+
+    private static void assertCorrect(int left, Question q) {
+        assertTrue(q.rightValue >= 0);
+        boolean actual;
+        switch (q.comparator) {
+            case QuestionTemplate.LESS:
+                actual = left < q.rightValue;
+                assertTrue(Math.abs(left - q.rightValue) <= ComparisonSampler.ORDER_SPREAD);
+                break;
+            case QuestionTemplate.GREATER:
+                actual = left > q.rightValue;
+                assertTrue(Math.abs(left - q.rightValue) <= ComparisonSampler.ORDER_SPREAD);
+                break;
+            default:
+                actual = left == q.rightValue;
+                assertTrue(Math.abs(left - q.rightValue) <= ComparisonSampler.EQUAL_SPREAD);
+                break;
+        }
+        assertEquals(actual, q.booleanAnswer);
+    }
+
+    /**
+     * Доля count / n отличается от p не больше чем на 5 стандартных отклонений.
+     */
+    private static void assertNear(String message, double p, int count, int n) {
+        double sigma = Math.sqrt(p * (1 - p) / n);
+        double observed = (double) count / n;
+        assertTrue(message + ": " + observed, Math.abs(observed - p) <= 5 * sigma);
+    }
+
+    /**
+     * Критерий хи-квадрат: ненулевые частоты равномерны (уровень значимости около 0.001).
+     */
+    private static void assertUniform(String message, int[] counts) {
+        int cells = 0;
+        long total = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                cells++;
+                total += count;
+            }
+        }
+        if (cells <= 1) {
+            return;
+        }
+        double expected = (double) total / cells;
+        double chiSquare = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                chiSquare += (count - expected) * (count - expected) / expected;
+            }
+        }
+        // Для k - 1 степеней свободы (k ≤ 11) порог 0.001 не больше 29.6
+        assertTrue(message + ": χ² = " + chiSquare, chiSquare < 29.6);
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки генератора выражений и постфиксной программы.
+ */
+public class ExpressionGeneratorTest {
+
+    @Test
+    public void program_evaluatesAndRendersWithMinimalParentheses() {
+        ExpressionProgram program = new ExpressionProgram(3);
+        // (3 + 4) × 2
+        program.push(3);
+        program.push(4);
+        program.operator(ExpressionProgram.ADD);
+        program.push(2);
+        program.operator(ExpressionProgram.MUL);
+        assertEquals(14, program.evaluate());
+        assertEquals("(3 + 4) × 2", text(program));
+
+        // 20 - (9 - 4) + 6 ÷ 3
+        program.clear();
+        program.push(20);
+        program.push(9);
+        program.push(4);
+        program.operator(ExpressionProgram.SUB);
+        program.operator(ExpressionProgram.SUB);
+        program.push(6);
+        program.push(3);
+        program.operator(ExpressionProgram.DIV);
+        program.operator(ExpressionProgram.ADD);
+        assertEquals(17, program.evaluate());
+        assertEquals("20 - (9 - 4) + 6 ÷ 3", text(program));
+        // Четыре действия в поля вопроса не помещаются
+        assertFalse(program.fitsQuestion());
+
+        // (20 - (9 - 4)) ÷ 3
+        program.clear();
+        program.push(20);
+        program.push(9);
+        program.push(4);
+        program.operator(ExpressionProgram.SUB);
+        program.operator(ExpressionProgram.SUB);
+        program.push(3);
+        program.operator(ExpressionProgram.DIV);
+        Question q = new Question();
+        program.writeTo(q);
+        assertEquals(QuestionTemplate.EXPRESSION, q.template);
+        assertEquals(5, QuestionTemplate.evaluate(q.template, q.a, q.b, q.c));
+        q.numeric = true;
+        assertEquals("(20 - (9 - 4)) ÷ 3 = ?", q.getText());
+    }
+
+    @Test
+    public void generatedExpressions_respectSpecConstraints() {
+        ExpressionGenerator generator = new ExpressionGenerator(new SplittableRandom(7));
+        ExpressionProgram program = new ExpressionProgram(3);
+        for (int level = ExpressionGenerator.FIRST_LEVEL; level <= GameSession.MAX_LEVEL; level++) {
+            ExpressionGenerator.Spec spec = ExpressionGenerator.forLevel(level);
+            assertTrue(spec.fitsQuestion());
+            for (int i = 0; i < 50_000; i++) {
+                int value = generator.generate(spec, program);
+                assertEquals(value, program.evaluate());
+                assertTrue(program.operatorCount() >= spec.minOperators);
+                assertTrue(program.operatorCount() <= spec.maxOperators);
+                assertTrue(program.fitsQuestion());
+                checkIntermediates(program, spec);
+            }
+        }
+    }
+
+    @Test
+    public void expressionQuestions_surviveQuestionPool() {
+        QuestionEngine engine = new QuestionEngine(11);
+        QuestionPool pool = new QuestionPool(1);
+        Question original = new Question();
+        Question restored = new Question();
+        ExpressionProgram program = new ExpressionProgram(3);
+        for (int i = 0; i < 10_000; i++) {
+            engine.generateNumericQuestion(5, original);
+            pool.write(0, original);
+            pool.read(0, restored);
+            assertEquals(original.key(), restored.key());
+            assertEquals(original.getText(), restored.getText());
+            program.readFrom(restored);
+            assertEquals(original.numericAnswer, program.evaluate());
+        }
+    }
+
+    /**
+     * Повторяет вычисление и проверяет каждое промежуточное значение.
+     */
+    private static void checkIntermediates(ExpressionProgram program, ExpressionGenerator.Spec spec) {
+        int[] stack = new int[program.length()];
+        int top = -1;
+        for (int i = 0; i < program.length(); i++) {
+            int instruction = program.instruction(i);
+            int op = instruction & ((1 << ExpressionProgram.OP_BITS) - 1);
+            if (op == ExpressionProgram.PUSH) {
+                stack[++top] = instruction >> ExpressionProgram.OP_BITS;
+                assertTrue(stack[top] <= spec.maxValue);
+                continue;
+            }
+            int right = stack[top--];
+            int left = stack[top];
+            switch (op) {
+                case ExpressionProgram.ADD:
+                    stack[top] = left + right;
+                    break;
+                case ExpressionProgram.SUB:
+                    stack[top] = left - right;
+                    break;
+                case ExpressionProgram.MUL:
+                    stack[top] = left * right;
+                    break;
+                default:
+                    assertTrue("деление нацело", right != 0 && left % right == 0);
+                    stack[top] = left / right;
+                    break;
+            }
+            assertTrue(stack[top] >= 0);
+            assertTrue(stack[top] <= spec.maxValue);
+        }
+    }
+
+    private static String text(ExpressionProgram program) {
+        TextBuffer out = new TextBuffer(64);
+        program.appendText(out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки истории игр.
+ */
+public class GameHistoryTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long DAY = 86_400_000L;
+    // 1 сентября 2025, полдень UTC
+    private static final long NOW = 1_756_728_000_000L;
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("history", ".bin");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void games_surviveReopenWithTheirAnswers() throws IOException {
+        QuestionEngine engine = new QuestionEngine(1);
+        Question q = new Question();
+        GameHistory.Batch batch = new GameHistory.Batch();
+        List<Long> keys = new ArrayList<>();
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            for (int i = 0; i < 100; i++) {
+                engine.next(2, q);
+                keys.add(q.key());
+                batch.answer(q, MistakeLog.ANSWER_NUMBER, i, i % 3 != 0, false, i * 1_000_000L, NOW + i);
+            }
+            batch.gameOver(NOW - 60_000, NOW + 100, 42, 66, 2, 3);
+            // Начатая, но не законченная игра не пишется
+            batch.answer(q, MistakeLog.ANSWER_NONE, 0, false, true, 15_000_000_000L, NOW + 200);
+            history.append(batch);
+            assertEquals(1, history.gameCount());
+        }
+
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(1, history.gameCount());
+            assertEquals(66, history.score(0));
+            assertEquals(2, history.level(0));
+            assertEquals(66, history.bestScore(2));
+            assertEquals(-1, history.bestScore(3));
+            assertEquals(100, history.answerCount(0));
+            int[] read = new int[1];
+            history.readAnswers(0, (level, op, correct, timeout, latency, time, key, kind, value) -> {
+                int i = read[0]++;
+                assertEquals(2, level);
+                assertEquals(i % 3 != 0, correct);
+                assertFalse(timeout);
+                assertEquals(i, latency);
+                assertEquals(NOW + i, time);
+                assertEquals((long) keys.get(i), key);
+                assertEquals(i, value);
+            });
+            assertEquals(100, read[0]);
+        }
+    }
+
+    @Test
+    public void uncommittedTail_isIgnoredAndOverwritten() throws IOException {
+        Question q = new QuestionEngine(2).next(1);
+        GameHistory.Batch batch = new GameHistory.Batch();
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            batch.answer(q, MistakeLog.ANSWER_NUMBER, 1, true, false, 1_000_000_000L, NOW);
+            batch.gameOver(NOW, NOW, 1, 1, 1, 3);
+            history.append(batch);
+        }
+        // Пачка записана, но число записей в заголовке не обновлено (сбой посреди транзакции)
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length());
+            raf.write(new byte[GameHistory.RECORD_SIZE * 3]);
+        }
+        batch.clear();
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(1, history.gameCount());
+            batch.gameOver(NOW + DAY, NOW + DAY, 2, 7, 3, 3);
+            history.append(batch);
+        }
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(2, history.gameCount());
+            assertEquals(7, history.bestScore(3));
+            assertEquals(0, history.answerCount(1));
+        }
+    }
+
+    @Test
+    public void open_rejectsForeignFile() throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[64]);
+        }
+        try {
+            GameHistory.open(file, UTC).close();
+            fail("Чужой файл открылся как история");
+        } catch (IOException expected) {
+            // ожидаемо
+        }
+    }
+
+    @Test
+    public void games_keepTheirStudentApart() throws IOException {
+        Question add = new Question();
+        add.numeric = true;
+        add.template = QuestionTemplate.ADD;
+        add.level = 1;
+        Question mul = new Question();
+        mul.numeric = true;
+        mul.template = QuestionTemplate.MUL;
+        mul.level = 1;
+        GameHistory.Batch batch = new GameHistory.Batch();
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            // Аня (ученик 3) путает сложение, Петя (ученик 12) — умножение
+            batch.student(3);
+            for (int i = 0; i < 20; i++) {
+                batch.answer(add, MistakeLog.ANSWER_NUMBER, 0, false, false, 1_000_000_000L, NOW);
+                batch.answer(mul, MistakeLog.ANSWER_NUMBER, 0, true, false, 1_000_000_000L, NOW);
+            }
+            batch.gameOver(NOW, NOW, 1, 20, 1, 3);
+            batch.student(12);
+            for (int i = 0; i < 30; i++) {
+                batch.answer(add, MistakeLog.ANSWER_NUMBER, 0, true, false, 1_000_000_000L, NOW);
+                batch.answer(mul, MistakeLog.ANSWER_NONE, 0, false, true, 1_000_000_000L, NOW);
+            }
+            batch.gameOver(NOW, NOW, 2, 30, 1, 3);
+            history.append(batch);
+        }
+
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(3, history.student(0));
+            assertEquals(12, history.student(1));
+            assertEquals(30, history.bestScore(1));
+            assertEquals(20, history.bestScore(1, 3));
+            assertEquals(30, history.bestScore(1, 12));
+            assertEquals(-1, history.bestScore(1, 0));
+            assertEquals(LatencyStats.OP_ADD, history.weakestOperation(NOW, 30, 10, 3));
+            assertEquals(LatencyStats.OP_MUL, history.weakestOperation(NOW, 30, 10, 12));
+            assertEquals(-1, history.weakestOperation(NOW, 30, 10, 7));
+            int[] kinds = new int[1];
+            history.readAnswers(1, (level, op, correct, timeout, latency, time, key, kind, value) -> {
+                if (timeout) {
+                    assertEquals(MistakeLog.ANSWER_NONE, kind);
+                    kinds[0]++;
+                }
+            });
+            assertEquals(30, kinds[0]);
+        }
+        try {
+            batch.student(GameHistory.MAX_STUDENT + 1);
+            fail("Номер ученика не помещается в запись");
+        } catch (IllegalArgumentException expected) {
+            // ожидаемо
+        }
+    }
+
+    @Test
+    public void weakestOperation_looksOnlyAtRecentDays() throws IOException {
+        GameHistory.Batch batch = new GameHistory.Batch();
+        Question add = new Question();
+        add.numeric = true;
+        add.template = QuestionTemplate.ADD;
+        add.level = 1;
+        Question mul = new Question();
+        mul.numeric = true;
+        mul.template = QuestionTemplate.MUL;
+        mul.level = 2;
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            // 40 дней назад умножение было хуже всего, в последний месяц — сложение
+            long old = NOW - 40 * DAY;
+            for (int i = 0; i < 20; i++) {
+                batch.answer(mul, MistakeLog.ANSWER_NUMBER, 0, false, false, 1_000_000_000L, old);
+                batch.answer(add, MistakeLog.ANSWER_NUMBER, 0, true, false, 1_000_000_000L, old);
+            }
+            batch.gameOver(old, old, 0, 20, 2, 3);
+            for (int i = 0; i < 20; i++) {
+                batch.answer(mul, MistakeLog.ANSWER_NUMBER, 0, true, false, 1_000_000_000L, NOW - i * DAY);
+                batch.answer(add, MistakeLog.ANSWER_NUMBER, 0, i % 2 == 0, false, 1_000_000_000L, NOW - i * DAY);
+            }
+            batch.gameOver(NOW - DAY, NOW, 0, 30, 2, 3);
+            history.append(batch);
+
+            assertEquals(LatencyStats.OP_ADD, history.weakestOperation(NOW, 30, 10));
+            assertEquals(LatencyStats.OP_MUL, history.weakestOperation(NOW - 35 * DAY, 30, 10));
+            assertEquals(-1, history.weakestOperation(NOW, 30, 100));
+            assertEquals(20, history.answers(LatencyStats.OP_MUL, NOW, 30));
+            assertEquals(10, history.correct(LatencyStats.OP_ADD, NOW, 30));
+            assertEquals(1000, history.meanLatencyMillis(LatencyStats.OP_ADD, NOW, 30));
+            assertEquals(1, history.firstGameSince(NOW - DAY));
+        }
+    }
+
+    @Test
+    public void yearOfDailyPlay_rebuildsIndexesOnOpen() throws IOException {
+        // Год по 10 игр в день, по 30 ответов в игре: 110 тыс. записей.
+        // Время открытия и запросов на таком объёме меряет GameHistoryBenchmark (модуль jmh)
+        QuestionEngine engine = new QuestionEngine(3);
+        Question q = new Question();
+        GameHistory.Batch batch = new GameHistory.Batch();
+        long first = NOW - 365 * DAY;
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            for (int day = 0; day < 365; day++) {
+                batch.clear();
+                for (int game = 0; game < 10; game++) {
+                    long start = first + day * DAY + game * 600_000L;
+                    int level = 1 + (day + game) % GameSession.MAX_LEVEL;
+                    for (int i = 0; i < 30; i++) {
+                        engine.next(level, q);
+                        batch.answer(q, MistakeLog.ANSWER_NUMBER, 0, (i + game) % 4 != 0, false,
+                                2_000_000_000L, start + i * 10_000L);
+                    }
+                    batch.gameOver(start, start + 300_000L, day, day % 50 + game, level, 3);
+                }
+                history.append(batch);
+            }
+        }
+
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(3650, history.gameCount());
+            for (int level = 1; level <= GameSession.MAX_LEVEL; level++) {
+                assertTrue(history.bestScore(level) >= 49);
+            }
+            // Последние 7 дней — 70 игр
+            assertEquals(3650 - 70, history.firstGameSince(NOW - 7 * DAY));
+            assertTrue(history.weakestOperation(NOW, 30, 20) >= 0);
+
+            int[] answers = new int[1];
+            history.readAnswers(history.gameCount() - 1, (level, op, correct, timeout, latency, time, key, kind,
+                                                         value) -> answers[0]++);
+            assertEquals(30, answers[0]);
+        }
+    }
+
+    @Test
+    public void writer_queriesSeeGamesPassedBeforeThem() throws Exception {
+        Question q = new QuestionEngine(4).next(1);
+        int[] seen = new int[2];
+        CountDownLatch done = new CountDownLatch(1);
+        try (HistoryWriter writer = new HistoryWriter(file, UTC)) {
+            for (int game = 0; game < 3; game++) {
+                writer.gameStarted(NOW, 0);
+                for (int i = 0; i < 5; i++) {
+                    writer.answered(q, MistakeLog.ANSWER_NUMBER, i, true, false, 1_000_000L, NOW);
+                }
+                writer.gameOver(NOW, game, 5 + game, 1, 3);
+            }
+            // Ответы незаконченной игры в историю не попадают
+            writer.gameStarted(NOW, 0);
+            writer.answered(q, MistakeLog.ANSWER_NUMBER, 0, true, false, 1_000_000L, NOW);
+            writer.query(history -> {
+                seen[0] = history.gameCount();
+                seen[1] = history.bestScore(1);
+                done.countDown();
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(3, seen[0]);
+        assertEquals(7, seen[1]);
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(3, history.gameCount());
+            assertEquals(15, history.answers(LatencyStats.operation(q), NOW, 1));
+        }
+    }
+
+    @Test
+    public void writer_reopenedWhilePreviousCloses_keepsEveryGame() throws Exception {
+        Question q = new QuestionEngine(6).next(1);
+        // Прежний объект дописывает игры и закрывает файл в своём потоке
+        // (как при выходе из Activity), а новый создаётся сразу
+        HistoryWriter previous = new HistoryWriter(file, UTC);
+        for (int game = 0; game < 20; game++) {
+            previous.gameStarted(NOW, 0);
+            previous.answered(q, MistakeLog.ANSWER_NUMBER, game, true, false, 1_000_000L, NOW);
+            previous.gameOver(NOW, game, 1, 1, 3);
+        }
+        previous.shutdown();
+        int[] games = new int[1];
+        CountDownLatch done = new CountDownLatch(1);
+        try (HistoryWriter writer = new HistoryWriter(file, UTC, previous)) {
+            writer.gameStarted(NOW, 2);
+            writer.gameOver(NOW, 20, 4, 1, 3);
+            writer.query(history -> {
+                games[0] = history.gameCount();
+                done.countDown();
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+        assertEquals(21, games[0]);
+        assertEquals(0, previous.lostGames());
+        try (GameHistory history = GameHistory.open(file, UTC)) {
+            assertEquals(21, history.gameCount());
+            assertEquals(2, history.student(20));
+        }
+    }
+}
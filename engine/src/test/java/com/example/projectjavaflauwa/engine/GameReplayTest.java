@@ -0,0 +1,307 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки повтора записанных игр.
+ */
+public class GameReplayTest {
+
+    // Фон, который выполняет пополнения очереди в случайные моменты
+    private static class LazyExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        final SplittableRandom random;
+
+        LazyExecutor(long seed) {
+            random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void maybeRun() {
+            if (random.nextInt(3) == 0) {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    task.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * Играет как приложение: seed в журнал, ответы бота, события в trace.
+     */
+    private static final class Recorder {
+        final LazyExecutor executor;
+        QuestionPrefetcher prefetcher;
+        final GameSession session;
+        final SplittableRandom bot;
+
+        Recorder(long executorSeed, long botSeed) {
+            executor = new LazyExecutor(executorSeed);
+            prefetcher = new QuestionPrefetcher(new QuestionEngine(1), new QuestionEngine(2), executor, 4);
+            session = new GameSession((level, out, seen) -> prefetcher.next(level, out, seen));
+            bot = new SplittableRandom(botSeed);
+        }
+
+        void start(long seed, long time, SessionJournal.Visitor out) {
+            prefetcher.reseed(seed);
+            out.onRecord(SessionJournal.EVENT_GAME_STARTED, time, seed, MistakeLog.ANSWER_NONE, 0, false, null);
+            session.start();
+            show(time, out);
+        }
+
+        void show(long time, SessionJournal.Visitor out) {
+            out.onRecord(SessionJournal.EVENT_QUESTION_SHOWN, time, session.timeForCurrentLevel(),
+                    MistakeLog.ANSWER_NONE, 0, false, session.current());
+        }
+
+        /**
+         * Один ответ бота; false — игра окончена.
+         */
+        boolean answer(long time, SessionJournal.Visitor out) {
+            executor.maybeRun();
+            Question q = session.current();
+            long latency = (1 + bot.nextInt(5)) * 1_000_000_000L;
+            int roll = bot.nextInt(10);
+            int result;
+            if (roll == 0) {
+                latency = session.timeForCurrentLevel() * 1_000_000L;
+                out.onRecord(SessionJournal.EVENT_TIMEOUT, time, latency, MistakeLog.ANSWER_NONE, 0, false, q);
+                result = session.timeout(latency);
+            } else {
+                boolean right = roll > 2;
+                int kind = q.numeric ? MistakeLog.ANSWER_NUMBER : MistakeLog.ANSWER_BOOLEAN;
+                int value = q.numeric ? (right ? q.numericAnswer : q.numericAnswer + 1)
+                        : (right == q.booleanAnswer ? 1 : 0);
+                Question copy = new Question();
+                copy.set(q);
+                result = q.numeric ? session.answerNumber(value, latency) : session.answerBoolean(value != 0, latency);
+                out.onRecord(SessionJournal.EVENT_ANSWERED, time, latency, kind, value,
+                        (result & GameSession.CORRECT) != 0, copy);
+            }
+            if ((result & GameSession.GAME_OVER) != 0) {
+                out.onRecord(SessionJournal.EVENT_GAME_OVER, time, session.correctAnswers(),
+                        MistakeLog.ANSWER_NONE, 0, false, null);
+                return false;
+            }
+            session.nextQuestion();
+            show(time, out);
+            return true;
+        }
+    }
+
+    @Test
+    public void replay_matchesRecordedGamesRegardlessOfBackgroundTiming() {
+        GameTrace trace = new GameTrace(16);
+        Recorder recorder = new Recorder(7, 8);
+        for (int game = 0; game < 20; game++) {
+            recorder.start(1000 + game, game, trace);
+            while (recorder.answer(game, trace)) {
+                // до конца игры
+            }
+        }
+
+        GameReplay replay = new GameReplay();
+        int games = 0;
+        for (int i = trace.nextGame(0); i < trace.size(); games++) {
+            i = replay.replayGame(trace, i);
+            assertTrue(replay.reason(), replay.ok());
+            assertTrue(replay.finished());
+            assertTrue(replay.questions() > 0);
+            assertTrue(replay.virtualNanos() >= replay.questions() * 1_000_000_000L);
+        }
+        assertEquals(20, games);
+    }
+
+    @Test
+    public void replay_continuesAfterRestoreFromSnapshot() {
+        GameTrace trace = new GameTrace();
+        Recorder recorder = new Recorder(3, 4);
+        recorder.start(99, 0, trace);
+        boolean playing = true;
+        for (int i = 0; i < 8 && playing; i++) {
+            playing = recorder.answer(0, trace);
+        }
+        assertTrue(playing);
+        assertTrue(recorder.session.level() > 1);
+        // Пересоздание Activity: новая очередь продолжает последовательность seed
+        int drawn = recorder.prefetcher.drawn(recorder.session.level());
+        recorder.prefetcher = new QuestionPrefetcher(new QuestionEngine(5), new QuestionEngine(6),
+                recorder.executor, 4);
+        recorder.prefetcher.restore(99, recorder.session.level(), drawn);
+        while (recorder.answer(0, trace)) {
+            // до конца игры
+        }
+
+        GameReplay replay = new GameReplay();
+        assertEquals(trace.size(), replay.replayGame(trace, 0));
+        assertTrue(replay.reason(), replay.ok());
+        assertTrue(replay.finished());
+    }
+
+    @Test
+    public void replay_continuesParkedGameAfterAnotherStudent() {
+        GameTrace trace = new GameTrace();
+        Recorder anna = new Recorder(3, 4);
+        anna.start(41, 0, trace);
+        boolean playing = true;
+        for (int i = 0; i < 6 && playing; i++) {
+            playing = anna.answer(0, trace);
+        }
+        assertTrue(playing);
+        // Планшет переходит к другому ученику, игра Ани отложена в её профиль
+        Recorder petya = new Recorder(5, 6);
+        petya.start(42, 1, trace);
+        while (petya.answer(1, trace)) {
+            // до конца игры
+        }
+        // Аня вернулась: очередь восстановлена из снимка, вопрос тот же
+        int level = anna.session.level();
+        int drawn = anna.prefetcher.drawn(level);
+        anna.prefetcher = new QuestionPrefetcher(new QuestionEngine(7), new QuestionEngine(8), anna.executor, 4);
+        anna.prefetcher.restore(41, level, drawn);
+        int resumedAt = trace.size();
+        trace.onRecord(SessionJournal.EVENT_GAME_RESUMED, 2, 41, MistakeLog.ANSWER_NONE, drawn, false,
+                anna.session.current());
+        while (anna.answer(2, trace)) {
+            // до конца игры
+        }
+
+        GameReplay replay = new GameReplay();
+        int games = 0;
+        for (int i = trace.nextGame(0); i < trace.size(); games++) {
+            i = replay.replayGame(trace, i);
+            assertTrue(replay.reason(), replay.ok());
+            assertTrue(replay.verified());
+        }
+        assertEquals(3, games);
+        assertTrue(replay.finished());
+        assertEquals(anna.session.correctAnswers(), replay.session().correctAnswers());
+        assertEquals(anna.session.mistakes(), replay.session().mistakes());
+
+        // Продолжение не с того места — расхождение на самом событии продолжения
+        GameTrace shifted = new GameTrace();
+        Question q = new Question();
+        for (int i = 0; i < trace.size(); i++) {
+            trace.question(i, q);
+            shifted.onRecord(trace.type(i), trace.timeMillis(i), trace.value(i), trace.answerKind(i),
+                    i == resumedAt ? trace.answerValue(i) + 1 : trace.answerValue(i), trace.correct(i), q);
+        }
+        replay.forgetSuspended();
+        for (int i = shifted.nextGame(0); i < shifted.size(); ) {
+            i = replay.replayGame(shifted, i);
+        }
+        assertFalse(replay.ok());
+        assertEquals(resumedAt, replay.divergedAt());
+
+        // Начало отложенной игры не сохранилось в журнале — игра не проверяется, но и не расходится
+        replay.forgetSuspended();
+        assertEquals(trace.size(), replay.replayGame(trace, resumedAt));
+        assertTrue(replay.ok());
+        assertFalse(replay.verified());
+        assertNotNull(replay.reason());
+    }
+
+    @Test
+    public void replay_reportsFirstDivergence() {
+        GameTrace recorded = new GameTrace();
+        Recorder recorder = new Recorder(1, 2);
+        recorder.start(5, 0, recorded);
+        while (recorder.answer(0, recorded)) {
+            // до конца игры
+        }
+
+        // Та же игра, но с другим ответом в середине
+        int tampered = -1;
+        GameTrace trace = new GameTrace();
+        Question q = new Question();
+        for (int i = 0; i < recorded.size(); i++) {
+            int type = recorded.type(i);
+            int answer = recorded.answerValue(i);
+            if (type == SessionJournal.EVENT_ANSWERED && recorded.correct(i) && tampered < 0 && i > 6) {
+                tampered = i;
+                recorded.question(i, q);
+                answer = q.numeric ? answer + 1 : 1 - answer;
+            }
+            recorded.question(i, q);
+            trace.onRecord(type, recorded.timeMillis(i), recorded.value(i), recorded.answerKind(i), answer,
+                    recorded.correct(i), q);
+        }
+        assertTrue(tampered > 0);
+
+        GameReplay replay = new GameReplay();
+        replay.replayGame(trace, 0);
+        assertFalse(replay.ok());
+        assertEquals(tampered, replay.divergedAt());
+        assertNotNull(replay.reason());
+
+        // Другой seed — другие вопросы с первого показа
+        GameTrace reseeded = new GameTrace();
+        for (int i = 0; i < recorded.size(); i++) {
+            recorded.question(i, q);
+            reseeded.onRecord(recorded.type(i), 0, i == 0 ? 6 : recorded.value(i), recorded.answerKind(i),
+                    recorded.answerValue(i), recorded.correct(i), q);
+        }
+        replay.replayGame(reseeded, 0);
+        assertEquals(1, replay.divergedAt());
+    }
+
+    @Test
+    public void read_replaysGamesFromJournalFile() throws IOException {
+        File file = File.createTempFile("session", ".journal");
+        assertTrue(file.delete());
+        try {
+            Recorder recorder = new Recorder(11, 12);
+            try (SessionJournal journal = new SessionJournal(file, 64, 8, 10)) {
+                SessionJournal.Visitor out = (type, time, value, kind, answer, correct, q) -> {
+                    switch (type) {
+                        case SessionJournal.EVENT_GAME_STARTED:
+                            journal.gameStarted(time, value);
+                            break;
+                        case SessionJournal.EVENT_QUESTION_SHOWN:
+                            journal.questionShown(time, q, value);
+                            break;
+                        case SessionJournal.EVENT_ANSWERED:
+                            journal.answered(time, q, kind, answer, correct, value);
+                            break;
+                        case SessionJournal.EVENT_TIMEOUT:
+                            journal.timeout(time, q, value);
+                            break;
+                        default:
+                            journal.gameOver(time, (int) value);
+                            break;
+                    }
+                };
+                for (int game = 0; game < 3; game++) {
+                    recorder.start(-game, game, out);
+                    while (recorder.answer(game, out)) {
+                        // до конца игры
+                    }
+                }
+            }
+
+            GameTrace trace = GameTrace.read(file);
+            GameReplay replay = new GameReplay();
+            int games = 0;
+            for (int i = trace.nextGame(0); i < trace.size(); games++) {
+                i = replay.replayGame(trace, i);
+                assertTrue(replay.reason(), replay.ok());
+            }
+            assertEquals(3, games);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки правил игры.
+ */
+public class GameSessionTest {
+
+    @Test
+    public void correctAnswers_raiseLevelEveryFiveQuestions() {
+        GameSession session = new GameSession(new QuestionEngine(21));
+        session.start();
+        int levelUps = 0;
+        for (int i = 0; i < 2 * GameSession.QUESTIONS_PER_LEVEL + 3; i++) {
+            int result = answerCorrectly(session);
+            assertTrue((result & GameSession.CORRECT) != 0);
+            if ((result & GameSession.LEVEL_UP) != 0) {
+                levelUps++;
+            }
+            session.nextQuestion();
+            assertEquals(session.level(), session.current().level);
+        }
+        assertEquals(2, levelUps);
+        assertEquals(3, session.level());
+        assertEquals(13, session.correctAnswers());
+        assertEquals(0, session.mistakes());
+    }
+
+    @Test
+    public void threeMistakes_endTheGameAndAreLogged() {
+        GameSession session = new GameSession(new QuestionEngine(22));
+        session.start();
+        assertEquals(0, session.timeout(20_000_000_000L));
+        session.nextQuestion();
+        assertEquals(0, answerWrongly(session));
+        session.nextQuestion();
+        assertEquals(GameSession.GAME_OVER, answerWrongly(session));
+
+        assertTrue(session.isOver());
+        assertEquals(3, session.mistakeLog().size());
+        assertEquals(MistakeLog.ANSWER_NONE, session.mistakeLog().answerKind(0));
+        try {
+            session.nextQuestion();
+            fail("После конца игры вопросов нет");
+        } catch (IllegalStateException expected) {
+            // ожидаемо
+        }
+
+        session.start();
+        assertFalse(session.isOver());
+        assertEquals(0, session.mistakeLog().size());
+        assertEquals(1, session.level());
+    }
+
+    @Test
+    public void snapshot_restoresSessionState() {
+        GameSession session = new GameSession(new QuestionEngine(23));
+        session.start();
+        for (int i = 0; i < 7; i++) {
+            answerCorrectly(session);
+            session.nextQuestion();
+        }
+        answerWrongly(session);
+        session.nextQuestion();
+        GameSnapshot snapshot = new GameSnapshot(session.mistakeLog(), session.seenProblems());
+        session.saveTo(snapshot);
+        byte[] data = snapshot.encode();
+
+        GameSession restored = new GameSession(new QuestionEngine(24));
+        GameSnapshot restoredSnapshot = new GameSnapshot(restored.mistakeLog(), restored.seenProblems());
+        restoredSnapshot.decode(data);
+        restored.restoreFrom(restoredSnapshot);
+
+        assertEquals(session.level(), restored.level());
+        assertEquals(session.correctAnswers(), restored.correctAnswers());
+        assertEquals(session.mistakes(), restored.mistakes());
+        assertEquals(session.questionsOnCurrentLevel(), restored.questionsOnCurrentLevel());
+        assertEquals(session.current().key(), restored.current().key());
+        assertEquals(1, restored.mistakeLog().size());
+    }
+
+    @Test
+    public void customRules_changeThresholdsAndTimes() {
+        GameRules rules = new GameRules(2, 1, new long[]{9_000, 8_000, 7_000, 6_000, 5_000});
+        GameSession session = new GameSession(new QuestionEngine(25), rules);
+        session.start();
+        assertEquals(9_000, session.timeForCurrentLevel());
+        answerCorrectly(session);
+        session.nextQuestion();
+        assertEquals(GameSession.CORRECT | GameSession.LEVEL_UP, answerCorrectly(session));
+        assertEquals(2, session.level());
+        assertEquals(8_000, session.timeForCurrentLevel());
+        session.nextQuestion();
+        assertEquals(GameSession.GAME_OVER, answerWrongly(session));
+
+        // Приложение по-прежнему играет по прежним порогам
+        assertEquals(20_000, GameSession.timeForLevel(1));
+        assertEquals(10_000, GameSession.timeForLevel(3));
+        assertEquals(15_000, GameSession.timeForLevel(5));
+    }
+
+    private static int answerCorrectly(GameSession session) {
+        Question q = session.current();
+        return q.numeric ? session.answerNumber(q.numericAnswer, 1_000_000L)
+                : session.answerBoolean(q.booleanAnswer, 1_000_000L);
+    }
+
+    private static int answerWrongly(GameSession session) {
+        Question q = session.current();
+        return q.numeric ? session.answerNumber(q.numericAnswer + 1, 1_000_000L)
+                : session.answerBoolean(!q.booleanAnswer, 1_000_000L);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки снимка состояния игры.
+ */
+public class GameSnapshotTest {
+
+    @Test
+    public void encode_thenDecode_restoresWholeGame() {
+        QuestionEngine engine = new QuestionEngine(5);
+        MistakeLog log = new MistakeLog(1);
+        SeenProblems seen = new SeenProblems();
+        GameSnapshot snapshot = new GameSnapshot(log, seen);
+        for (int i = 0; i < 40; i++) {
+            Question q = engine.next(1 + i % 3);
+            seen.add(q);
+            if (i % 15 == 0) {
+                log.add(q, MistakeLog.ANSWER_NUMBER, i, i * 1_000_000L);
+            }
+        }
+        engine.next(3, snapshot.question);
+        snapshot.level = 3;
+        snapshot.correctAnswers = 12;
+        snapshot.mistakes = 2;
+        snapshot.questionsOnCurrentLevel = 4;
+        snapshot.remainingMillis = 7_250;
+        snapshot.elapsedNanos = 2_750_000_000L;
+        snapshot.seed = -42;
+        snapshot.questionsDrawn = 6;
+        snapshot.bankDraws = 17;
+
+        byte[] data = snapshot.encode();
+        assertTrue(data.length < 1024);
+
+        MistakeLog restoredLog = new MistakeLog();
+        SeenProblems restoredSeen = new SeenProblems();
+        GameSnapshot restored = new GameSnapshot(restoredLog, restoredSeen);
+        restored.decode(data);
+
+        assertEquals(3, restored.level);
+        assertEquals(12, restored.correctAnswers);
+        assertEquals(2, restored.mistakes);
+        assertEquals(4, restored.questionsOnCurrentLevel);
+        assertFalse(restored.gameOver);
+        assertEquals(7_250, restored.remainingMillis);
+        assertEquals(2_750_000_000L, restored.elapsedNanos);
+        assertEquals(-42, restored.seed);
+        assertEquals(6, restored.questionsDrawn);
+        assertEquals(17, restored.bankDraws);
+        assertEquals(snapshot.question.key(), restored.question.key());
+        assertEquals(snapshot.question.getText(), restored.question.getText());
+
+        assertEquals(log.size(), restoredLog.size());
+        TextBuffer expected = new TextBuffer(64);
+        TextBuffer actual = new TextBuffer(64);
+        Question scratch = new Question();
+        for (int i = 0; i < log.size(); i++) {
+            log.appendRecord(i, scratch, expected.clear());
+            restoredLog.appendRecord(i, scratch, actual.clear());
+            assertTrue(actual.contentEquals(expected));
+            assertEquals(log.latencyNanos(i), restoredLog.latencyNanos(i));
+        }
+        assertEquals(seen.size(), restoredSeen.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_rejectsTruncatedData() {
+        GameSnapshot snapshot = new GameSnapshot(new MistakeLog(), new SeenProblems());
+        snapshot.question.level = 1;
+        byte[] data = snapshot.encode();
+        snapshot.decode(Arrays.copyOf(data, data.length - 3));
+    }
+}
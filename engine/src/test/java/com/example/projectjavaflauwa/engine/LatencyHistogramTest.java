@@ -0,0 +1,91 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки гистограммы задержек и статистики по действиям.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void buckets_coverRangeWithoutGaps() {
+        LatencyHistogram histogram = new LatencyHistogram(1L << 30, 5);
+        long expectedLowest = 0;
+        for (int i = 0; histogram.lowestValueInBucket(i) <= 1L << 30; i++) {
+            assertEquals(expectedLowest, histogram.lowestValueInBucket(i));
+            assertEquals(i, histogram.indexOf(histogram.lowestValueInBucket(i)));
+            assertEquals(i, histogram.indexOf(histogram.highestValueInBucket(i)));
+            expectedLowest = histogram.highestValueInBucket(i) + 1;
+        }
+    }
+
+    @Test
+    public void percentiles_matchExactValuesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram(LatencyStats.HIGHEST_MICROS, 5);
+        SplittableRandom random = new SplittableRandom(3);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong(100, 20_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long approx = histogram.valueAtPercentile(p);
+            assertTrue(p + ": " + approx + " vs " + exact,
+                    approx >= exact && approx <= exact + exact / 32 + 1);
+        }
+        assertEquals(values.length, histogram.totalCount());
+        assertEquals(values[0], histogram.min());
+        assertEquals(values[values.length - 1], histogram.max());
+    }
+
+    @Test
+    public void encode_andMerge_keepCounts() {
+        LatencyHistogram a = new LatencyHistogram(1_000_000, 4);
+        LatencyHistogram b = new LatencyHistogram(1_000_000, 4);
+        for (int i = 1; i <= 1000; i++) {
+            a.record(i * 10L);
+            b.record(i * 500L);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(b.maxEncodedSize());
+        b.encode(buffer);
+        buffer.flip();
+        LatencyHistogram decoded = new LatencyHistogram(1_000_000, 4);
+        decoded.decodeAndAdd(buffer);
+        assertEquals(b.valueAtPercentile(99), decoded.valueAtPercentile(99));
+
+        a.add(decoded);
+        assertEquals(2000, a.totalCount());
+        assertEquals(10, a.min());
+        assertEquals(500_000, a.max());
+    }
+
+    @Test
+    public void stats_keyByLevelOperationAndType() {
+        LatencyStats stats = new LatencyStats();
+        Question q = new Question();
+        q.level = 2;
+        q.numeric = true;
+        q.template = QuestionTemplate.DIV;
+        stats.record(q, 1_500_000_000L);
+        q.numeric = false;
+        stats.record(q, 3_000_000_000L);
+
+        assertEquals(1, stats.histogram(2, LatencyStats.OP_DIV, true).totalCount());
+        assertEquals(1, stats.histogram(2, LatencyStats.OP_COMPARE, false).totalCount());
+        assertEquals(0, stats.histogram(1, LatencyStats.OP_DIV, true).totalCount());
+
+        TextBuffer csv = new TextBuffer(64);
+        stats.appendCsv(csv);
+        assertEquals("level,op,type,count,p50_ms,p90_ms,p99_ms,max_ms\n"
+                + "2,÷,numeric,1,1500,1500,1500,1500\n"
+                + "2,?,boolean,1,3000,3000,3000,3000\n", csv.toString());
+    }
+}
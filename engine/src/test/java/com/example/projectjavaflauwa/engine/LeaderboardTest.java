@@ -0,0 +1,77 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки общей таблицы результатов.
+ */
+public class LeaderboardTest {
+
+    @Test
+    public void concurrentAnswers_areAllCounted() throws InterruptedException {
+        Leaderboard board = new Leaderboard(5, 0);
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    board.player("p" + (i % 20)).recordAnswer(i % 4 != 0, 1);
+                    if (i % 1000 == 0) {
+                        // Чтение таблицы во время записи не мешает писателям
+                        assertTrue(board.top().entries.size() <= 5);
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        long total = 0;
+        long answers = 0;
+        for (int p = 0; p < 20; p++) {
+            total += board.player("p" + p).score();
+            answers += board.player("p" + p).answers();
+        }
+        assertEquals(threads * perThread * 3L / 4, total);
+        assertEquals((long) threads * perThread, answers);
+        assertEquals(20, board.playerCount());
+    }
+
+    @Test
+    public void top_ordersByScoreAndKeepsK() {
+        Leaderboard board = new Leaderboard(3, 0);
+        for (int p = 1; p <= 10; p++) {
+            Leaderboard.Player player = board.player("p" + p);
+            for (int i = 0; i < p; i++) {
+                player.recordAnswer(true, 10);
+            }
+        }
+        List<Leaderboard.Entry> top = board.top().entries;
+        assertEquals(3, top.size());
+        assertEquals("p10", top.get(0).playerId);
+        assertEquals(100, top.get(0).score);
+        assertEquals("p9", top.get(1).playerId);
+        assertEquals("p8", top.get(2).playerId);
+    }
+
+    @Test
+    public void top_isCachedWithinMaxAge() {
+        Leaderboard board = new Leaderboard(3, 60_000);
+        board.player("a").recordAnswer(true, 1);
+        Leaderboard.Snapshot first = board.top();
+        board.player("b").recordAnswer(true, 5);
+        assertSame(first, board.top());
+        assertEquals("b", board.refresh().entries.get(0).playerId);
+    }
+}
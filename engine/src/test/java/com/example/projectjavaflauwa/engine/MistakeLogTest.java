@@ -0,0 +1,44 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки журнала ошибок.
+ */
+public class MistakeLogTest {
+
+    @Test
+    public void appendRecord_rendersReportLines() {
+        MistakeLog log = new MistakeLog(1);
+        Question q = new Question();
+        q.level = 1;
+        q.numeric = true;
+        q.template = QuestionTemplate.ADD;
+        q.a = 7;
+        q.b = 5;
+        q.numericAnswer = 12;
+        log.add(q, MistakeLog.ANSWER_NUMBER, 13, 1_500_000_000L);
+
+        q.numeric = false;
+        q.comparator = QuestionTemplate.LESS;
+        q.rightValue = 10;
+        q.booleanAnswer = false;
+        log.add(q, MistakeLog.ANSWER_NONE, 0, 20_000_000_000L);
+
+        assertEquals(2, log.size());
+        TextBuffer out = new TextBuffer(8);
+        Question scratch = new Question();
+        log.appendRecord(0, scratch, out);
+        assertEquals("Вопрос: 7 + 5 = ?\nВаш ответ: 13\nПравильный ответ: 12", out.toString());
+
+        out.clear();
+        log.appendRecord(1, scratch, out);
+        assertEquals("Вопрос: 7 + 5 < 10 ?\nВаш ответ: нет ответа\nПравильный ответ: нет", out.toString());
+        assertEquals(20_000_000_000L, log.latencyNanos(1));
+
+        log.clear();
+        assertEquals(0, log.size());
+    }
+}
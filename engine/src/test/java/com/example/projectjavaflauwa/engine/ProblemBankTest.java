@@ -0,0 +1,185 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки двоичного банка примеров.
+ */
+public class ProblemBankTest {
+
+    @Test
+    public void sample_returnsOnlyRequestedLevelAndOperation() {
+        int[] counts = new int[ProblemBank.LEVELS * ProblemBank.OPERATIONS];
+        ByteBuffer data = build(new QuestionEngine(3), counts, 1, 2, 3);
+        ProblemBank bank = new ProblemBank(data, new SplittableRandom(1), null);
+
+        assertEquals(0, bank.count(4));
+        assertEquals(0, bank.count(0));
+        Question q = new Question();
+        for (int level = 1; level <= 3; level++) {
+            assertEquals(500, bank.count(level));
+            for (int op = 0; op < ProblemBank.OPERATIONS; op++) {
+                assertEquals(counts[ProblemBank.cell(level, op)], bank.count(level, op));
+                if (!bank.sample(level, op, q)) {
+                    assertEquals(0, bank.count(level, op));
+                    continue;
+                }
+                for (int i = 0; i < 50; i++) {
+                    bank.sample(level, op, q);
+                    assertEquals(level, q.level);
+                    assertEquals(op, LatencyStats.operation(q));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void next_usesFallbackForMissingLevels() {
+        ByteBuffer data = build(new QuestionEngine(3), new int[ProblemBank.LEVELS * ProblemBank.OPERATIONS], 1);
+        int[] fallbackCalls = new int[1];
+        QuestionEngine engine = new QuestionEngine(4);
+        QuestionSource fallback = (level, out, seen) -> {
+            fallbackCalls[0]++;
+            engine.next(level, out, seen);
+        };
+        ProblemBank bank = new ProblemBank(data, new SplittableRandom(1), fallback);
+
+        SeenProblems seen = new SeenProblems();
+        Question q = new Question();
+        for (int i = 0; i < 100; i++) {
+            bank.next(1, q, seen);
+            assertEquals(1, q.level);
+        }
+        assertEquals(0, fallbackCalls[0]);
+        // Из 500 примеров 100 разных набираются без повторов
+        assertEquals(100, seen.size());
+
+        bank.next(2, q, seen);
+        assertEquals(1, fallbackCalls[0]);
+        assertEquals(2, q.level);
+    }
+
+    @Test
+    public void constructor_rejectsDamagedFiles() {
+        int[] counts = new int[ProblemBank.LEVELS * ProblemBank.OPERATIONS];
+        ByteBuffer good = build(new QuestionEngine(3), counts, 1);
+
+        ByteBuffer magic = copy(good);
+        magic.putInt(0, 0);
+        ByteBuffer truncated = copy(good);
+        truncated.limit(truncated.capacity() - ProblemBank.RECORD_SIZE);
+        ByteBuffer index = copy(good).order(ProblemBank.ORDER);
+        index.putInt(ProblemBank.INDEX_OFFSET + 8, 7);
+        ByteBuffer[] damaged = {magic, truncated.slice(), index, ByteBuffer.allocate(10)};
+        for (ByteBuffer data : damaged) {
+            try {
+                new ProblemBank(data, new SplittableRandom(1), null);
+                fail("Повреждённый банк открылся");
+            } catch (IllegalArgumentException expected) {
+                // ожидаемо
+            }
+        }
+    }
+
+    @Test
+    public void map_opensLargeBankWithoutReadingRecords() throws IOException {
+        // ~50 МБ: 3,2 млн записей
+        int perLevel = 640_000;
+        File file = File.createTempFile("bank", ".bank");
+        try {
+            int[] counts = new int[ProblemBank.LEVELS * ProblemBank.OPERATIONS];
+            for (int level = 1; level <= ProblemBank.LEVELS; level++) {
+                counts[ProblemBank.cell(level, LatencyStats.OP_ADD)] = perLevel;
+            }
+            Question q = new Question();
+            q.numeric = true;
+            q.template = QuestionTemplate.ADD;
+            ByteBuffer buffer = ByteBuffer.allocate(ProblemBank.RECORD_SIZE * 4096).order(ProblemBank.ORDER);
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(ProblemBank.HEADER_SIZE);
+                ProblemBank.writeHeader(header, counts);
+                channel.write(header);
+                for (int level = 1; level <= ProblemBank.LEVELS; level++) {
+                    q.level = level;
+                    for (int i = 0; i < perLevel; i++) {
+                        q.a = i % 1000;
+                        q.b = level;
+                        q.numericAnswer = q.a + q.b;
+                        QuestionPool.pack(q, buffer);
+                        if (!buffer.hasRemaining()) {
+                            buffer.flip();
+                            channel.write(buffer);
+                            buffer.clear();
+                        }
+                    }
+                }
+                buffer.flip();
+                channel.write(buffer);
+            }
+            assertTrue(Files.size(file.toPath()) > 50_000_000L);
+
+            // Время открытия в зависимости от размера банка меряет ProblemBankBenchmark (модуль jmh)
+            ProblemBank bank = ProblemBank.map(file, new SplittableRandom(1), null);
+            assertEquals(perLevel * ProblemBank.LEVELS, bank.count());
+
+            SeenProblems seen = new SeenProblems();
+            for (int level = 1; level <= ProblemBank.LEVELS; level++) {
+                bank.next(level, q, seen);
+                assertEquals(level, q.level);
+                assertEquals(level, q.b);
+                assertEquals(q.a + q.b, q.numericAnswer);
+            }
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    /**
+     * Банк из 500 сгенерированных вопросов на каждый из уровней levels.
+     */
+    private static ByteBuffer build(QuestionEngine engine, int[] counts, int... levels) {
+        Question q = new Question();
+        ByteBuffer[] cells = new ByteBuffer[counts.length];
+        int total = 0;
+        for (int level : levels) {
+            for (int i = 0; i < 500; i++) {
+                engine.next(level, q);
+                int cell = ProblemBank.cell(level, LatencyStats.operation(q));
+                if (cells[cell] == null) {
+                    cells[cell] = ByteBuffer.allocate(500 * ProblemBank.RECORD_SIZE).order(ProblemBank.ORDER);
+                }
+                QuestionPool.pack(q, cells[cell]);
+                counts[cell]++;
+                total++;
+            }
+        }
+        ByteBuffer data = ByteBuffer.allocate(ProblemBank.HEADER_SIZE + total * ProblemBank.RECORD_SIZE);
+        ProblemBank.writeHeader(data, counts);
+        data.position(ProblemBank.HEADER_SIZE);
+        for (ByteBuffer cell : cells) {
+            if (cell != null) {
+                cell.flip();
+                data.put(cell);
+            }
+        }
+        data.clear();
+        return data;
+    }
+
+    private static ByteBuffer copy(ByteBuffer data) {
+        ByteBuffer copy = ByteBuffer.allocate(data.capacity());
+        copy.put(data.duplicate());
+        copy.clear();
+        return copy;
+    }
+}
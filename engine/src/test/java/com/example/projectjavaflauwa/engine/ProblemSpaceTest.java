@@ -0,0 +1,49 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки заранее перечисленных пространств примеров.
+ */
+public class ProblemSpaceTest {
+
+    @Test
+    public void counts_matchTemplateRanges() {
+        // фрукты 5×5, сложение 20×20, вычитание a ≥ b из 1..20
+        assertEquals(25 + 400 + 210, ProblemSpace.forLevel(1).numericCount());
+        assertEquals(400 + 210, ProblemSpace.forLevel(1).comparisonLeftCount());
+        // +, - из 1..50, × из 1..10, ÷ с делителем 2..10 и частным 1..10
+        assertEquals(2500 + 1275 + 100 + 90, ProblemSpace.forLevel(2).numericCount());
+        assertEquals(2500 + 1275 + 100 + 90, ProblemSpace.forLevel(2).comparisonLeftCount());
+        assertEquals(50 * 50 * 50 + 60 * 40 * 40 + 10 * 10 * 5, ProblemSpace.forLevel(3).numericCount());
+        // В сравнениях a + b - c пропущены отрицательные: a + b < c в C(30, 3) = 4060 случаях
+        assertEquals(2 * 50 * 50 * 30 - 4060, ProblemSpace.forLevel(3).comparisonLeftCount());
+        // Уровни выше третьего используют примеры третьего
+        assertSame(ProblemSpace.forLevel(3), ProblemSpace.forLevel(4));
+    }
+
+    @Test
+    public void tables_containDistinctValidProblems() {
+        Question q = new Question();
+        for (int level = 1; level <= 3; level++) {
+            ProblemSpace space = ProblemSpace.forLevel(level);
+            for (int choice = 0; choice < space.numericChoices(); choice++) {
+                ProblemTable table = space.numericTable(choice);
+                Set<Long> seen = new HashSet<>();
+                for (int i = 0; i < table.size(); i++) {
+                    int answer = table.read(i, q);
+                    assertEquals(QuestionTemplate.evaluate(q.template, q.a, q.b, q.c), answer);
+                    assertTrue(seen.add((long) q.a << 40 | (long) q.b << 20 | q.c));
+                    if (q.template == QuestionTemplate.SUB || q.template == QuestionTemplate.DIV) {
+                        assertTrue(answer >= 0);
+                    }
+                }
+            }
+        }
+    }
+}
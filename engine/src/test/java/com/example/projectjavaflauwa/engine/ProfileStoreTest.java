@@ -0,0 +1,164 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки профилей учеников и их LRU-кэша.
+ */
+public class ProfileStoreTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("profiles").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void profile_roundTripsWithSavedGame() {
+        GameSession session = new GameSession(new QuestionEngine(1));
+        session.start();
+        session.answerNumber(session.current().numericAnswer + 1, 1_000_000L);
+        GameSnapshot snapshot = new GameSnapshot(session.mistakeLog(), session.seenProblems());
+        session.saveTo(snapshot);
+
+        StudentProfile profile = new StudentProfile("7", "Маша Петрова");
+        profile.recordGame(12);
+        profile.recordGame(9);
+        profile.setSavedGame(snapshot.encode());
+
+        StudentProfile read = StudentProfile.decode("7", profile.encode());
+        assertEquals("Маша Петрова", read.name());
+        assertEquals(2, read.gamesPlayed());
+        assertEquals(12, read.bestScore());
+        assertEquals(21, read.totalCorrect());
+        GameSnapshot restored = new GameSnapshot(new MistakeLog(), new SeenProblems());
+        restored.decode(read.savedGame());
+        assertEquals(1, restored.mistakes);
+        assertEquals(session.current().key(), restored.question.key());
+
+        try {
+            byte[] damaged = profile.encode();
+            StudentProfile.decode("7", java.util.Arrays.copyOf(damaged, damaged.length - 3));
+            fail("Обрезанный профиль прочитан");
+        } catch (IllegalArgumentException expected) {
+            // ожидаемо
+        }
+    }
+
+    @Test
+    public void classOfForty_opensWithoutLoadingProfiles() throws IOException {
+        try (ProfileStore store = ProfileStore.open(directory, 8)) {
+            for (int i = 0; i < 40; i++) {
+                store.add("Ученик " + i).recordGame(i);
+            }
+        }
+
+        try (ProfileStore store = ProfileStore.open(directory, 8)) {
+            List<String> ids = store.ids();
+            assertEquals(40, ids.size());
+            assertEquals("Ученик 39", store.name(ids.get(39)));
+            assertEquals(0, store.diskLoads());
+            assertEquals(0, store.cachedCount());
+            assertNull(store.cached(ids.get(0)));
+
+            StudentProfile first = store.load(ids.get(5));
+            assertEquals(5, first.bestScore());
+            assertEquals(1, store.diskLoads());
+            assertSame(first, store.cached(ids.get(5)));
+            // Повторное обращение — из кэша
+            assertSame(first, store.load(ids.get(5)));
+            assertEquals(1, store.diskLoads());
+        }
+    }
+
+    @Test
+    public void eviction_writesChangesAndReloadSeesThem() throws IOException {
+        try (ProfileStore store = ProfileStore.open(directory, 3)) {
+            StudentProfile anna = store.add("Аня");
+            for (int i = 0; i < 5; i++) {
+                store.add("Ученик " + i);
+            }
+            // Аня вытеснена четырьмя более новыми профилями
+            assertNull(store.cached(anna.id()));
+            assertEquals(3, store.cachedCount());
+
+            StudentProfile again = store.load(anna.id());
+            assertNotSame(anna, again);
+            again.recordGame(17);
+            store.save(again);
+            for (int i = 0; i < 4; i++) {
+                store.load(store.ids().get(1 + i));
+            }
+            assertNull(store.cached(anna.id()));
+            // Запись может ещё стоять в очереди — профиль берётся из неё
+            assertEquals(17, store.load(anna.id()).bestScore());
+        }
+        try (ProfileStore store = ProfileStore.open(directory, 3)) {
+            assertEquals(17, store.load(store.ids().get(0)).bestScore());
+        }
+    }
+
+    @Test
+    public void repeatedSaves_leaveLatestVersionOnDisk() throws IOException {
+        // Время переключения учеников меряет ProfileSwitchBenchmark (модуль jmh)
+        try (ProfileStore store = ProfileStore.open(directory, 2)) {
+            StudentProfile anna = store.add("Аня");
+            StudentProfile petya = store.add("Петя");
+            for (int i = 0; i < 1000; i++) {
+                StudentProfile profile = i % 2 == 0 ? anna : petya;
+                profile.recordGame(i);
+                store.save(profile);
+            }
+        }
+        try (ProfileStore store = ProfileStore.open(directory, 2)) {
+            StudentProfile anna = store.load(store.ids().get(0));
+            assertEquals(500, anna.gamesPlayed());
+            assertEquals(998, anna.bestScore());
+            assertEquals(999, store.load(store.ids().get(1)).bestScore());
+            assertEquals(2, store.diskLoads());
+        }
+    }
+
+    @Test
+    public void loadAsync_deliversProfileOrNull() throws Exception {
+        try (ProfileStore store = ProfileStore.open(directory, 2)) {
+            String id = store.add("Петя").id();
+            StudentProfile[] result = new StudentProfile[2];
+            CountDownLatch done = new CountDownLatch(2);
+            store.loadAsync(id, profile -> {
+                result[0] = profile;
+                done.countDown();
+            });
+            store.loadAsync("нет-такого", profile -> {
+                result[1] = profile;
+                done.countDown();
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals("Петя", result[0].name());
+            assertNull(result[1]);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверяет, что генерация, упаковка и вывод текста вопроса
+ * не создают объектов в установившемся режиме.
+ */
+public class QuestionAllocationTest {
+
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    public void steadyStateGeneration_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        QuestionEngine engine = new QuestionEngine(3);
+        QuestionPool pool = new QuestionPool(64);
+        Question q = new Question();
+        TextBuffer text = new TextBuffer(128);
+
+        // Прогрев: JIT и рост буфера до нужного размера
+        int checksum = run(engine, pool, q, text, ITERATIONS);
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        checksum += run(engine, pool, q, text, ITERATIONS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue(checksum != 0);
+        // Допуск на служебные объекты самого замера, но не на каждый вопрос
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    private static int run(QuestionEngine engine, QuestionPool pool, Question q,
+                           TextBuffer text, int iterations) {
+        int checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            engine.next(1 + i % 3, q);
+            pool.write(i & 63, q);
+            pool.read(i & 63, q);
+            text.clear();
+            q.appendText(text);
+            q.appendCorrectAnswer(text);
+            checksum += text.length();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки генератора заданий на обычной JVM (без Android).
+ */
+public class QuestionEngineTest {
+
+    @Test
+    public void fill_isDeterministicForSameSeed() {
+        Question[] first = new Question[500];
+        Question[] second = new Question[500];
+        QuestionEngine engine = new QuestionEngine();
+
+        engine.fill(first, 2, 42L);
+        engine.fill(second, 2, 42L);
+
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i].getText(), second[i].getText());
+            assertEquals(first[i].numeric, second[i].numeric);
+        }
+    }
+
+    @Test
+    public void numericAnswers_areNonNegativeOnFirstLevels() {
+        QuestionEngine engine = new QuestionEngine();
+        Question q = new Question();
+        for (int level = 1; level <= 2; level++) {
+            for (int i = 0; i < 10_000; i++) {
+                engine.generateNumericQuestion(level, q);
+                assertTrue(q.numeric);
+                assertTrue(q.getText(), q.numericAnswer >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void appendText_rendersTemplates() {
+        Question q = new Question();
+        q.numeric = true;
+        q.template = QuestionTemplate.SUM_MUL;
+        q.a = 3;
+        q.b = 4;
+        q.c = 2;
+        q.numericAnswer = 14;
+        assertEquals("(3 + 4) × 2 = ?", q.getText());
+        assertEquals("Правильный ответ: 14", q.getCorrectAnswerText());
+
+        q.numeric = false;
+        q.template = QuestionTemplate.SUB;
+        q.a = 12;
+        q.b = 3;
+        q.comparator = QuestionTemplate.LESS;
+        q.rightValue = 10;
+        q.booleanAnswer = true;
+        assertEquals("12 - 3 < 10 ?", q.getText());
+        assertEquals("Правильный ответ: да", q.getCorrectAnswerText());
+    }
+
+    @Test
+    public void pool_packAndUnpackRoundTrip() {
+        QuestionEngine engine = new QuestionEngine(5);
+        QuestionPool pool = new QuestionPool(1);
+        Question original = new Question();
+        Question restored = new Question();
+        for (int level = 1; level <= GameSession.MAX_LEVEL; level++) {
+            for (int i = 0; i < 1000; i++) {
+                engine.next(level, original);
+                pool.write(0, original);
+                pool.read(0, restored);
+                assertEquals(original.getText(), restored.getText());
+                assertEquals(original.numericAnswer, restored.numericAnswer);
+                assertEquals(original.booleanAnswer, restored.booleanAnswer);
+                assertEquals(original.level, restored.level);
+            }
+        }
+    }
+
+    @Test
+    public void fillParallel_isIdenticalForAnyThreadCount() {
+        int count = QuestionEngine.CHUNK_SIZE * 10 + 123;
+        QuestionEngine engine = new QuestionEngine();
+        QuestionPool sequential = new QuestionPool(count);
+        engine.fill(sequential, count, 3, 2024L);
+
+        for (int threads : new int[]{1, 2, 4, 7}) {
+            QuestionPool parallel = new QuestionPool(count);
+            engine.fillParallel(parallel, count, 3, 2024L, threads);
+            assertArrayEquals("threads = " + threads, sequential.slots(), parallel.slots());
+        }
+
+        QuestionPool otherSeed = new QuestionPool(count);
+        engine.fill(otherSeed, count, 3, 2025L);
+        assertFalse(Arrays.equals(sequential.slots(), otherSeed.slots()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки очереди заранее сгенерированных вопросов.
+ */
+public class QuestionPrefetcherTest {
+
+    // Исполнитель, который выполняет задачи только по команде теста
+    private static class ManualExecutor implements Executor {
+        final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    @Test
+    public void take_returnsPrefetchedQuestionsOfCurrentLevel() {
+        ManualExecutor executor = new ManualExecutor();
+        QuestionPrefetcher prefetcher = new QuestionPrefetcher(
+                new QuestionEngine(1), new QuestionEngine(2), executor, 4);
+        executor.runAll();
+        assertEquals(4, prefetcher.readyCount());
+
+        Question q = new Question();
+        prefetcher.take(q);
+        assertEquals(1, q.level);
+        assertEquals(3, prefetcher.readyCount());
+        executor.runAll();
+        assertEquals(4, prefetcher.readyCount());
+    }
+
+    @Test
+    public void setLevel_drainsOldQueueAndRefillsNewLevel() {
+        ManualExecutor executor = new ManualExecutor();
+        QuestionPrefetcher prefetcher = new QuestionPrefetcher(
+                new QuestionEngine(1), new QuestionEngine(2), executor, 4);
+        executor.runAll();
+
+        prefetcher.setLevel(2);
+        assertEquals(0, prefetcher.readyCount());
+        // Пока фон не успел — вопрос нового уровня генерируется синхронно
+        Question q = new Question();
+        prefetcher.take(q);
+        assertEquals(2, q.level);
+
+        executor.runAll();
+        assertEquals(4, prefetcher.readyCount());
+        for (int i = 0; i < 4; i++) {
+            prefetcher.take(q);
+            assertEquals(2, q.level);
+        }
+    }
+}
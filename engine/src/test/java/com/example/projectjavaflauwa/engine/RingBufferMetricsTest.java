@@ -0,0 +1,150 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки кольцевого буфера замеров.
+ */
+public class RingBufferMetricsTest {
+
+    @Test
+    public void buffer_keepsLastRecordsAndAllCounters() throws IOException {
+        RingBufferMetrics metrics = new RingBufferMetrics(8);
+        long origin = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            metrics.record(i % 2 == 0 ? GameMetrics.STAGE_GENERATE : GameMetrics.STAGE_WRONG_ANSWER,
+                    origin + i, i * 1000L);
+        }
+        assertEquals(20, metrics.recorded());
+        assertEquals(10, metrics.calls(GameMetrics.STAGE_GENERATE));
+        assertEquals(10, metrics.calls(GameMetrics.STAGE_WRONG_ANSWER));
+        assertEquals(19_000, metrics.maxNanos(GameMetrics.STAGE_WRONG_ANSWER));
+        assertEquals((0 + 2 + 4 + 6 + 8 + 10 + 12 + 14 + 16 + 18) * 1000L,
+                metrics.totalNanos(GameMetrics.STAGE_GENERATE));
+
+        StringWriter out = new StringWriter();
+        assertEquals(8, metrics.writeCsv(out));
+        String[] lines = out.toString().split("\n");
+        assertEquals("seq,stage,start_ns,duration_ns", lines[0]);
+        // Остались записи 12..19, от старых к новым
+        assertTrue(lines[1], lines[1].startsWith("12,generateNewQuestion,"));
+        assertTrue(lines[1], lines[1].endsWith(",12000"));
+        assertTrue(lines[8], lines[8].startsWith("19,handleWrongAnswer,"));
+
+        StringWriter summary = new StringWriter();
+        metrics.writeSummaryCsv(summary);
+        assertEquals("stage,calls,total_ms,mean_ns,max_us\n"
+                + "generateNewQuestion,10,0,9000,18\n"
+                + "handleWrongAnswer,10,0,10000,19\n", summary.toString());
+    }
+
+    @Test
+    public void concurrentWriters_loseNoCounts() throws Exception {
+        RingBufferMetrics metrics = new RingBufferMetrics(1024);
+        int threads = 4;
+        int perThread = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                futures[t] = executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        long token = metrics.begin(GameMetrics.STAGE_CORRECT_ANSWER);
+                        metrics.end(GameMetrics.STAGE_CORRECT_ANSWER, token);
+                    }
+                });
+            }
+            // Выгрузка во время записи не должна падать и читать записи наполовину
+            StringWriter out = new StringWriter();
+            metrics.writeCsv(out);
+            for (String line : out.toString().split("\n")) {
+                assertTrue(line, line.startsWith("seq,") || line.contains(",handleCorrectAnswer,"));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        assertEquals((long) threads * perThread, metrics.recorded());
+        assertEquals((long) threads * perThread, metrics.calls(GameMetrics.STAGE_CORRECT_ANSWER));
+        assertEquals(1024, metrics.writeCsv(new StringWriter()));
+    }
+
+    @Test
+    public void staleWriters_neverTearExportedRecords() throws Exception {
+        // Буфер на одну-две записи: писатели постоянно обгоняют друг друга на круг
+        // и пишут в один слот, а выгрузка идёт параллельно
+        for (int capacity = 1; capacity <= 2; capacity++) {
+            RingBufferMetrics metrics = new RingBufferMetrics(capacity);
+            int threads = 8;
+            int perThread = 100_000;
+            long base = System.nanoTime();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                Future<?>[] futures = new Future<?>[threads];
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    futures[t] = executor.submit(() -> {
+                        for (int i = 1; i <= perThread; i++) {
+                            // Все поля записи выводятся из её номера id: начало — base + 3·id,
+                            // длительность — id, этап — id по модулю числа этапов
+                            long id = (long) thread * perThread + i;
+                            metrics.record((int) (id % GameMetrics.STAGE_COUNT), base + 3 * id, id);
+                        }
+                    });
+                }
+                int rows = 0;
+                long firstOrigin = 0;
+                boolean running = true;
+                while (running) {
+                    running = false;
+                    for (Future<?> future : futures) {
+                        running |= !future.isDone();
+                    }
+                    StringWriter out = new StringWriter();
+                    metrics.writeCsv(out);
+                    String[] lines = out.toString().split("\n");
+                    for (int i = 1; i < lines.length; i++) {
+                        String[] fields = lines[i].split(",");
+                        long start = Long.parseLong(fields[2]);
+                        long id = Long.parseLong(fields[3]);
+                        assertEquals(lines[i], GameMetrics.stageName((int) (id % GameMetrics.STAGE_COUNT)), fields[1]);
+                        // Начало отсчитано от создания объекта: base + 3·id - origin,
+                        // поэтому у всех целых записей origin один и тот же
+                        long origin = base + 3 * id - start;
+                        if (rows == 0) {
+                            firstOrigin = origin;
+                        }
+                        assertEquals(lines[i], firstOrigin, origin);
+                        rows++;
+                    }
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                assertTrue(rows > 0);
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    public void noop_doesNothing() {
+        assertEquals(0, GameMetrics.NOOP.begin(GameMetrics.STAGE_GAME_OVER));
+        GameMetrics.NOOP.end(GameMetrics.STAGE_GAME_OVER, 0);
+        assertEquals("startTimerForQuestion", GameMetrics.stageName(GameMetrics.STAGE_START_TIMER));
+    }
+}
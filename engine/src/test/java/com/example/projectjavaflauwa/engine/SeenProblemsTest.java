@@ -0,0 +1,110 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки множества показанных примеров.
+ */
+public class SeenProblemsTest {
+
+    @Test
+    public void add_detectsRepeatsAcrossGrowth() {
+        SeenProblems seen = new SeenProblems(4);
+        Question q = new Question();
+        q.level = 2;
+        q.numeric = true;
+        q.template = QuestionTemplate.ADD;
+        for (int i = 1; i <= 100_000; i++) {
+            q.a = i % 300;
+            q.b = i / 300;
+            assertTrue(seen.add(q));
+        }
+        for (int i = 1; i <= 100_000; i++) {
+            q.a = i % 300;
+            q.b = i / 300;
+            assertFalse(seen.add(q));
+            assertTrue(seen.contains(q));
+        }
+        assertEquals(100_000, seen.size());
+
+        seen.clear();
+        assertEquals(0, seen.size());
+        assertFalse(seen.contains(q));
+    }
+
+    @Test
+    public void next_skipsAlreadySeenProblems() {
+        QuestionEngine engine = new QuestionEngine(17);
+        SeenProblems seen = new SeenProblems();
+        Question q = new Question();
+        // 200 вопросов первого уровня — меньше трети всех возможных примеров
+        for (int i = 0; i < 200; i++) {
+            int before = seen.size();
+            engine.next(1, q, seen);
+            assertEquals(q.getText(), before + 1, seen.size());
+        }
+    }
+
+    @Test
+    public void key_distinguishesQuestions() {
+        Question first = new Question();
+        first.level = 1;
+        first.numeric = true;
+        first.template = QuestionTemplate.ADD;
+        first.a = 7;
+        first.b = 5;
+        Question second = new Question();
+        second.set(first);
+        assertEquals(first.key(), second.key());
+
+        second.a = 5;
+        second.b = 7;
+        assertNotEquals(first.key(), second.key());
+    }
+
+    @Test
+    public void packedExpressions_neverCollide() {
+        // Выражения уровней 4-5 занимают поля целиком (по 16 бит): у разных
+        // примеров разные ключи, и множество не принимает их за повтор
+        Question q = new Question();
+        for (int level = 4; level <= 5; level++) {
+            QuestionEngine engine = new QuestionEngine(level);
+            SeenProblems seen = new SeenProblems();
+            Map<Long, String> keys = new HashMap<>();
+            for (int i = 0; i < 200_000; i++) {
+                engine.next(level, q);
+                String problem = q.getText() + " " + q.numeric;
+                String previous = keys.putIfAbsent(q.key(), problem);
+                assertTrue(problem + " / " + previous, previous == null || previous.equals(problem));
+                assertEquals(problem, previous == null, seen.add(q));
+            }
+            assertEquals(keys.size(), seen.size());
+        }
+    }
+
+    @Test
+    public void add_comparesWholeFields() {
+        // Байты полей переставлены: при свёртке полей по XOR ключи совпадали
+        Question first = new Question();
+        first.level = 4;
+        first.numeric = true;
+        first.template = QuestionTemplate.EXPRESSION;
+        first.a = 0x0102;
+        first.b = 0x0201;
+        first.c = 0x1234;
+        Question second = new Question();
+        second.set(first);
+        second.a = 0x0201;
+        second.b = 0x0102;
+        SeenProblems seen = new SeenProblems();
+        assertTrue(seen.add(first));
+        assertFalse(seen.contains(second));
+        assertTrue(seen.add(second));
+        assertNotEquals(first.key(), second.key());
+    }
+}
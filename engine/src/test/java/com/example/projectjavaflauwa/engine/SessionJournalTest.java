@@ -0,0 +1,138 @@
+package com.example.projectjavaflauwa.engine;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки журнала событий игры.
+ */
+public class SessionJournalTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("session", ".journal");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void records_surviveReopen() throws IOException {
+        Question q = new QuestionEngine(1).next(2);
+        try (SessionJournal journal = new SessionJournal(file, 64, 4, 10)) {
+            journal.gameStarted(1000, 42);
+            journal.questionShown(1001, q, 15_000);
+            journal.answered(1002, q, MistakeLog.ANSWER_NUMBER, 17, false, 1_500_000_000L);
+            journal.timeout(1003, q, 15_000_000_000L);
+            journal.gameOver(1004, 5);
+        }
+
+        List<String> events = new ArrayList<>();
+        long count = SessionJournal.read(file, (type, time, value, kind, answer, correct, read) -> {
+            events.add(type + ":" + time + ":" + value);
+            if (type == SessionJournal.EVENT_ANSWERED) {
+                assertEquals(MistakeLog.ANSWER_NUMBER, kind);
+                assertEquals(17, answer);
+                assertFalse(correct);
+                assertEquals(q.getText(), read.getText());
+            }
+        });
+        assertEquals(5, count);
+        assertEquals("1:1000:42", events.get(0));
+        assertEquals("3:1002:1500000000", events.get(2));
+        assertEquals("5:1004:5", events.get(4));
+
+        // Новая сессия дописывает записи после уже зафиксированных
+        try (SessionJournal journal = new SessionJournal(file, 64, 4, 10)) {
+            journal.gameStarted(2000, 43);
+        }
+        assertEquals(6, SessionJournal.read(file, (type, time, value, kind, answer, correct, read) -> { }));
+    }
+
+    @Test
+    public void reopenWhilePreviousCloses_keepsEveryRecord() throws IOException {
+        // Прежний журнал закрывается в своём потоке (как при выходе из Activity),
+        // а новый создаётся сразу (быстрый повторный запуск)
+        SessionJournal previous = new SessionJournal(file, 64, 4, 10);
+        for (int i = 0; i < 50; i++) {
+            previous.gameStarted(i, i);
+        }
+        previous.shutdown();
+        try (SessionJournal journal = new SessionJournal(file, previous)) {
+            journal.gameStarted(100, 100);
+        }
+
+        List<Long> seeds = new ArrayList<>();
+        long count = SessionJournal.read(file, (type, time, value, kind, answer, correct, read) -> seeds.add(value));
+        assertEquals(51, count);
+        assertEquals(Long.valueOf(49), seeds.get(49));
+        assertEquals(Long.valueOf(100), seeds.get(50));
+    }
+
+    @Test
+    public void tornRecord_isDropped() throws IOException {
+        try (SessionJournal journal = new SessionJournal(file, 64, 4, 10)) {
+            for (int i = 0; i < 3; i++) {
+                journal.gameStarted(i, i);
+            }
+        }
+        // Портим последнюю запись, как если бы она была записана не полностью
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(SessionJournal.HEADER_SIZE + 2 * SessionJournal.RECORD_SIZE + 24);
+            raf.writeLong(-1);
+        }
+        assertEquals(2, SessionJournal.read(file, (type, time, value, kind, answer, correct, read) -> { }));
+    }
+
+    @Test
+    public void compaction_keepsLastGames() throws IOException {
+        // 16 записей на файл; 20 игр по 3 события заставляют журнал уплотняться
+        try (SessionJournal journal = new SessionJournal(file, 16, 2, 1)) {
+            Question q = new QuestionEngine(2).next(1);
+            for (int game = 0; game < 20; game++) {
+                journal.gameStarted(game, game);
+                journal.questionShown(game, q, 20_000);
+                journal.gameOver(game, game);
+                journal.requestFlush();
+                sleep();
+            }
+        }
+
+        List<Long> seeds = new ArrayList<>();
+        long count = SessionJournal.read(file, (type, time, value, kind, answer, correct, read) -> {
+            if (type == SessionJournal.EVENT_GAME_STARTED) {
+                seeds.add(value);
+            }
+        });
+        // Старые игры отброшены, последние две целиком на месте
+        assertTrue(seeds.size() >= 2 && seeds.size() < 20);
+        assertEquals(seeds.size() * 3L, count);
+        assertEquals(Long.valueOf(19), seeds.get(seeds.size() - 1));
+        assertEquals(Long.valueOf(18), seeds.get(seeds.size() - 2));
+        // Уплотнённый журнал подменил старый целиком
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
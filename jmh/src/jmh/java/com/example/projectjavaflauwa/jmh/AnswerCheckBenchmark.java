@@ -0,0 +1,116 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.AnswerInput;
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка ответа так же, как в приложении: цифры копятся в {@link AnswerInput}
+ * (как при нажатиях на клавиатуре), ответ засчитывает {@link GameSession},
+ * при ошибке правильный ответ дописывается в переиспользуемый буфер.
+ * После третьей ошибки сеанс начинается заново, как по кнопке «Начать сначала».
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnswerCheckBenchmark {
+
+    // Размер заранее сгенерированного набора (степень двойки для быстрого индекса)
+    private static final int SIZE = 1024;
+
+    private final Question[] numericQuestions = new Question[SIZE];
+    private final Question[] booleanQuestions = new Question[SIZE];
+    // Цифры, которые «нажимает» пользователь: примерно половина ответов неверные
+    private final int[][] numericKeys = new int[SIZE][];
+    private final boolean[] numericNegative = new boolean[SIZE];
+    private final boolean[] booleanInputs = new boolean[SIZE];
+    // Вопрос, который сейчас выдаёт источник сеанса
+    private int numericIndex;
+    private int booleanIndex;
+
+    private final AnswerInput input = new AnswerInput();
+    private final TextBuffer infoText = new TextBuffer(64);
+    private GameSession numericSession;
+    private GameSession booleanSession;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7L);
+        QuestionEngine engine = new QuestionEngine(7L);
+        for (int i = 0; i < SIZE; i++) {
+            int level = 1 + i % GameSession.MAX_LEVEL;
+            numericQuestions[i] = new Question();
+            engine.generateNumericQuestion(level, numericQuestions[i]);
+            booleanQuestions[i] = new Question();
+            engine.generateBooleanQuestion(level, booleanQuestions[i]);
+            int typed = numericQuestions[i].numericAnswer + (random.nextBoolean() ? 0 : 1);
+            numericNegative[i] = typed < 0;
+            String digits = Integer.toString(Math.abs(typed));
+            numericKeys[i] = new int[digits.length()];
+            for (int d = 0; d < digits.length(); d++) {
+                numericKeys[i][d] = digits.charAt(d) - '0';
+            }
+            booleanInputs[i] = random.nextBoolean();
+        }
+        numericSession = new GameSession((level, out, seen) -> out.set(numericQuestions[numericIndex]));
+        numericSession.start();
+        booleanSession = new GameSession((level, out, seen) -> out.set(booleanQuestions[booleanIndex]));
+        booleanSession.start();
+    }
+
+    @Benchmark
+    public int numericAnswer() {
+        int i = numericIndex;
+        Question q = numericSession.current();
+        input.reset(q.numericAnswer, false);
+        if (numericNegative[i]) {
+            input.toggleSign();
+        }
+        for (int digit : numericKeys[i]) {
+            input.digit(digit);
+        }
+        int result = numericSession.answerNumber(input.value(), 1_000_000L);
+        numericIndex = (i + 1) & (SIZE - 1);
+        return finish(numericSession, q, result);
+    }
+
+    @Benchmark
+    public int booleanAnswer() {
+        int i = booleanIndex;
+        Question q = booleanSession.current();
+        int result = booleanSession.answerBoolean(booleanInputs[i], 1_000_000L);
+        booleanIndex = (i + 1) & (SIZE - 1);
+        return finish(booleanSession, q, result);
+    }
+
+    /**
+     * Сообщение об ошибке и переход к следующему вопросу (или новая игра).
+     */
+    private int finish(GameSession session, Question q, int result) {
+        int length = 0;
+        if ((result & GameSession.CORRECT) == 0) {
+            infoText.clear().append("Неверно.").append(' ');
+            q.appendCorrectAnswer(infoText);
+            length = infoText.length();
+        }
+        if ((result & GameSession.GAME_OVER) != 0) {
+            session.start();
+        } else {
+            session.nextQuestion();
+        }
+        return result + length;
+    }
+}
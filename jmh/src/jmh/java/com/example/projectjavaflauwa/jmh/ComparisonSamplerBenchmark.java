@@ -0,0 +1,142 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.ComparisonSampler;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionTemplate;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пакетный выбор правой части вопросов «да/нет»: {@link ComparisonSampler}
+ * против прежнего подбора с поправками (копия прежнего кода ниже).
+ * Левые части заранее взяты из генератора уровня 3.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComparisonSamplerBenchmark {
+
+    private static final int BATCH = 1024;
+
+    private final int[] leftValues = new int[BATCH];
+    private final Question question = new Question();
+    private ComparisonSampler direct;
+    private LegacySampler legacy;
+
+    @Setup
+    public void setUp() {
+        QuestionEngine engine = new QuestionEngine(42L);
+        Question q = new Question();
+        for (int i = 0; i < BATCH; i++) {
+            engine.generateBooleanQuestion(3, q);
+            leftValues[i] = QuestionTemplate.evaluate(q.template, q.a, q.b, q.c);
+        }
+        direct = new ComparisonSampler(new SplittableRandom(42L));
+        legacy = new LegacySampler(new SplittableRandom(42L));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int direct() {
+        int sum = 0;
+        for (int left : leftValues) {
+            direct.sample(left, question);
+            sum += question.rightValue;
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int legacy() {
+        int sum = 0;
+        for (int left : leftValues) {
+            legacy.sample(left, question);
+            sum += question.rightValue;
+        }
+        return sum;
+    }
+
+    /**
+     * Прежний подбор правой части из QuestionEngine.generateBooleanQuestion.
+     */
+    static final class LegacySampler {
+        private final SplittableRandom random;
+
+        LegacySampler(SplittableRandom random) {
+            this.random = random;
+        }
+
+        void sample(int leftValue, Question q) {
+            int compIndex = random.nextInt(3);
+            boolean shouldBeTrue = random.nextBoolean();
+            int comparator;
+            int rightValue;
+            boolean expressionIsTrue;
+            if (compIndex == 0) {
+                comparator = QuestionTemplate.LESS;
+                if (shouldBeTrue) {
+                    rightValue = leftValue + (random.nextInt(10) + 1);
+                    expressionIsTrue = true;
+                } else {
+                    if (random.nextBoolean()) {
+                        rightValue = leftValue;
+                    } else {
+                        rightValue = leftValue - (random.nextInt(10) + 1);
+                        if (rightValue < 0) {
+                            rightValue = leftValue;
+                        }
+                    }
+                    expressionIsTrue = false;
+                }
+            } else if (compIndex == 1) {
+                comparator = QuestionTemplate.GREATER;
+                if (shouldBeTrue) {
+                    rightValue = leftValue - (random.nextInt(10) + 1);
+                    if (rightValue < 0) {
+                        rightValue = 0;
+                    }
+                    expressionIsTrue = true;
+                } else {
+                    if (random.nextBoolean()) {
+                        rightValue = leftValue;
+                    } else {
+                        rightValue = leftValue + (random.nextInt(10) + 1);
+                    }
+                    expressionIsTrue = false;
+                }
+            } else {
+                comparator = QuestionTemplate.EQUAL;
+                if (shouldBeTrue) {
+                    rightValue = leftValue;
+                    expressionIsTrue = true;
+                } else {
+                    int delta = random.nextInt(5) + 1;
+                    if (random.nextBoolean()) {
+                        rightValue = leftValue + delta;
+                    } else {
+                        rightValue = leftValue - delta;
+                        if (rightValue < 0) {
+                            rightValue = leftValue + delta;
+                        }
+                    }
+                    expressionIsTrue = false;
+                }
+            }
+            q.booleanAnswer = expressionIsTrue;
+            q.comparator = comparator;
+            q.rightValue = rightValue;
+        }
+    }
+}
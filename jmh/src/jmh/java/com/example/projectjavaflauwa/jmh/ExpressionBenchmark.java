@@ -0,0 +1,78 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.ExpressionGenerator;
+import com.example.projectjavaflauwa.engine.ExpressionProgram;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionTemplate;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выражения уровней 4+ против фиксированных шаблонов уровня 3.
+ *
+ * numeric — генерация числового вопроса с выводом текста: при level = 3
+ * это выбор из таблицы шаблонов, при 4 и 5 — построение случайного дерева.
+ * evaluate* — вычисление уже готового примера: постфиксная программа
+ * против switch по шаблону.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpressionBenchmark {
+
+    @Param({"3", "4", "5"})
+    public int level;
+
+    private QuestionEngine engine;
+    private ExpressionGenerator generator;
+    private final ExpressionProgram program = new ExpressionProgram(ExpressionProgram.MAX_PACKED_OPERATORS);
+    private final Question question = new Question();
+    private final Question template = new Question();
+    private final TextBuffer text = new TextBuffer(128);
+
+    @Setup
+    public void setUp() {
+        engine = new QuestionEngine(42L);
+        generator = new ExpressionGenerator(new SplittableRandom(42L));
+        // Пример для evaluate*: выражение уровня и шаблон уровня 3
+        generator.generate(ExpressionGenerator.forLevel(Math.max(level, ExpressionGenerator.FIRST_LEVEL)), program);
+        new QuestionEngine(42L).generateNumericQuestion(3, template);
+    }
+
+    @Benchmark
+    public int numeric() {
+        engine.generateNumericQuestion(level, question);
+        text.clear();
+        question.appendText(text);
+        return text.length();
+    }
+
+    // Только построение дерева в программу, без упаковки и текста
+    @Benchmark
+    public int generateProgram() {
+        return generator.generate(ExpressionGenerator.forLevel(Math.max(level, ExpressionGenerator.FIRST_LEVEL)),
+                program);
+    }
+
+    @Benchmark
+    public int evaluateProgram() {
+        return program.evaluate();
+    }
+
+    @Benchmark
+    public int evaluateTemplate() {
+        return QuestionTemplate.evaluate(template.template, template.a, template.b, template.c);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.GameHistory;
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.MistakeLog;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * История игр за год ежедневной игры (10 игр в день по 30 ответов — 110 тыс.
+ * записей): открытие файла с построением индексов и запросы экрана конца игры.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameHistoryBenchmark {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long DAY = 86_400_000L;
+    // 1 сентября 2025, полдень UTC
+    private static final long NOW = 1_756_728_000_000L;
+
+    private File file;
+    private GameHistory history;
+    private int level;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("bench", ".history");
+        file.delete();
+        QuestionEngine engine = new QuestionEngine(3);
+        Question q = new Question();
+        GameHistory.Batch batch = new GameHistory.Batch();
+        long first = NOW - 365 * DAY;
+        try (GameHistory writer = GameHistory.open(file, UTC)) {
+            for (int day = 0; day < 365; day++) {
+                batch.clear();
+                for (int game = 0; game < 10; game++) {
+                    long start = first + day * DAY + game * 600_000L;
+                    int gameLevel = 1 + (day + game) % GameSession.MAX_LEVEL;
+                    for (int i = 0; i < 30; i++) {
+                        engine.next(gameLevel, q);
+                        batch.answer(q, MistakeLog.ANSWER_NUMBER, 0, (i + game) % 4 != 0, false,
+                                2_000_000_000L, start + i * 10_000L);
+                    }
+                    batch.gameOver(start, start + 300_000L, day, day % 50 + game, gameLevel, 3);
+                }
+                writer.append(batch);
+            }
+        }
+        history = GameHistory.open(file, UTC);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        history.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public int open() throws IOException {
+        try (GameHistory opened = GameHistory.open(file, UTC)) {
+            return opened.gameCount();
+        }
+    }
+
+    /**
+     * Запросы сводки конца игры: лучший счёт уровня, слабое действие за месяц, игры недели.
+     */
+    @Benchmark
+    public int summaryQueries() {
+        level = level % GameSession.MAX_LEVEL + 1;
+        return history.bestScore(level) + history.weakestOperation(NOW, 30, 20)
+                + history.firstGameSince(NOW - 7 * DAY);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.MistakeLog;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полная игра без UI: сеанс {@link GameSession} (те же правила, что в MainActivity)
+ * на генераторе {@link QuestionEngine}, ответы «бота» и отчёт об ошибках.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameLoopBenchmark {
+
+    // Доля правильных ответов бота
+    @Param({"0.8", "0.95"})
+    public double accuracy;
+
+    private Random botRandom;
+    private GameSession session;
+    // Рабочий вопрос отчёта и буфер отчёта, как в MainActivity
+    private final Question reportQuestion = new Question();
+    private final TextBuffer report = new TextBuffer(1024);
+
+    @Setup
+    public void setUp() {
+        botRandom = new Random(11L);
+        session = new GameSession(new QuestionEngine(13L));
+    }
+
+    @Benchmark
+    public int game() {
+        Question question = session.start();
+        while (true) {
+            boolean correct = botRandom.nextDouble() < accuracy;
+            int result;
+            if (question.numeric) {
+                result = session.answerNumber(correct ? question.numericAnswer : question.numericAnswer + 1, 0L);
+            } else {
+                result = session.answerBoolean(correct == question.booleanAnswer, 0L);
+            }
+            if ((result & GameSession.GAME_OVER) != 0) {
+                break;
+            }
+            question = session.nextQuestion();
+        }
+
+        // Итоговый отчёт, как при показе списка ошибок после gameOver()
+        MistakeLog mistakeLog = session.mistakeLog();
+        report.clear();
+        for (int i = 0; i < mistakeLog.size(); i++) {
+            mistakeLog.appendRecord(i, reportQuestion, report);
+            report.append("\n\n");
+        }
+        return session.correctAnswers() + report.length();
+    }
+}
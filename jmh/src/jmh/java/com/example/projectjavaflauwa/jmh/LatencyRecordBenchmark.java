@@ -0,0 +1,56 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость учёта времени ответа в {@link LatencyStats} — то, что добавляется
+ * к обработке каждого ответа. С профилем gc видно, что памяти не выделяется.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LatencyRecordBenchmark {
+
+    // Размер заранее подготовленного набора (степень двойки для быстрого индекса)
+    private static final int SIZE = 1024;
+
+    private final Question[] questions = new Question[SIZE];
+    private final long[] latencies = new long[SIZE];
+    private final LatencyStats stats = new LatencyStats();
+    private int index;
+
+    @Setup
+    public void setUp() {
+        QuestionEngine engine = new QuestionEngine(11L);
+        SplittableRandom random = new SplittableRandom(11L);
+        for (int i = 0; i < SIZE; i++) {
+            questions[i] = engine.next(1 + i % 3);
+            // От 0,5 до 20 секунд
+            latencies[i] = random.nextLong(500_000_000L, 20_000_000_000L);
+        }
+    }
+
+    @Benchmark
+    public void record() {
+        int i = index++ & (SIZE - 1);
+        stats.record(questions[i], latencies[i]);
+    }
+
+    @Benchmark
+    public long p99() {
+        return stats.histogram(2, LatencyStats.OP_ADD, true).valueAtPercentile(99);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.Leaderboard;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись счёта из многих потоков при одновременном чтении таблицы лучших:
+ * {@link Leaderboard} (LongAdder + снимок через CAS) против таблицы под одним
+ * synchronized. В каждой группе 7 писателей и 1 читатель; смотреть нужно
+ * на пропускную способность записи (record*).
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LeaderboardContentionBenchmark {
+
+    // Сколько игроков одновременно в соревновании
+    @Param({"32", "1000"})
+    public int players;
+
+    private Leaderboard leaderboard;
+    private Leaderboard.Player[] handles;
+    private SynchronizedLeaderboard baseline;
+    private String[] ids;
+
+    @Setup
+    public void setUp() {
+        leaderboard = new Leaderboard(10, 100);
+        baseline = new SynchronizedLeaderboard(10);
+        ids = new String[players];
+        handles = new Leaderboard.Player[players];
+        for (int i = 0; i < players; i++) {
+            ids[i] = "player-" + i;
+            handles[i] = leaderboard.player(ids[i]);
+        }
+    }
+
+    @Benchmark
+    @Group("striped")
+    @GroupThreads(7)
+    public void recordStriped() {
+        handles[ThreadLocalRandom.current().nextInt(players)].recordAnswer(true, 1);
+    }
+
+    @Benchmark
+    @Group("striped")
+    @GroupThreads(1)
+    public Object topStriped() {
+        return leaderboard.top();
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(7)
+    public void recordSynchronized() {
+        baseline.recordAnswer(ids[ThreadLocalRandom.current().nextInt(players)], true, 1);
+    }
+
+    @Benchmark
+    @Group("synchronized")
+    @GroupThreads(1)
+    public Object topSynchronized() {
+        return baseline.top();
+    }
+
+    /**
+     * Прямолинейная реализация: карта счетов и расчёт лучших под одной блокировкой.
+     */
+    static final class SynchronizedLeaderboard {
+        private final int k;
+        private final Map<String, long[]> scores = new HashMap<>();
+
+        SynchronizedLeaderboard(int k) {
+            this.k = k;
+        }
+
+        synchronized void recordAnswer(String id, boolean correct, int points) {
+            long[] score = scores.computeIfAbsent(id, key -> new long[2]);
+            score[1]++;
+            if (correct) {
+                score[0] += points;
+            }
+        }
+
+        synchronized List<String> top() {
+            PriorityQueue<Map.Entry<String, long[]>> heap =
+                    new PriorityQueue<>((a, b) -> Long.compare(a.getValue()[0], b.getValue()[0]));
+            for (Map.Entry<String, long[]> entry : scores.entrySet()) {
+                heap.add(entry);
+                if (heap.size() > k) {
+                    heap.poll();
+                }
+            }
+            List<String> result = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                result.add(0, heap.poll().getKey());
+            }
+            return result;
+        }
+    }
+}
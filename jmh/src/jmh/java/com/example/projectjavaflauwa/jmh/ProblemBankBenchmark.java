@@ -0,0 +1,105 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.ProblemBank;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionPool;
+import com.example.projectjavaflauwa.engine.QuestionTemplate;
+import com.example.projectjavaflauwa.engine.SeenProblems;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Банк примеров, отображённый в память: открытие (разбор заголовка и индекса)
+ * и выбор примера. Открытие читает только заголовок, поэтому его время не
+ * должно зависеть от размера банка (640 тыс. записей на уровень — около 50 МБ).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProblemBankBenchmark {
+
+    @Param({"10000", "640000"})
+    public int perLevel;
+
+    private File file;
+    private ByteBuffer mapped;
+    private ProblemBank bank;
+    private final SplittableRandom random = new SplittableRandom(1);
+    private final Question question = new Question();
+    private final SeenProblems seen = new SeenProblems();
+    private int level;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("bench", ".bank");
+        int[] counts = new int[ProblemBank.LEVELS * ProblemBank.OPERATIONS];
+        for (int level = 1; level <= ProblemBank.LEVELS; level++) {
+            counts[ProblemBank.cell(level, LatencyStats.OP_ADD)] = perLevel;
+        }
+        Question q = new Question();
+        q.numeric = true;
+        q.template = QuestionTemplate.ADD;
+        ByteBuffer buffer = ByteBuffer.allocate(ProblemBank.RECORD_SIZE * 4096).order(ProblemBank.ORDER);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(ProblemBank.HEADER_SIZE);
+            ProblemBank.writeHeader(header, counts);
+            channel.write(header);
+            for (int level = 1; level <= ProblemBank.LEVELS; level++) {
+                q.level = level;
+                for (int i = 0; i < perLevel; i++) {
+                    q.a = i % 1000;
+                    q.b = level;
+                    q.numericAnswer = q.a + q.b;
+                    QuestionPool.pack(q, buffer);
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        channel.write(buffer);
+                        buffer.clear();
+                    }
+                }
+            }
+            buffer.flip();
+            channel.write(buffer);
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        bank = new ProblemBank(mapped, random, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int open() {
+        return new ProblemBank(mapped.duplicate(), random, null).count();
+    }
+
+    @Benchmark
+    public int next() {
+        level = level % ProblemBank.LEVELS + 1;
+        if (seen.size() > 512) {
+            seen.clear();
+        }
+        bank.next(level, question, seen);
+        return question.a;
+    }
+}
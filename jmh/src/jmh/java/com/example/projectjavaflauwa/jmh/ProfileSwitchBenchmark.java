@@ -0,0 +1,114 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.GameSnapshot;
+import com.example.projectjavaflauwa.engine.ProfileStore;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionPrefetcher;
+import com.example.projectjavaflauwa.engine.StudentProfile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Переключение общего планшета между учениками из кэша профилей так же, как
+ * в MainActivity.switchToStudent: игра уходящего ученика кодируется в его
+ * профиль и ставится на запись, игра пришедшего разбирается из профиля и
+ * продолжается в том же сеансе с того же места последовательности seed.
+ * Запись файлов идёт в потоке профилей и в замер не входит; очередь вопросов
+ * в приложении пополняется в фоне, здесь её пополнение не выполняется.
+ * Всё переключение должно укладываться в малую долю кадра (16 мс).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProfileSwitchBenchmark {
+
+    private static final int STUDENTS = ProfileStore.DEFAULT_CACHE_SIZE;
+
+    private File directory;
+    private ProfileStore store;
+    private final String[] ids = new String[STUDENTS];
+    private final QuestionPrefetcher prefetcher = new QuestionPrefetcher(
+            new QuestionEngine(1L), new QuestionEngine(2L), task -> { }, QuestionPrefetcher.DEFAULT_CAPACITY);
+    private final GameSession session = new GameSession((level, out, seen) -> prefetcher.next(level, out, seen));
+    private final GameSnapshot snapshot = new GameSnapshot(session.mistakeLog(), session.seenProblems());
+    private StudentProfile current;
+    private long gameSeed;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("profiles").toFile();
+        store = ProfileStore.open(directory, STUDENTS);
+        // У каждого ученика отложена игра в середине: пара уровней и одна ошибка
+        for (int i = 0; i < STUDENTS; i++) {
+            StudentProfile profile = store.add("Ученик " + i);
+            ids[i] = profile.id();
+            gameSeed = 100 + i;
+            prefetcher.reseed(gameSeed);
+            Question q = session.start();
+            for (int answer = 0; answer < 12; answer++) {
+                boolean wrong = answer == 7;
+                if (q.numeric) {
+                    session.answerNumber(wrong ? q.numericAnswer + 1 : q.numericAnswer, 2_000_000_000L);
+                } else {
+                    session.answerBoolean(wrong != q.booleanAnswer, 2_000_000_000L);
+                }
+                q = session.nextQuestion();
+            }
+            current = profile;
+            park();
+        }
+        next = 0;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public int switchStudent() {
+        park();
+        StudentProfile profile = store.cached(ids[next]);
+        next = (next + 1) % STUDENTS;
+        snapshot.decode(profile.savedGame());
+        session.restoreFrom(snapshot);
+        gameSeed = snapshot.seed;
+        prefetcher.restore(gameSeed, session.level(), snapshot.questionsDrawn);
+        current = profile;
+        return session.level();
+    }
+
+    /**
+     * Игра текущего ученика — в его профиль (как saveCurrentProfile).
+     */
+    private void park() {
+        session.saveTo(snapshot);
+        snapshot.remainingMillis = session.timeForCurrentLevel();
+        snapshot.seed = gameSeed;
+        snapshot.questionsDrawn = prefetcher.drawn(session.level());
+        current.setSavedGame(snapshot.encode());
+        store.save(current);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Генерация одного вопроса по уровням, включая вывод его текста
+ * в переиспользуемый буфер (как при показе вопроса).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestionGenerationBenchmark {
+
+    @Param({"1", "2", "3", "4", "5"})
+    public int level;
+
+    private QuestionEngine engine;
+    private final Question question = new Question();
+    private final TextBuffer text = new TextBuffer(128);
+
+    @Setup
+    public void setUp() {
+        engine = new QuestionEngine(42L);
+    }
+
+    @Benchmark
+    public int numeric() {
+        engine.generateNumericQuestion(level, question);
+        return render();
+    }
+
+    @Benchmark
+    public int bool() {
+        engine.generateBooleanQuestion(level, question);
+        return render();
+    }
+
+    @Benchmark
+    public int next() {
+        engine.next(level, question);
+        return render();
+    }
+
+    // Прежний путь: новый объект и новая строка на каждый вопрос
+    @Benchmark
+    public String nextAllocating() {
+        return engine.next(level).getText();
+    }
+
+    private int render() {
+        text.clear();
+        question.appendText(text);
+        return text.length();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.projectjavaflauwa.jmh;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.GameSnapshot;
+import com.example.projectjavaflauwa.engine.MistakeLog;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.SeenProblems;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Снимок игры при пересоздании Activity: кодирование в onSaveInstanceState
+ * и разбор с восстановлением сеанса в onCreate. Снимок — игра в середине:
+ * несколько уровней пройдено, в журнале две ошибки.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SnapshotBenchmark {
+
+    private GameSession session;
+    private GameSnapshot snapshot;
+    private GameSession restored;
+    private GameSnapshot restoredSnapshot;
+    private byte[] data;
+
+    @Setup
+    public void setUp() {
+        session = new GameSession(new QuestionEngine(3L));
+        Question q = session.start();
+        for (int i = 0; i < 14; i++) {
+            boolean wrong = i == 4 || i == 9;
+            if (q.numeric) {
+                session.answerNumber(wrong ? q.numericAnswer + 1 : q.numericAnswer, 2_000_000_000L);
+            } else {
+                session.answerBoolean(wrong != q.booleanAnswer, 2_000_000_000L);
+            }
+            q = session.nextQuestion();
+        }
+        snapshot = new GameSnapshot(session.mistakeLog(), session.seenProblems());
+        session.saveTo(snapshot);
+        data = snapshot.encode();
+        restored = new GameSession(new QuestionEngine(4L));
+        restoredSnapshot = new GameSnapshot(restored.mistakeLog(), restored.seenProblems());
+    }
+
+    @Benchmark
+    public byte[] save() {
+        session.saveTo(snapshot);
+        return snapshot.encode();
+    }
+
+    @Benchmark
+    public int restore() {
+        restoredSnapshot.decode(data);
+        restored.restoreFrom(restoredSnapshot);
+        return restored.level();
+    }
+}
@@ -0,0 +1,26 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":engine"))
+    testImplementation(libs.junit)
+}
+
+application {
+    mainClass.set("com.example.projectjavaflauwa.server.QuizServer")
+}
+
+// Нагрузочный прогон: сервер и виртуальные ученики в одном процессе
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Измеряет число сеансов на ядро и p99 времени ответа сервера"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.projectjavaflauwa.server.LoadTest")
+    args = (project.findProperty("loadTestArgs") as String?)?.split(" ") ?: emptyList()
+}
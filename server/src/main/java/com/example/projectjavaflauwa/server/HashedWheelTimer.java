@@ -0,0 +1,189 @@
+package com.example.projectjavaflauwa.server;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Таймер «хешированное колесо» для тысяч одновременных таймаутов.
+ *
+ * Вместо отдельного таймера на каждый сеанс все отложенные задачи лежат
+ * в кольце из wheelSize корзин; один поток раз в tick переходит к следующей
+ * корзине и запускает задачи, срок которых наступил. Добавление и отмена —
+ * O(1), точность — один тик (для таймера вопроса в секундах этого достаточно).
+ *
+ * Задачи выполняются в переданном Executor, чтобы медленная задача не
+ * задерживала тики колеса.
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * Отложенная задача; {@link #cancel()} можно вызывать из любого потока.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        // Номер тика, на котором задача должна сработать
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        // Сколько полных оборотов колеса ещё ждать (меняет только поток колеса)
+        private long remainingRounds;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * @return true, если задача отменена до срабатывания
+         */
+        public boolean cancel() {
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    private final long tickNanos;
+    private final Timeout[] buckets;
+    private final int mask;
+    private final Executor executor;
+    // Новые задачи от любых потоков; в корзины их переносит поток колеса
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+
+    /**
+     * @param tickMillis длительность тика (точность таймера)
+     * @param wheelSize  количество корзин (округляется до степени двойки)
+     * @param executor   где выполнять сработавшие задачи
+     */
+    public HashedWheelTimer(long tickMillis, int wheelSize, Executor executor) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis и wheelSize должны быть положительными");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1 | 1) << 1;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.buckets = new Timeout[size];
+        this.mask = size - 1;
+        this.executor = executor;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, "quiz-wheel-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Планирует задачу через delayMillis (с точностью до тика).
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        if (!running) {
+            throw new IllegalStateException("Таймер остановлен");
+        }
+        long deadline = System.nanoTime() - startNanos + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+        // Округляем вверх: задача не срабатывает раньше срока
+        Timeout timeout = new Timeout(task, (deadline + tickNanos - 1) / tickNanos);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Поток колеса; время потока в тестах нагрузки учитывается отдельно.
+     */
+    Thread workerThread() {
+        return worker;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            long sleepNanos = (tick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            transferIncoming(tick);
+            expire(tick);
+            tick++;
+        }
+    }
+
+    /**
+     * Раскладывает новые задачи по корзинам.
+     */
+    private void transferIncoming(long tick) {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            if (timeout.state.get() == CANCELLED) {
+                continue;
+            }
+            // Срок уже прошёл — в текущую корзину, сработает на этом же тике
+            long due = Math.max(timeout.deadlineTick, tick);
+            timeout.remainingRounds = (due - tick) / buckets.length;
+            int index = (int) (due & mask);
+            timeout.next = buckets[index];
+            buckets[index] = timeout;
+        }
+    }
+
+    /**
+     * Запускает задачи корзины текущего тика и убирает отменённые.
+     */
+    private void expire(long tick) {
+        int index = (int) (tick & mask);
+        Timeout previous = null;
+        Timeout timeout = buckets[index];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            boolean remove;
+            if (timeout.state.get() == CANCELLED) {
+                remove = true;
+            } else if (timeout.remainingRounds <= 0) {
+                remove = true;
+                if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                    try {
+                        executor.execute(timeout.task);
+                    } catch (RejectedExecutionException e) {
+                        // Executor останавливается (закрытие сервера): задача пропадает,
+                        // но поток колеса продолжает обслуживать остальные корзины
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+                remove = false;
+            }
+            if (remove) {
+                if (previous == null) {
+                    buckets[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+            } else {
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+}
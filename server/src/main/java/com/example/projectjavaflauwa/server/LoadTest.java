@@ -0,0 +1,286 @@
+package com.example.projectjavaflauwa.server;
+
+import com.example.projectjavaflauwa.engine.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный прогон сервера на локальной машине.
+ *
+ * Сервер и виртуальные ученики работают в одном процессе. Каждый ученик —
+ * цепочка асинхронных запросов java.net.http.HttpClient: создаёт сеанс,
+ * отвечает (по умолчанию на 90% вопросов верно), после конца игры начинает
+ * новую. Время ответа сервера пишется в {@link LatencyHistogram} ученика,
+ * после прогона гистограммы объединяются.
+ *
+ * «Сеансов на ядро» считается по процессорному времени потоков сервера:
+ * сколько учеников, отвечающих раз в --answer-every-ms, выдержит одно ядро.
+ * При --think-ms 0 ученики отвечают без пауз — это режим насыщения, и p99
+ * в нём включает очередь; с паузой p99 ближе к реальному классу.
+ *
+ * Пример: --students 2000 --threads 4 --seconds 20 --warmup 5
+ */
+public final class LoadTest {
+
+    private final int students;
+    private final int threads;
+    private final long warmupMillis;
+    private final long measureMillis;
+    private final long thinkMillis;
+    private final double correctRate;
+
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    LoadTest(int students, int threads, long warmupMillis, long measureMillis,
+             long thinkMillis, double correctRate) {
+        this.students = students;
+        this.threads = threads;
+        this.warmupMillis = warmupMillis;
+        this.measureMillis = measureMillis;
+        this.thinkMillis = thinkMillis;
+        this.correctRate = correctRate;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = 2000;
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        long warmup = 5;
+        long seconds = 20;
+        long think = 0;
+        long answerEvery = 5_000;
+        double correctRate = 0.9;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--students":
+                        students = Integer.parseInt(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--warmup":
+                        warmup = Long.parseLong(value);
+                        break;
+                    case "--seconds":
+                        seconds = Long.parseLong(value);
+                        break;
+                    case "--think-ms":
+                        think = Long.parseLong(value);
+                        break;
+                    case "--answer-every-ms":
+                        answerEvery = Long.parseLong(value);
+                        break;
+                    case "--correct-rate":
+                        correctRate = Double.parseDouble(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Использование: [--students N] [--threads T] [--warmup S] [--seconds S]"
+                    + " [--think-ms M] [--answer-every-ms M] [--correct-rate 0..1]");
+            System.exit(2);
+            return;
+        }
+
+        Result result = new LoadTest(students, threads, warmup * 1000, seconds * 1000, think, correctRate).run();
+        double answersPerSecond = result.requests * 1000.0 / result.millis;
+        double cpuSeconds = result.serverCpuNanos / 1e9;
+        // Сколько ответов в секунду обрабатывает одно полностью занятое ядро
+        double requestsPerCoreSecond = cpuSeconds > 0 ? result.requests / cpuSeconds : 0;
+        double sessionsPerCore = requestsPerCoreSecond * answerEvery / 1000.0;
+        LatencyHistogram latency = result.latencyMicros;
+        System.out.printf(Locale.ROOT, "Учеников: %d, потоков сервера: %d, замер: %d мс%n",
+                students, threads, result.millis);
+        System.out.printf(Locale.ROOT, "Запросов: %d (%.0f в секунду), игр завершено: %d, ошибок HTTP: %d%n",
+                result.requests, answersPerSecond, result.gamesFinished, result.failures);
+        System.out.printf(Locale.ROOT, "Время ответа сервера, мс: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                latency.valueAtPercentile(50) / 1000.0, latency.valueAtPercentile(90) / 1000.0,
+                latency.valueAtPercentile(99) / 1000.0, latency.max() / 1000.0);
+        System.out.printf(Locale.ROOT, "Процессорное время сервера: %.2f с; на ядро: %.0f запросов/с"
+                        + " ≈ %.0f учеников при ответе раз в %d мс%n",
+                cpuSeconds, requestsPerCoreSecond, sessionsPerCore, answerEvery);
+    }
+
+    /**
+     * Итог прогона.
+     */
+    static final class Result {
+        long requests;
+        long gamesFinished;
+        long failures;
+        long millis;
+        long serverCpuNanos;
+        LatencyHistogram latencyMicros = newHistogram();
+    }
+
+    Result run() throws IOException, InterruptedException {
+        ExecutorService clientPool = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors() / 2), r -> {
+                    Thread thread = new Thread(r, "load-client");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try (QuizServer server = new QuizServer(0, threads, true)) {
+            server.start();
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientPool)
+                    .build();
+            URI base = URI.create("http://127.0.0.1:" + server.port() + "/session");
+
+            List<Student> all = new ArrayList<>(students);
+            SplittableRandom seeds = new SplittableRandom(42);
+            for (int i = 0; i < students; i++) {
+                Student student = new Student(client, base, seeds.split());
+                all.add(student);
+                student.newGame();
+            }
+
+            Thread.sleep(warmupMillis);
+            long cpuStart = server.cpuTimeNanos();
+            long start = System.nanoTime();
+            measuring = true;
+            Thread.sleep(measureMillis);
+            measuring = false;
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            long cpu = server.cpuTimeNanos() - cpuStart;
+            stopped = true;
+
+            Result result = new Result();
+            result.millis = millis;
+            result.serverCpuNanos = cpu;
+            for (Student student : all) {
+                synchronized (student) {
+                    result.requests += student.requests;
+                    result.gamesFinished += student.gamesFinished;
+                    result.failures += student.failures;
+                    result.latencyMicros.add(student.latencyMicros);
+                }
+            }
+            return result;
+        } finally {
+            clientPool.shutdownNow();
+        }
+    }
+
+    private static LatencyHistogram newHistogram() {
+        // До 10 секунд в микросекундах, точность около 3%
+        return new LatencyHistogram(10_000_000L, 5);
+    }
+
+    /**
+     * Виртуальный ученик: запросы идут строго по очереди, поэтому его счётчики
+     * меняются в одном потоке за раз; итог читается под его блокировкой.
+     */
+    private final class Student {
+        private final HttpClient client;
+        private final URI base;
+        private final SplittableRandom random;
+        private final LatencyHistogram latencyMicros = newHistogram();
+        private long requests;
+        private long gamesFinished;
+        private long failures;
+        private long sessionId;
+
+        Student(HttpClient client, URI base, SplittableRandom random) {
+            this.client = client;
+            this.base = base;
+            this.random = random;
+        }
+
+        void newGame() {
+            send(HttpRequest.newBuilder(base).POST(HttpRequest.BodyPublishers.noBody()).build());
+        }
+
+        private void answer(String body) {
+            String query;
+            String answer = field(body, "answer");
+            boolean correct = random.nextDouble() < correctRate;
+            if (body.contains("\"type\":\"numeric\"")) {
+                int value = Integer.parseInt(answer);
+                query = "value=" + (correct ? value : value + 1);
+            } else {
+                boolean value = Boolean.parseBoolean(answer);
+                query = "answer=" + ((correct == value) ? "yes" : "no");
+            }
+            URI uri = URI.create(base + "/" + sessionId + "/answer?" + query);
+            send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build());
+        }
+
+        private void send(HttpRequest request) {
+            if (stopped) {
+                return;
+            }
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<String>> future =
+                    client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+            future.whenComplete((response, error) -> onResponse(response, error, start));
+        }
+
+        private void onResponse(HttpResponse<String> response, Throwable error, long start) {
+            String body;
+            synchronized (this) {
+                boolean ok = error == null && response.statusCode() / 100 == 2;
+                if (measuring) {
+                    requests++;
+                    if (ok) {
+                        latencyMicros.record((System.nanoTime() - start) / 1000);
+                    } else {
+                        failures++;
+                    }
+                }
+                if (!ok) {
+                    body = null;
+                } else {
+                    body = response.body();
+                    sessionId = Long.parseLong(field(body, "id"));
+                    if (body.contains("\"over\":true") && measuring) {
+                        gamesFinished++;
+                    }
+                }
+            }
+            if (body == null || body.contains("\"over\":true")) {
+                newGame();
+            } else if (thinkMillis > 0) {
+                CompletableFuture.delayedExecutor(thinkMillis, TimeUnit.MILLISECONDS)
+                        .execute(() -> answer(body));
+            } else {
+                answer(body);
+            }
+        }
+    }
+
+    /**
+     * Значение простого поля JSON (число или true/false) без разбора всего документа.
+     */
+    static String field(String json, String name) {
+        String key = "\"" + name + "\":";
+        int start = json.indexOf(key);
+        if (start < 0) {
+            throw new IllegalArgumentException("Нет поля " + name + " в " + json);
+        }
+        start += key.length();
+        int end = start;
+        while (end < json.length() && json.charAt(end) != ',' && json.charAt(end) != '}') {
+            end++;
+        }
+        return json.substring(start, end);
+    }
+}
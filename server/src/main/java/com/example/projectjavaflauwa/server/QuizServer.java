@@ -0,0 +1,497 @@
+package com.example.projectjavaflauwa.server;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.Leaderboard;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сервер игры для класса: те же правила ({@link GameSession}), что и в приложении,
+ * по HTTP для браузерных клиентов.
+ *
+ * Соединения принимает и разбирает встроенный com.sun.net.httpserver
+ * (один поток-диспетчер на неблокирующем Selector), запросы обрабатывает
+ * небольшой пул потоков. Сеансы лежат в ConcurrentHashMap и блокируются
+ * по отдельности; таймауты вопросов — в общем {@link HashedWheelTimer}.
+ *
+ * API (ответы в JSON):
+ *  - POST   /session                         — новый сеанс и первый вопрос;
+ *  - GET    /session/{id}                    — состояние и текущий вопрос;
+ *  - POST   /session/{id}/answer?value=N     — числовой ответ;
+ *  - POST   /session/{id}/answer?answer=yes  — ответ «да» (или no);
+ *  - DELETE /session/{id}                    — завершить сеанс;
+ *  - GET    /leaderboard                     — лучшие игроки всех сеансов.
+ *
+ * При создании сеанса можно передать ?player=имя: очки (уровень вопроса
+ * за каждый верный ответ) всех сеансов игрока идут в общую {@link Leaderboard}.
+ * Сеанс без имени — гость: в таблицу он не попадает, иначе таблица росла бы
+ * на каждый анонимный сеанс и не очищалась бы.
+ */
+public final class QuizServer implements AutoCloseable {
+
+    // Брошенный сеанс удаляется через столько минут без запросов
+    static final long IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    private static final long SWEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final String PREFIX = "/session";
+    // Размер таблицы лучших и насколько она может устареть при чтении
+    static final int LEADERBOARD_SIZE = 10;
+    private static final long LEADERBOARD_MAX_AGE_MILLIS = 1000;
+
+    private final HttpServer httpServer;
+    private final ExecutorService workers;
+    private final HashedWheelTimer timer;
+    // Выдавать ли правильный ответ вместе с вопросом (только для нагрузочных тестов)
+    private final boolean exposeAnswers;
+    private final Map<Long, ServerSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Leaderboard leaderboard = new Leaderboard(LEADERBOARD_SIZE, LEADERBOARD_MAX_AGE_MILLIS);
+    private final List<Thread> workerThreads = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param port          порт (0 — любой свободный)
+     * @param threads       потоки обработки запросов
+     * @param exposeAnswers добавлять правильный ответ в JSON (для нагрузочного теста)
+     */
+    public QuizServer(int port, int threads, boolean exposeAnswers) throws IOException {
+        this.exposeAnswers = exposeAnswers;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "quiz-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            workerThreads.add(thread);
+            return thread;
+        });
+        this.timer = new HashedWheelTimer(100, 512, workers);
+        // Без TCP_NODELAY маленькие ответы ждут алгоритм Нейгла (десятки мс на запрос);
+        // настройка читается один раз, при создании первого HttpServer в процессе
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.httpServer = HttpServer.create(new InetSocketAddress(port), 1024);
+        httpServer.setExecutor(workers);
+        httpServer.createContext(PREFIX, this::handle);
+        httpServer.createContext("/leaderboard", this::handleLeaderboard);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    System.err.println("Неизвестный параметр: " + args[i]);
+                    System.err.println("Использование: [--port P] [--threads T]");
+                    System.exit(2);
+                    return;
+            }
+        }
+        QuizServer server = new QuizServer(port, threads, false);
+        server.start();
+        System.out.printf(Locale.ROOT, "Сервер игры слушает порт %d (%d потоков)%n", server.port(), threads);
+    }
+
+    public void start() {
+        httpServer.start();
+        timer.schedule(this::sweepIdleSessions, SWEEP_MILLIS);
+    }
+
+    public int port() {
+        return httpServer.getAddress().getPort();
+    }
+
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    public Leaderboard leaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Процессорное время всех потоков сервера (пул, колесо таймеров,
+     * диспетчер HTTP) в наносекундах — для расчёта сеансов на ядро.
+     */
+    public long cpuTimeNanos() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (Thread thread : workerThreads) {
+            total += Math.max(0, threads.getThreadCpuTime(thread.getId()));
+        }
+        total += Math.max(0, threads.getThreadCpuTime(timer.workerThread().getId()));
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("HTTP-Dispatcher")) {
+                total += Math.max(0, threads.getThreadCpuTime(thread.getId()));
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        timer.close();
+        workers.shutdownNow();
+    }
+
+    // ---- Обработка запросов ----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (RuntimeException e) {
+            respondError(exchange, 500, "Внутренняя ошибка: " + e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals(PREFIX) || path.equals(PREFIX + "/")) {
+            if (!method.equals("POST")) {
+                respondError(exchange, 405, "Ожидался POST");
+                return;
+            }
+            createSession(exchange);
+            return;
+        }
+
+        String rest = path.substring(PREFIX.length() + 1);
+        int slash = rest.indexOf('/');
+        String action = slash < 0 ? "" : rest.substring(slash + 1);
+        ServerSession session;
+        try {
+            session = sessions.get(Long.parseLong(slash < 0 ? rest : rest.substring(0, slash)));
+        } catch (NumberFormatException e) {
+            session = null;
+        }
+        if (session == null) {
+            respondError(exchange, 404, "Сеанс не найден");
+            return;
+        }
+
+        if (action.isEmpty() && method.equals("GET")) {
+            TextBuffer json = new TextBuffer(256);
+            synchronized (session) {
+                long now = System.nanoTime();
+                session.lastAccessNanos = now;
+                json.append('{');
+                appendState(json, session, now);
+                json.append('}');
+            }
+            respond(exchange, 200, json);
+        } else if (action.isEmpty() && method.equals("DELETE")) {
+            sessions.remove(session.id);
+            synchronized (session) {
+                cancelTimeout(session);
+            }
+            respond(exchange, 200, new TextBuffer(16).append("{\"deleted\":true}"));
+        } else if (action.equals("answer") && method.equals("POST")) {
+            answer(exchange, session);
+        } else {
+            respondError(exchange, 405, "Неизвестный запрос");
+        }
+    }
+
+    private void createSession(HttpExchange exchange) throws IOException {
+        long id = nextId.getAndIncrement();
+        String playerName = queryParam(exchange, "player");
+        Leaderboard.Player player = playerName == null || playerName.isEmpty()
+                ? null : leaderboard.player(URLDecoder.decode(playerName, StandardCharsets.UTF_8));
+        ServerSession session = new ServerSession(id, ThreadLocalRandom.current().nextLong(), player);
+        TextBuffer json = new TextBuffer(256);
+        synchronized (session) {
+            long now = System.nanoTime();
+            session.lastAccessNanos = now;
+            session.game.start();
+            presentQuestion(session, now);
+            sessions.put(session.id, session);
+            json.append('{');
+            appendState(json, session, now);
+            json.append('}');
+        }
+        respond(exchange, 201, json);
+    }
+
+    private void answer(HttpExchange exchange, ServerSession session) throws IOException {
+        String numberParam = queryParam(exchange, "value");
+        String booleanParam = queryParam(exchange, "answer");
+        TextBuffer json = new TextBuffer(320);
+        int status;
+        // Ответ собирается под блокировкой сеанса, а отправляется уже без неё:
+        // медленный клиент не задерживает остальные запросы и таймер сеанса
+        synchronized (session) {
+            status = judgeAnswer(session, numberParam, booleanParam, json);
+        }
+        respond(exchange, status, json);
+    }
+
+    /**
+     * Засчитывает ответ и пишет в json тело ответа. Вызывается под блокировкой сеанса.
+     *
+     * @return HTTP-статус ответа
+     */
+    private int judgeAnswer(ServerSession session, String numberParam, String booleanParam, TextBuffer json) {
+        long now = System.nanoTime();
+        session.lastAccessNanos = now;
+        GameSession game = session.game;
+        if (game.isOver()) {
+            appendError(json, "Игра окончена");
+            return 409;
+        }
+        Question question = game.current();
+        long latency = session.elapsedNanos(now);
+        int result;
+        try {
+            if (question.numeric && numberParam != null) {
+                result = game.answerNumber(Integer.parseInt(numberParam.trim()), latency);
+            } else if (!question.numeric && booleanParam != null) {
+                result = game.answerBoolean(parseYesNo(booleanParam), latency);
+            } else {
+                appendError(json, question.numeric
+                        ? "Нужен числовой ответ: ?value=N" : "Нужен ответ: ?answer=yes|no");
+                return 400;
+            }
+        } catch (IllegalArgumentException e) {
+            appendError(json, "Неверный ответ: " + e.getMessage());
+            return 400;
+        }
+        cancelTimeout(session);
+
+        boolean correct = (result & GameSession.CORRECT) != 0;
+        if (session.player != null) {
+            session.player.recordAnswer(correct, question.level);
+        }
+        json.append("{\"result\":\"").append(correct ? "correct" : "wrong").append('"');
+        json.append(",\"levelUp\":").append((result & GameSession.LEVEL_UP) != 0 ? "true" : "false");
+        if (!correct) {
+            // Правильный ответ на только что отвеченный вопрос — до перехода к следующему
+            json.append(",\"correctAnswer\":");
+            TextBuffer text = new TextBuffer(32);
+            question.appendCorrectAnswer(text);
+            appendJsonString(json, text);
+        }
+        if (!game.isOver()) {
+            game.nextQuestion();
+            presentQuestion(session, now);
+        }
+        json.append(',');
+        appendState(json, session, now);
+        json.append('}');
+        return 200;
+    }
+
+    /**
+     * GET /leaderboard: снимок лучших игроков; чтение не блокирует запись счёта.
+     */
+    private void handleLeaderboard(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                respondError(exchange, 405, "Ожидался GET");
+                return;
+            }
+            Leaderboard.Snapshot top = leaderboard.top();
+            TextBuffer json = new TextBuffer(64 + top.entries.size() * 64);
+            json.append("{\"players\":").append(leaderboard.playerCount()).append(",\"top\":[");
+            for (int i = 0; i < top.entries.size(); i++) {
+                Leaderboard.Entry entry = top.entries.get(i);
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"player\":");
+                appendJsonString(json, entry.playerId);
+                json.append(",\"score\":").append(Long.toString(entry.score))
+                        .append(",\"answers\":").append(Long.toString(entry.answers)).append('}');
+            }
+            respond(exchange, 200, json.append("]}"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static boolean parseYesNo(String value) {
+        switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "yes":
+            case "true":
+            case "1":
+                return true;
+            case "no":
+            case "false":
+            case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException(value);
+        }
+    }
+
+    // ---- Таймауты ----
+
+    /**
+     * Отмечает показ нового вопроса и ставит его таймаут в колесо.
+     * Вызывается под блокировкой сеанса.
+     */
+    private void presentQuestion(ServerSession session, long now) {
+        cancelTimeout(session);
+        long seq = ++session.questionSeq;
+        session.questionShownNanos = now;
+        session.questionTimeout = timer.schedule(() -> onQuestionTimeout(session, seq),
+                session.game.timeForCurrentLevel());
+    }
+
+    private void onQuestionTimeout(ServerSession session, long seq) {
+        synchronized (session) {
+            // Вопрос уже отвечен или сеанс закрыт
+            if (seq != session.questionSeq || session.game.isOver() || !sessions.containsKey(session.id)) {
+                return;
+            }
+            long now = System.nanoTime();
+            session.game.timeout(session.elapsedNanos(now));
+            if (session.player != null) {
+                session.player.recordAnswer(false, 0);
+            }
+            session.questionTimeout = null;
+            if (!session.game.isOver()) {
+                session.game.nextQuestion();
+                presentQuestion(session, now);
+            }
+        }
+    }
+
+    private static void cancelTimeout(ServerSession session) {
+        if (session.questionTimeout != null) {
+            session.questionTimeout.cancel();
+            session.questionTimeout = null;
+        }
+    }
+
+    /**
+     * Удаляет сеансы, к которым давно не обращались, и планирует следующий обход.
+     */
+    private void sweepIdleSessions() {
+        long now = System.nanoTime();
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(IDLE_MILLIS);
+        for (ServerSession session : sessions.values()) {
+            synchronized (session) {
+                if (now - session.lastAccessNanos > idleNanos) {
+                    sessions.remove(session.id);
+                    cancelTimeout(session);
+                }
+            }
+        }
+        timer.schedule(this::sweepIdleSessions, SWEEP_MILLIS);
+    }
+
+    // ---- JSON ----
+
+    /**
+     * Поля состояния сеанса и текущего вопроса (без фигурных скобок).
+     * Вызывается под блокировкой сеанса.
+     */
+    private void appendState(TextBuffer json, ServerSession session, long now) {
+        GameSession game = session.game;
+        json.append("\"id\":").append(Long.toString(session.id))
+                .append(",\"level\":").append(game.level())
+                .append(",\"score\":").append(game.correctAnswers())
+                .append(",\"mistakes\":").append(game.mistakes())
+                .append(",\"over\":").append(game.isOver() ? "true" : "false");
+        if (game.isOver()) {
+            return;
+        }
+        Question question = game.current();
+        TextBuffer text = new TextBuffer(64);
+        question.appendText(text);
+        json.append(",\"question\":");
+        appendJsonString(json, text);
+        json.append(",\"type\":\"").append(question.numeric ? "numeric" : "boolean").append('"')
+                .append(",\"timeLimitMs\":").append((int) game.timeForCurrentLevel())
+                .append(",\"remainingMs\":").append((int) session.remainingMillis(now));
+        if (exposeAnswers) {
+            json.append(",\"answer\":");
+            if (question.numeric) {
+                json.append(question.numericAnswer);
+            } else {
+                json.append(question.booleanAnswer ? "true" : "false");
+            }
+        }
+    }
+
+    static void appendJsonString(TextBuffer json, CharSequence value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"' || ch == '\\') {
+                json.append('\\').append(ch);
+            } else if (ch == '\n') {
+                json.append("\\n");
+            } else if (ch < 0x20) {
+                json.append("\\u00");
+                json.append(Character.forDigit(ch >> 4, 16)).append(Character.forDigit(ch & 0xF, 16));
+            } else {
+                json.append(ch);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.regionMatches(0, name, 0, eq) && eq == name.length()) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        respond(exchange, status, appendError(new TextBuffer(64), message));
+    }
+
+    private static TextBuffer appendError(TextBuffer json, String message) {
+        json.append("{\"error\":");
+        appendJsonString(json, message);
+        return json.append('}');
+    }
+
+    private static void respond(HttpExchange exchange, int status, TextBuffer json) throws IOException {
+        byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
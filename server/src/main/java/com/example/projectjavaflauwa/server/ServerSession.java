@@ -0,0 +1,51 @@
+package com.example.projectjavaflauwa.server;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.Leaderboard;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+
+/**
+ * Сеанс одного ученика на сервере: правила игры из {@link GameSession},
+ * свой генератор вопросов и таймаут текущего вопроса в колесе таймеров.
+ *
+ * Все обращения к сеансу идут под его собственной блокировкой (synchronized
+ * на объекте сеанса), поэтому разные ученики не мешают друг другу.
+ */
+final class ServerSession {
+
+    final long id;
+    final GameSession game;
+    // Игрок в общей таблице результатов (null — гость, сеанс без ?player=)
+    final Leaderboard.Player player;
+    // Номер показанного вопроса: таймаут старого вопроса не должен сработать для нового
+    long questionSeq;
+    // Когда был показан текущий вопрос (System.nanoTime())
+    long questionShownNanos;
+    // Время последнего запроса ученика (System.nanoTime()) — для удаления брошенных сеансов
+    long lastAccessNanos;
+    // Таймаут текущего вопроса
+    HashedWheelTimer.Timeout questionTimeout;
+
+    ServerSession(long id, long seed, Leaderboard.Player player) {
+        this.id = id;
+        this.game = new GameSession(new QuestionEngine(seed));
+        this.player = player;
+    }
+
+    /**
+     * Наносекунды с показа текущего вопроса.
+     */
+    long elapsedNanos(long nowNanos) {
+        return nowNanos - questionShownNanos;
+    }
+
+    /**
+     * Миллисекунды, оставшиеся на текущий вопрос.
+     */
+    long remainingMillis(long nowNanos) {
+        if (game.isOver()) {
+            return 0;
+        }
+        return Math.max(0, game.timeForCurrentLevel() - elapsedNanos(nowNanos) / 1_000_000);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.projectjavaflauwa.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки сервера игры и колеса таймеров.
+ */
+public class QuizServerTest {
+
+    private QuizServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new QuizServer(0, 2, true);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void session_playsByGameRules() throws IOException {
+        String created = request("POST", "/session");
+        assertTrue(created, created.contains("\"level\":1"));
+        assertTrue(created.contains("\"over\":false"));
+        String id = LoadTest.field(created, "id");
+        assertEquals(1, server.sessionCount());
+
+        // Три неверных ответа подряд заканчивают игру
+        String state = created;
+        for (int i = 0; i < 3; i++) {
+            state = request("POST", "/session/" + id + "/answer?" + wrongAnswer(state));
+            assertTrue(state, state.contains("\"result\":\"wrong\""));
+            assertTrue(state.contains("\"correctAnswer\":\"Правильный ответ: "));
+        }
+        assertTrue(state.contains("\"mistakes\":3"));
+        assertTrue(state.contains("\"over\":true"));
+        assertEquals(409, status("POST", "/session/" + id + "/answer?value=1"));
+
+        assertEquals(200, status("DELETE", "/session/" + id));
+        assertEquals(404, status("GET", "/session/" + id));
+    }
+
+    @Test
+    public void leaderboard_collectsScoresOfAllSessions() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            String state = request("POST", "/session?player=%D0%90%D0%BD%D1%8F");
+            String id = LoadTest.field(state, "id");
+            request("POST", "/session/" + id + "/answer?" + rightAnswer(state));
+        }
+        server.leaderboard().refresh();
+        String top = request("GET", "/leaderboard");
+        assertTrue(top, top.contains("{\"player\":\"Аня\",\"score\":3,\"answers\":3}"));
+        assertTrue(top.contains("\"players\":1"));
+    }
+
+    @Test
+    public void guestSessions_stayOutOfLeaderboard() throws IOException {
+        // Сеансы без ?player= играют как обычно, но игроками таблицы не становятся
+        for (int i = 0; i < 5; i++) {
+            String state = request("POST", "/session");
+            String id = LoadTest.field(state, "id");
+            state = request("POST", "/session/" + id + "/answer?" + rightAnswer(state));
+            assertTrue(state, state.contains("\"result\":\"correct\""));
+            assertEquals(200, status("DELETE", "/session/" + id));
+        }
+        assertEquals(0, server.leaderboard().playerCount());
+        server.leaderboard().refresh();
+        assertTrue(request("GET", "/leaderboard").contains("\"players\":0"));
+    }
+
+    @Test
+    public void wheelTimer_firesAfterDelayAndSkipsCancelled() throws InterruptedException {
+        Executor direct = Runnable::run;
+        try (HashedWheelTimer timer = new HashedWheelTimer(10, 8, direct)) {
+            CountDownLatch fired = new CountDownLatch(2);
+            AtomicInteger cancelledRuns = new AtomicInteger();
+            long start = System.nanoTime();
+            // 150 мс больше одного оборота колеса (8 × 10 мс)
+            timer.schedule(fired::countDown, 150);
+            timer.schedule(fired::countDown, 20);
+            HashedWheelTimer.Timeout cancelled = timer.schedule(cancelledRuns::incrementAndGet, 30);
+            assertTrue(cancelled.cancel());
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(150));
+            Thread.sleep(50);
+            assertEquals(0, cancelledRuns.get());
+            assertFalse(cancelled.isExpired());
+        }
+    }
+
+    @Test
+    public void wheelTimer_survivesRejectedTask() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        // Первую задачу executor отклоняет, как при остановке сервера
+        Executor flaky = task -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new RejectedExecutionException("остановлен");
+            }
+            task.run();
+        };
+        try (HashedWheelTimer timer = new HashedWheelTimer(10, 8, flaky)) {
+            CountDownLatch fired = new CountDownLatch(1);
+            timer.schedule(() -> { }, 10);
+            timer.schedule(fired::countDown, 60);
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+        }
+    }
+
+    private static String rightAnswer(String state) {
+        String answer = LoadTest.field(state, "answer");
+        if (state.contains("\"type\":\"numeric\"")) {
+            return "value=" + answer;
+        }
+        return "answer=" + (Boolean.parseBoolean(answer) ? "yes" : "no");
+    }
+
+    private static String wrongAnswer(String state) {
+        String answer = LoadTest.field(state, "answer");
+        if (state.contains("\"type\":\"numeric\"")) {
+            return "value=" + (Integer.parseInt(answer) + 1);
+        }
+        return "answer=" + (Boolean.parseBoolean(answer) ? "no" : "yes");
+    }
+
+    private String request(String method, String path) throws IOException {
+        HttpURLConnection connection = open(method, path);
+        assertEquals(2, connection.getResponseCode() / 100);
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private int status(String method, String path) throws IOException {
+        HttpURLConnection connection = open(method, path);
+        int code = connection.getResponseCode();
+        connection.disconnect();
+        return code;
+    }
+
+    private HttpURLConnection open(String method, String path) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.port() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+}
@@ -0,0 +1,45 @@
+plugins {
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(project(":engine"))
+    testImplementation(libs.junit)
+}
+
+application {
+    mainClass.set("com.example.projectjavaflauwa.tools.WorksheetGenerator")
+    applicationDefaultJvmArgs = listOf("-XX:MaxDirectMemorySize=512m")
+}
+
+// Симуляция игр ботами для подбора порогов: ./gradlew :tools:simulate -PsimulateArgs="--games 1000000 --bots novice,average"
+tasks.register<JavaExec>("simulate") {
+    group = "application"
+    description = "Прогоняет игры моделями учеников по сетке правил и печатает итоги в CSV"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.projectjavaflauwa.tools.GameSimulator")
+    args = (project.findProperty("simulateArgs") as String?)?.split(" ") ?: emptyList()
+}
+
+// Импорт банка примеров: ./gradlew :tools:importBank -PimportArgs="--in problems.csv --out ../app/src/main/assets/problems.bank"
+tasks.register<JavaExec>("importBank") {
+    group = "application"
+    description = "Собирает банк примеров из CSV/JSON в двоичный файл для приложения"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.projectjavaflauwa.tools.BankImporter")
+    args = (project.findProperty("importArgs") as String?)?.split(" ") ?: emptyList()
+}
+
+// Повтор игр из журнала устройства: ./gradlew :tools:replay -PreplayArgs="--journal session.journal --repeat 100"
+tasks.register<JavaExec>("replay") {
+    group = "application"
+    description = "Проигрывает игры из session.journal движком и сверяет их с записью"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.projectjavaflauwa.tools.JournalReplayer")
+    args = (project.findProperty("replayArgs") as String?)?.split(" ") ?: emptyList()
+}
@@ -0,0 +1,305 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.ProblemBank;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionPool;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Импорт банка примеров методистов (CSV или JSON) в двоичный файл {@link ProblemBank}.
+ *
+ * Файл читается потоково, по одной записи: каждая разбирается {@link ProblemParser},
+ * проверяется по ответу методиста (если он указан) и дописывается в свой временный
+ * файл-корзину (уровень, действие). В конце пишутся заголовок с индексом и корзины
+ * по порядку, поэтому память не зависит от размера банка.
+ *
+ * Испорченные записи пропускаются; первые {@link #MAX_REPORTED_ERRORS} печатаются
+ * в stderr с номером строки.
+ *
+ * Пример: --in problems.csv --out app/src/main/assets/problems.bank
+ */
+public final class BankImporter {
+
+    static final int MAX_REPORTED_ERRORS = 10;
+    // Буфер одной корзины: записи копятся и сбрасываются в файл пачкой
+    private static final int BUCKET_BUFFER = 64 * 1024;
+
+    private final ProblemParser parser = new ProblemParser();
+    private final Question question = new Question();
+    private final int[] counts = new int[ProblemBank.LEVELS * ProblemBank.OPERATIONS];
+    private final List<String> errors = new ArrayList<>();
+    private long read;
+    private long rejected;
+
+    public static void main(String[] args) throws IOException {
+        Path in = null;
+        Path out = null;
+        String format = null;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Нет значения для " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--in":
+                        in = Paths.get(value);
+                        break;
+                    case "--out":
+                        out = Paths.get(value);
+                        break;
+                    case "--format":
+                        format = value.toLowerCase(Locale.ROOT);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (in == null || out == null) {
+                throw new IllegalArgumentException("Нужны --in и --out");
+            }
+            if (format == null) {
+                format = formatOf(in);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Использование: --in <файл.csv|.json|.jsonl> --out <файл.bank> [--format csv|json]");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        BankImporter importer = new BankImporter();
+        try (Reader reader = Files.newBufferedReader(in, StandardCharsets.UTF_8)) {
+            importer.importBank(BankRecordReader.open(reader, format), out);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        for (String error : importer.errors()) {
+            System.err.println(error);
+        }
+        if (importer.rejected() > importer.errors().size()) {
+            System.err.printf(Locale.ROOT, "... и ещё %d ошибок%n", importer.rejected() - importer.errors().size());
+        }
+        System.out.printf(Locale.ROOT, "%d записей прочитано, %d в банке, %d отброшено; %s за %d мс%n",
+                importer.read(), importer.imported(), importer.rejected(), out, millis);
+        for (int level = 1; level <= ProblemBank.LEVELS; level++) {
+            StringBuilder line = new StringBuilder();
+            line.append("уровень ").append(level).append(':');
+            for (int op = 0; op < ProblemBank.OPERATIONS; op++) {
+                line.append(' ').append(LatencyStats.operationSymbol(op)).append(' ')
+                        .append(importer.count(level, op));
+            }
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Формат по расширению файла: .json и .jsonl — JSON, остальное — CSV.
+     */
+    static String formatOf(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".json") || name.endsWith(".jsonl") ? "json" : "csv";
+    }
+
+    /**
+     * Читает все записи и записывает банк в out (файл перезаписывается).
+     * Временные корзины создаются рядом с out и удаляются в конце.
+     */
+    public void importBank(BankRecordReader records, Path out) throws IOException {
+        Path dir = out.toAbsolutePath().getParent();
+        Bucket[] buckets = new Bucket[counts.length];
+        try {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new Bucket(Files.createTempFile(dir, out.getFileName().toString(), ".part"));
+            }
+            while (true) {
+                try {
+                    if (!records.next()) {
+                        break;
+                    }
+                    read++;
+                    int cell = parse(records);
+                    buckets[cell].add(question);
+                    counts[cell]++;
+                } catch (BankRecordReader.BrokenInputException e) {
+                    reject(records, e);
+                    break;
+                } catch (IllegalArgumentException e) {
+                    reject(records, e);
+                }
+            }
+
+            try (FileChannel channel = FileChannel.open(out, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = ByteBuffer.allocate(ProblemBank.HEADER_SIZE);
+                ProblemBank.writeHeader(header, counts);
+                writeFully(channel, header);
+                // Корзины в порядке ячеек индекса: уровень, затем действие
+                for (Bucket bucket : buckets) {
+                    bucket.appendTo(channel);
+                }
+            }
+        } finally {
+            for (Bucket bucket : buckets) {
+                if (bucket != null) {
+                    bucket.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Разбирает запись в question и возвращает ячейку индекса.
+     */
+    private int parse(BankRecordReader records) {
+        if (records.level == null || records.problem == null) {
+            throw new IllegalArgumentException("нужны поля level и problem");
+        }
+        int level;
+        try {
+            level = Integer.parseInt(records.level);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("уровень не число: " + records.level);
+        }
+        if (level < 1 || level > ProblemBank.LEVELS) {
+            throw new IllegalArgumentException("уровень вне 1.." + ProblemBank.LEVELS + ": " + level);
+        }
+        parser.parse(records.problem, question);
+        question.level = level;
+        if (records.answer != null) {
+            checkAnswer(records.answer);
+        }
+        return ProblemBank.cell(level, LatencyStats.operation(question));
+    }
+
+    private void checkAnswer(String answer) {
+        if (question.numeric) {
+            int expected;
+            try {
+                expected = Integer.parseInt(answer);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("ответ не число: " + answer);
+            }
+            if (expected != question.numericAnswer) {
+                throw new IllegalArgumentException("ответ " + expected + ", а должен быть " + question.numericAnswer);
+            }
+            return;
+        }
+        boolean expected;
+        switch (answer.toLowerCase(Locale.ROOT)) {
+            case "да":
+            case "true":
+            case "1":
+                expected = true;
+                break;
+            case "нет":
+            case "false":
+            case "0":
+                expected = false;
+                break;
+            default:
+                throw new IllegalArgumentException("ответ на сравнение должен быть да/нет: " + answer);
+        }
+        if (expected != question.booleanAnswer) {
+            throw new IllegalArgumentException("ответ \"" + answer + "\" неверен");
+        }
+    }
+
+    private void reject(BankRecordReader records, IllegalArgumentException e) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(records.location() + ": " + e.getMessage());
+        }
+    }
+
+    public long read() {
+        return read;
+    }
+
+    public long imported() {
+        long total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Сколько записей попало в ячейку (уровень, действие).
+     */
+    public int count(int level, int operation) {
+        return counts[ProblemBank.cell(level, operation)];
+    }
+
+    public long rejected() {
+        return rejected;
+    }
+
+    /**
+     * Первые ошибки с местом в файле.
+     */
+    public List<String> errors() {
+        return errors;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Временный файл с записями одной ячейки индекса.
+     */
+    private static final class Bucket {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUCKET_BUFFER).order(ProblemBank.ORDER);
+
+        Bucket(Path path) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void add(Question q) throws IOException {
+            if (buffer.remaining() < ProblemBank.RECORD_SIZE) {
+                flush();
+            }
+            QuestionPool.pack(q, buffer);
+        }
+
+        void appendTo(FileChannel out) throws IOException {
+            flush();
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, out);
+            }
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(channel, buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.example.projectjavaflauwa.tools;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Потоковое чтение записей банка примеров: уровень, запись примера
+ * и (необязательно) ответ методиста. Файл читается по одной записи,
+ * целиком в память не загружается.
+ */
+abstract class BankRecordReader {
+
+    // Поля текущей записи
+    String level;
+    String problem;
+    // Ответ из файла или null, если его нет
+    String answer;
+
+    /**
+     * Читает следующую запись в поля.
+     *
+     * @return false, если записей больше нет
+     * @throws IllegalArgumentException если запись испорчена (чтение можно продолжить)
+     */
+    abstract boolean next() throws IOException;
+
+    /**
+     * Где находится текущая запись, для сообщений об ошибках ("строка 12", "запись 7").
+     */
+    abstract String location();
+
+    static BankRecordReader open(Reader in, String format) {
+        switch (format) {
+            case "csv":
+                return new Csv(in);
+            case "json":
+                return new Json(in);
+            default:
+                throw new IllegalArgumentException("Неизвестный формат банка: " + format);
+        }
+    }
+
+    /**
+     * CSV со столбцами level, problem[, answer] и необязательной строкой заголовка.
+     * Разделитель — запятая или точка с запятой (определяется по первой строке);
+     * поля можно брать в кавычки, "" внутри кавычек — сама кавычка.
+     */
+    static final class Csv extends BankRecordReader {
+        private final LineReader lines;
+        private final String[] fields = new String[3];
+        private final StringBuilder field = new StringBuilder();
+        private char separator;
+        private long lineNumber;
+
+        Csv(Reader in) {
+            this.lines = new LineReader(in);
+        }
+
+        @Override
+        boolean next() throws IOException {
+            while (true) {
+                String line = lines.next();
+                if (line == null) {
+                    return false;
+                }
+                lineNumber++;
+                if (lineNumber == 1) {
+                    // BOM в начале файла из Excel
+                    if (!line.isEmpty() && line.charAt(0) == '﻿') {
+                        line = line.substring(1);
+                    }
+                    separator = line.indexOf(';') >= 0 ? ';' : ',';
+                }
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                int n = split(line);
+                if (lineNumber == 1 && fields[0].trim().equalsIgnoreCase("level")) {
+                    continue;
+                }
+                if (n < 2 || n > 3) {
+                    throw new IllegalArgumentException("ожидается 2 или 3 поля, а не " + n);
+                }
+                level = fields[0].trim();
+                problem = fields[1].trim();
+                answer = n == 3 && !fields[2].trim().isEmpty() ? fields[2].trim() : null;
+                return true;
+            }
+        }
+
+        @Override
+        String location() {
+            return "строка " + lineNumber;
+        }
+
+        private int split(String line) {
+            int n = 0;
+            int i = 0;
+            while (true) {
+                field.setLength(0);
+                boolean quoted = false;
+                boolean more = false;
+                while (i < line.length()) {
+                    char ch = line.charAt(i++);
+                    if (quoted) {
+                        if (ch != '"') {
+                            field.append(ch);
+                        } else if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else if (ch == '"') {
+                        quoted = true;
+                    } else if (ch == separator) {
+                        more = true;
+                        break;
+                    } else {
+                        field.append(ch);
+                    }
+                }
+                if (quoted) {
+                    throw new IllegalArgumentException("не закрыта кавычка");
+                }
+                if (n == fields.length) {
+                    // Лишние поля только считаем
+                    return n + 1;
+                }
+                fields[n++] = field.toString();
+                if (!more) {
+                    return n;
+                }
+            }
+        }
+    }
+
+    /**
+     * JSON: массив объектов или объекты подряд (JSON Lines). Используются поля
+     * "level" (число), "problem" (строка) и "answer" (число, строка или true/false);
+     * остальные поля пропускаются.
+     */
+    static final class Json extends BankRecordReader {
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder token = new StringBuilder();
+        private int length;
+        private int pos;
+        private long record;
+        private boolean started;
+
+        Json(Reader in) {
+            this.in = in;
+        }
+
+        @Override
+        boolean next() throws IOException {
+            int ch = skipSpaces();
+            if (!started) {
+                started = true;
+                if (ch == '[') {
+                    pos++;
+                    ch = skipSpaces();
+                }
+            }
+            // Разделители между объектами и конец массива
+            while (ch == ',' || ch == ']') {
+                pos++;
+                ch = skipSpaces();
+            }
+            if (ch < 0) {
+                return false;
+            }
+            record++;
+            if (ch != '{') {
+                throw syntax("ожидался объект");
+            }
+            pos++;
+            level = null;
+            problem = null;
+            answer = null;
+            ch = skipSpaces();
+            if (ch == '}') {
+                pos++;
+                return true;
+            }
+            while (true) {
+                expect('"');
+                String key = string();
+                expect(':');
+                switch (key) {
+                    case "level":
+                        level = scalar();
+                        break;
+                    case "problem":
+                        problem = scalar();
+                        break;
+                    case "answer":
+                        answer = scalar();
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+                ch = skipSpaces();
+                if (ch < 0) {
+                    throw syntax("файл оборвался");
+                }
+                pos++;
+                if (ch == '}') {
+                    return true;
+                }
+                if (ch != ',') {
+                    throw syntax("ожидалась ',' или '}'");
+                }
+            }
+        }
+
+        @Override
+        String location() {
+            return "запись " + record;
+        }
+
+        /**
+         * Строка, число или true/false как текст; null для null.
+         */
+        private String scalar() throws IOException {
+            int ch = skipSpaces();
+            if (ch == '"') {
+                pos++;
+                return string();
+            }
+            if (ch == '{' || ch == '[') {
+                throw syntax("ожидалось простое значение");
+            }
+            token.setLength(0);
+            while ((ch = peek()) >= 0 && ch != ',' && ch != '}' && ch != ']' && !Character.isWhitespace(ch)) {
+                token.append((char) ch);
+                pos++;
+            }
+            if (token.length() == 0) {
+                throw syntax("ожидалось значение");
+            }
+            String value = token.toString();
+            return value.equals("null") ? null : value;
+        }
+
+        private void skipValue() throws IOException {
+            int ch = skipSpaces();
+            if (ch == '{' || ch == '[') {
+                int depth = 0;
+                do {
+                    ch = peek();
+                    if (ch < 0) {
+                        throw syntax("файл оборвался");
+                    }
+                    pos++;
+                    if (ch == '"') {
+                        string();
+                    } else if (ch == '{' || ch == '[') {
+                        depth++;
+                    } else if (ch == '}' || ch == ']') {
+                        depth--;
+                    }
+                } while (depth > 0);
+            } else {
+                scalar();
+            }
+        }
+
+        // Открывающая кавычка уже прочитана
+        private String string() throws IOException {
+            token.setLength(0);
+            while (true) {
+                int ch = peek();
+                if (ch < 0) {
+                    throw syntax("не закрыта строка");
+                }
+                pos++;
+                if (ch == '"') {
+                    return token.toString();
+                }
+                if (ch != '\\') {
+                    token.append((char) ch);
+                    continue;
+                }
+                int escaped = peek();
+                pos++;
+                switch (escaped) {
+                    case 'n':
+                        token.append('\n');
+                        break;
+                    case 't':
+                        token.append('\t');
+                        break;
+                    case 'r':
+                        token.append('\r');
+                        break;
+                    case 'b':
+                        token.append('\b');
+                        break;
+                    case 'f':
+                        token.append('\f');
+                        break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(peek(), 16);
+                            if (digit < 0) {
+                                throw syntax("неверная последовательность \\u");
+                            }
+                            pos++;
+                            code = code << 4 | digit;
+                        }
+                        token.append((char) code);
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        token.append((char) escaped);
+                        break;
+                    default:
+                        throw syntax("неверная последовательность \\");
+                }
+            }
+        }
+
+        private void expect(char expected) throws IOException {
+            if (skipSpaces() != expected) {
+                throw syntax("ожидалось '" + expected + "'");
+            }
+            pos++;
+        }
+
+        private int skipSpaces() throws IOException {
+            int ch;
+            while ((ch = peek()) >= 0 && Character.isWhitespace(ch)) {
+                pos++;
+            }
+            return ch;
+        }
+
+        private int peek() throws IOException {
+            if (pos == length) {
+                length = in.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (length <= 0) {
+                    length = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos];
+        }
+
+        private IllegalArgumentException syntax(String reason) {
+            // После синтаксической ошибки в JSON продолжать чтение нельзя
+            return new BrokenInputException("ошибка JSON: " + reason);
+        }
+    }
+
+    /**
+     * Файл испорчен так, что дальше читать нельзя.
+     */
+    static final class BrokenInputException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        BrokenInputException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Построчное чтение с буфером фиксированного размера
+     * (BufferedReader.readLine, но без лишней синхронизации).
+     */
+    private static final class LineReader {
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder line = new StringBuilder();
+        private int length;
+        private int pos;
+        private boolean eof;
+
+        LineReader(Reader in) {
+            this.in = in;
+        }
+
+        String next() throws IOException {
+            line.setLength(0);
+            while (true) {
+                if (pos == length) {
+                    if (eof) {
+                        return line.length() > 0 ? line.toString() : null;
+                    }
+                    length = in.read(buffer, 0, buffer.length);
+                    pos = 0;
+                    if (length <= 0) {
+                        length = 0;
+                        eof = true;
+                        continue;
+                    }
+                }
+                char ch = buffer[pos++];
+                if (ch == '\n') {
+                    int end = line.length();
+                    if (end > 0 && line.charAt(end - 1) == '\r') {
+                        line.setLength(end - 1);
+                    }
+                    return line.toString();
+                }
+                line.append(ch);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.LatencyStats;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Модель ученика для симулятора: для каждого действия ({@link LatencyStats#OP_ADD} …
+ * {@link LatencyStats#OP_COMPARE}) — доля верных ответов и медиана времени ответа.
+ *
+ * Время ответа логнормальное: медиана × e^(σ·N(0, 1)); если оно не меньше
+ * времени на вопрос, ответ засчитывается как таймаут. Объект неизменяем;
+ * случайность берётся из переданного генератора, поэтому одна модель
+ * используется всеми потоками.
+ *
+ * Запись для командной строки: имя готовой модели (novice, average, strong)
+ * или пары доля:медиана_мс через "/" — одна пара на все действия либо по паре
+ * на каждое действие в порядке + - × ÷ сравнение, например
+ * "0.95:3000/0.9:4000/0.85:6000/0.8:8000/0.9:3500".
+ */
+public final class BotModel {
+
+    // Разброс времени ответа по умолчанию (σ логарифма)
+    public static final double DEFAULT_SIGMA = 0.5;
+
+    public static final BotModel NOVICE = new BotModel("novice",
+            new double[]{0.85, 0.75, 0.6, 0.5, 0.75},
+            new double[]{6_000, 8_000, 11_000, 13_000, 5_000}, DEFAULT_SIGMA);
+    public static final BotModel AVERAGE = new BotModel("average",
+            new double[]{0.95, 0.9, 0.85, 0.8, 0.9},
+            new double[]{3_500, 4_500, 6_000, 7_500, 3_500}, DEFAULT_SIGMA);
+    public static final BotModel STRONG = new BotModel("strong",
+            new double[]{0.99, 0.98, 0.96, 0.95, 0.97},
+            new double[]{2_000, 2_500, 3_000, 4_000, 2_000}, DEFAULT_SIGMA);
+
+    private final String name;
+    private final double[] accuracy;
+    private final double[] medianMillis;
+    private final double sigma;
+
+    /**
+     * @param accuracy     доля верных ответов по действиям (0..1)
+     * @param medianMillis медиана времени ответа по действиям в миллисекундах
+     * @param sigma        разброс времени ответа (σ логарифма), 0 — всегда ровно медиана
+     */
+    public BotModel(String name, double[] accuracy, double[] medianMillis, double sigma) {
+        if (accuracy.length != LatencyStats.OP_COUNT || medianMillis.length != LatencyStats.OP_COUNT) {
+            throw new IllegalArgumentException("Нужно по значению на каждое из "
+                    + LatencyStats.OP_COUNT + " действий");
+        }
+        for (int op = 0; op < LatencyStats.OP_COUNT; op++) {
+            if (!(accuracy[op] >= 0 && accuracy[op] <= 1)) {
+                throw new IllegalArgumentException("Доля верных ответов вне 0..1: " + accuracy[op]);
+            }
+            if (!(medianMillis[op] > 0)) {
+                throw new IllegalArgumentException("Медиана времени ответа должна быть положительной: "
+                        + medianMillis[op]);
+            }
+        }
+        if (!(sigma >= 0)) {
+            throw new IllegalArgumentException("Разброс не может быть отрицательным: " + sigma);
+        }
+        this.name = name;
+        this.accuracy = accuracy.clone();
+        this.medianMillis = medianMillis.clone();
+        this.sigma = sigma;
+    }
+
+    /**
+     * Модель по записи из командной строки (см. описание класса).
+     */
+    public static BotModel parse(String spec) {
+        switch (spec.toLowerCase(Locale.ROOT)) {
+            case "novice":
+                return NOVICE;
+            case "average":
+                return AVERAGE;
+            case "strong":
+                return STRONG;
+            default:
+                break;
+        }
+        String[] pairs = spec.split("/");
+        if (pairs.length != 1 && pairs.length != LatencyStats.OP_COUNT) {
+            throw new IllegalArgumentException("Нужна одна пара доля:мс или " + LatencyStats.OP_COUNT
+                    + " пар через '/': " + spec);
+        }
+        double[] accuracy = new double[LatencyStats.OP_COUNT];
+        double[] median = new double[LatencyStats.OP_COUNT];
+        for (int op = 0; op < LatencyStats.OP_COUNT; op++) {
+            String pair = pairs[pairs.length == 1 ? 0 : op];
+            int colon = pair.indexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Ожидается доля:мс, а не " + pair);
+            }
+            accuracy[op] = Double.parseDouble(pair.substring(0, colon));
+            median[op] = Double.parseDouble(pair.substring(colon + 1));
+        }
+        return new BotModel(spec, accuracy, median, DEFAULT_SIGMA);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public double accuracy(int operation) {
+        return accuracy[operation];
+    }
+
+    public double medianMillis(int operation) {
+        return medianMillis[operation];
+    }
+
+    /**
+     * Случайное время ответа на вопрос с действием operation, в миллисекундах.
+     */
+    public long latencyMillis(int operation, SplittableRandom random) {
+        double millis = medianMillis[operation];
+        if (sigma > 0) {
+            millis *= Math.exp(sigma * gaussian(random));
+        }
+        return Math.max(1, Math.round(millis));
+    }
+
+    /**
+     * Верен ли ответ на вопрос с действием operation.
+     */
+    public boolean answersCorrectly(int operation, SplittableRandom random) {
+        return random.nextDouble() < accuracy[operation];
+    }
+
+    /**
+     * Стандартное нормальное распределение (преобразование Бокса — Мюллера;
+     * у SplittableRandom в Java 11 нет nextGaussian).
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble(); // (0, 1], чтобы не брать логарифм нуля
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
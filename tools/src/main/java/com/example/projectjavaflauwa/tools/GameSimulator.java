@@ -0,0 +1,381 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.GameMetrics;
+import com.example.projectjavaflauwa.engine.GameRules;
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.LatencyHistogram;
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionSource;
+import com.example.projectjavaflauwa.engine.RingBufferMetrics;
+import com.example.projectjavaflauwa.engine.SeenProblems;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Симулятор игр методом Монте-Карло для подбора порогов игры.
+ *
+ * Модель ученика ({@link BotModel}) отвечает на вопросы настоящего
+ * {@link GameSession} с заданными {@link GameRules}: вопросы те же, что
+ * в приложении, а переход на уровень, таймауты и конец игры считаются
+ * тем же кодом. Игры раздаются потокам блоками по {@link #GAMES_PER_CHUNK};
+ * у каждого потока свой сеанс и свои {@link SimulationStats}, общих данных
+ * нет, кроме счётчика блоков, поэтому прогон масштабируется по ядрам.
+ * Случайность блока зависит только от (seed, номер блока), так что итог
+ * не зависит от числа потоков.
+ *
+ * Без параметров сетки — один прогон по правилам приложения. Параметры
+ * сетки принимают списки через запятую, прогоняются все сочетания, по строке
+ * CSV на сочетание:
+ *
+ * --games 1000000 --bots novice,average,strong --questions-per-level 3,5,7
+ *   --max-mistakes 3,5 --times 20/15/10/15/15,30/20/15/20/20
+ *
+ * С --metrics файл этапы игрового цикла (выдача вопроса, верный и неверный
+ * ответ, конец игры) замеряются {@link RingBufferMetrics}: последние записи
+ * выгружаются в файл, итоги по этапам печатаются в stderr.
+ */
+public final class GameSimulator {
+
+    // Игр в одном блоке работы потока
+    static final int GAMES_PER_CHUNK = 1024;
+    // По умолчанию игра прерывается после стольких вопросов (иначе сильный ученик играет бесконечно)
+    static final int DEFAULT_MAX_QUESTIONS = 1000;
+
+    private final GameRules rules;
+    private final BotModel bot;
+    private final long games;
+    private final long seed;
+    private final int threads;
+    private final int maxQuestions;
+    private final GameMetrics metrics;
+
+    public GameSimulator(GameRules rules, BotModel bot, long games, long seed, int threads, int maxQuestions) {
+        this(rules, bot, games, seed, threads, maxQuestions, GameMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics замеры этапов игрового цикла; вызываются из всех потоков сразу
+     */
+    public GameSimulator(GameRules rules, BotModel bot, long games, long seed, int threads, int maxQuestions,
+                         GameMetrics metrics) {
+        if (games < 0) {
+            throw new IllegalArgumentException("Количество игр не может быть отрицательным: " + games);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один поток: " + threads);
+        }
+        if (maxQuestions < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один вопрос в игре: " + maxQuestions);
+        }
+        this.rules = rules;
+        this.bot = bot;
+        this.games = games;
+        this.seed = seed;
+        this.threads = threads;
+        this.maxQuestions = maxQuestions;
+        this.metrics = metrics;
+    }
+
+    public static void main(String[] args) {
+        long games = 1_000_000;
+        long seed = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxQuestions = DEFAULT_MAX_QUESTIONS;
+        String bots = "average";
+        String questionsPerLevel = String.valueOf(GameRules.DEFAULT.questionsPerLevel());
+        String maxMistakes = String.valueOf(GameRules.DEFAULT.maxMistakes());
+        String times = defaultTimes();
+        File metricsFile = null;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Нет значения для " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--games":
+                        games = Long.parseLong(value);
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--max-questions":
+                        maxQuestions = Integer.parseInt(value);
+                        break;
+                    case "--bots":
+                        bots = value;
+                        break;
+                    case "--questions-per-level":
+                        questionsPerLevel = value;
+                        break;
+                    case "--max-mistakes":
+                        maxMistakes = value;
+                        break;
+                    case "--times":
+                        times = value;
+                        break;
+                    case "--metrics":
+                        metricsFile = new File(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Использование: [--games N] [--seed S] [--threads T] [--max-questions Q]"
+                    + " [--bots novice,average,strong,доля:мс,...] [--questions-per-level 5,...]"
+                    + " [--max-mistakes 3,...] [--times 20/15/10/15/15,...] [--metrics <файл>]");
+            System.exit(2);
+            return;
+        }
+
+        // Сначала разбираем всю сетку, чтобы ошибка в параметрах не всплыла посреди ночного прогона
+        List<BotModel> botModels = new ArrayList<>();
+        List<GameRules> grid = new ArrayList<>();
+        try {
+            for (String spec : bots.split(",")) {
+                botModels.add(BotModel.parse(spec));
+            }
+            for (String perLevel : questionsPerLevel.split(",")) {
+                for (String mistakes : maxMistakes.split(",")) {
+                    for (String time : times.split(",")) {
+                        grid.add(new GameRules(Integer.parseInt(perLevel), Integer.parseInt(mistakes),
+                                parseTimes(time)));
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        RingBufferMetrics ring = metricsFile != null ? new RingBufferMetrics() : null;
+        GameMetrics metrics = ring != null ? ring : GameMetrics.NOOP;
+        System.out.println(csvHeader());
+        for (BotModel bot : botModels) {
+            for (GameRules rules : grid) {
+                long start = System.nanoTime();
+                SimulationStats stats = new GameSimulator(rules, bot, games, seed, threads, maxQuestions, metrics)
+                        .run();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.println(csvRow(bot, rules, stats));
+                System.err.printf(Locale.ROOT, "%s %s: %d игр за %.2f с (%.0f игр/с)%n",
+                        bot, rules, games, seconds, games / seconds);
+            }
+        }
+        if (ring != null) {
+            try {
+                int dumped = ring.dumpTo(metricsFile);
+                Writer err = new OutputStreamWriter(System.err, StandardCharsets.UTF_8);
+                ring.writeSummaryCsv(err);
+                err.flush();
+                System.err.printf(Locale.ROOT, "%d из %d замеров этапов записано в %s%n",
+                        dumped, ring.recorded(), metricsFile);
+            } catch (IOException e) {
+                System.err.println("Замеры не записаны: " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Играет все игры и возвращает сложенные итоги потоков.
+     */
+    public SimulationStats run() {
+        long chunks = (games + GAMES_PER_CHUNK - 1) / GAMES_PER_CHUNK;
+        AtomicLong nextChunk = new AtomicLong();
+        List<Callable<SimulationStats>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(() -> {
+                Worker worker = new Worker();
+                long chunk;
+                while ((chunk = nextChunk.getAndIncrement()) < chunks) {
+                    worker.playChunk(chunk);
+                }
+                return worker.stats;
+            });
+        }
+
+        SimulationStats total = new SimulationStats();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (Future<SimulationStats> future : pool.invokeAll(workers)) {
+                total.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Симуляция прервана", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ошибка симуляции", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return total;
+    }
+
+    /**
+     * Один поток симуляции: свой сеанс, свои итоги. Генератор вопросов
+     * и случайность ученика меняются на каждом блоке.
+     */
+    private final class Worker implements QuestionSource {
+        final SimulationStats stats = new SimulationStats();
+        private final GameSession session = new GameSession(this, rules);
+        private QuestionEngine engine;
+
+        @Override
+        public void next(int level, Question out, SeenProblems seen) {
+            engine.next(level, out, seen);
+        }
+
+        void playChunk(long chunk) {
+            engine = QuestionEngine.forChunk(seed, chunk);
+            // Отдельный поток случайных чисел ученика, тоже зависящий только от (seed, chunk)
+            SplittableRandom random = new SplittableRandom(QuestionEngine.chunkSeed(~seed, chunk));
+            long from = chunk * GAMES_PER_CHUNK;
+            long to = Math.min(games, from + GAMES_PER_CHUNK);
+            for (long game = from; game < to; game++) {
+                playGame(random);
+            }
+        }
+
+        private void playGame(SplittableRandom random) {
+            long token = metrics.begin(GameMetrics.STAGE_GENERATE);
+            Question q = session.start();
+            metrics.end(GameMetrics.STAGE_GENERATE, token);
+            long clockMillis = 0;
+            int asked = 0;
+            while (true) {
+                if (asked == maxQuestions) {
+                    stats.game(session.level(), session.correctAnswers(), clockMillis, true);
+                    return;
+                }
+                asked++;
+                int level = session.level();
+                int operation = LatencyStats.operation(q);
+                long limit = session.timeForCurrentLevel();
+                long latency = bot.latencyMillis(operation, random);
+                int result;
+                int stage;
+                if (latency >= limit) {
+                    clockMillis += limit;
+                    stage = GameMetrics.STAGE_WRONG_ANSWER;
+                    token = metrics.begin(stage);
+                    result = session.timeout(limit * 1_000_000);
+                    stats.answer(level, false, true);
+                } else {
+                    clockMillis += latency;
+                    boolean right = bot.answersCorrectly(operation, random);
+                    stage = right ? GameMetrics.STAGE_CORRECT_ANSWER : GameMetrics.STAGE_WRONG_ANSWER;
+                    token = metrics.begin(stage);
+                    result = q.numeric
+                            ? session.answerNumber(right ? q.numericAnswer : q.numericAnswer + 1, latency * 1_000_000)
+                            : session.answerBoolean(right == q.booleanAnswer, latency * 1_000_000);
+                    stats.answer(level, right, false);
+                }
+                metrics.end(stage, token);
+                if ((result & GameSession.GAME_OVER) != 0) {
+                    token = metrics.begin(GameMetrics.STAGE_GAME_OVER);
+                    stats.game(session.level(), session.correctAnswers(), clockMillis, false);
+                    metrics.end(GameMetrics.STAGE_GAME_OVER, token);
+                    return;
+                }
+                token = metrics.begin(GameMetrics.STAGE_GENERATE);
+                session.nextQuestion();
+                metrics.end(GameMetrics.STAGE_GENERATE, token);
+            }
+        }
+    }
+
+    static String csvHeader() {
+        StringBuilder header = new StringBuilder(
+                "bot,questions_per_level,max_mistakes,times_s,games,capped,mean_correct,p10_correct,p50_correct,p90_correct");
+        for (int level = 2; level <= GameSession.MAX_LEVEL; level++) {
+            header.append(",reach_").append(level);
+        }
+        header.append(",timeout_share,mean_game_s,p90_game_s");
+        return header.toString();
+    }
+
+    static String csvRow(BotModel bot, GameRules rules, SimulationStats stats) {
+        LatencyHistogram correct = stats.correctPerGame();
+        LatencyHistogram seconds = stats.gameSeconds();
+        long mistakes = stats.wrong() + stats.timeouts();
+        StringBuilder row = new StringBuilder(128);
+        // Запятые в записи модели заменены, чтобы не ломать CSV
+        row.append(bot.name().replace(',', ';')).append(',')
+                .append(rules.questionsPerLevel()).append(',')
+                .append(rules.maxMistakes()).append(',')
+                .append(formatTimes(rules)).append(',')
+                .append(stats.games()).append(',')
+                .append(stats.capped()).append(',')
+                .append(String.format(Locale.ROOT, "%.2f", correct.mean())).append(',')
+                .append(correct.valueAtPercentile(10)).append(',')
+                .append(correct.valueAtPercentile(50)).append(',')
+                .append(correct.valueAtPercentile(90));
+        for (int level = 2; level <= GameSession.MAX_LEVEL; level++) {
+            row.append(',').append(String.format(Locale.ROOT, "%.4f", stats.reachedLevel(level)));
+        }
+        row.append(',').append(String.format(Locale.ROOT, "%.4f",
+                mistakes == 0 ? 0.0 : (double) stats.timeouts() / mistakes));
+        row.append(',').append(String.format(Locale.ROOT, "%.1f", seconds.mean()));
+        row.append(',').append(seconds.valueAtPercentile(90));
+        return row.toString();
+    }
+
+    /**
+     * Время на вопрос по уровням в секундах через "/", например "20/15/10/15/15".
+     */
+    static long[] parseTimes(String spec) {
+        String[] parts = spec.split("/");
+        if (parts.length != GameSession.MAX_LEVEL) {
+            throw new IllegalArgumentException("Нужно время для " + GameSession.MAX_LEVEL
+                    + " уровней через '/': " + spec);
+        }
+        long[] millis = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            millis[i] = Math.round(Double.parseDouble(parts[i]) * 1000);
+        }
+        return millis;
+    }
+
+    private static String defaultTimes() {
+        return formatTimes(GameRules.DEFAULT);
+    }
+
+    private static String formatTimes(GameRules rules) {
+        StringBuilder out = new StringBuilder();
+        for (int level = 1; level <= GameSession.MAX_LEVEL; level++) {
+            if (level > 1) {
+                out.append('/');
+            }
+            long millis = rules.timeForLevel(level);
+            if (millis % 1000 == 0) {
+                out.append(millis / 1000);
+            } else {
+                out.append(String.format(Locale.ROOT, "%.3f", millis / 1000.0));
+            }
+        }
+        return out.toString();
+    }
+}
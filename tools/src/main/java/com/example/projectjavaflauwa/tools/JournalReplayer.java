@@ -0,0 +1,125 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.GameReplay;
+import com.example.projectjavaflauwa.engine.GameRules;
+import com.example.projectjavaflauwa.engine.GameTrace;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * Повтор игр из журнала session.journal, снятого с устройства
+ * (adb pull /data/data/.../files/session.journal): каждая игра
+ * проигрывается заново движком ({@link GameReplay}) и сверяется с записью.
+ * Продолжение отложенной игры ученика (общий планшет) печатается отдельной игрой.
+ *
+ * Печатает по строке на игру и итог; код выхода 1, если хоть одна игра
+ * разошлась с записью. С --repeat журнал повторяется несколько раз подряд —
+ * для замера скорости повтора.
+ *
+ * Пример: --journal session.journal --bank ../app/src/main/assets/problems.bank
+ */
+public final class JournalReplayer {
+
+    private JournalReplayer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File journal = null;
+        File bankFile = null;
+        int repeat = 1;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Нет значения для " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--journal":
+                        journal = new File(value);
+                        break;
+                    case "--bank":
+                        bankFile = new File(value);
+                        break;
+                    case "--repeat":
+                        repeat = Integer.parseInt(value);
+                        if (repeat < 1) {
+                            throw new IllegalArgumentException("--repeat должен быть положительным");
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+            }
+            if (journal == null) {
+                throw new IllegalArgumentException("Нужен --journal");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Использование: --journal <session.journal> [--bank <файл.bank>] [--repeat N]");
+            System.exit(2);
+            return;
+        }
+
+        GameTrace trace = GameTrace.read(journal);
+        ByteBuffer bank = bankFile != null ? map(bankFile) : null;
+        GameReplay replay = new GameReplay(GameRules.DEFAULT, bank);
+
+        int games = 0;
+        int diverged = 0;
+        int unfinished = 0;
+        int unverified = 0;
+        for (int i = trace.nextGame(0); i < trace.size(); games++) {
+            int start = i;
+            i = replay.replayGame(trace, start);
+            if (!replay.ok()) {
+                diverged++;
+                System.out.printf(Locale.ROOT, "игра %d (событие %d): РАСХОЖДЕНИЕ на событии %d: %s%n",
+                        games + 1, start, replay.divergedAt(), replay.reason());
+                continue;
+            }
+            if (!replay.verified()) {
+                unverified++;
+                System.out.printf(Locale.ROOT, "игра %d (событие %d): не проверена: %s%n",
+                        games + 1, start, replay.reason());
+                continue;
+            }
+            if (!replay.finished()) {
+                unfinished++;
+            }
+            System.out.printf(Locale.ROOT, "игра %d (событие %d): OK, %d вопросов, счёт %d, %.1f с%s%n",
+                    games + 1, start, replay.questions(), replay.session().correctAnswers(),
+                    replay.virtualNanos() / 1e9, replay.finished() ? "" : " (не окончена)");
+        }
+        System.out.printf(Locale.ROOT, "%d событий, %d игр: %d совпали, %d разошлись, %d не проверены"
+                        + " (%d не окончены)%n",
+                trace.size(), games, games - diverged - unverified, diverged, unverified, unfinished);
+
+        if (repeat > 1 && games > 0) {
+            long start = System.nanoTime();
+            for (int r = 0; r < repeat; r++) {
+                replay.forgetSuspended();
+                for (int i = trace.nextGame(0); i < trace.size(); ) {
+                    i = replay.replayGame(trace, i);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf(Locale.ROOT, "%d повторов: %.0f игр/с, %.0f событий/с%n",
+                    repeat, games * (double) repeat / seconds, trace.size() * (double) repeat / seconds);
+        }
+        if (diverged > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
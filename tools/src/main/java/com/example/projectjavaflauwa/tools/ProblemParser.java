@@ -0,0 +1,274 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.ExpressionProgram;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionTemplate;
+
+/**
+ * Разбор записи примера из банка методистов в {@link Question}.
+ *
+ * Понимает записи вида "12 + 7", "12 + 7 = ?", "(3 + 4) × 2", "48 ÷ 6 - 3"
+ * (числовой ответ) и "5 + 6 < 10", "9 - 4 = 5 ?" (вопрос «да/нет»).
+ * Знаки: + - − × * x х · ÷ / : и скобки; числа — целые неотрицательные.
+ *
+ * Выражение сначала компилируется в {@link ExpressionProgram}. Если оно
+ * совпадает с одним из шаблонов приложения (a + b, a - b, a × b, a ÷ b,
+ * a + b + c, a + b - c, (a + b) × c), вопрос записывается этим шаблоном,
+ * иначе — упакованным выражением {@link QuestionTemplate#EXPRESSION}.
+ * Деление должно быть нацело, а значения — помещаться в поля вопроса;
+ * иначе бросается {@link IllegalArgumentException} с причиной.
+ *
+ * Объект переиспользуется для всех строк файла, не потокобезопасен.
+ */
+final class ProblemParser {
+
+    // Наибольшее число в шаблонных полях a, b, c и в правой части сравнения (16 бит со знаком)
+    static final int MAX_FIELD = Short.MAX_VALUE;
+
+    private final ExpressionProgram program = new ExpressionProgram(8);
+    private CharSequence text;
+    private int pos;
+
+    /**
+     * Разбирает запись и заполняет все поля q, кроме уровня.
+     */
+    void parse(CharSequence problem, Question q) {
+        text = problem;
+        pos = 0;
+        program.clear();
+        long value = expression();
+        skipSpaces();
+
+        int comparator = -1;
+        long right = 0;
+        if (pos < text.length()) {
+            char ch = text.charAt(pos);
+            if (ch == '<' || ch == '>' || ch == '=') {
+                pos++;
+                skipSpaces();
+                if (ch == '=' && (pos == text.length() || text.charAt(pos) == '?')) {
+                    // "12 + 7 = ?" — обычный числовой пример
+                    pos = text.length();
+                } else {
+                    comparator = ch == '<' ? QuestionTemplate.LESS
+                            : ch == '>' ? QuestionTemplate.GREATER : QuestionTemplate.EQUAL;
+                    right = number();
+                    skipSpaces();
+                    if (pos < text.length() && text.charAt(pos) == '?') {
+                        pos++;
+                        skipSpaces();
+                    }
+                }
+            }
+        }
+        if (pos != text.length()) {
+            throw error("лишние символы");
+        }
+        if (program.operatorCount() == 0) {
+            throw error("нет ни одного действия");
+        }
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("ответ не помещается в int");
+        }
+
+        writeTemplate(q);
+        if (comparator < 0) {
+            q.numeric = true;
+            q.numericAnswer = (int) value;
+            q.comparator = 0;
+            q.rightValue = 0;
+            q.booleanAnswer = false;
+        } else {
+            if (right > MAX_FIELD) {
+                throw error("правая часть сравнения больше " + MAX_FIELD);
+            }
+            q.numeric = false;
+            q.numericAnswer = 0;
+            q.comparator = comparator;
+            q.rightValue = (int) right;
+            q.booleanAnswer = comparator == QuestionTemplate.LESS ? value < right
+                    : comparator == QuestionTemplate.GREATER ? value > right : value == right;
+        }
+    }
+
+    /**
+     * Подбирает шаблон приложения по постфиксной программе.
+     */
+    private void writeTemplate(Question q) {
+        int length = program.length();
+        int template = -1;
+        if (length == 3) {
+            template = simpleTemplate(op(2));
+        } else if (length == 5 && op(2) == ExpressionProgram.ADD && isPush(3)) {
+            // (a + b) ○ c: a b + c ○
+            switch (op(4)) {
+                case ExpressionProgram.ADD:
+                    template = QuestionTemplate.ADD_ADD;
+                    break;
+                case ExpressionProgram.SUB:
+                    template = QuestionTemplate.ADD_SUB;
+                    break;
+                case ExpressionProgram.MUL:
+                    template = QuestionTemplate.SUM_MUL;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (template >= 0 && fitsFields()) {
+            q.template = template;
+            q.a = operand(0);
+            q.b = operand(1);
+            q.c = length == 5 ? operand(3) : 0;
+            return;
+        }
+        if (!program.fitsQuestion()) {
+            throw error("не больше " + ExpressionProgram.MAX_PACKED_OPERATORS
+                    + " действий с числами до " + ExpressionProgram.MAX_PACKED_OPERAND);
+        }
+        program.writeTo(q);
+    }
+
+    private static int simpleTemplate(int op) {
+        switch (op) {
+            case ExpressionProgram.ADD:
+                return QuestionTemplate.ADD;
+            case ExpressionProgram.SUB:
+                return QuestionTemplate.SUB;
+            case ExpressionProgram.MUL:
+                return QuestionTemplate.MUL;
+            default:
+                return QuestionTemplate.DIV;
+        }
+    }
+
+    private boolean fitsFields() {
+        for (int i = 0; i < program.length(); i++) {
+            if (isPush(i) && operand(i) > MAX_FIELD) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isPush(int i) {
+        return (program.instruction(i) & ((1 << ExpressionProgram.OP_BITS) - 1)) == ExpressionProgram.PUSH;
+    }
+
+    private int op(int i) {
+        return isPush(i) ? -1 : program.instruction(i);
+    }
+
+    private int operand(int i) {
+        return program.instruction(i) >> ExpressionProgram.OP_BITS;
+    }
+
+    // expression := term (('+' | '-') term)*
+    private long expression() {
+        long value = term();
+        while (true) {
+            skipSpaces();
+            if (pos == text.length()) {
+                return value;
+            }
+            char ch = text.charAt(pos);
+            if (ch == '+') {
+                pos++;
+                value = checked(value + term());
+                program.operator(ExpressionProgram.ADD);
+            } else if (ch == '-' || ch == '−' || ch == '–') {
+                pos++;
+                value = checked(value - term());
+                program.operator(ExpressionProgram.SUB);
+            } else {
+                return value;
+            }
+        }
+    }
+
+    // term := factor (('×' | '÷') factor)*
+    private long term() {
+        long value = factor();
+        while (true) {
+            skipSpaces();
+            if (pos == text.length()) {
+                return value;
+            }
+            char ch = text.charAt(pos);
+            if (ch == '×' || ch == '*' || ch == 'x' || ch == 'х' || ch == '·') {
+                pos++;
+                value = checked(value * factor());
+                program.operator(ExpressionProgram.MUL);
+            } else if (ch == '÷' || ch == '/' || ch == ':') {
+                pos++;
+                long divisor = factor();
+                if (divisor == 0) {
+                    throw error("деление на ноль");
+                }
+                if (value % divisor != 0) {
+                    throw error("деление не нацело: " + value + " ÷ " + divisor);
+                }
+                value /= divisor;
+                program.operator(ExpressionProgram.DIV);
+            } else {
+                return value;
+            }
+        }
+    }
+
+    // factor := number | '(' expression ')'
+    private long factor() {
+        skipSpaces();
+        if (pos < text.length() && text.charAt(pos) == '(') {
+            pos++;
+            long value = expression();
+            skipSpaces();
+            if (pos == text.length() || text.charAt(pos) != ')') {
+                throw error("нет закрывающей скобки");
+            }
+            pos++;
+            return value;
+        }
+        long value = number();
+        // Число хранится в инструкции со сдвигом на OP_BITS
+        if (value > Integer.MAX_VALUE >> ExpressionProgram.OP_BITS) {
+            throw error("слишком большое число: " + value);
+        }
+        program.push((int) value);
+        return value;
+    }
+
+    private long number() {
+        skipSpaces();
+        int from = pos;
+        long value = 0;
+        while (pos < text.length() && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            if (pos - from == 9) {
+                throw error("слишком длинное число");
+            }
+            value = value * 10 + (text.charAt(pos) - '0');
+            pos++;
+        }
+        if (pos == from) {
+            throw error("ожидалось число");
+        }
+        return value;
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private long checked(long value) {
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw error("промежуточное значение не помещается в int");
+        }
+        return value;
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException(reason + " (позиция " + (pos + 1) + " в \"" + text + "\")");
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.LatencyHistogram;
+
+/**
+ * Итоги симуляции: распределения исходов сыгранных игр.
+ *
+ * Каждый поток симулятора копит свои итоги без синхронизации, после прогона
+ * они складываются через {@link #add(SimulationStats)}. Сложение
+ * ассоциативно и коммутативно, поэтому итог не зависит ни от числа потоков,
+ * ни от того, какой поток какие игры сыграл.
+ */
+public final class SimulationStats {
+
+    private long games;
+    private long questions;
+    private long correct;
+    private long wrong;
+    private long timeouts;
+    // Игры, прерванные по лимиту вопросов (ученик почти не ошибается)
+    private long capped;
+    // Сколько игр закончилось на каждом уровне (индекс — уровень)
+    private final long[] finalLevel = new long[GameSession.MAX_LEVEL + 1];
+    // Ошибки (неверные ответы и таймауты) по уровням
+    private final long[] mistakesOnLevel = new long[GameSession.MAX_LEVEL + 1];
+    // Правильных ответов за игру: до 128 точно, дальше с точностью около 1%
+    private final LatencyHistogram correctPerGame = new LatencyHistogram(1 << 20, 7);
+    // Длительность игры в секундах (сумма времени ответов)
+    private final LatencyHistogram gameSeconds = new LatencyHistogram(1 << 24, 5);
+
+    /**
+     * Учитывает один ответ (или таймаут) на уровне level.
+     */
+    void answer(int level, boolean isCorrect, boolean isTimeout) {
+        questions++;
+        if (isCorrect) {
+            correct++;
+            return;
+        }
+        if (isTimeout) {
+            timeouts++;
+        } else {
+            wrong++;
+        }
+        mistakesOnLevel[level]++;
+    }
+
+    /**
+     * Учитывает законченную игру.
+     *
+     * @param wasCapped игра прервана по лимиту вопросов, а не по ошибкам
+     */
+    void game(int level, int correctAnswers, long durationMillis, boolean wasCapped) {
+        games++;
+        finalLevel[level]++;
+        correctPerGame.record(correctAnswers);
+        gameSeconds.record(durationMillis / 1000);
+        if (wasCapped) {
+            capped++;
+        }
+    }
+
+    /**
+     * Прибавляет итоги другого потока.
+     */
+    public void add(SimulationStats other) {
+        games += other.games;
+        questions += other.questions;
+        correct += other.correct;
+        wrong += other.wrong;
+        timeouts += other.timeouts;
+        capped += other.capped;
+        for (int level = 0; level < finalLevel.length; level++) {
+            finalLevel[level] += other.finalLevel[level];
+            mistakesOnLevel[level] += other.mistakesOnLevel[level];
+        }
+        correctPerGame.add(other.correctPerGame);
+        gameSeconds.add(other.gameSeconds);
+    }
+
+    public long games() {
+        return games;
+    }
+
+    public long questions() {
+        return questions;
+    }
+
+    public long correct() {
+        return correct;
+    }
+
+    public long wrong() {
+        return wrong;
+    }
+
+    public long timeouts() {
+        return timeouts;
+    }
+
+    public long capped() {
+        return capped;
+    }
+
+    /**
+     * Сколько игр закончилось на уровне level.
+     */
+    public long finishedOnLevel(int level) {
+        return finalLevel[level];
+    }
+
+    /**
+     * Доля игр, в которых ученик дошёл хотя бы до уровня level.
+     */
+    public double reachedLevel(int level) {
+        long reached = 0;
+        for (int l = level; l < finalLevel.length; l++) {
+            reached += finalLevel[l];
+        }
+        return games == 0 ? 0 : (double) reached / games;
+    }
+
+    /**
+     * Ошибки и таймауты на уровне level.
+     */
+    public long mistakesOnLevel(int level) {
+        return mistakesOnLevel[level];
+    }
+
+    public LatencyHistogram correctPerGame() {
+        return correctPerGame;
+    }
+
+    public LatencyHistogram gameSeconds() {
+        return gameSeconds;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.projectjavaflauwa.tools;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Кодирование текста в UTF-8 прямо в ByteBuffer, без промежуточных byte[].
+ */
+final class Utf8 {
+
+    private Utf8() {
+    }
+
+    static void put(CharSequence s, ByteBuffer out) {
+        int n = s.length();
+        for (int i = 0; i < n; i++) {
+            char ch = s.charAt(i);
+            if (ch < 0x80) {
+                out.put((byte) ch);
+            } else if (ch < 0x800) {
+                out.put((byte) (0xC0 | ch >> 6));
+                out.put((byte) (0x80 | ch & 0x3F));
+            } else if (Character.isHighSurrogate(ch) && i + 1 < n
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(ch, s.charAt(++i));
+                out.put((byte) (0xF0 | cp >> 18));
+                out.put((byte) (0x80 | cp >> 12 & 0x3F));
+                out.put((byte) (0x80 | cp >> 6 & 0x3F));
+                out.put((byte) (0x80 | cp & 0x3F));
+            } else {
+                out.put((byte) (0xE0 | ch >> 12));
+                out.put((byte) (0x80 | ch >> 6 & 0x3F));
+                out.put((byte) (0x80 | ch & 0x3F));
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionPool;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Формат файла рабочего листа.
+ *
+ * Каждый формат кодирует вопрос прямо в ByteBuffer, без промежуточных строк.
+ */
+public enum WorksheetFormat {
+
+    /**
+     * Текст для печати: "12. 7 + 5 = ?".
+     */
+    TEXT {
+        @Override
+        void encode(long number, Question q, TextBuffer text, ByteBuffer out) {
+            text.clear();
+            appendNumber(text, number).append(". ");
+            q.appendText(text);
+            text.append('\n');
+            Utf8.put(text, out);
+        }
+    },
+
+    /**
+     * CSV: номер, уровень, тип, текст вопроса, правильный ответ.
+     */
+    CSV {
+        @Override
+        void header(ByteBuffer out, long count, int level, long seed) {
+            Utf8.put("number,level,type,question,answer\n", out);
+        }
+
+        @Override
+        void encode(long number, Question q, TextBuffer text, ByteBuffer out) {
+            text.clear();
+            appendNumber(text, number).append(',').append(q.level).append(',')
+                    .append(q.numeric ? "numeric" : "boolean").append(",\"");
+            q.appendText(text);
+            text.append("\",");
+            if (q.numeric) {
+                text.append(q.numericAnswer);
+            } else {
+                text.append(q.booleanAnswer ? "да" : "нет");
+            }
+            text.append('\n');
+            Utf8.put(text, out);
+        }
+    },
+
+    /**
+     * Компактный двоичный формат: заголовок и слоты {@link QuestionPool}
+     * по {@link QuestionPool#STRIDE} int (little-endian) на вопрос.
+     */
+    BINARY {
+        @Override
+        void header(ByteBuffer out, long count, int level, long seed) {
+            out.putInt(MAGIC).putInt(VERSION).putLong(count).putInt(level).putLong(seed);
+        }
+
+        @Override
+        void encode(long number, Question q, TextBuffer text, ByteBuffer out) {
+            QuestionPool.pack(q, out);
+        }
+    };
+
+    // "MQB1" — признак двоичного файла рабочего листа
+    public static final int MAGIC = 0x4D514231;
+    public static final int VERSION = 1;
+    // Размер заголовка двоичного формата в байтах
+    public static final int BINARY_HEADER_SIZE = 4 + 4 + 8 + 4 + 8;
+    // Верхняя граница размера одного закодированного вопроса в байтах
+    static final int MAX_RECORD_BYTES = 256;
+
+    /**
+     * Заголовок файла (по умолчанию его нет).
+     */
+    void header(ByteBuffer out, long count, int level, long seed) {
+    }
+
+    /**
+     * Кодирует вопрос с порядковым номером number в out.
+     */
+    abstract void encode(long number, Question q, TextBuffer text, ByteBuffer out);
+
+    private static TextBuffer appendNumber(TextBuffer text, long number) {
+        if (number <= Integer.MAX_VALUE) {
+            return text.append((int) number);
+        }
+        return text.append(Long.toString(number));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.TextBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Офлайн-генератор рабочих листов для печати.
+ *
+ * Вопросы генерируются блоками по {@link QuestionEngine#CHUNK_SIZE} в ForkJoinPool,
+ * каждый блок кодируется в свой большой direct ByteBuffer, а готовые блоки
+ * по порядку записываются в FileChannel. Одновременно в работе не больше
+ * window блоков, поэтому память ограничена независимо от числа вопросов.
+ *
+ * Пример: --count 10000000 --level 2 --seed 1 --format csv --out sheet.csv
+ */
+public final class WorksheetGenerator {
+
+    // Размер буфера одного блока: худший случай на вопрос × размер блока
+    static final int BUFFER_SIZE = WorksheetFormat.MAX_RECORD_BYTES * QuestionEngine.CHUNK_SIZE;
+
+    private final long count;
+    private final int level;
+    private final long seed;
+    private final WorksheetFormat format;
+    private final int threads;
+
+    public WorksheetGenerator(long count, int level, long seed, WorksheetFormat format, int threads) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Количество вопросов не может быть отрицательным: " + count);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("Нужен хотя бы один поток: " + threads);
+        }
+        checkLevel(level);
+        this.count = count;
+        this.level = level;
+        this.seed = seed;
+        this.format = format;
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws IOException {
+        long count = 1_000_000;
+        int level = 1;
+        long seed = System.nanoTime();
+        WorksheetFormat format = WorksheetFormat.TEXT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path out = null;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                switch (args[i]) {
+                    case "--count":
+                        count = Long.parseLong(value);
+                        break;
+                    case "--level":
+                        level = checkLevel(Integer.parseInt(value));
+                        break;
+                    case "--seed":
+                        seed = Long.parseLong(value);
+                        break;
+                    case "--format":
+                        format = WorksheetFormat.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(value);
+                        break;
+                    case "--out":
+                        out = Paths.get(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+                }
+                i++;
+            }
+            if (out == null) {
+                throw new IllegalArgumentException("Не задан --out");
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Использование: --out <файл> [--count N] [--level 1..5] [--seed S]"
+                    + " [--format text|csv|binary] [--threads T]");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        new WorksheetGenerator(count, level, seed, format, threads).writeTo(out);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.printf(Locale.ROOT, "%d вопросов (seed %d) записано в %s за %d мс%n",
+                count, seed, out, millis);
+    }
+
+    private static int checkLevel(int level) {
+        if (level < 1 || level > GameSession.MAX_LEVEL) {
+            throw new IllegalArgumentException("Уровень должен быть от 1 до " + GameSession.MAX_LEVEL
+                    + ": " + level);
+        }
+        return level;
+    }
+
+    /**
+     * Генерирует все вопросы и записывает их в файл (файл перезаписывается).
+     */
+    public void writeTo(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeTo(channel);
+        }
+    }
+
+    /**
+     * Генерирует все вопросы и последовательно пишет их в канал.
+     */
+    public void writeTo(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(WorksheetFormat.BINARY_HEADER_SIZE + 64)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        format.header(header, count, level, seed);
+        header.flip();
+        writeFully(channel, header);
+
+        long chunks = (count + QuestionEngine.CHUNK_SIZE - 1) / QuestionEngine.CHUNK_SIZE;
+        // Несколько блоков на поток, чтобы потоки не простаивали, пока идёт запись
+        int window = (int) Math.min(chunks, threads * 4L);
+        ByteBuffer[] buffers = new ByteBuffer[window];
+        List<ForkJoinTask<ByteBuffer>> tasks = new ArrayList<>(window);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            for (int i = 0; i < window; i++) {
+                buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                tasks.add(pool.submit(new ChunkTask(i, buffers[i])));
+            }
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                int slot = (int) (chunk % window);
+                ByteBuffer ready = tasks.get(slot).get();
+                ready.flip();
+                writeFully(channel, ready);
+                // Освободившийся буфер сразу отдаём блоку, который на window впереди
+                long next = chunk + window;
+                if (next < chunks) {
+                    tasks.set(slot, pool.submit(new ChunkTask(next, ready)));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Генерация прервана", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Ошибка генерации", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Генерация и кодирование одного блока в переданный буфер.
+     */
+    private final class ChunkTask implements Callable<ByteBuffer> {
+        private final long chunk;
+        private final ByteBuffer buffer;
+
+        ChunkTask(long chunk, ByteBuffer buffer) {
+            this.chunk = chunk;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public ByteBuffer call() {
+            buffer.clear();
+            QuestionEngine engine = QuestionEngine.forChunk(seed, chunk);
+            Question q = new Question();
+            TextBuffer text = new TextBuffer(128);
+            long from = chunk * QuestionEngine.CHUNK_SIZE;
+            long to = Math.min(count, from + QuestionEngine.CHUNK_SIZE);
+            for (long i = from; i < to; i++) {
+                engine.next(level, q);
+                format.encode(i + 1, q, text, buffer);
+            }
+            return buffer;
+        }
+    }
+}
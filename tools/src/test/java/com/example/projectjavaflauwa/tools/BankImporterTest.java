@@ -0,0 +1,178 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.ProblemBank;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionTemplate;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки импорта банка примеров и разбора записей.
+ */
+public class BankImporterTest {
+
+    @Test
+    public void parser_mapsToAppTemplates() {
+        ProblemParser parser = new ProblemParser();
+        Question q = new Question();
+
+        parser.parse("12 + 7 = ?", q);
+        assertEquals(QuestionTemplate.ADD, q.template);
+        assertEquals(19, q.numericAnswer);
+
+        parser.parse("(3 + 4) × 2", q);
+        assertEquals(QuestionTemplate.SUM_MUL, q.template);
+        assertEquals(14, q.numericAnswer);
+
+        parser.parse("10 + 5 − 20", q);
+        assertEquals(QuestionTemplate.ADD_SUB, q.template);
+        assertEquals(-5, q.numericAnswer);
+
+        parser.parse("48 : 6", q);
+        assertEquals(QuestionTemplate.DIV, q.template);
+        assertEquals(8, q.numericAnswer);
+
+        // Не шаблон приложения — упакованное выражение
+        parser.parse("2 + 3 × 4 - 6", q);
+        assertEquals(QuestionTemplate.EXPRESSION, q.template);
+        assertEquals(8, q.numericAnswer);
+        assertEquals(LatencyStats.OP_SUB, LatencyStats.operation(q));
+
+        parser.parse("5 + 6 < 10 ?", q);
+        assertFalse(q.numeric);
+        assertEquals(QuestionTemplate.LESS, q.comparator);
+        assertEquals(10, q.rightValue);
+        assertFalse(q.booleanAnswer);
+    }
+
+    @Test
+    public void parser_rejectsBadProblems() {
+        ProblemParser parser = new ProblemParser();
+        Question q = new Question();
+        String[] bad = {"7 : 2", "5 ÷ 0", "12", "(1 + 2", "1 + + 2", "3 + 4 = 7 кг", "1 + 2 + 3 + 4 + 5 + 6"};
+        for (String problem : bad) {
+            try {
+                parser.parse(problem, q);
+                fail("Должно быть отклонено: " + problem);
+            } catch (IllegalArgumentException expected) {
+                // ожидаемо
+            }
+        }
+    }
+
+    @Test
+    public void csv_roundTripsThroughBank() throws IOException {
+        String csv = "level;problem;answer\n"
+                + "1;3 + 4;7\n"
+                + "1;\"9 - 2\";\n"
+                + "2;6 × 7;42\n"
+                + "2;8 + 8;15\n"
+                + "9;1 + 1;2\n"
+                + "3;\"(2 + 3) × 4 > 19\";да\n"
+                + "\n"
+                + "4;2 + 3 × 4;14\r\n";
+        Path out = Files.createTempFile("bank", ".bank");
+        try {
+            BankImporter importer = new BankImporter();
+            importer.importBank(BankRecordReader.open(new StringReader(csv), "csv"), out);
+            assertEquals(7, importer.read());
+            assertEquals(5, importer.imported());
+            assertEquals(2, importer.rejected());
+            assertTrue(importer.errors().get(0), importer.errors().get(0).startsWith("строка 5:"));
+            assertTrue(importer.errors().get(1), importer.errors().get(1).startsWith("строка 6:"));
+
+            ProblemBank bank = ProblemBank.map(out.toFile(), new SplittableRandom(1), null);
+            assertEquals(5, bank.count());
+            assertEquals(2, bank.count(1));
+            assertEquals(1, bank.count(1, LatencyStats.OP_SUB));
+            assertEquals(1, bank.count(3, LatencyStats.OP_COMPARE));
+
+            // Записи отсортированы по уровню, затем по действию
+            Question q = new Question();
+            bank.read(0, q);
+            assertEquals("3 + 4 = ?", q.getText());
+            bank.read(1, q);
+            assertEquals(1, q.level);
+            assertEquals(7, q.numericAnswer);
+            bank.read(3, q);
+            assertEquals(3, q.level);
+            assertTrue(q.booleanAnswer);
+            bank.read(4, q);
+            assertEquals(QuestionTemplate.EXPRESSION, q.template);
+            assertEquals(14, q.numericAnswer);
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    @Test
+    public void json_readsArrayAndLines() throws IOException {
+        String array = "[{\"id\": 1, \"level\": 2, \"problem\": \"30 \\u00f7 5\", \"answer\": 6,"
+                + " \"tags\": [\"a\", {\"b\": \"}\"}]},\n"
+                + " {\"level\": 2, \"problem\": \"4 + 4 = 8 ?\", \"answer\": true},\n"
+                + " {\"level\": 2, \"answer\": 1}]";
+        String lines = "{\"level\": 1, \"problem\": \"2 + 2\"}\n{\"level\": 1, \"problem\": \"5 - 1\"}\n";
+        Path out = Files.createTempFile("bank", ".bank");
+        try {
+            BankImporter importer = new BankImporter();
+            importer.importBank(BankRecordReader.open(new StringReader(array), "json"), out);
+            assertEquals(2, importer.imported());
+            assertEquals(1, importer.rejected());
+            assertEquals(1, importer.count(2, LatencyStats.OP_DIV));
+            assertEquals(1, importer.count(2, LatencyStats.OP_COMPARE));
+
+            importer = new BankImporter();
+            importer.importBank(BankRecordReader.open(new StringReader(lines), "json"), out);
+            assertEquals(2, importer.imported());
+            assertEquals(0, importer.rejected());
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    @Test
+    public void brokenJson_stopsAndKeepsEarlierRecords() throws IOException {
+        String json = "[{\"level\": 1, \"problem\": \"1 + 2\"}, {\"level\": 1 \"problem\": \"2 + 2\"}, "
+                + "{\"level\": 1, \"problem\": \"3 + 2\"}]";
+        Path out = Files.createTempFile("bank", ".bank");
+        try {
+            BankImporter importer = new BankImporter();
+            importer.importBank(BankRecordReader.open(new StringReader(json), "json"), out);
+            assertEquals(1, importer.imported());
+            assertEquals(1, importer.rejected());
+            assertTrue(importer.errors().get(0), importer.errors().get(0).startsWith("запись 2: ошибка JSON"));
+            assertEquals(1, ProblemBank.map(out.toFile(), new SplittableRandom(1), null).count());
+        } finally {
+            Files.deleteIfExists(out);
+        }
+    }
+
+    @Test
+    public void generatedProblems_parseBackToSameQuestion() {
+        // Текст любого сгенерированного вопроса (кроме картинок с фруктами) разбирается обратно
+        QuestionEngine engine = new QuestionEngine(5);
+        ProblemParser parser = new ProblemParser();
+        Question generated = new Question();
+        Question parsed = new Question();
+        for (int level = 2; level <= ProblemBank.LEVELS; level++) {
+            for (int i = 0; i < 2_000; i++) {
+                engine.next(level, generated);
+                parser.parse(generated.getText(), parsed);
+                parsed.level = level;
+                assertEquals(generated.getText(), parsed.getText());
+                assertEquals(generated.numeric, parsed.numeric);
+                assertEquals(generated.getCorrectAnswerText(), parsed.getCorrectAnswerText());
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.GameMetrics;
+import com.example.projectjavaflauwa.engine.GameRules;
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.LatencyStats;
+import com.example.projectjavaflauwa.engine.RingBufferMetrics;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GameSimulatorTest {
+
+    private static final int GAMES = 3 * GameSimulator.GAMES_PER_CHUNK + 100;
+
+    @Test
+    public void result_doesNotDependOnThreadCount() {
+        SimulationStats one = new GameSimulator(GameRules.DEFAULT, BotModel.AVERAGE, GAMES, 7, 1, 1000).run();
+        SimulationStats four = new GameSimulator(GameRules.DEFAULT, BotModel.AVERAGE, GAMES, 7, 4, 1000).run();
+
+        assertEquals(GAMES, one.games());
+        assertEquals(one.questions(), four.questions());
+        assertEquals(one.correct(), four.correct());
+        assertEquals(one.timeouts(), four.timeouts());
+        for (int level = 1; level <= GameSession.MAX_LEVEL; level++) {
+            assertEquals(one.finishedOnLevel(level), four.finishedOnLevel(level));
+            assertEquals(one.mistakesOnLevel(level), four.mistakesOnLevel(level));
+        }
+        assertEquals(one.gameSeconds().mean(), four.gameSeconds().mean(), 0.0);
+        // Каждая законченная по ошибкам игра — ровно maxMistakes ошибок
+        assertEquals((one.games() - one.capped()) * GameRules.DEFAULT.maxMistakes(),
+                one.wrong() + one.timeouts());
+    }
+
+    @Test
+    public void botThatAlwaysErrs_losesOnFirstLevel() {
+        BotModel bot = constantBot(0.0, 1_000);
+        SimulationStats stats = new GameSimulator(GameRules.DEFAULT, bot, 500, 1, 2, 1000).run();
+        assertEquals(500, stats.finishedOnLevel(1));
+        assertEquals(500L * GameRules.DEFAULT.maxMistakes(), stats.questions());
+        assertEquals(0, stats.timeouts());
+        assertEquals(0.0, stats.reachedLevel(2), 0.0);
+    }
+
+    @Test
+    public void slowBot_timesOutEveryQuestion() {
+        BotModel bot = constantBot(1.0, 60_000);
+        SimulationStats stats = new GameSimulator(GameRules.DEFAULT, bot, 100, 1, 1, 1000).run();
+        assertEquals(stats.questions(), stats.timeouts());
+        // Три таймаута по 20 секунд первого уровня
+        assertEquals(60, stats.gameSeconds().max());
+    }
+
+    @Test
+    public void perfectBot_isCappedAtTopLevel() {
+        BotModel bot = constantBot(1.0, 1_000);
+        GameRules rules = new GameRules(2, 3, new long[]{20_000, 15_000, 10_000, 15_000, 15_000});
+        SimulationStats stats = new GameSimulator(rules, bot, 50, 1, 2, 40).run();
+        assertEquals(50, stats.capped());
+        assertEquals(50, stats.finishedOnLevel(GameSession.MAX_LEVEL));
+        assertEquals(40, stats.correctPerGame().max());
+        assertEquals(1.0, stats.reachedLevel(GameSession.MAX_LEVEL), 0.0);
+    }
+
+    @Test
+    public void botSpec_parsesPresetsAndPerOperationPairs() {
+        assertSame(BotModel.NOVICE, BotModel.parse("novice"));
+        BotModel all = BotModel.parse("0.9:4000");
+        for (int op = 0; op < LatencyStats.OP_COUNT; op++) {
+            assertEquals(0.9, all.accuracy(op), 0.0);
+            assertEquals(4000, all.medianMillis(op), 0.0);
+        }
+        BotModel perOp = BotModel.parse("1:100/0.9:200/0.8:300/0.7:400/0.6:500");
+        assertEquals(0.7, perOp.accuracy(LatencyStats.OP_DIV), 0.0);
+        assertEquals(500, perOp.medianMillis(LatencyStats.OP_COMPARE), 0.0);
+        try {
+            BotModel.parse("1.5:100");
+            fail("Доля верных ответов больше 1");
+        } catch (IllegalArgumentException expected) {
+            // ожидаемо
+        }
+    }
+
+    @Test
+    public void harderRules_lowerTheReachedLevel() {
+        SimulationStats easy = new GameSimulator(new GameRules(3, 5, GameSimulator.parseTimes("30/30/30/30/30")),
+                BotModel.NOVICE, GAMES, 3, 2, 1000).run();
+        SimulationStats hard = new GameSimulator(new GameRules(7, 2, GameSimulator.parseTimes("10/8/6/8/8")),
+                BotModel.NOVICE, GAMES, 3, 2, 1000).run();
+        assertTrue(easy.reachedLevel(3) > hard.reachedLevel(3));
+        assertTrue(easy.correctPerGame().mean() > hard.correctPerGame().mean());
+    }
+
+    @Test
+    public void metrics_countEveryStageWithoutChangingResults() {
+        RingBufferMetrics metrics = new RingBufferMetrics(1024);
+        SimulationStats plain = new GameSimulator(GameRules.DEFAULT, BotModel.AVERAGE, 2_000, 5, 2, 1000).run();
+        SimulationStats measured = new GameSimulator(GameRules.DEFAULT, BotModel.AVERAGE, 2_000, 5, 2, 1000, metrics)
+                .run();
+
+        assertEquals(plain.questions(), measured.questions());
+        assertEquals(plain.correct(), measured.correct());
+        assertEquals(measured.questions(), metrics.calls(GameMetrics.STAGE_GENERATE));
+        assertEquals(measured.correct(), metrics.calls(GameMetrics.STAGE_CORRECT_ANSWER));
+        assertEquals(measured.wrong() + measured.timeouts(), metrics.calls(GameMetrics.STAGE_WRONG_ANSWER));
+        assertEquals(measured.games() - measured.capped(), metrics.calls(GameMetrics.STAGE_GAME_OVER));
+        assertEquals(0, metrics.calls(GameMetrics.STAGE_START_TIMER));
+    }
+
+    private static BotModel constantBot(double accuracy, double millis) {
+        double[] acc = new double[LatencyStats.OP_COUNT];
+        double[] median = new double[LatencyStats.OP_COUNT];
+        Arrays.fill(acc, accuracy);
+        Arrays.fill(median, millis);
+        return new BotModel("const", acc, median, 0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.projectjavaflauwa.tools;
+
+import com.example.projectjavaflauwa.engine.GameSession;
+import com.example.projectjavaflauwa.engine.Question;
+import com.example.projectjavaflauwa.engine.QuestionEngine;
+import com.example.projectjavaflauwa.engine.QuestionPool;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Проверки офлайн-генератора рабочих листов.
+ */
+public class WorksheetGeneratorTest {
+
+    private static final long COUNT = QuestionEngine.CHUNK_SIZE * 3L + 17;
+
+    @Test
+    public void output_doesNotDependOnThreadCount() throws IOException {
+        Path single = Files.createTempFile("sheet", ".csv");
+        Path parallel = Files.createTempFile("sheet", ".csv");
+        try {
+            new WorksheetGenerator(COUNT, 2, 99L, WorksheetFormat.CSV, 1).writeTo(single);
+            new WorksheetGenerator(COUNT, 2, 99L, WorksheetFormat.CSV, 4).writeTo(parallel);
+            assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(parallel));
+
+            List<String> lines = Files.readAllLines(single, StandardCharsets.UTF_8);
+            assertEquals(COUNT + 1, lines.size());
+            assertEquals("number,level,type,question,answer", lines.get(0));
+        } finally {
+            Files.delete(single);
+            Files.delete(parallel);
+        }
+    }
+
+    @Test
+    public void binary_matchesPackedBatchGeneration() throws IOException {
+        Path file = Files.createTempFile("sheet", ".bin");
+        try {
+            new WorksheetGenerator(COUNT, 3, 5L, WorksheetFormat.BINARY, 3).writeTo(file);
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(WorksheetFormat.MAGIC, data.getInt());
+            assertEquals(WorksheetFormat.VERSION, data.getInt());
+            assertEquals(COUNT, data.getLong());
+            assertEquals(3, data.getInt());
+            assertEquals(5L, data.getLong());
+
+            QuestionPool expected = new QuestionPool((int) COUNT);
+            new QuestionEngine().fill(expected, (int) COUNT, 3, 5L);
+            Question fromFile = new Question();
+            Question fromPool = new Question();
+            for (int i = 0; i < COUNT; i++) {
+                QuestionPool.unpack(data, fromFile);
+                expected.read(i, fromPool);
+                assertEquals(fromPool.getText(), fromFile.getText());
+            }
+            assertFalse(data.hasRemaining());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void levelOutsideGame_isRejected() {
+        for (int level : new int[] {0, GameSession.MAX_LEVEL + 1}) {
+            try {
+                new WorksheetGenerator(10, level, 1, WorksheetFormat.TEXT, 1);
+                fail("Принят уровень " + level);
+            } catch (IllegalArgumentException expected) {
+                // ожидаемо
+            }
+        }
+    }
+}